@@ -0,0 +1,144 @@
+package benchmark;
+import entity.Entity;
+import entity.Player;
+import main.GameLog;
+import main.GameWorld;
+import monster.MON_greenSlime;
+import monster.MON_orc;
+import monster.MON_redSlime;
+import monster.MON_skeleton;
+
+import java.awt.*;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * The BenchWorlds class builds the reproducible worlds the benchmarks run against: a generated map
+ * of the requested size with a border of walls, a grid of pillars and seeded boxes, two players
+ * and a given number of monsters on free grass cells. Players are made invincible so a world can
+ * be stepped for a whole measurement iteration without a round ending.
+ */
+final class BenchWorlds {
+    static final long SEED = 42;
+    static final String[] MONSTER_TYPES = { "greenSlime", "redSlime", "orc", "skeleton" };
+
+    private static final PrintStream STDOUT = System.out;
+    private static final GameLog.Level LOG_LEVEL = GameLog.getLevel();
+
+    private BenchWorlds() { }
+
+    /**
+     * Creates a world of the given size ("16x12") with the given number of monsters of mixed types.
+     * @param mapSize
+     * @param monsterCount
+     * @param headless
+     * @return
+     */
+    static GameWorld create(String mapSize, int monsterCount, boolean headless) {
+        return create(mapSize, monsterCount, null, headless);
+    }
+
+    /**
+     * Creates a world of the given size with the given number of monsters, all of one type, or of
+     * mixed types when type is null.
+     * @param mapSize
+     * @param monsterCount
+     * @param type
+     * @param headless
+     * @return
+     */
+    static GameWorld create(String mapSize, int monsterCount, String type, boolean headless) {
+        String[] size = mapSize.split("x");
+        GameWorld world = new GameWorld(headless, Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+        Random rand = new Random(SEED);
+
+        generateMap(world, rand);
+        world.startMatch(2, SEED);
+        for (Player player : world.players) {
+            world.tileM.setTile(player.x / world.tileSize, player.y / world.tileSize, 0);
+            player.isInvincible = true; // without an expiry timer, so it never ends
+        }
+        spawnMonsters(world, monsterCount, type, rand);
+        return world;
+    }
+
+    /**
+     * Fills the map with walls around the border, pillars on every even cell and boxes on about a
+     * quarter of the remaining cells.
+     * @param world
+     * @param rand
+     */
+    private static void generateMap(GameWorld world, Random rand) {
+        world.boxes.clear();
+        for (int col = 0; col < world.maxScreenCol; col++) {
+            for (int row = 0; row < world.maxScreenRow; row++) {
+                boolean border = col == 0 || row == 0 || col == world.maxScreenCol - 1 || row == world.maxScreenRow - 1;
+                int tile;
+                if (border || (col % 2 == 0 && row % 2 == 0)) {
+                    tile = 1;
+                } else if (rand.nextInt(4) == 0) {
+                    tile = 2;
+                    world.boxes.add(new Point(col, row));
+                } else {
+                    tile = 0;
+                }
+                world.tileM.setTile(col, row, tile);
+            }
+        }
+    }
+
+    /**
+     * Replaces the default monsters with count monsters placed on random grass cells.
+     * @param world
+     * @param count
+     * @param type
+     * @param rand
+     */
+    static void spawnMonsters(GameWorld world, int count, String type, Random rand) {
+        world.monsters.clear();
+
+        for (int i = 0; i < count; i++) {
+            Entity monster = newMonster(world, type != null ? type : MONSTER_TYPES[i % MONSTER_TYPES.length]);
+            int col, row;
+            do {
+                col = rand.nextInt(world.maxScreenCol);
+                row = rand.nextInt(world.maxScreenRow);
+            } while (world.tileM.mapTileNum[col][row] != 0);
+            world.aSetter.spawnMonster(monster, col, row);
+        }
+    }
+
+    /**
+     * Creates a monster of the named type.
+     * @param world
+     * @param type
+     * @return
+     */
+    static Entity newMonster(GameWorld world, String type) {
+        return switch (type) {
+            case "greenSlime" -> new MON_greenSlime(world);
+            case "redSlime" -> new MON_redSlime(world);
+            case "orc" -> new MON_orc(world);
+            case "skeleton" -> new MON_skeleton(world);
+            default -> throw new IllegalArgumentException("Unknown monster type: " + type);
+        };
+    }
+
+    /**
+     * Turns the game event log off and discards everything else printed to standard output, so
+     * logging from the simulation does not end up in the measurements.
+     */
+    static void silenceConsole() {
+        GameLog.setLevel(GameLog.Level.OFF);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Restores standard output and the game event log after silenceConsole.
+     */
+    static void restoreConsole() {
+        System.setOut(STDOUT);
+        GameLog.setLevel(LOG_LEVEL);
+    }
+}
@@ -0,0 +1,76 @@
+package benchmark;
+import entity.Direction;
+import entity.Entity;
+import entity.Player;
+import main.CollisionChecker;
+import main.GameWorld;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the collision queries each entity runs every tick: tile collision for every player and
+ * monster, entity collision of every monster against the others, and canMove in all four
+ * directions for every monster. The world is not stepped, so every invocation sees the same state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CollisionBenchmark {
+    @Param({"16x12", "32x24", "64x48"})
+    String mapSize;
+
+    @Param({"4", "12", "20"})
+    int monsters;
+
+    GameWorld world;
+    CollisionChecker checker;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchWorlds.silenceConsole();
+        world = BenchWorlds.create(mapSize, monsters, true);
+        checker = world.cChecker;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { BenchWorlds.restoreConsole(); }
+
+    @Benchmark
+    public void checkTile(Blackhole bh) {
+        for (Player player : world.players) {
+            player.collisionOn = false;
+            checker.checkTile(player);
+            bh.consume(player.collisionOn);
+        }
+        for (int i = 0; i < world.monsters.size(); i++) {
+            Entity monster = world.monsters.get(i);
+            monster.collisionOn = false;
+            checker.checkTile(monster);
+            bh.consume(monster.collisionOn);
+        }
+    }
+
+    @Benchmark
+    public void checkEntity(Blackhole bh) {
+        for (int i = 0; i < world.monsters.size(); i++) {
+            Entity monster = world.monsters.get(i);
+            monster.collisionOn = false;
+            bh.consume(checker.checkEntity(monster, world.monsters));
+        }
+    }
+
+    @Benchmark
+    public void canMove(Blackhole bh) {
+        for (int i = 0; i < world.monsters.size(); i++) {
+            Entity monster = world.monsters.get(i);
+            for (Direction direction : Direction.ALL) {
+                bh.consume(checker.canMove(monster, direction));
+            }
+        }
+    }
+}
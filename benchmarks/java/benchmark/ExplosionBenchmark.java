@@ -0,0 +1,75 @@
+package benchmark;
+import entity.Entity;
+import entity.Player;
+import main.GameWorld;
+import object.OBJ_bomb;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures OBJ_bomb.explode for a chain of bombs laid two tiles apart on the open cells between the
+ * pillars, so every bomb is in range of its neighbours. Each invocation detonates the first bomb,
+ * which settles the whole chain, on a fresh set of bombs with the monsters restored to full health.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ExplosionBenchmark {
+    @Param({"32x24", "64x48"})
+    String mapSize;
+
+    @Param({"1", "8", "50"})
+    int chainLength;
+
+    @Param({"4", "20"})
+    int monsters;
+
+    GameWorld world;
+    OBJ_bomb[] chain;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchWorlds.silenceConsole();
+        world = BenchWorlds.create(mapSize, monsters, true);
+        for (int col = 1; col < world.maxScreenCol - 1; col++) {
+            for (int row = 1; row < world.maxScreenRow - 1; row++) {
+                if (world.tileM.mapTileNum[col][row] == 2) world.tileM.setTile(col, row, 0);
+            }
+        }
+        chain = new OBJ_bomb[chainLength];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { BenchWorlds.restoreConsole(); }
+
+    @Setup(Level.Invocation)
+    public void arm() {
+        world.objs.clear();
+        world.timers.clear(); // fuses of the previous invocation's bombs
+        Player owner = world.players[0];
+        int perRow = (world.maxScreenCol - 1) / 2;
+        for (int i = 0; i < chainLength; i++) {
+            int col = 1 + 2 * (i % perRow), row = 1 + 2 * (i / perRow);
+            chain[i] = new OBJ_bomb(world, owner, col * world.tileSize, row * world.tileSize);
+            world.objs.add(chain[i]);
+        }
+        for (int i = 0; i < world.monsters.size(); i++) {
+            Entity monster = world.monsters.get(i);
+            monster.currLife = monster.maxLife;
+            monster.hitByCurrentExplosion = false;
+        }
+        for (Player player : world.players) {
+            player.hitByCurrentExplosion = false;
+        }
+    }
+
+    @Benchmark
+    public OBJ_bomb[] explodeChain() {
+        chain[0].explode();
+        return chain;
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+import main.GameWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decision step of each monster type, setAction(), for a world full of monsters of
+ * that type. The monsters are not moved, so the cost reflects the AI itself rather than movement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MonsterAiBenchmark {
+    @Param({"greenSlime", "redSlime", "orc", "skeleton"})
+    String type;
+
+    @Param({"16x12", "32x24", "64x48"})
+    String mapSize;
+
+    @Param({"4", "12", "20"})
+    int monsters;
+
+    GameWorld world;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchWorlds.silenceConsole();
+        world = BenchWorlds.create(mapSize, monsters, type, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { BenchWorlds.restoreConsole(); }
+
+    @Benchmark
+    public GameWorld setAction() {
+        for (int i = 0; i < world.monsters.size(); i++) {
+            world.monsters.get(i).setAction();
+        }
+        return world;
+    }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+import main.GameWorld;
+import main.StateBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving and restoring the whole simulation state, which a RollbackSession does once per
+ * simulated tick and once per rollback. The world is played for a while before every iteration so
+ * it holds bombs, fire and pending timers as well as monsters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StateBenchmark {
+    @Param({"16x12", "32x24", "64x48"})
+    String mapSize;
+
+    @Param({"4", "20"})
+    int monsters;
+
+    GameWorld world;
+    StateBuffer buffer = new StateBuffer();
+
+    @Setup(Level.Trial)
+    public void silence() { BenchWorlds.silenceConsole(); }
+
+    @TearDown(Level.Trial)
+    public void restore() { BenchWorlds.restoreConsole(); }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = BenchWorlds.create(mapSize, monsters, true);
+        for (int i = 0; i < 120; i++) {
+            if (i % 40 == 0 && world.players[0] != null) world.players[0].placeBomb();
+            world.update();
+        }
+        world.saveState(buffer);
+    }
+
+    @Benchmark
+    public int save() {
+        world.saveState(buffer);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public long load() {
+        world.loadState(buffer);
+        return world.tick;
+    }
+}
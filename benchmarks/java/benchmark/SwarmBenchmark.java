@@ -0,0 +1,52 @@
+package benchmark;
+import main.GameWorld;
+import main.MonsterSwarm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one MonsterSwarm.update() for thousands of wandering monsters stored in parallel arrays,
+ * the layout meant for maps far beyond what the object-per-monster entities handle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SwarmBenchmark {
+    @Param({"64x48"})
+    String mapSize;
+
+    @Param({"1000", "5000", "20000"})
+    int members;
+
+    GameWorld world;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        BenchWorlds.silenceConsole();
+        world = BenchWorlds.create(mapSize, 0, true);
+        Random rand = new Random(BenchWorlds.SEED);
+        MonsterSwarm.Kind[] kinds = MonsterSwarm.Kind.values();
+        for (int i = 0; i < members; i++) {
+            int col, row;
+            do {
+                col = rand.nextInt(world.maxScreenCol);
+                row = rand.nextInt(world.maxScreenRow);
+            } while (world.tileM.mapTileNum[col][row] != 0);
+            world.swarm.spawn(kinds[i % kinds.length], col * world.tileSize, row * world.tileSize);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() { BenchWorlds.restoreConsole(); }
+
+    @Benchmark
+    public int update() {
+        world.swarm.update();
+        return world.swarm.size();
+    }
+}
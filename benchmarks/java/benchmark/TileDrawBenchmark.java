@@ -0,0 +1,80 @@
+package benchmark;
+import main.GameWorld;
+import org.openjdk.jmh.annotations.*;
+import tile.TileLayer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures TileLayer.draw into an off-screen BufferedImage of the world's size, from a copy of the map
+ * as a RenderFrame carries it. changedTiles controls how many map cells change between two frames:
+ * none (a plain blit of the cached layer), a few (destroyed boxes being patched in) or all of them
+ * (a full repaint, as after a map load).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TileDrawBenchmark {
+    @Param({"16x12", "32x24", "64x48"})
+    String mapSize;
+
+    @Param({"0", "8", "all"})
+    String changedTiles;
+
+    GameWorld world;
+    TileLayer layer;
+    int[] tiles;
+    long version = 0;
+    BufferedImage frame;
+    Graphics2D g2;
+    int changes;
+    int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchWorlds.silenceConsole();
+        world = BenchWorlds.create(mapSize, 0, false);
+        frame = new BufferedImage(world.screenWidth, world.screenHeight, BufferedImage.TYPE_INT_RGB);
+        g2 = frame.createGraphics();
+        changes = changedTiles.equals("all") ? -1 : Integer.parseInt(changedTiles);
+        BufferedImage[] images = new BufferedImage[world.tileM.tile.length];
+        for (int i = 0; i < images.length; i++) {
+            if (world.tileM.tile[i] != null) images[i] = world.tileM.tile[i].image;
+        }
+        layer = new TileLayer(world.maxScreenCol, world.maxScreenRow, world.tileSize, images);
+        tiles = new int[world.maxScreenCol * world.maxScreenRow];
+        for (int col = 0; col < world.maxScreenCol; col++) {
+            System.arraycopy(world.tileM.mapTileNum[col], 0, tiles, col * world.maxScreenRow, world.maxScreenRow);
+        }
+        layer.draw(g2, tiles, version);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2.dispose();
+        BenchWorlds.restoreConsole();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        if (changes < 0) {
+            layer.invalidateAll();
+        } else {
+            // toggle interior cells between grass and box, walking across the map
+            for (int i = 0; i < changes; i++) {
+                int cols = world.maxScreenCol - 2, rows = world.maxScreenRow - 2;
+                cursor = (cursor + 1) % (cols * rows);
+                int cell = (1 + cursor % cols) * world.maxScreenRow + 1 + cursor / cols;
+                if (tiles[cell] != 1) tiles[cell] = tiles[cell] == 0 ? 2 : 0;
+            }
+            if (changes > 0) version++;
+        }
+        layer.draw(g2, tiles, version);
+        return frame;
+    }
+}
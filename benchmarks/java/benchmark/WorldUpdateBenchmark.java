@@ -0,0 +1,42 @@
+package benchmark;
+import main.GameWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one full simulation tick, GameWorld.update(), which is what the game loop calls 60 times
+ * per second. The world is rebuilt before every iteration so each one starts from the same state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class WorldUpdateBenchmark {
+    @Param({"16x12", "32x24", "64x48"})
+    String mapSize;
+
+    @Param({"4", "12", "20"})
+    int monsters;
+
+    GameWorld world;
+
+    @Setup(Level.Trial)
+    public void silence() { BenchWorlds.silenceConsole(); }
+
+    @TearDown(Level.Trial)
+    public void restore() { BenchWorlds.restoreConsole(); }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = BenchWorlds.create(mapSize, monsters, true);
+    }
+
+    @Benchmark
+    public long update() {
+        world.update();
+        return world.tick;
+    }
+}
@@ -0,0 +1,34 @@
+package entity;
+
+/**
+ * The four directions an entity can face and move in, with the unit step each one takes on the
+ * tile grid. The ordinals follow the order used by the DangerMap's rays (up, down, left, right)
+ * and index the entity sprite arrays, so lookups are array reads instead of string comparisons.
+ */
+public enum Direction {
+    UP(0, -1), DOWN(0, 1), LEFT(-1, 0), RIGHT(1, 0);
+
+    // shared copy of values(), which allocates a new array on every call
+    public static final Direction[] ALL = values();
+    public static final int COUNT = ALL.length;
+
+    public final int dx, dy;
+
+    Direction(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * Returns the direction pointing the other way.
+     * @return
+     */
+    public Direction opposite() {
+        return switch (this) {
+            case UP -> DOWN;
+            case DOWN -> UP;
+            case LEFT -> RIGHT;
+            case RIGHT -> LEFT;
+        };
+    }
+}
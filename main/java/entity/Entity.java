@@ -1,10 +1,11 @@
 package entity;
-import main.GamePanel;
-import main.UtilityTool;
-import javax.imageio.ImageIO;
+import main.GameWorld;
+import main.RenderFrame;
+import main.SpatialGrid;
+import main.SpriteCache;
+import main.StateBuffer;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 
 /**
  * This class represents an Entity in the game.
@@ -12,14 +13,15 @@ import java.io.IOException;
  * It contains common properties like position, speed, images for different directions, and collision status.
  * It also contains methods for updating the entity's state and drawing it on the game panel.
  */
-public class Entity {
-    protected GamePanel gp;
+public class Entity implements SpatialGrid.Member, StateBuffer.Saveable {
+    protected GameWorld gp;
     
     public int x,y;
     public int speed;
     
-    public BufferedImage up1, up2, down1, down2, left1, left2, right1, right2; // it describes an Image with an accesible buffer if image data.(we use this to store our image files)
-    public String direction = "down";
+    // two animation frames per direction, indexed by direction ordinal * 2 + (spriteNum - 1)
+    private final BufferedImage[] sprites = new BufferedImage[Direction.COUNT * 2];
+    public Direction direction = Direction.DOWN;
     
     public int spriteCounter = 0;
     public int spriteNum = 1;
@@ -43,13 +45,16 @@ public class Entity {
     public int maxLife;
     public int currLife;
 
+    // bucket in the world's spatial index, maintained by the SpatialGrid
+    private int gridCell = SpatialGrid.NO_CELL;
+
     /**
-     * Constructor Entity(GamePanel gp)
+     * Constructor Entity(GameWorld gp)
      * Initializes a new entity with a reference to the game panel for accessing game-wide
      * properties and methods.
      * @param gp the gamepanel parameter
      */
-    public Entity(GamePanel gp) {
+    public Entity(GameWorld gp) {
         this.gp = gp;
     }
 
@@ -81,12 +86,8 @@ public class Entity {
 
         // if collision is false, player can move
         if (!collisionOn) {
-            switch (direction) {
-                case "up"    -> y -= speed;
-                case "down"  -> y += speed;
-                case "left"  -> x -= speed;
-                case "right" -> x += speed;
-            }
+            x += direction.dx * speed;
+            y += direction.dy * speed;
         }
 
         spriteCounter++;
@@ -100,51 +101,93 @@ public class Entity {
     }
 
     /**
-     * Determines and draws the current sprite image based on the entity's direction and
-     * animation state.
-     * @param g2 the Graphics2D object to draw the entity's sprite
+     * Determines the current sprite image based on the entity's direction and animation state
+     * and adds it to the frame.
+     * @param frame the RenderFrame to draw the entity's sprite into
      */
-    public void draw(Graphics2D g2){
-
-        BufferedImage image = null;
-
-        switch (direction) {
-            case "up" -> {
-                if (spriteNum == 1) { image = up1; }
-                if (spriteNum == 2) { image = up2; }
-            }
-            case "down" -> {
-                if (spriteNum == 1) { image = down1; }
-                if (spriteNum == 2) { image = down2; }
-            }
-            case "left" -> {
-                if (spriteNum == 1) { image = left1; }
-                if (spriteNum == 2) { image = left2; }
-            }
-            case "right" -> {
-                if (spriteNum == 1) { image = right1; }
-                if (spriteNum == 2) { image = right2; }
-            }
-        }
-        g2.drawImage(image, x, y, gp.tileSize, gp.tileSize, null);
+    public void draw(RenderFrame frame){
+        frame.addSprite(getSprite(direction, spriteNum), x, y, gp.tileSize, gp.tileSize, false);
+    }
+
+    /**
+     * Returns the animation frame (1 or 2) of the entity's sprite facing the given direction.
+     * @param direction
+     * @param spriteNum
+     * @return
+     */
+    public BufferedImage getSprite(Direction direction, int spriteNum) {
+        return sprites[direction.ordinal() * 2 + spriteNum - 1];
     }
 
     /**
-     * Loads, scales, and returns an image from a given path to use as the entity's sprite.
+     * Sets both animation frames of the entity's sprite facing the given direction.
+     * @param direction
+     * @param first
+     * @param second
+     */
+    public void setSprites(Direction direction, BufferedImage first, BufferedImage second) {
+        sprites[direction.ordinal() * 2] = first;
+        sprites[direction.ordinal() * 2 + 1] = second;
+    }
+
+    /**
+     * Saves the entity's position, movement, animation and life. Subclasses with more state save
+     * it after this.
+     * @param out
+     */
+    @Override
+    public void saveState(StateBuffer out) {
+        out.putInt(x);
+        out.putInt(y);
+        out.putInt(speed);
+        out.putInt(direction.ordinal());
+        out.putInt(spriteCounter);
+        out.putInt(spriteNum);
+        out.putBoolean(collisionOn);
+        out.putInt(actionLockCounter);
+        out.putBoolean(collision);
+        out.putBoolean(hitByCurrentExplosion);
+        out.putBoolean(invincible);
+        out.putInt(maxLife);
+        out.putInt(currLife);
+    }
+
+    @Override
+    public void loadState(StateBuffer in) {
+        x = in.getInt();
+        y = in.getInt();
+        speed = in.getInt();
+        direction = Direction.ALL[in.getInt()];
+        spriteCounter = in.getInt();
+        spriteNum = in.getInt();
+        collisionOn = in.getBoolean();
+        actionLockCounter = in.getInt();
+        collision = in.getBoolean();
+        hitByCurrentExplosion = in.getBoolean();
+        invincible = in.getBoolean();
+        maxLife = in.getInt();
+        currLife = in.getInt();
+    }
+
+    @Override
+    public int getX() { return x; }
+
+    @Override
+    public int getY() { return y; }
+
+    @Override
+    public int getGridCell() { return gridCell; }
+
+    @Override
+    public void setGridCell(int cell) { gridCell = cell; }
+
+    /**
+     * Returns the shared, pre-scaled sprite for the given path to use as the entity's sprite.
      * @param imagePath
      * @return the image to be used as the entity's sprite
      */
     public BufferedImage setup(String imagePath) {
-
-        UtilityTool uTool = new UtilityTool();
-        BufferedImage image = null;
-
-        try {
-            image = ImageIO.read(getClass().getResourceAsStream(imagePath + ".png"));
-            image = uTool.scaleImage(image, gp.tileSize, gp.tileSize);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return image;
+        if (gp.headless) return null;
+        return SpriteCache.get(imagePath, gp.tileSize, gp.tileSize);
     }
-}
\ No newline at end of file
+}
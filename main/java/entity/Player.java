@@ -1,13 +1,17 @@
 package entity;
-import main.GamePanel;
-import main.KeyHandler;
+import main.CollisionChecker;
+import main.GameLog;
+import main.GameWorld;
+import main.InputSource;
+import main.RenderFrame;
+import main.SpriteCache;
+import main.StateBuffer;
+import main.TimerWheel;
 import object.OBJ_bomb;
 import object.SuperObject;
 import powerups.PowerUp;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -19,14 +23,16 @@ import java.awt.*;
  * The Player class includes properties for managing player-specific behaviors such as movement,
  * collision checks, power-up interactions, and bomb placement.
  */
-public class Player extends Entity {
-    KeyHandler keyH;
+public class Player extends Entity implements TimerWheel.Listener {
+    // kinds of the player's timers in the world's TimerWheel
+    private static final int INVINCIBILITY_END = 0, INVINCIBILITY_BLINK = 1, GHOST_END = 2, GHOST_BLINK = 3;
+
+    // where the player's input comes from, polled once per tick; null for a player nobody controls
+    InputSource controls;
     public int playerNum;
     public int bombLimit;
     public int bombCount;
     public int obstacleLimit = 0;
-    public int invincibilityDuration = 0;
-    public int ghostDuration = 0;
     public boolean hasDetonator = false;
     public boolean isInvincible = false;
     public boolean isGhost = false;
@@ -39,27 +45,29 @@ public class Player extends Entity {
 
     public Point lastPosition;
 
+    // pending timers of the invincibility and ghost effects
+    private long invincibilityTimer = TimerWheel.NONE, invincibilityBlinkTimer = TimerWheel.NONE;
+    private long ghostTimer = TimerWheel.NONE, ghostBlinkTimer = TimerWheel.NONE;
+
     /**
      * Initializes a player with a specific number within a game, linking to the game's
      * control handling system. Sets up player-specific images and default properties.
      * @param gp
-     * @param keyH
+     * @param controls
      * @param playerNum
      */
-    public Player(GamePanel gp, KeyHandler keyH, int playerNum) {
+    public Player(GameWorld gp, InputSource controls, int playerNum) {
         super(gp);
-        this.keyH = keyH;
+        this.controls = controls;
         this.playerNum = playerNum;
 
         solidArea = new Rectangle(10, 18, 28, 28);
         solidAreaDefaultX = solidArea.x;
         solidAreaDefaultY = solidArea.y;
 
-        try {
-            invincibilitySprite = ImageIO.read(getClass().getResourceAsStream("/powerups/invincibility.png"));
-            ghostSprite = ImageIO.read(getClass().getResourceAsStream("/powerups/ghost.png"));
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (!gp.headless) {
+            invincibilitySprite = SpriteCache.get("/powerups/invincibility");
+            ghostSprite = SpriteCache.get("/powerups/ghost");
         }
 
         setDefaultValues();
@@ -87,7 +95,7 @@ public class Player extends Entity {
         }
 
         speed = 4;
-        direction = "down";
+        direction = Direction.DOWN;
         maxLife = 3;
         currLife = maxLife;
         bombLimit = 1;
@@ -106,14 +114,10 @@ public class Player extends Entity {
             default -> "red";
         };
 
-        up1 = setup("/player/" + color + "_up1");
-        up2 = setup("/player/" + color + "_up2");
-        down1 = setup("/player/" + color + "_down1");
-        down2 = setup("/player/" + color + "_down2");
-        left1 = setup("/player/" + color + "_left1");
-        left2 = setup("/player/" + color + "_left2");
-        right1 = setup("/player/" + color + "_right1");
-        right2 = setup("/player/" + color + "_right2");
+        setSprites(Direction.UP, setup("/player/" + color + "_up1"), setup("/player/" + color + "_up2"));
+        setSprites(Direction.DOWN, setup("/player/" + color + "_down1"), setup("/player/" + color + "_down2"));
+        setSprites(Direction.LEFT, setup("/player/" + color + "_left1"), setup("/player/" + color + "_left2"));
+        setSprites(Direction.RIGHT, setup("/player/" + color + "_right1"), setup("/player/" + color + "_right2"));
     }
 
     /**
@@ -122,7 +126,7 @@ public class Player extends Entity {
      */
     public void placeBomb() {
         if (bombCount < bombLimit) {
-            OBJ_bomb newBomb = new OBJ_bomb(gp, this, x, y);
+            OBJ_bomb newBomb = gp.bombPool.acquire(this, x, y);
             bombsPlaced.add(newBomb);
             gp.objs.add(newBomb);
             bombCount++;
@@ -148,14 +152,14 @@ public class Player extends Entity {
     public void placeObstacle() {
         if (obstaclesPlaced.size() < obstacleLimit && lastPosition != null) {
             if (gp.tileM.mapTileNum[lastPosition.x][lastPosition.y] == 0 && !gp.isTileOccupied(lastPosition.x, lastPosition.y, this)) {
-                obstaclesPlaced.add(lastPosition);
-                gp.tileM.mapTileNum[lastPosition.x][lastPosition.y] = 2; // Marking the tile as an obstacle
-                System.out.println("Obstacle placed at: " + lastPosition);
+                obstaclesPlaced.add(new Point(lastPosition));
+                gp.tileM.setTile(lastPosition.x, lastPosition.y, 2); // Marking the tile as an obstacle
+                GameLog.log(gp.tick, GameLog.Event.OBSTACLE_PLACED, lastPosition.x, lastPosition.y);
             } else {
-                System.out.println("Failed to place obstacle at: " + lastPosition + " | Tile occupied or not empty.");
+                GameLog.log(gp.tick, GameLog.Event.OBSTACLE_BLOCKED, lastPosition.x, lastPosition.y);
             }
         } else {
-            System.out.println("Obstacle limit reached: " + obstacleLimit);
+            GameLog.log(gp.tick, GameLog.Event.OBSTACLE_LIMIT, obstacleLimit);
         }
     }
 
@@ -165,8 +169,12 @@ public class Player extends Entity {
      * @param duration
      */
     public void makeInvincible(int duration) {
+        gp.timers.cancel(invincibilityTimer);
+        gp.timers.cancel(invincibilityBlinkTimer);
         isInvincible = true;
-        invincibilityDuration = duration;
+        long end = gp.tick + duration;
+        invincibilityTimer = gp.timers.schedule(end, this, INVINCIBILITY_END);
+        invincibilityBlinkTimer = scheduleFirstBlink(end, duration, INVINCIBILITY_BLINK);
     }
 
     /**
@@ -174,29 +182,105 @@ public class Player extends Entity {
      * invincibility.
      */
     public void endInvincibility() {
+        gp.timers.cancel(invincibilityTimer);
+        gp.timers.cancel(invincibilityBlinkTimer);
+        invincibilityTimer = invincibilityBlinkTimer = TimerWheel.NONE;
         isInvincible = false;
         isBlinking = false;
     }
 
+    /**
+     * Returns the number of ticks left until the player's invincibility runs out, or 0 if the
+     * player is not invincible or the invincibility does not run out.
+     * @return
+     */
+    public int invincibilityLeft() {
+        long end = gp.timers.dueTick(invincibilityTimer);
+        return end < 0 ? 0 : (int) (end - gp.tick);
+    }
+
     /**
      * Makes the player a ghost, allowing them to move without collisions for a set
      * duration.
      * @param duration
      */
     public void enableGhost(int duration) {
+        gp.timers.cancel(ghostTimer);
+        gp.timers.cancel(ghostBlinkTimer);
         isGhost = true;
         collisionOn = false;
-        ghostDuration = duration;
+        long end = gp.tick + duration;
+        ghostTimer = gp.timers.schedule(end, this, GHOST_END);
+        ghostBlinkTimer = scheduleFirstBlink(end, duration, GHOST_BLINK);
     }
 
     /**
      * Disables the ghost state, restoring normal collision behavior.
      */
     public void disableGhost() {
+        gp.timers.cancel(ghostTimer);
+        gp.timers.cancel(ghostBlinkTimer);
+        ghostTimer = ghostBlinkTimer = TimerWheel.NONE;
         isGhost = false;
         collisionOn = true;
     }
 
+    /**
+     * Schedules the first blink of an effect ending at the given tick. The player blinks every third
+     * of a second during the last two seconds of the effect.
+     * @param end
+     * @param duration
+     * @param kind
+     * @return the blink timer's handle, or NONE if the effect is too short to blink
+     */
+    private long scheduleFirstBlink(long end, int duration, int kind) {
+        int interval = gp.FPS / 3;
+        int first = Math.min(2 * gp.FPS, duration - 1) / interval * interval;
+        if (first <= 0) return TimerWheel.NONE;
+        return gp.timers.schedule(end - first, this, kind);
+    }
+
+    /**
+     * Called by the world's TimerWheel when one of the player's effects ends or blinks.
+     * @param kind
+     */
+    @Override
+    public void onTimer(int kind) {
+        switch (kind) {
+            case INVINCIBILITY_END -> {
+                invincibilityTimer = TimerWheel.NONE;
+                endInvincibility();
+            }
+            case GHOST_END -> {
+                ghostTimer = TimerWheel.NONE;
+                disableGhost();
+            }
+            case INVINCIBILITY_BLINK -> invincibilityBlinkTimer = blink(invincibilityTimer, kind);
+            case GHOST_BLINK -> ghostBlinkTimer = blink(ghostTimer, kind);
+        }
+    }
+
+    /**
+     * Toggles the blinking effect and schedules the next toggle, unless the effect ends first.
+     * @param endTimer
+     * @param kind
+     * @return the next blink timer's handle, or NONE
+     */
+    private long blink(long endTimer, int kind) {
+        isBlinking = !isBlinking;
+        long next = gp.tick + gp.FPS / 3;
+        return next < gp.timers.dueTick(endTimer) ? gp.timers.schedule(next, this, kind) : TimerWheel.NONE;
+    }
+
+    /**
+     * Forgets a bomb that has burnt out, so a later detonation cannot reach it once it is
+     * reused by the world's BombPool.
+     * @param bomb
+     */
+    public void forgetBomb(OBJ_bomb bomb) {
+        bombsPlaced.remove(bomb);
+    }
+
     /**
      * Decreases the count of active bombs when one explodes, managing the player's
      * capacity to place more bombs.
@@ -210,12 +294,11 @@ public class Player extends Entity {
      * managing bomb collision avoidance rules.
      */
     public void updateBombInteraction() {
-        for (SuperObject obj : gp.objs) {
-            if (obj instanceof OBJ_bomb bomb) {
+        for (int i = 0; i < gp.objs.size(); i++) {
+            if (gp.objs.get(i) instanceof OBJ_bomb bomb) {
                 if (bomb.owner == this) {
-                    Rectangle playerRect = new Rectangle(x + solidArea.x, y + solidArea.y, solidArea.width, solidArea.height);
-                    Rectangle bombRect = new Rectangle(bomb.x + bomb.solidArea.x, bomb.y + bomb.solidArea.y, bomb.solidArea.width, bomb.solidArea.height);
-                    if (!playerRect.intersects(bombRect)) {
+                    if (!CollisionChecker.intersects(x + solidArea.x, y + solidArea.y, solidArea.width, solidArea.height,
+                            bomb.x + bomb.solidArea.x, bomb.y + bomb.solidArea.y, bomb.solidArea.width, bomb.solidArea.height)) {
                         bomb.ignoreCollisionWithOwner = false;
                     }
                 }
@@ -223,50 +306,46 @@ public class Player extends Entity {
         }
     }
 
+    /**
+     * Reads this tick's input from the player's controls and hands it to the world's recorder, if
+     * the match is being recorded.
+     * @return
+     */
+    int pollInput() {
+        int input = controls != null ? controls.poll(playerNum) : 0;
+        if (gp.recorder != null) gp.recorder.record(playerNum, input);
+        return input;
+    }
+
     /**
      * Overrides the Entity.update() method to incorporate player-specific controls and
      * behaviors such as movement handling based on key inputs, collision checks, and
      * power-up interactions.
      */
     public void update() {
-        boolean up = false, down = false, left = false, right = false;
+        int input = pollInput();
+        if ((input & InputSource.BOMB) != 0) placeBomb();
+        if ((input & InputSource.DETONATE) != 0) detonateBombs();
+        if ((input & InputSource.OBSTACLE) != 0) placeObstacle();
 
-        switch (playerNum) {
-            case 1 -> {
-                up    = keyH.upPressed;
-                down  = keyH.downPressed;
-                left  = keyH.leftPressed;
-                right = keyH.rightPressed;
-            }
-            case 2 -> {
-                up    = keyH.upPressed2;
-                down  = keyH.downPressed2;
-                left  = keyH.leftPressed2;
-                right = keyH.rightPressed2;
-            }
-            case 3 -> {
-                up    = keyH.upPressed3;
-                down  = keyH.downPressed3;
-                left  = keyH.leftPressed3;
-                right = keyH.rightPressed3;
-            }
-        }
+        boolean up = (input & InputSource.UP) != 0, down = (input & InputSource.DOWN) != 0;
+        boolean left = (input & InputSource.LEFT) != 0, right = (input & InputSource.RIGHT) != 0;
 
         if (up || down || left || right) {
             int newX = x, newY = y;
 
             if (up) {
                 newY -= speed;
-                direction = "up";
+                direction = Direction.UP;
             } else if (down) {
                 newY += speed;
-                direction = "down";
+                direction = Direction.DOWN;
             } else if (left) {
                 newX -= speed;
-                direction = "left";
+                direction = Direction.LEFT;
             } else { // right
                 newX += speed;
-                direction = "right";
+                direction = Direction.RIGHT;
             }
 
             collisionOn = false;
@@ -290,7 +369,6 @@ public class Player extends Entity {
             if (currLife <= 0) return;
 
             updateBombInteraction();
-            updateGhost();
         }
 
         int powerUpIndex = gp.cChecker.checkPowerUpCollision(this);
@@ -298,20 +376,19 @@ public class Player extends Entity {
             pickUpPowerUp(powerUpIndex);
         }
 
-        for (int i = 0; i < gp.monsters.length; i++) {
-            Entity monster = gp.monsters[i];
-            if (monster == null) continue;
-
-            Rectangle monsterArea = new Rectangle(monster.x, monster.y, monster.solidArea.width, monster.solidArea.height);
-            Rectangle playerArea = new Rectangle(x, y, solidArea.width, solidArea.height);
-            if (playerArea.intersects(monsterArea)) {
-                contactMonster(i);
+        List<Entity> monsters = gp.cChecker.monstersNear(x, y, solidArea.width, solidArea.height);
+        for (int i = 0; i < monsters.size(); i++) {
+            Entity monster = monsters.get(i);
+            if (CollisionChecker.intersects(x, y, solidArea.width, solidArea.height, monster.x, monster.y, monster.solidArea.width, monster.solidArea.height)) {
+                contactMonster(monster);
             }
         }
+        if (gp.swarm.touching(x, y, solidArea.width, solidArea.height) >= 0) {
+            contactSwarm();
+        }
 
-        updateInvincibility();
-
-        lastPosition = new Point(x / gp.tileSize, y / gp.tileSize);
+        if (lastPosition == null) lastPosition = new Point();
+        lastPosition.setLocation(x / gp.tileSize, y / gp.tileSize);
     }
 
     /**
@@ -320,6 +397,7 @@ public class Player extends Entity {
      */
     public void pickUpPowerUp(int index) {
         PowerUp powerUp = gp.powerUps.get(index);
+        if (gp.stats != null) gp.stats.powerUpPicked(powerUp);
         powerUp.activate(this);  // Activate the power-up effects
         gp.powerUps.remove(index);  // Remove the power-up from the game
     }
@@ -335,93 +413,111 @@ public class Player extends Entity {
     /**
      * Handles interactions with monsters, setting the player's life to zero if they collide
      * with a monster while not invincible.
-     * @param i
+     * @param monster
      */
-    public void contactMonster(int i) {
-        if (i != 999 && !isInvincible) {
-            currLife = 0;
-            invincible = true;
-        }
+    public void contactMonster(Entity monster) {
+        if (monster != null) contactSwarm();
     }
 
     /**
-     * Manages the countdown of the player's invincibility duration and blinking effect as it
-     * nears expiration.
+     * Handles contact with a member of the world's MonsterSwarm, which is deadly in the same way
+     * as contact with a monster entity.
      */
-    public void updateInvincibility() {
-        if (isInvincible) {
-            invincibilityDuration--;
-            if (invincibilityDuration <= 0) {
-                endInvincibility();
-            } else if (invincibilityDuration <= 2 * gp.FPS) {
-                if (invincibilityDuration % (gp.FPS / 3) == 0) {
-                    isBlinking = !isBlinking;
-                }
-            }
+    public void contactSwarm() {
+        if (!isInvincible) {
+            if (currLife > 0 && gp.stats != null) gp.stats.playerKilled(this, null);
+            currLife = 0;
+            invincible = true;
         }
     }
 
     /**
-     * Manages the countdown and potential deactivation of the ghost mode, including the
-     * blinking effect as it nears expiration.
+     * Saves the player's state on top of the entity's: limits, power-up effects with their timers,
+     * and the bombs and obstacles the player has placed.
+     * @param out
      */
-    public void updateGhost() {
-        if (isGhost) {
-            ghostDuration--;
-            if (ghostDuration <= 0) {
-                disableGhost();
-            } else if (ghostDuration <= 2 * gp.FPS) {
-                if (ghostDuration % (gp.FPS / 3) == 0) {
-                    isBlinking = !isBlinking;
-                }
-            }
+    @Override
+    public void saveState(StateBuffer out) {
+        super.saveState(out);
+        out.putInt(bombLimit);
+        out.putInt(bombCount);
+        out.putInt(obstacleLimit);
+        out.putBoolean(hasDetonator);
+        out.putBoolean(isInvincible);
+        out.putBoolean(isGhost);
+        out.putBoolean(isBlinking);
+        out.putInt(bombBlastRadius);
+        out.putLong(invincibilityTimer);
+        out.putLong(invincibilityBlinkTimer);
+        out.putLong(ghostTimer);
+        out.putLong(ghostBlinkTimer);
+
+        // the placed obstacles are never changed after they are added, so they are kept by reference
+        out.putInt(obstaclesPlaced.size());
+        for (int i = 0; i < obstaclesPlaced.size(); i++) out.putRef(obstaclesPlaced.get(i));
+        out.putInt(bombsPlaced.size());
+        for (int i = 0; i < bombsPlaced.size(); i++) out.putRef(bombsPlaced.get(i));
+        out.putRef(lastPosition);
+        if (lastPosition != null) {
+            out.putInt(lastPosition.x);
+            out.putInt(lastPosition.y);
         }
     }
 
+    @Override
+    public void loadState(StateBuffer in) {
+        super.loadState(in);
+        bombLimit = in.getInt();
+        bombCount = in.getInt();
+        obstacleLimit = in.getInt();
+        hasDetonator = in.getBoolean();
+        isInvincible = in.getBoolean();
+        isGhost = in.getBoolean();
+        isBlinking = in.getBoolean();
+        bombBlastRadius = in.getInt();
+        invincibilityTimer = in.getLong();
+        invincibilityBlinkTimer = in.getLong();
+        ghostTimer = in.getLong();
+        ghostBlinkTimer = in.getLong();
+
+        obstaclesPlaced.clear();
+        for (int i = in.getInt(); i > 0; i--) obstaclesPlaced.add(in.getRef());
+        bombsPlaced.clear();
+        for (int i = in.getInt(); i > 0; i--) bombsPlaced.add(in.getRef());
+        lastPosition = in.getRef();
+        if (lastPosition != null) lastPosition.setLocation(in.getInt(), in.getInt());
+    }
+
     /**
      * Extends the drawing capabilities of Entity.draw() to incorporate visual effects related
      * to invincibility and ghost states, including semi-transparency and positional
      * adjustments based on overlapping effects.
-     * @param g2 the Graphics2D object to draw the entity's sprite
+     * @param frame the RenderFrame to draw the entity's sprite into
      */
     @Override
-    public void draw(Graphics2D g2) {
-        BufferedImage currentSprite = image;
-
+    public void draw(RenderFrame frame) {
         int offset = 0;
 
         if (isInvincible) {
-            currentSprite = invincibilitySprite;
-
             if (isGhost) {
                 offset = 8;
             }
 
-            if (isBlinking) {
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
-            }
-
-            g2.drawImage(currentSprite, x - 10 + offset, y, null);
+            frame.addSprite(invincibilitySprite, x - 10 + offset, y,
+                    RenderFrame.NATURAL_SIZE, RenderFrame.NATURAL_SIZE, isBlinking);
         }
 
         if (isGhost) {
-            currentSprite = ghostSprite;
-
             if (isInvincible) {
                 offset = -8;
             }
 
-            if (isBlinking) {
-                g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
-            }
-
-            g2.drawImage(currentSprite, x - 10 + offset, y, null);
+            frame.addSprite(ghostSprite, x - 10 + offset, y,
+                    RenderFrame.NATURAL_SIZE, RenderFrame.NATURAL_SIZE, isBlinking);
         }
 
-        if ((isInvincible && isBlinking) || (isGhost && isBlinking)) {
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
-        } else {
-            super.draw(g2);
+        if (!((isInvincible && isBlinking) || (isGhost && isBlinking))) {
+            super.draw(frame);
         }
     }
 }
\ No newline at end of file
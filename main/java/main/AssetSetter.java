@@ -1,4 +1,5 @@
 package main;
+import entity.Entity;
 import monster.MON_greenSlime;
 import monster.MON_orc;
 import monster.MON_redSlime;
@@ -7,7 +8,6 @@ import object.OBJ_ghost;
 import powerups.*;
 
 import java.awt.*;
-import java.util.Random;
 
 /**
  * AssetSetter class is responsible for setting up game assets such as monsters, ghosts, and
@@ -15,14 +15,14 @@ import java.util.Random;
  * different types of monsters, and randomly distributes various types of power-ups in available
  */
 public class AssetSetter {
-    GamePanel gp;
+    GameWorld gp;
 
     /**
-     * Initializes an instance of AssetSetter with a reference to the GamePanel object to
+     * Initializes an instance of AssetSetter with a reference to the GameWorld object to
      * access and manipulate game elements.
      * @param gp
      */
-    public AssetSetter(GamePanel gp) { this.gp = gp; }
+    public AssetSetter(GameWorld gp) { this.gp = gp; }
 
     /**
      * Places ghost objects at predefined positions on the game map. This method
@@ -41,36 +41,38 @@ public class AssetSetter {
 
     /**
      * Spawns different types of monsters at specific locations on the game map. This
-     * method sets up an array of monsters, including red slime, green slime, orc, and
-     * skeleton, by positioning them using the game panel's tile size.
+     * method registers red slime, green slime, orc, and skeleton monsters, positioning
+     * them using the game panel's tile size.
      */
     public void setMonster() {
-        gp.monsters[0] = new MON_redSlime(gp);
-        gp.monsters[0].x = gp.tileSize;
-        gp.monsters[0].y = 10 * gp.tileSize;
-
-        gp.monsters[1] = new MON_greenSlime(gp);
-        gp.monsters[1].x = 14 * gp.tileSize;
-        gp.monsters[1].y = 2 * gp.tileSize;
-
-        gp.monsters[2] = new MON_orc(gp);
-        gp.monsters[2].x = 3 * gp.tileSize;
-        gp.monsters[2].y = 2 * gp.tileSize;
+        spawnMonster(new MON_redSlime(gp), 1, 10);
+        spawnMonster(new MON_greenSlime(gp), 14, 2);
+        spawnMonster(new MON_orc(gp), 3, 2);
+        spawnMonster(new MON_skeleton(gp), 3, 5);
+    }
 
-        gp.monsters[3] = new MON_skeleton(gp);
-        gp.monsters[3].x = 3 * gp.tileSize;
-        gp.monsters[3].y = 5 * gp.tileSize;
+    /**
+     * Places a monster on the given tile and adds it to the world's monster registry. Can be
+     * called at any time during a round, for example to spawn a wave.
+     * @param monster
+     * @param col
+     * @param row
+     */
+    public void spawnMonster(Entity monster, int col, int row) {
+        monster.x = col * gp.tileSize;
+        monster.y = row * gp.tileSize;
+        gp.monsters.add(monster);
     }
 
     /**
      * Randomly distributes various types of power-ups in available box locations on the
-     * game map. It uses the Random class to select random box locations for placing
+     * game map. It uses the world's power-up random stream to select random box locations for placing
      * power-ups such as extra bombs, blast expansion, detonators, roller skates,
      * invincibility, ghost abilities, and obstacles. If there are no more boxes available, the
      * loop breaks early.
      */
     public void setPowerUp() {
-        Random rand = new Random();
+        Rng rand = gp.random.stream(GameRandom.Stream.POWER_UPS);
         
         for (PowerUp.Type type : PowerUp.Type.values()) {
             if (gp.boxes.isEmpty()) break;
@@ -0,0 +1,364 @@
+package main;
+import entity.Player;
+import object.OBJ_bomb;
+import powerups.PowerUp;
+import tile.TileManager;
+
+import java.util.Arrays;
+
+/**
+ * The BotController class is a CPU player. Each tick it looks at the world the way a player sees
+ * it and does the first of these that applies: get out of the reach of pending bombs and fire,
+ * drop a bomb that catches an opponent, a monster or a box when there is a way out of its blast in
+ * time, pick up the nearest power-up, walk towards the nearest opponent, or else towards the
+ * nearest box. It never walks from a safe cell into fire, into a cell about to burn, or into a
+ * monster.
+ * Distances come from a breadth-first search over the tile grid from the bot's cell, with walls,
+ * boxes and bombs blocking the way. Like the FlowField, the search is only run again when the bot
+ * enters another cell, the map changes or a bomb is placed or leaves the map, so on most ticks a
+ * decision only reads the cached search and costs a few microseconds.
+ * A bot keeps nothing but that search between ticks, so it decides the same way on every run of
+ * a seeded match.
+ */
+public class BotController implements PlayerController {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int[] DIRECTIONS = { InputSource.UP, InputSource.DOWN, InputSource.LEFT, InputSource.RIGHT };
+    // ticks of fire a plan must leave to spare, for turning and for a slow start
+    private static final int SAFETY_TICKS = 12;
+
+    private final GameWorld gp;
+    private final int cols, rows;
+
+    // the last search: steps from the bot's cell, the first step towards each cell as an index of
+    // DangerMap.DIR_X, and the reached cells in order of distance
+    private final int[] distance;
+    private final byte[] firstStep;
+    private final int[] order;
+    private int reached = 0;
+
+    // what the search was run for: the map, its version, the bombs on it and the bot's cell
+    private TileManager searchedMap;
+    private int searchedVersion = -1, searchedBombs = -1, searchedCell = -1;
+    private long searches = 0;
+
+    /**
+     * Initializes a bot for a player of the given world.
+     * @param gp
+     */
+    public BotController(GameWorld gp) {
+        this.gp = gp;
+        cols = gp.maxScreenCol;
+        rows = gp.maxScreenRow;
+        distance = new int[cols * rows];
+        firstStep = new byte[cols * rows];
+        order = new int[cols * rows];
+    }
+
+    @Override
+    public int nextInput(Player player) {
+        int size = gp.tileSize;
+        int col = (player.x + player.solidArea.x + player.solidArea.width / 2) / size;
+        int row = (player.y + player.solidArea.y + player.solidArea.height / 2) / size;
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return 0;
+        int cell = row * cols + col;
+        if (searchedMap != gp.tileM || searchedVersion != gp.tileM.version
+                || searchedBombs != gp.danger.bombVersion() || searchedCell != cell) {
+            search(cell, player.playerNum);
+        }
+
+        DangerMap danger = gp.danger;
+        int ticksPerCell = size / Math.max(1, player.speed) + 1;
+        boolean threatened = !safe(col, row) || overlapsDanger(player);
+        int input = 0;
+        if (player.hasDetonator && player.bombCount > 0 && !threatened) input |= InputSource.DETONATE;
+
+        int target;
+        if (threatened) {
+            target = nearestSafeCell();
+        } else if (player.bombCount < player.bombLimit && !danger.hasBomb(col, row)
+                && bombCol(player) == col && bombRow(player) == row
+                && worthBombing(player, col, row)
+                && (target = escapeFrom(player, col, row, ticksPerCell)) >= 0) {
+            input |= InputSource.BOMB;
+        } else {
+            target = nearestPowerUp();
+            if (target < 0) target = nearestOpponent(player);
+            if (target < 0) target = nearestBoxSide();
+        }
+
+        if (target < 0 || target == cell) return input | settle(player, col, row);
+        int dir = firstStep[target];
+        int nextCol = col + DangerMap.DIR_X[dir], nextRow = row + DangerMap.DIR_Y[dir];
+        int aboveRow = Math.max(0, nextRow - 1);
+        if (danger.isFire(nextCol, nextRow) || danger.isFire(nextCol, aboveRow) || monsterIn(nextCol, nextRow)) {
+            return input | settle(player, col, row);
+        }
+        if (!threatened && (input & InputSource.BOMB) == 0) {
+            int fuse = Math.min(danger.ticksToBlast(nextCol, nextRow), danger.ticksToBlast(nextCol, aboveRow));
+            if (fuse == DangerMap.UNTIMED || fuse < 2 * ticksPerCell + SAFETY_TICKS) return input | settle(player, col, row);
+        }
+        return input | steer(player, col, row, dir);
+    }
+
+    /**
+     * Returns the number of steps from the bot's cell to the cell at its last search, or
+     * UNREACHABLE.
+     * @param col
+     * @param row
+     * @return
+     */
+    public int distanceAt(int col, int row) {
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return UNREACHABLE;
+        return distance[row * cols + col];
+    }
+
+    /**
+     * Returns the number of searches run so far, which tells how well the search is cached.
+     * @return
+     */
+    public long getSearches() { return searches; }
+
+    /**
+     * Runs the breadth-first search from the bot's cell over grass without bombs. The bot's own
+     * cell is always the start, even while a bomb lies in it.
+     * Bots try the directions in an order that depends on their player number, so that bots
+     * standing together do not all flee or chase the same way.
+     * @param start
+     * @param playerNum
+     */
+    private void search(int start, int playerNum) {
+        Arrays.fill(distance, UNREACHABLE);
+        int[][] map = gp.tileM.mapTileNum;
+        int head = 0, tail = 0;
+        distance[start] = 0;
+        firstStep[start] = -1;
+        order[tail++] = start;
+
+        while (head < tail) {
+            int cell = order[head++];
+            int col = cell % cols, row = cell / cols;
+            for (int i = 0; i < 4; i++) {
+                int dir = (i + playerNum) & 3;
+                int nextCol = col + DangerMap.DIR_X[dir], nextRow = row + DangerMap.DIR_Y[dir];
+                if (nextCol < 0 || nextRow < 0 || nextCol >= cols || nextRow >= rows) continue;
+
+                int next = nextRow * cols + nextCol;
+                if (distance[next] != UNREACHABLE || map[nextCol][nextRow] != 0 || gp.danger.hasBomb(nextCol, nextRow)) continue;
+                distance[next] = distance[cell] + 1;
+                firstStep[next] = cell == start ? (byte) dir : firstStep[cell];
+                order[tail++] = next;
+            }
+        }
+        reached = tail;
+
+        searchedMap = gp.tileM;
+        searchedVersion = gp.tileM.version;
+        searchedBombs = gp.danger.bombVersion();
+        searchedCell = start;
+        searches++;
+    }
+
+    /**
+     * Returns the nearest reachable cell that is neither in danger nor holds a monster, or -1.
+     * @return
+     */
+    private int nearestSafeCell() {
+        for (int i = 0; i < reached; i++) {
+            int col = order[i] % cols, row = order[i] / cols;
+            if (safe(col, row) && !monsterIn(col, row)) return order[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the nearest safe cell the bot can reach before a bomb dropped in its cell goes off,
+     * outside the bomb's row and column within its radius, or -1 if there is none. Walls between
+     * the bomb and a cell are not taken into account, which errs on the safe side.
+     * @param player
+     * @param col
+     * @param row
+     * @param ticksPerCell
+     * @return
+     */
+    private int escapeFrom(Player player, int col, int row, int ticksPerCell) {
+        int radius = player.bombBlastRadius;
+        int fuse = player.hasDetonator ? UNREACHABLE : OBJ_bomb.FUSE_SECONDS * gp.FPS;
+        for (int i = 1; i < reached; i++) {
+            int cell = order[i];
+            if ((long) distance[cell] * ticksPerCell + SAFETY_TICKS >= fuse) break;
+            int c = cell % cols, r = cell / cols;
+            boolean inBlast = inCross(c, r, col, row, radius) || inCross(c, r - 1, col, row, radius);
+            if (!inBlast && safe(c, r) && !monsterIn(c, r)) return cell;
+        }
+        return -1;
+    }
+
+    private static boolean inCross(int c, int r, int col, int row, int radius) {
+        return (r == row && Math.abs(c - col) <= radius) || (c == col && Math.abs(r - row) <= radius);
+    }
+
+    /**
+     * Returns true if a bomb in the cell would reach an opponent, a monster or a box, walking its
+     * rays the way DangerMap.updateReach() does.
+     * @param player
+     * @param col
+     * @param row
+     * @return
+     */
+    private boolean worthBombing(Player player, int col, int row) {
+        int[][] map = gp.tileM.mapTileNum;
+        for (int dir = 0; dir < 4; dir++) {
+            // the bomb's own cell is looked at with the first ray only
+            for (int i = dir == 0 ? 0 : 1; i <= player.bombBlastRadius; i++) {
+                int c = col + DangerMap.DIR_X[dir] * i, r = row + DangerMap.DIR_Y[dir] * i;
+                if (c <= 0 || r <= 0 || c >= cols - 1 || r >= rows - 1 || map[c][r] == 1) break;
+                if (map[c][r] == 2) return true;
+                if (opponentIn(player, c, r) || monsterIn(c, r)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cell of the nearest reachable power-up lying on the map, or -1. Power-ups still
+     * under a box are never reached, as boxes block the search.
+     * @return
+     */
+    private int nearestPowerUp() {
+        int best = -1;
+        for (int i = 0; i < gp.powerUps.size(); i++) {
+            PowerUp powerUp = gp.powerUps.get(i);
+            int col = (powerUp.getX() + gp.tileSize / 2) / gp.tileSize, row = (powerUp.getY() + gp.tileSize / 2) / gp.tileSize;
+            if (col < 0 || row < 0 || col >= cols || row >= rows) continue;
+            int cell = row * cols + col;
+            if (distance[cell] != UNREACHABLE && (best < 0 || distance[cell] < distance[best])) best = cell;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the cell of the nearest reachable living opponent, or -1.
+     * @param player
+     * @return
+     */
+    private int nearestOpponent(Player player) {
+        int best = -1;
+        for (Player other : gp.players) {
+            if (other == null || other == player || other.currLife <= 0) continue;
+            int col = (other.x + other.solidArea.x + other.solidArea.width / 2) / gp.tileSize;
+            int row = (other.y + other.solidArea.y + other.solidArea.height / 2) / gp.tileSize;
+            if (col < 0 || row < 0 || col >= cols || row >= rows) continue;
+            int cell = row * cols + col;
+            if (distance[cell] != UNREACHABLE && (best < 0 || distance[cell] < distance[best])) best = cell;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the nearest reachable cell next to a box, or -1.
+     * @return
+     */
+    private int nearestBoxSide() {
+        int[][] map = gp.tileM.mapTileNum;
+        for (int i = 0; i < reached; i++) {
+            int col = order[i] % cols, row = order[i] / cols;
+            for (int dir = 0; dir < 4; dir++) {
+                int c = col + DangerMap.DIR_X[dir], r = row + DangerMap.DIR_Y[dir];
+                if (c >= 0 && r >= 0 && c < cols && r < rows && map[c][r] == 2) return order[i];
+            }
+        }
+        return -1;
+    }
+
+    private boolean opponentIn(Player player, int col, int row) {
+        for (Player other : gp.players) {
+            if (other == null || other == player || other.currLife <= 0) continue;
+            if ((other.x + other.solidArea.x + other.solidArea.width / 2) / gp.tileSize == col
+                    && (other.y + other.solidArea.y + other.solidArea.height / 2) / gp.tileSize == row) return true;
+        }
+        return false;
+    }
+
+    private boolean monsterIn(int col, int row) {
+        return gp.danger.hasMonster(col, row);
+    }
+
+    /**
+     * Returns true if neither the cell nor the cell above it is in danger. Blasts hit the solid
+     * area's size at the player's position rather than the solid area itself, as in
+     * ExplosionResolver, and that reaches into the row above the cell the solid area stands in.
+     * @param col
+     * @param row
+     * @return
+     */
+    private boolean safe(int col, int row) {
+        return !gp.danger.isDangerous(col, row) && (row == 0 || !gp.danger.isDangerous(col, row - 1));
+    }
+
+    /**
+     * Returns true if any cell a blast would hit the player in is in danger.
+     * @param player
+     * @return
+     */
+    private boolean overlapsDanger(Player player) {
+        int size = gp.tileSize;
+        int left = Math.max(0, player.x), top = Math.max(0, player.y);
+        int minCol = left / size, maxCol = Math.min(cols - 1, (left + player.solidArea.width - 1) / size);
+        int minRow = top / size, maxRow = Math.min(rows - 1, (top + player.solidArea.height - 1) / size);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (gp.danger.isDangerous(col, row)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the input that moves the player's solid area, and the area blasts hit it in across
+     * the column, fully into the cell, or 0 once they are.
+     * @param player
+     * @param col
+     * @param row
+     * @return
+     */
+    private int settle(Player player, int col, int row) {
+        int size = gp.tileSize;
+        int top = player.y + player.solidArea.y;
+        if (player.x < col * size) return InputSource.RIGHT;
+        if (player.x + player.solidArea.x + player.solidArea.width >= (col + 1) * size) return InputSource.LEFT;
+        if (top < row * size) return InputSource.DOWN;
+        if (top + player.solidArea.height >= (row + 1) * size) return InputSource.UP;
+        return 0;
+    }
+
+    /**
+     * Returns the input that moves the player one step in the direction, first lining it up with
+     * its cell across the direction so it does not catch on the corners of the next one.
+     * @param player
+     * @param col
+     * @param row
+     * @param dir
+     * @return
+     */
+    private int steer(Player player, int col, int row, int dir) {
+        int size = gp.tileSize;
+        if (DangerMap.DIR_X[dir] == 0) {
+            // keeps the area blasts hit inside the column as well as the solid area
+            if (player.x < col * size) return InputSource.RIGHT;
+            if (player.x + player.solidArea.x + player.solidArea.width >= (col + 1) * size) return InputSource.LEFT;
+        } else {
+            int top = player.y + player.solidArea.y;
+            if (top < row * size) return InputSource.DOWN;
+            if (top + player.solidArea.height >= (row + 1) * size) return InputSource.UP;
+        }
+        return DIRECTIONS[dir];
+    }
+
+    private int bombCol(Player player) {
+        return Math.max(0, Math.min(cols - 1, (player.x + gp.tileSize / 2) / gp.tileSize));
+    }
+
+    private int bombRow(Player player) {
+        return Math.max(0, Math.min(rows - 1, (player.y + gp.tileSize / 2) / gp.tileSize));
+    }
+}
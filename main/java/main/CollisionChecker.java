@@ -1,25 +1,34 @@
 package main;
+import entity.Direction;
 import entity.Entity;
 import entity.Player;
 import monster.MON_orc;
 import object.OBJ_bomb;
 import object.SuperObject;
 import powerups.PowerUp;
-import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * The CollisionChecker class is responsible for handling collision checks between entities
+ * The CollisionChecker class is responsible for handling collision checks between entities.
+ * All checks work on plain int coordinates: solid areas are treated as offsets relative to their
+ * owner and are never modified, and nothing is allocated per check.
  */
 public class CollisionChecker {
-    GamePanel gp;
+    GameWorld gp;
     public static final int NO_COLLISION = -1;
 
+    // reusable candidate lists filled by the spatial grid queries, valid until the next query
+    private final List<Entity> monsterCandidates = new ArrayList<>();
+    private final List<SuperObject> objectCandidates = new ArrayList<>();
+    private final List<PowerUp> powerUpCandidates = new ArrayList<>();
+
     /**
-     * Initializes the CollisionChecker with a reference to the GamePanel to access game
+     * Initializes the CollisionChecker with a reference to the GameWorld to access game
      * environment details and entity positions.
      * @param gp
      */
-    public CollisionChecker(GamePanel gp) {
+    public CollisionChecker(GameWorld gp) {
         this.gp = gp;
     }
 
@@ -71,7 +80,7 @@ public class CollisionChecker {
         int adjustedRightCol = Math.max(0, Math.min(gp.maxScreenCol - 1, (entityRightX + entity.speed) / gp.tileSize));
 
         switch (entity.direction) {
-            case "up":
+            case UP:
                 if (gp.tileM.tile[gp.tileM.mapTileNum[entityLeftCol][adjustedTopRow]].collision ||
                         gp.tileM.tile[gp.tileM.mapTileNum[entityRightCol][adjustedTopRow]].collision) {
                     if (entity instanceof Player player && player.isGhost &&
@@ -80,7 +89,7 @@ public class CollisionChecker {
                     entity.collisionOn = true;
                 }
                 break;
-            case "down":
+            case DOWN:
                 if (gp.tileM.tile[gp.tileM.mapTileNum[entityLeftCol][adjustedBottomRow]].collision ||
                         gp.tileM.tile[gp.tileM.mapTileNum[entityRightCol][adjustedBottomRow]].collision) {
                     if (entity instanceof Player player && player.isGhost &&
@@ -89,7 +98,7 @@ public class CollisionChecker {
                     entity.collisionOn = true;
                 }
                 break;
-            case "left":
+            case LEFT:
                 if (gp.tileM.tile[gp.tileM.mapTileNum[adjustedLeftCol][entityTopRow]].collision ||
                         gp.tileM.tile[gp.tileM.mapTileNum[adjustedLeftCol][entityBottomRow]].collision) {
                     if (entity instanceof Player player && player.isGhost &&
@@ -98,7 +107,7 @@ public class CollisionChecker {
                     entity.collisionOn = true;
                 }
                 break;
-            case "right":
+            case RIGHT:
                 if (gp.tileM.tile[gp.tileM.mapTileNum[adjustedRightCol][entityTopRow]].collision ||
                         gp.tileM.tile[gp.tileM.mapTileNum[adjustedRightCol][entityBottomRow]].collision) {
                     if (entity instanceof Player player && player.isGhost &&
@@ -116,15 +125,16 @@ public class CollisionChecker {
      * @param orc
      */
     private void orcCollisionCheck(MON_orc orc) {
-        for (SuperObject obj : gp.objs) {
-            if (obj instanceof OBJ_bomb) {
-                Rectangle orcRect = new Rectangle(orc.x + orc.solidArea.x, orc.y + orc.solidArea.y, orc.solidArea.width, orc.solidArea.height);
-                Rectangle bombRect = new Rectangle(obj.x + obj.solidArea.x, obj.y + obj.solidArea.y, obj.solidArea.width, obj.solidArea.height);
-
-                if (orcRect.intersects(bombRect)) {
-                    orc.collisionOn = true;
-                    return;
-                }
+        int ox = orc.x + orc.solidArea.x, oy = orc.y + orc.solidArea.y;
+        int ow = orc.solidArea.width, oh = orc.solidArea.height;
+
+        List<SuperObject> candidates = objectsNear(ox, oy, ow, oh);
+        for (int i = 0; i < candidates.size(); i++) {
+            SuperObject obj = candidates.get(i);
+            if (obj instanceof OBJ_bomb && intersects(ox, oy, ow, oh, obj.x + obj.solidArea.x, obj.y + obj.solidArea.y,
+                    obj.solidArea.width, obj.solidArea.height)) {
+                orc.collisionOn = true;
+                return;
             }
         }
         orc.collisionOn = false;
@@ -139,60 +149,18 @@ public class CollisionChecker {
      */
     public int checkBombCollision(Entity entity, boolean player) {
         int index = 999;
-
-        for (SuperObject obj : gp.objs) {
-            if (obj != null) {
-                // get main.java.entity's solid area position
-                entity.solidArea.x = entity.x + entity.solidAreaDefaultX;
-                entity.solidArea.y = entity.y + entity.solidAreaDefaultY;
-
-                // get objects solid area position
-                obj.solidArea.x = obj.x + obj.solidAreaDefaultX;
-                obj.solidArea.y = obj.y + obj.solidAreaDefaultY;
-
-                index = switch (entity.direction) {
-                    case "up" -> {
-                        entity.solidArea.y -= entity.speed;
-                        yield collisionIndex(entity, player, index, obj);
-                    }
-                    case "down" -> {
-                        entity.solidArea.y += entity.speed;
-                        yield collisionIndex(entity, player, index, obj);
-                    }
-                    case "left" -> {
-                        entity.solidArea.x -= entity.speed;
-                        yield collisionIndex(entity, player, index, obj);
-                    }
-                    case "right" -> {
-                        entity.solidArea.x += entity.speed;
-                        yield collisionIndex(entity, player, index, obj);
-                    }
-                    default -> index;
-                };
-
-                entity.solidArea.x = entity.solidAreaDefaultX;
-                entity.solidArea.y = entity.solidAreaDefaultY;
-                obj.solidArea.x = obj.solidAreaDefaultX;
-                obj.solidArea.y = obj.solidAreaDefaultY;
-            }
-        }
-        return index;
-    }
-
-    /**
-     * Helper method used during bomb collision checks to determine if an entity collides
-     * with an object and returns the index of the colliding object.
-     * @param entity
-     * @param player
-     * @param index
-     * @param obj
-     * @return
-     */
-    private int collisionIndex(Entity entity, boolean player, int index, SuperObject obj) {
-        if (entity.solidArea.intersects(obj.solidArea)) {
-            if (obj.collision) {
-                OBJ_bomb bomb = (OBJ_bomb) obj;
-                if (!bomb.ignoreCollisionWithOwner  && bomb.owner == entity) {
+        int dx = stepX(entity), dy = stepY(entity);
+
+        // the entity's solid area after this step
+        int ex = entity.x + entity.solidArea.x + dx, ey = entity.y + entity.solidArea.y + dy;
+        int ew = entity.solidArea.width, eh = entity.solidArea.height;
+
+        List<SuperObject> candidates = objectsNear(ex, ey, ew, eh);
+        for (int i = 0; i < candidates.size(); i++) {
+            SuperObject obj = candidates.get(i);
+            if (obj instanceof OBJ_bomb bomb && bomb.collision && intersects(ex, ey, ew, eh, obj.x + obj.solidArea.x,
+                    obj.y + obj.solidArea.y, obj.solidArea.width, obj.solidArea.height)) {
+                if (!bomb.ignoreCollisionWithOwner && bomb.owner == entity) {
                     entity.collisionOn = !bomb.owner.isGhost;
                     if (player) {
                         index = gp.objs.indexOf(obj);
@@ -212,41 +180,20 @@ public class CollisionChecker {
      */
     public int checkObject(Entity entity, boolean player) {
         int index = 999;
+        int dx = stepX(entity), dy = stepY(entity);
 
-        for (SuperObject obj : gp.objs) {
-            if (obj != null && !(obj instanceof OBJ_bomb)) {
-
-                // get main.java.entity's solid area position
-                entity.solidArea.x += entity.x;
-                entity.solidArea.y += entity.y;
-
-                // get the main.java.object's solid area position
-                obj.solidArea.x += obj.x;
-                obj.solidArea.y += obj.y;
+        int ex = entity.x + entity.solidArea.x + dx, ey = entity.y + entity.solidArea.y + dy;
+        int ew = entity.solidArea.width, eh = entity.solidArea.height;
 
-                switch (entity.direction) {
-                    case "up" -> {
-                        entity.solidArea.y -= entity.speed;
-                        index = getObjectIndex(entity, player, obj, index);
-                    }
-                    case "down" -> {
-                        entity.solidArea.y += entity.speed;
-                        index = getObjectIndex(entity, player, obj, index);
-                    }
-                    case "left" -> {
-                        entity.solidArea.x -= entity.speed;
-                        index = getObjectIndex(entity, player, obj, index);
-                    }
-                    case "right" -> {
-                        entity.solidArea.x += entity.speed;
-                        index = getObjectIndex(entity, player, obj, index);
-                    }
+        List<SuperObject> candidates = objectsNear(ex, ey, ew, eh);
+        for (int i = 0; i < candidates.size(); i++) {
+            SuperObject obj = candidates.get(i);
+            if (obj != null && !(obj instanceof OBJ_bomb) && obj.collision && intersects(ex, ey, ew, eh,
+                    obj.x + obj.solidArea.x, obj.y + obj.solidArea.y, obj.solidArea.width, obj.solidArea.height)) {
+                entity.collisionOn = true;
+                if (player) {
+                    index = gp.objs.indexOf(obj);
                 }
-
-                entity.solidArea.x = entity.solidAreaDefaultX;
-                entity.solidArea.y = entity.solidAreaDefaultY;
-                obj.solidArea.x = obj.solidAreaDefaultX;
-                obj.solidArea.y = obj.solidAreaDefaultY;
             }
         }
 
@@ -260,32 +207,47 @@ public class CollisionChecker {
      * @return
      */
     public int checkPowerUpCollision(Player player) {
-        Rectangle playerRect = new Rectangle(player.x + player.solidArea.x, player.y + player.solidArea.y, player.solidArea.width, player.solidArea.height);
-
-        for (int i = 0; i < gp.powerUps.size(); i++) {
-            PowerUp powerUp = gp.powerUps.get(i);
-            Rectangle powerUpRect = new Rectangle(powerUp.getX() + powerUp.solidArea.x, powerUp.getY() + powerUp.solidArea.y, powerUp.solidArea.width, powerUp.solidArea.height);
-                if (playerRect.intersects(powerUpRect)) {
-                    return i;
-                }
+        int px = player.x + player.solidArea.x, py = player.y + player.solidArea.y;
+        int pw = player.solidArea.width, ph = player.solidArea.height;
+
+        gp.powerUpGrid.query(px, py, px + pw, py + ph, powerUpCandidates);
+        for (int i = 0; i < powerUpCandidates.size(); i++) {
+            PowerUp powerUp = powerUpCandidates.get(i);
+            if (intersects(px, py, pw, ph, powerUp.getX() + powerUp.solidArea.x, powerUp.getY() + powerUp.solidArea.y,
+                    powerUp.solidArea.width, powerUp.solidArea.height)) {
+                return gp.powerUps.indexOf(powerUp);
+            }
         }
         return -1;
     }
 
     /**
-     * Helper method used during object collision checks to determine if an entity collides
+     * Checks for collisions between the specified entity and the monsters in a registry,
+     * updating collision flags as necessary.
      * @param entity
-     * @param player
-     * @param obj
-     * @param index
-     * @return
+     * @param target
+     * @return the registry index of the last monster hit, or 999 if there is none
      */
-    private int getObjectIndex(Entity entity, boolean player, SuperObject obj, int index) {
-        if (entity.solidArea.intersects(obj.solidArea)) {
-            if (obj.collision) {
-                entity.collisionOn = true;
-                if (player) {
-                    index = gp.objs.indexOf(obj);
+    public int checkEntity(Entity entity, MonsterRegistry target) {
+        int index = 999;
+        int ex = entity.x + entity.solidArea.x + stepX(entity), ey = entity.y + entity.solidArea.y + stepY(entity);
+        int ew = entity.solidArea.width, eh = entity.solidArea.height;
+
+        if (target == gp.monsters) {
+            List<Entity> candidates = monstersNear(ex, ey, ew, eh);
+            for (int i = 0; i < candidates.size(); i++) {
+                Entity other = candidates.get(i);
+                if (other != entity && overlaps(ex, ey, ew, eh, other)) {
+                    entity.collisionOn = true;
+                    index = target.indexOf(other);
+                }
+            }
+        } else {
+            for (int i = 0; i < target.size(); i++) {
+                Entity other = target.get(i);
+                if (other != entity && overlaps(ex, ey, ew, eh, other)) {
+                    entity.collisionOn = true;
+                    index = i;
                 }
             }
         }
@@ -293,42 +255,31 @@ public class CollisionChecker {
     }
 
     /**
-     * Checks for collisions between the specified entity and an array of target entities,
-     * such as monsters, updating collision flags as necessary.
-     * @param entity
-     * @param target
+     * Returns the monsters whose tile buckets overlap the given pixel area. The returned list is
+     * reused by the next call.
+     * @param x
+     * @param y
+     * @param width
+     * @param height
      * @return
      */
-    public int checkEntity(Entity entity, Entity[] target) {
-        int index = 999;
-
-        for (int i = 0; i < target.length; i++) {
-
-            if (target[i] != null) {
-                // get main.java.entity's solid area position
-                entity.solidArea.x = entity.x + entity.solidArea.x;
-                entity.solidArea.y = entity.y + entity.solidArea.y;
-
-                // get objects solid area position
-                target[i].solidArea.x = target[i].x + target[i].solidArea.x;
-                target[i].solidArea.y = target[i].y + target[i].solidArea.y;
-
-                directionChange(entity);
-
-                if (entity.solidArea.intersects(target[i].solidArea)) {
-                    if (target[i] != entity) {
-                        entity.collisionOn = true;
-                        index = i;
-                    }
-                }
+    public List<Entity> monstersNear(int x, int y, int width, int height) {
+        gp.monsterGrid.query(x, y, x + width, y + height, monsterCandidates);
+        return monsterCandidates;
+    }
 
-                entity.solidArea.x = entity.solidAreaDefaultX;
-                entity.solidArea.y = entity.solidAreaDefaultY;
-                target[i].solidArea.x = target[i].solidAreaDefaultX;
-                target[i].solidArea.y = target[i].solidAreaDefaultY;
-            }
-        }
-        return index;
+    /**
+     * Returns the objects, such as bombs, whose tile buckets overlap the given pixel area. The
+     * returned list is reused by the next call.
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @return
+     */
+    public List<SuperObject> objectsNear(int x, int y, int width, int height) {
+        gp.objectGrid.query(x, y, x + width, y + height, objectCandidates);
+        return objectCandidates;
     }
 
     /**
@@ -337,48 +288,69 @@ public class CollisionChecker {
      * @param entity
      */
     public void checkPlayer(Entity entity) {
-        // get main.java.entity's solid area position
-        entity.solidArea.x = entity.x + entity.solidArea.x;
-        entity.solidArea.y = entity.y + entity.solidArea.y;
+        int ex = entity.x + entity.solidArea.x + stepX(entity), ey = entity.y + entity.solidArea.y + stepY(entity);
+        int ew = entity.solidArea.width, eh = entity.solidArea.height;
 
         for (Player player : gp.players) {
             if (player == null) continue; // Skip if player is not initialized
 
-            // get player's solid area position
-            player.solidArea.x = player.x + player.solidArea.x;
-            player.solidArea.y = player.y + player.solidArea.y;
-
-            // Adjust the solid area based on the main.java.entity's direction
-            directionChange(entity);
-
-            // Check for intersection with the main.java.entity's solid area
-            if (entity.solidArea.intersects(player.solidArea)) {
+            if (overlaps(ex, ey, ew, eh, player)) {
                 entity.collisionOn = true;
                 break; // If a collision is detected, no need to check further
             }
+        }
+    }
 
-            // Reset main.java.entity's solid area position
-            entity.solidArea.x = entity.solidAreaDefaultX;
-            entity.solidArea.y = entity.solidAreaDefaultY;
+    /**
+     * Returns true if the given rectangle intersects the solid area of the entity at its
+     * current position.
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @param other
+     * @return
+     */
+    private static boolean overlaps(int x, int y, int width, int height, Entity other) {
+        return intersects(x, y, width, height, other.x + other.solidArea.x, other.y + other.solidArea.y,
+                other.solidArea.width, other.solidArea.height);
+    }
 
-            // Reset player's solid area position
-            player.solidArea.x = player.solidAreaDefaultX;
-            player.solidArea.y = player.solidAreaDefaultY;
-        }
+    /**
+     * Returns true if the rectangles (ax, ay, aw, ah) and (bx, by, bw, bh) overlap. Behaves like
+     * Rectangle.intersects, so empty rectangles never intersect and touching edges do not count,
+     * but works on plain ints and allocates nothing.
+     * @param ax
+     * @param ay
+     * @param aw
+     * @param ah
+     * @param bx
+     * @param by
+     * @param bw
+     * @param bh
+     * @return
+     */
+    public static boolean intersects(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        if (aw <= 0 || ah <= 0 || bw <= 0 || bh <= 0) return false;
+        return ax < bx + bw && bx < ax + aw && ay < by + bh && by < ay + ah;
     }
 
     /**
-     * Adjusts the position of the entity's collision area based on its movement direction
-     * and speed, preparing for collision checks.
+     * Returns the horizontal offset of the entity's next step in its current direction.
      * @param entity
+     * @return
      */
-    private void directionChange(Entity entity) {
-        switch (entity.direction) {
-            case "up" -> entity.solidArea.y -= entity.speed;
-            case "down" -> entity.solidArea.y += entity.speed;
-            case "left" -> entity.solidArea.x -= entity.speed;
-            case "right" -> entity.solidArea.x += entity.speed;
-        }
+    private static int stepX(Entity entity) {
+        return entity.direction.dx * entity.speed;
+    }
+
+    /**
+     * Returns the vertical offset of the entity's next step in its current direction.
+     * @param entity
+     * @return
+     */
+    private static int stepY(Entity entity) {
+        return entity.direction.dy * entity.speed;
     }
 
     /**
@@ -388,16 +360,9 @@ public class CollisionChecker {
      * @param direction
      * @return
      */
-    public boolean canMove(Entity entity, String direction) {
-        int newX = entity.x;
-        int newY = entity.y;
-
-        switch (direction) {
-            case "up" -> newY -= entity.speed;
-            case "down" -> newY += entity.speed;
-            case "left" -> newX -= entity.speed;
-            case "right" -> newX += entity.speed;
-        }
+    public boolean canMove(Entity entity, Direction direction) {
+        int newX = entity.x + direction.dx * entity.speed;
+        int newY = entity.y + direction.dy * entity.speed;
 
         int entityLeftCol = (newX + entity.solidArea.x) / gp.tileSize;
         int entityRightCol = (newX + entity.solidArea.x + entity.solidArea.width) / gp.tileSize;
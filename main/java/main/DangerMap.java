@@ -0,0 +1,403 @@
+package main;
+import entity.Entity;
+import object.OBJ_bomb;
+import object.SuperObject;
+
+import java.util.Arrays;
+
+/**
+ * The DangerMap class is a per-cell picture of the bombs on the map, shared by the simulation,
+ * the renderer and the monster AI. It records which cells hold a bomb, which cells are burning
+ * and in which direction the fire runs, and for every cell the number of ticks until a pending
+ * bomb's fire reaches it, taking chain reactions into account. It also records which cells a
+ * living monster overlaps, so the bots never scan the monsters per cell they look at.
+ * Each bomb's rays are walked once and cached on the bomb, and only walked again when the map or
+ * the owner's blast radius changes, so readers never walk rays themselves.
+ */
+public class DangerMap {
+    GameWorld gp;
+
+    public static final int NO_DANGER = Integer.MAX_VALUE;
+    // a bomb whose fuse is paused by its owner's detonator can go off at any moment
+    public static final int UNTIMED = Integer.MAX_VALUE - 1;
+
+    public static final byte NO_FIRE = 0;
+    public static final byte FIRE_CENTER = 1;
+    public static final byte FIRE_UP = 2;
+    public static final byte FIRE_DOWN = 3;
+    public static final byte FIRE_LEFT = 4;
+    public static final byte FIRE_RIGHT = 5;
+
+    static final int[] DIR_X = { 0, 0, -1, 1 }; // up, down, left, right
+    static final int[] DIR_Y = { -1, 1, 0, 0 };
+
+    private final int cols, rows;
+
+    // fire: the direction drawn in each burning cell, the tick it stops burning, and the id of the
+    // last explosion that reached it
+    private final byte[] fireDir;
+    private final long[] fireUntil;
+    private final int[] blastId;
+    private int nextBlastId = 0;
+
+    // pending bombs: ticks until each cell is reached by fire, and whether a bomb sits in it
+    private final int[] fuse;
+    private final boolean[] bombCell;
+    // the bomb cells of the previous rebuild, and a count that moves on whenever they change
+    private final boolean[] lastBombCell;
+    private int bombVersion = 0;
+    // cells overlapped by the solid area of a living monster, as of the last rebuild
+    private final boolean[] monsterCell;
+
+    // scratch space for rebuild: pending bombs, their effective fuses and a bomb-by-cell index
+    private OBJ_bomb[] pending = new OBJ_bomb[16];
+    private int[] pendingFuse = new int[16];
+    private boolean[] settled = new boolean[16];
+    private int[] nextInCell = new int[16];
+    private final int[] cellHead;
+
+    /**
+     * Initializes an empty map sized to the world.
+     * @param gp
+     */
+    public DangerMap(GameWorld gp) {
+        this.gp = gp;
+        cols = gp.maxScreenCol;
+        rows = gp.maxScreenRow;
+        int cells = cols * rows;
+        fireDir = new byte[cells];
+        fireUntil = new long[cells];
+        blastId = new int[cells];
+        fuse = new int[cells];
+        bombCell = new boolean[cells];
+        lastBombCell = new boolean[cells];
+        monsterCell = new boolean[cells];
+        cellHead = new int[cells];
+        Arrays.fill(fuse, NO_DANGER);
+        Arrays.fill(cellHead, -1);
+    }
+
+    /**
+     * Returns true if the cell is burning.
+     * @param col
+     * @param row
+     * @return
+     */
+    public boolean isFire(int col, int row) {
+        return fireDir[row * cols + col] != NO_FIRE && fireUntil[row * cols + col] > gp.tick;
+    }
+
+    /**
+     * Returns the fire direction drawn in the cell, or NO_FIRE.
+     * @param col
+     * @param row
+     * @return
+     */
+    public byte fireAt(int col, int row) {
+        return isFire(col, row) ? fireDir[row * cols + col] : NO_FIRE;
+    }
+
+    /**
+     * Returns the number of ticks until a pending bomb's fire reaches the cell, UNTIMED if only a
+     * bomb held by a detonator threatens it, or NO_DANGER.
+     * @param col
+     * @param row
+     * @return
+     */
+    public int ticksToBlast(int col, int row) {
+        return fuse[row * cols + col];
+    }
+
+    /**
+     * Returns true if the cell is burning or will be reached by a pending bomb's fire.
+     * @param col
+     * @param row
+     * @return
+     */
+    public boolean isDangerous(int col, int row) {
+        return isFire(col, row) || fuse[row * cols + col] != NO_DANGER;
+    }
+
+    /**
+     * Returns true if an unexploded bomb sits in the cell.
+     * @param col
+     * @param row
+     * @return
+     */
+    public boolean hasBomb(int col, int row) {
+        return bombCell[row * cols + col];
+    }
+
+    /**
+     * Returns true if a living monster overlapped the cell at the last rebuild.
+     * @param col
+     * @param row
+     * @return
+     */
+    public boolean hasMonster(int col, int row) {
+        return monsterCell[row * cols + col];
+    }
+
+    /**
+     * Returns true if any cell overlapped by the pixel rectangle holds an unexploded bomb.
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @return
+     */
+    public boolean hasBombIn(int x, int y, int width, int height) {
+        int minCol = Math.max(0, Math.floorDiv(x, gp.tileSize));
+        int maxCol = Math.min(cols - 1, Math.floorDiv(x + width - 1, gp.tileSize));
+        int minRow = Math.max(0, Math.floorDiv(y, gp.tileSize));
+        int maxRow = Math.min(rows - 1, Math.floorDiv(y + height - 1, gp.tileSize));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (bombCell[row * cols + col]) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes sure the bomb's cached reach matches the current map and blast radius, walking its
+     * four rays again only if either changed since the last walk. Rays stop before walls and the
+     * map edge, and include the first box they hit.
+     * @param bomb
+     */
+    public void updateReach(OBJ_bomb bomb) {
+        int radius = bomb.owner.bombBlastRadius;
+        if (bomb.reachVersion == gp.tileM.version && bomb.reachRadius == radius) return;
+
+        for (int dir = 0; dir < 4; dir++) {
+            int reach = 0;
+            for (int i = 1; i <= radius; i++) {
+                int col = bomb.col + DIR_X[dir] * i;
+                int row = bomb.row + DIR_Y[dir] * i;
+                if (col <= 0 || row <= 0 || col >= cols - 1 || row >= rows - 1) break;
+
+                int tileNum = gp.tileM.mapTileNum[col][row];
+                if (tileNum == 1) break; // walls stop the ray
+                reach = i;
+                if (tileNum == 2) break; // boxes are hit but stop the ray
+            }
+            bomb.reach[dir] = reach;
+        }
+        bomb.reachVersion = gp.tileM.version;
+        bomb.reachRadius = radius;
+    }
+
+    /**
+     * Starts a new explosion and returns its id, used to tell the cells it reaches apart from
+     * cells reached by earlier explosions.
+     * @return
+     */
+    int beginBlast() {
+        return ++nextBlastId;
+    }
+
+    /**
+     * Sets the cell on fire as part of the given explosion until the given tick.
+     * @param cell
+     * @param direction
+     * @param id
+     * @param until
+     * @return true if the explosion had not reached the cell yet
+     */
+    boolean ignite(int cell, byte direction, int id, long until) {
+        if (fireDir[cell] != FIRE_CENTER || fireUntil[cell] <= gp.tick || direction == FIRE_CENTER) {
+            fireDir[cell] = direction;
+        }
+        fireUntil[cell] = Math.max(fireUntil[cell], until);
+        if (blastId[cell] == id) return false;
+        blastId[cell] = id;
+        return true;
+    }
+
+    /**
+     * Returns true if the pixel rectangle overlaps a cell reached by the given explosion.
+     * @param id
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @return
+     */
+    boolean inBlast(int id, int x, int y, int width, int height) {
+        int minCol = Math.max(0, Math.floorDiv(x, gp.tileSize));
+        int maxCol = Math.min(cols - 1, Math.floorDiv(x + width - 1, gp.tileSize));
+        int minRow = Math.max(0, Math.floorDiv(y, gp.tileSize));
+        int maxRow = Math.min(rows - 1, Math.floorDiv(y + height - 1, gp.tileSize));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (blastId[row * cols + col] == id) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Recomputes the bomb cells and the ticks-to-blast layer from the unexploded bombs, and the
+     * monster cells from the living monsters. A bomb in the path of another bomb's fire goes off no
+     * later than that bomb, so fuses are settled earliest-first and carried along the chain.
+     */
+    public void rebuild() {
+        markMonsters();
+
+        System.arraycopy(bombCell, 0, lastBombCell, 0, bombCell.length);
+        Arrays.fill(fuse, NO_DANGER);
+        Arrays.fill(bombCell, false);
+
+        int count = 0;
+        for (int i = 0; i < gp.objs.size(); i++) {
+            SuperObject obj = gp.objs.get(i);
+            if (!(obj instanceof OBJ_bomb bomb) || bomb.hasExploded || !bomb.isActive()) continue;
+
+            if (count == pending.length) {
+                pending = Arrays.copyOf(pending, count * 2);
+                pendingFuse = Arrays.copyOf(pendingFuse, count * 2);
+                settled = Arrays.copyOf(settled, count * 2);
+                nextInCell = Arrays.copyOf(nextInCell, count * 2);
+            }
+            int cell = bomb.row * cols + bomb.col;
+            pending[count] = bomb;
+            pendingFuse[count] = bomb.ticksToDetonation();
+            settled[count] = false;
+            nextInCell[count] = cellHead[cell];
+            cellHead[cell] = count;
+            bombCell[cell] = true;
+            updateReach(bomb);
+            count++;
+        }
+
+        for (int k = 0; k < count; k++) {
+            int next = -1;
+            for (int i = 0; i < count; i++) {
+                if (!settled[i] && (next == -1 || pendingFuse[i] < pendingFuse[next])) next = i;
+            }
+            settled[next] = true;
+
+            OBJ_bomb bomb = pending[next];
+            int ticks = pendingFuse[next];
+            mark(bomb.row * cols + bomb.col, ticks);
+            for (int dir = 0; dir < 4; dir++) {
+                for (int i = 1; i <= bomb.reach[dir]; i++) {
+                    int cell = (bomb.row + DIR_Y[dir] * i) * cols + bomb.col + DIR_X[dir] * i;
+                    mark(cell, ticks);
+                    for (int j = cellHead[cell]; j != -1; j = nextInCell[j]) {
+                        if (!settled[j] && pendingFuse[j] > ticks) pendingFuse[j] = ticks;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            cellHead[pending[i].row * cols + pending[i].col] = -1;
+            pending[i] = null;
+        }
+        if (!Arrays.equals(bombCell, lastBombCell)) bombVersion++;
+    }
+
+    /**
+     * Returns a number that changes whenever a bomb is placed or leaves the map, so that searches
+     * which treat bombs as walls know when to run again. It only ever moves forward.
+     * @return
+     */
+    public int bombVersion() {
+        return bombVersion;
+    }
+
+    /**
+     * Marks every cell overlapped by the solid area of a living monster, of the entity monsters and
+     * of the swarm alike, in one pass over them.
+     */
+    private void markMonsters() {
+        Arrays.fill(monsterCell, false);
+        for (int i = 0; i < gp.monsters.size(); i++) {
+            Entity monster = gp.monsters.get(i);
+            if (monster.currLife > 0) {
+                markArea(monster.x + monster.solidArea.x, monster.y + monster.solidArea.y,
+                        monster.solidArea.width, monster.solidArea.height);
+            }
+        }
+        MonsterSwarm swarm = gp.swarm;
+        for (int i = 0; i < swarm.size(); i++) {
+            if (swarm.getLife(i) > 0) {
+                markArea(swarm.getX(i), swarm.getY(i), MonsterSwarm.SOLID_WIDTH, MonsterSwarm.SOLID_HEIGHT);
+            }
+        }
+    }
+
+    /**
+     * Marks the cells overlapped by the pixel rectangle as holding a monster.
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     */
+    private void markArea(int x, int y, int width, int height) {
+        int minCol = Math.max(0, Math.floorDiv(x, gp.tileSize));
+        int maxCol = Math.min(cols - 1, Math.floorDiv(x + width - 1, gp.tileSize));
+        int minRow = Math.max(0, Math.floorDiv(y, gp.tileSize));
+        int maxRow = Math.min(rows - 1, Math.floorDiv(y + height - 1, gp.tileSize));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                monsterCell[row * cols + col] = true;
+            }
+        }
+    }
+
+    /**
+     * Lowers the cell's ticks-to-blast to the given value.
+     * @param cell
+     * @param ticks
+     */
+    private void mark(int cell, int ticks) {
+        if (ticks < fuse[cell]) fuse[cell] = ticks;
+    }
+
+    /**
+     * Clears all fire and danger, used when the world is reset.
+     */
+    public void clear() {
+        Arrays.fill(fireDir, NO_FIRE);
+        Arrays.fill(fireUntil, 0);
+        Arrays.fill(fuse, NO_DANGER);
+        Arrays.fill(bombCell, false);
+        Arrays.fill(monsterCell, false);
+        bombVersion++;
+    }
+
+    /**
+     * Saves the burning cells, the danger of the pending bombs and the monster cells as they stand
+     * after the last rebuild, which the next tick reads before it rebuilds them.
+     * @param out
+     */
+    void saveState(StateBuffer out) {
+        out.putInt(nextBlastId);
+        for (int cell = 0; cell < fireDir.length; cell++) {
+            out.putInt(fireDir[cell]);
+            out.putLong(fireUntil[cell]);
+            out.putInt(blastId[cell]);
+            out.putInt(fuse[cell]);
+            out.putBoolean(bombCell[cell]);
+            out.putBoolean(monsterCell[cell]);
+        }
+    }
+
+    void loadState(StateBuffer in) {
+        nextBlastId = in.getInt();
+        for (int cell = 0; cell < fireDir.length; cell++) {
+            fireDir[cell] = (byte) in.getInt();
+            fireUntil[cell] = in.getLong();
+            blastId[cell] = in.getInt();
+            fuse[cell] = in.getInt();
+            bombCell[cell] = in.getBoolean();
+            monsterCell[cell] = in.getBoolean();
+        }
+        bombVersion++;
+    }
+}
@@ -1,4 +1,5 @@
 package main;
+import entity.Direction;
 import entity.Player;
 
 import java.awt.*;
@@ -9,17 +10,17 @@ import java.awt.*;
  * events based on those interactions.
  */
 public class EventHandler {
-    GamePanel gp;
+    GameWorld gp;
     Rectangle eventRect;
     int eventRectDefaultX, eventRectDefaultY;
 
     /**
-     * Initializes the EventHandler with a reference to the GamePanel. Sets up a default
+     * Initializes the EventHandler with a reference to the GameWorld. Sets up a default
      * rectangular area (eventRect) that will be used to detect events. This rectangle's
      * position and size can be adjusted to target specific areas for event detection.
      * @param gp
      */
-    public EventHandler(GamePanel gp) {
+    public EventHandler(GameWorld gp) {
         this.gp = gp;
 
         eventRect = new Rectangle();
@@ -44,30 +45,21 @@ public class EventHandler {
      * @param eventCol  The column of the tile where the event is located.
      * @param eventRow The row of the tile where the event is located.
      * @param reqDirection The required direction the player needs to be facing to trigger the
-     * event. This can also be set to "any" to allow the event to be triggered from any
-     * direction.
+     * event. This can also be null to allow the event to be triggered from any direction.
      * @return
      */
-    public boolean hit(int eventCol, int eventRow, String reqDirection) {
+    public boolean hit(int eventCol, int eventRow, Direction reqDirection) {
         boolean hit = false;
 
         for (Player player : gp.players) { // Iterate over each player
-            player.solidArea.x = player.x + player.solidArea.x;
-            player.solidArea.y = player.y + player.solidArea.y;
-            eventRect.x = eventCol * gp.tileSize + eventRect.x;
-            eventRect.y = eventRow * gp.tileSize + eventRect.y;
-
-            if (player.solidArea.intersects(eventRect)) {
-                if (player.direction.contentEquals(reqDirection) || reqDirection.contentEquals("any")) {
+            if (CollisionChecker.intersects(player.x + player.solidArea.x, player.y + player.solidArea.y,
+                    player.solidArea.width, player.solidArea.height, eventCol * gp.tileSize + eventRect.x,
+                    eventRow * gp.tileSize + eventRect.y, eventRect.width, eventRect.height)) {
+                if (reqDirection == null || player.direction == reqDirection) {
                     hit = true;
                     break; // Exit the loop early since we found a hit
                 }
             }
-
-            player.solidArea.x = player.solidAreaDefaultX;
-            player.solidArea.y = player.solidAreaDefaultY;
-            eventRect.x = eventRectDefaultX;
-            eventRect.y = eventRectDefaultY;
         }
 
         return hit;
@@ -0,0 +1,190 @@
+package main;
+import entity.Entity;
+import entity.Player;
+import object.OBJ_bomb;
+import object.SuperObject;
+import powerups.PowerUp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ExplosionResolver class settles a detonation and every chain reaction it causes within a
+ * single call. Starting from the first bomb, it walks the chain breadth-first: each detonated
+ * bomb sets the cells within its cached reach on fire in the world's DangerMap, and any bomb found
+ * in a blast cell is queued and detonated in the same tick. Bombs are looked up through a
+ * bomb-by-cell index built once per detonation, so a chain costs time proportional to its bombs
+ * and blast cells rather than to the square of the bombs in the world. Once the chain is settled,
+ * damage and box destruction are applied in one pass over the union of all blast cells.
+ */
+public class ExplosionResolver {
+    GameWorld gp;
+
+    private static final byte[] FIRE = { DangerMap.FIRE_UP, DangerMap.FIRE_DOWN, DangerMap.FIRE_LEFT, DangerMap.FIRE_RIGHT };
+
+    // bomb-by-cell index: head of each cell's list, and the next bomb in the same cell
+    private final int[] cellHead;
+    private OBJ_bomb[] indexed = new OBJ_bomb[16];
+    private int[] nextInCell = new int[16];
+    private int indexedCount = 0;
+
+    // union of the blast cells of the current chain
+    private final int[] blastCells;
+    private int blastCount = 0;
+
+    // breadth-first queue of bombs waiting to cast their rays
+    private OBJ_bomb[] queue = new OBJ_bomb[16];
+
+    private final List<PowerUp> powerUpCandidates = new ArrayList<>();
+
+    /**
+     * Initializes the resolver with scratch buffers sized to the world's map.
+     * @param gp
+     */
+    public ExplosionResolver(GameWorld gp) {
+        this.gp = gp;
+        int cells = gp.maxScreenCol * gp.maxScreenRow;
+        cellHead = new int[cells];
+        Arrays.fill(cellHead, -1);
+        blastCells = new int[cells];
+    }
+
+    /**
+     * Detonates the bomb and every bomb caught in the resulting chain, then damages the players
+     * and monsters standing in the blast and destroys the boxes it reaches. Does nothing if the
+     * bomb has already exploded.
+     * @param first
+     * @return the number of bombs detonated
+     */
+    public int detonate(OBJ_bomb first) {
+        if (first.hasExploded) return 0;
+        indexBombs();
+
+        DangerMap danger = gp.danger;
+        int id = danger.beginBlast();
+        long until = gp.tick + gp.FPS;
+
+        first.ignite();
+        int head = 0, tail = 0;
+        queue[tail++] = first;
+
+        while (head < tail) {
+            OBJ_bomb bomb = queue[head++];
+            danger.updateReach(bomb);
+            addBlastCell(bomb.row * gp.maxScreenCol + bomb.col, DangerMap.FIRE_CENTER, id, until);
+
+            for (int dir = 0; dir < 4; dir++) {
+                for (int i = 1; i <= bomb.reach[dir]; i++) {
+                    int cell = (bomb.row + DangerMap.DIR_Y[dir] * i) * gp.maxScreenCol + bomb.col + DangerMap.DIR_X[dir] * i;
+                    addBlastCell(cell, FIRE[dir], id, until);
+                    for (int j = cellHead[cell]; j != -1; j = nextInCell[j]) {
+                        OBJ_bomb other = indexed[j];
+                        if (!other.hasExploded) {
+                            other.ignite();
+                            if (tail == queue.length) queue = Arrays.copyOf(queue, tail * 2);
+                            queue[tail++] = other;
+                        }
+                    }
+                }
+            }
+        }
+
+        Arrays.fill(queue, 0, tail, null);
+        applyBlast(id, first.owner);
+        clear();
+        return tail;
+    }
+
+    /**
+     * Damages every player and monster inside the blast once, then turns the boxes in the blast
+     * into grass and reveals the power-ups hidden under them.
+     * @param id
+     * @param owner the owner of the bomb that set off the chain, blamed for the players it kills
+     */
+    private void applyBlast(int id, Player owner) {
+        for (Player player : gp.players) {
+            if (player == null) continue;
+
+            if (player.currLife > 0 && !player.hitByCurrentExplosion && !player.isInvincible
+                    && gp.danger.inBlast(id, player.x, player.y, player.solidArea.width, player.solidArea.height)) {
+                player.currLife--;
+                GameLog.log(gp.tick, GameLog.Event.PLAYER_HIT, player.playerNum, player.currLife);
+                if (player.currLife == 0 && gp.stats != null) gp.stats.playerKilled(player, owner);
+                player.hitByCurrentExplosion = true;
+            }
+        }
+
+        for (int i = 0; i < gp.monsters.size(); i++) {
+            Entity monster = gp.monsters.get(i);
+            if (monster.currLife > 0 && !monster.hitByCurrentExplosion
+                    && gp.danger.inBlast(id, monster.x, monster.y, monster.solidArea.width, monster.solidArea.height)) {
+                monster.currLife--;
+                monster.hitByCurrentExplosion = true;
+            }
+        }
+        gp.swarm.applyBlast(id);
+
+        int size = gp.tileSize;
+        for (int i = 0; i < blastCount; i++) {
+            int col = blastCells[i] % gp.maxScreenCol;
+            int row = blastCells[i] / gp.maxScreenCol;
+            if (gp.tileM.mapTileNum[col][row] != 2) continue;
+
+            gp.tileM.setTile(col, row, 0);
+            int x = col * size, y = row * size;
+            gp.powerUpGrid.query(x, y, x + size, y + size, powerUpCandidates);
+            for (int j = 0; j < powerUpCandidates.size(); j++) {
+                PowerUp powerUp = powerUpCandidates.get(j);
+                if (CollisionChecker.intersects(powerUp.getX(), powerUp.getY(), size, size, x, y, size, size)) {
+                    powerUp.setVisible(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the bomb-by-cell index over the bombs that have not exploded yet.
+     */
+    private void indexBombs() {
+        for (int i = 0; i < gp.objs.size(); i++) {
+            SuperObject obj = gp.objs.get(i);
+            if (!(obj instanceof OBJ_bomb bomb) || bomb.hasExploded) continue;
+
+            if (indexedCount == indexed.length) {
+                indexed = Arrays.copyOf(indexed, indexedCount * 2);
+                nextInCell = Arrays.copyOf(nextInCell, indexedCount * 2);
+            }
+            int cell = bomb.row * gp.maxScreenCol + bomb.col;
+            indexed[indexedCount] = bomb;
+            nextInCell[indexedCount] = cellHead[cell];
+            cellHead[cell] = indexedCount++;
+        }
+    }
+
+    /**
+     * Sets a cell on fire and adds it to the blast union.
+     * @param cell
+     * @param direction
+     * @param id
+     * @param until
+     */
+    private void addBlastCell(int cell, byte direction, int id, long until) {
+        if (gp.danger.ignite(cell, direction, id, until)) {
+            blastCells[blastCount++] = cell;
+        }
+    }
+
+    /**
+     * Resets the index and the blast union for the next detonation.
+     */
+    private void clear() {
+        for (int i = 0; i < indexedCount; i++) {
+            OBJ_bomb bomb = indexed[i];
+            cellHead[bomb.row * gp.maxScreenCol + bomb.col] = -1;
+            indexed[i] = null;
+        }
+        indexedCount = 0;
+        blastCount = 0;
+    }
+}
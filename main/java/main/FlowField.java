@@ -0,0 +1,139 @@
+package main;
+import entity.Direction;
+import entity.Player;
+import tile.TileManager;
+
+import java.util.Arrays;
+
+/**
+ * The FlowField class is a shared pathfinding layer for monsters that chase players. It holds, for
+ * every map cell, the walking distance to the nearest living player and the direction of the first
+ * step along a shortest path there, found by one breadth-first search over the grass cells seeded
+ * from all players at once. The field is only searched again when the map changes or a player
+ * enters another cell, so any number of chasers read their next move in constant time.
+ */
+public class FlowField {
+    GameWorld gp;
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final byte NONE = -1; // step of a cell without a direction
+
+    private final int cols, rows;
+    private final int[] distance;
+    private final byte[] step;
+    private final int[] queue;
+
+    // what the field was last searched for: the map, its version and the cell of each player slot
+    private TileManager searchedMap;
+    private int searchedVersion = -1;
+    private int[] playerCells = new int[0];
+
+    /**
+     * Initializes an empty field sized to the world.
+     * @param gp
+     */
+    public FlowField(GameWorld gp) {
+        this.gp = gp;
+        cols = gp.maxScreenCol;
+        rows = gp.maxScreenRow;
+        distance = new int[cols * rows];
+        step = new byte[cols * rows];
+        queue = new int[cols * rows];
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(step, NONE);
+    }
+
+    /**
+     * Returns the number of steps from the cell to the nearest living player, or UNREACHABLE.
+     * @param col
+     * @param row
+     * @return
+     */
+    public int distanceAt(int col, int row) {
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return UNREACHABLE;
+        return distance[row * cols + col];
+    }
+
+    /**
+     * Returns the direction of the first step from the cell towards the nearest living player, or
+     * null if the cell holds a player or no player can be reached from it.
+     * @param col
+     * @param row
+     * @return
+     */
+    public Direction directionAt(int col, int row) {
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return null;
+        byte dir = step[row * cols + col];
+        return dir == NONE ? null : Direction.ALL[dir];
+    }
+
+    /**
+     * Searches the field again if the map changed or a player moved to another cell since the last
+     * search. Called once per tick, after the players have moved.
+     */
+    public void update() {
+        Player[] players = gp.players;
+        boolean changed = searchedMap != gp.tileM || searchedVersion != gp.tileM.version
+                || playerCells.length != players.length;
+        if (playerCells.length != players.length) playerCells = new int[players.length];
+
+        for (int i = 0; i < players.length; i++) {
+            int cell = cellOf(players[i]);
+            if (playerCells[i] != cell) {
+                playerCells[i] = cell;
+                changed = true;
+            }
+        }
+        if (changed) search();
+    }
+
+    /**
+     * Runs the multi-source breadth-first search from every living player's cell. Each cell's step
+     * points back towards the neighbour it was first reached from, which lies on a shortest path.
+     */
+    private void search() {
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(step, NONE);
+        int[][] map = gp.tileM.mapTileNum;
+
+        int head = 0, tail = 0;
+        for (int cell : playerCells) {
+            if (cell >= 0 && distance[cell] != 0) {
+                distance[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int col = cell % cols, row = cell / cols;
+            for (Direction dir : Direction.ALL) {
+                int nextCol = col + dir.dx, nextRow = row + dir.dy;
+                if (nextCol < 0 || nextRow < 0 || nextCol >= cols || nextRow >= rows) continue;
+
+                int next = nextRow * cols + nextCol;
+                if (distance[next] != UNREACHABLE || map[nextCol][nextRow] != 0) continue;
+                distance[next] = distance[cell] + 1;
+                step[next] = (byte) dir.opposite().ordinal();
+                queue[tail++] = next;
+            }
+        }
+
+        searchedMap = gp.tileM;
+        searchedVersion = gp.tileM.version;
+    }
+
+    /**
+     * Returns the cell under the center of the player's solid area, or -1 for an empty slot or a
+     * dead player.
+     * @param player
+     * @return
+     */
+    private int cellOf(Player player) {
+        if (player == null || player.currLife <= 0) return -1;
+        int col = (player.x + player.solidArea.x + player.solidArea.width / 2) / gp.tileSize;
+        int row = (player.y + player.solidArea.y + player.solidArea.height / 2) / gp.tileSize;
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return -1;
+        return row * cols + col;
+    }
+}
@@ -0,0 +1,45 @@
+package main;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The FrameExchange class hands RenderFrames from the game thread to the renderer without locks. It
+ * keeps three frames: the game thread fills its back frame and swaps it into the shared middle slot
+ * when it publishes, and the renderer swaps its front frame with the middle one whenever a newer frame
+ * is waiting there. Each side owns the frame it works on exclusively, neither ever waits for the
+ * other, and a slow renderer simply skips the frames published while it was drawing.
+ */
+public class FrameExchange {
+    private final AtomicReference<RenderFrame> middle = new AtomicReference<>(new RenderFrame());
+    private RenderFrame back = new RenderFrame();  // owned by the game thread
+    private RenderFrame front = new RenderFrame(); // owned by the renderer
+    private long published = 0;
+
+    /**
+     * Returns the empty back frame for the game thread to fill.
+     * @return
+     */
+    public RenderFrame beginFrame() {
+        back.clear();
+        return back;
+    }
+
+    /**
+     * Publishes the frame returned by beginFrame() as the latest one. Game thread only.
+     */
+    public void publish() {
+        back.sequence = ++published;
+        back = middle.getAndSet(back);
+    }
+
+    /**
+     * Returns the most recently published frame, or an empty frame if none was published yet. The frame
+     * stays valid until the next call. Renderer only.
+     * @return
+     */
+    public RenderFrame latest() {
+        if (middle.get().sequence > front.sequence) {
+            front = middle.getAndSet(front);
+        }
+        return front;
+    }
+}
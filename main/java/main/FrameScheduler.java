@@ -0,0 +1,86 @@
+package main;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The FrameScheduler class drives the game loop with a fixed simulation timestep. Simulation ticks
+ * and render ticks are scheduled independently: ticks run at a fixed rate and catch up when they fall
+ * behind, while renders run at the display rate and simply skip when late. Between deadlines the
+ * thread is parked instead of spinning, so an idle game does not occupy a full core.
+ */
+public class FrameScheduler {
+    private final long tickInterval;
+    private final long renderInterval;
+    private final int maxCatchUpTicks;
+    private volatile boolean running = false;
+    private volatile Thread loopThread;
+
+    /**
+     * Initializes the scheduler with a simulation rate and a render rate, both in ticks per second.
+     * When the simulation falls more than maxCatchUpTicks behind, the backlog is dropped instead of
+     * running an ever-growing burst of updates.
+     * @param tickRate
+     * @param renderRate
+     * @param maxCatchUpTicks
+     */
+    public FrameScheduler(int tickRate, int renderRate, int maxCatchUpTicks) {
+        this.tickInterval = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        this.renderInterval = TimeUnit.SECONDS.toNanos(1) / renderRate;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    /**
+     * Runs the loop on the calling thread until stop() is called. The tick callback is invoked at the
+     * fixed tick rate, the render callback at most once per render interval.
+     * @param tick
+     * @param render
+     */
+    public void run(Runnable tick, Runnable render) {
+        running = true;
+        loopThread = Thread.currentThread();
+
+        long nextTick = System.nanoTime();
+        long nextRender = nextTick;
+
+        while (running) {
+            long now = System.nanoTime();
+
+            int ticksRun = 0;
+            while (now - nextTick >= 0 && ticksRun < maxCatchUpTicks) {
+                tick.run();
+                nextTick += tickInterval;
+                ticksRun++;
+            }
+            if (now - nextTick >= 0) {
+                nextTick = now + tickInterval; // too far behind, drop the backlog
+            }
+
+            if (now - nextRender >= 0) {
+                render.run();
+                nextRender += renderInterval;
+                if (now - nextRender >= 0) nextRender = now + renderInterval;
+            }
+
+            long wait = Math.min(nextTick, nextRender) - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+        loopThread = null;
+    }
+
+    /**
+     * Stops the loop after the current iteration and wakes the loop thread if it is parked.
+     */
+    public void stop() {
+        running = false;
+        Thread t = loopThread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    /**
+     * Returns whether the loop is currently running.
+     * @return
+     */
+    public boolean isRunning() { return running; }
+}
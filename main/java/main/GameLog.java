@@ -0,0 +1,241 @@
+package main;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The GameLog class is a process-wide, level-gated log of game events. Callers record an event type and
+ * up to two int fields; nothing is formatted or allocated on the calling thread. Records go into a
+ * fixed ring buffer and a background daemon thread drains them in batches, writing one key=value line
+ * per event, so the game thread never waits on the console. The writer sleeps while the ring is
+ * empty and is woken by the event that fills it again, so an idle log costs no CPU. When an event's level is disabled, logging
+ * it is a single comparison. When the ring is full, new events are dropped and counted rather than
+ * blocking the caller.
+ * The level is read from the bomberman.log system property (off, info or debug) and defaults to info.
+ */
+public final class GameLog {
+    public enum Level { OFF, INFO, DEBUG }
+
+    /**
+     * The events the game reports, with their level and the names of their fields.
+     */
+    public enum Event {
+        PLAYER_DIED(Level.INFO, "player"),
+        PLAYER_HIT(Level.INFO, "player", "life"),
+        MONSTERS_CLEARED(Level.INFO, "player"),
+        LAST_STANDING(Level.INFO, "player"),
+        ROUND_STARTED(Level.INFO, "round"),
+        INVALID_WINNER(Level.INFO, "index"),
+        GAME_OVER(Level.INFO),
+        FINAL_SCORE(Level.INFO, "player", "score"),
+        GAME_RESET(Level.INFO),
+        WINNER(Level.INFO, "player"),
+        DRAW(Level.INFO),
+        ROUND_RESET(Level.DEBUG),
+        PLAYER_RESET(Level.DEBUG, "player"),
+        TICK_STATUS(Level.DEBUG, "alivePlayers", "monstersAlive"),
+        OBSTACLE_PLACED(Level.DEBUG, "col", "row"),
+        OBSTACLE_BLOCKED(Level.DEBUG, "col", "row"),
+        OBSTACLE_LIMIT(Level.DEBUG, "limit"),
+        MONSTER_WANDER(Level.DEBUG, "x", "y"),
+        MOUSE_CLICKED(Level.DEBUG, "x", "y"),
+        OK_CLICKED(Level.DEBUG);
+
+        final Level level;
+        final String[] fields;
+
+        Event(Level level, String... fields) {
+            this.level = level;
+            this.fields = fields;
+        }
+    }
+
+    private static final int CAPACITY = 4096; // a power of two
+    private static final int MASK = CAPACITY - 1;
+
+    private static volatile int threshold = parseLevel(System.getProperty("bomberman.log", "info")).ordinal();
+    private static volatile PrintStream out = System.out;
+
+    // ring buffer: slot i holds the record with sequence published[i]
+    private static final long[] ticks = new long[CAPACITY];
+    private static final int[] events = new int[CAPACITY];
+    private static final int[] firstFields = new int[CAPACITY];
+    private static final int[] secondFields = new int[CAPACITY];
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong claimed = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile long consumed = 0;
+
+    private static final Event[] EVENTS = Event.values();
+    private static final StringBuilder line = new StringBuilder(128);
+    // started by the first event; volatile so every producer sees it once it is running
+    private static volatile Thread writer;
+    // set while the writer is about to sleep or sleeping, so producers know to wake it
+    private static volatile boolean sleeping = false;
+    // guards starting the writer, apart from the lock flush() holds while it prints
+    private static final Object START_LOCK = new Object();
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) published.set(i, -1);
+    }
+
+    private GameLog() { }
+
+    /**
+     * Returns true if events of the given level are recorded.
+     * @param level
+     * @return
+     */
+    public static boolean isEnabled(Level level) {
+        return level != Level.OFF && level.ordinal() <= threshold;
+    }
+
+    /**
+     * Sets the most detailed level that is recorded; OFF disables the log.
+     * @param level
+     */
+    public static void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    /**
+     * Returns the current level.
+     * @return
+     */
+    public static Level getLevel() {
+        return Level.values()[threshold];
+    }
+
+    /**
+     * Sets the stream the background writer prints to. Standard output by default.
+     * @param stream
+     */
+    public static void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    /**
+     * Records an event without fields at the given simulation tick.
+     * @param tick
+     * @param event
+     */
+    public static void log(long tick, Event event) {
+        log(tick, event, 0, 0);
+    }
+
+    /**
+     * Records an event with one field at the given simulation tick.
+     * @param tick
+     * @param event
+     * @param first
+     */
+    public static void log(long tick, Event event, int first) {
+        log(tick, event, first, 0);
+    }
+
+    /**
+     * Records an event with two fields at the given simulation tick, unless its level is disabled.
+     * Never blocks: if the writer has fallen a full ring behind, the event is dropped.
+     * @param tick
+     * @param event
+     * @param first
+     * @param second
+     */
+    public static void log(long tick, Event event, int first, int second) {
+        if (event.level.ordinal() > threshold) return;
+
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        int slot = (int) (seq & MASK);
+        ticks[slot] = tick;
+        events[slot] = event.ordinal();
+        firstFields[slot] = first;
+        secondFields[slot] = second;
+        // a full barrier, so either the writer sees the record or this thread sees it sleeping
+        published.set(slot, seq);
+
+        Thread thread = writer;
+        if (thread == null) startWriter();
+        else if (sleeping) LockSupport.unpark(thread);
+    }
+
+    /**
+     * Writes every event recorded so far to the output. Called by the background writer, and by
+     * anyone who needs the log to be complete, such as tests or the shutdown hook.
+     * @return the number of events written
+     */
+    public static synchronized int flush() {
+        PrintStream stream = out;
+        long seq = consumed;
+        int written = 0;
+
+        while (published.get((int) (seq & MASK)) == seq) {
+            int slot = (int) (seq & MASK);
+            Event event = EVENTS[events[slot]];
+            line.setLength(0);
+            line.append("tick=").append(ticks[slot])
+                .append(" level=").append(event.level)
+                .append(" event=").append(event.name());
+            if (event.fields.length > 0) line.append(' ').append(event.fields[0]).append('=').append(firstFields[slot]);
+            if (event.fields.length > 1) line.append(' ').append(event.fields[1]).append('=').append(secondFields[slot]);
+            stream.println(line);
+            consumed = ++seq; // frees the slot for producers straight away
+            written++;
+        }
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) stream.println("level=INFO event=DROPPED count=" + lost);
+        if (written > 0 || lost > 0) stream.flush();
+        return written;
+    }
+
+    /**
+     * Starts the daemon thread that drains the ring buffer, and a shutdown hook that writes whatever
+     * is left when the game exits.
+     */
+    private static void startWriter() {
+        synchronized (START_LOCK) {
+            if (writer != null) return;
+            Thread thread = new Thread(GameLog::drain, "game-log");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(GameLog::flush, "game-log-flush"));
+            writer = thread;
+        }
+    }
+
+    /**
+     * Runs the writer: flushes, then sleeps until a producer publishes into the empty ring. The
+     * ring is checked again after announcing the sleep, so an event published meanwhile is never
+     * left waiting.
+     */
+    private static void drain() {
+        while (true) {
+            flush();
+            sleeping = true;
+            long next = consumed;
+            if (published.get((int) (next & MASK)) != next && dropped.get() == 0) LockSupport.park();
+            sleeping = false;
+        }
+    }
+
+    /**
+     * Parses a level name, treating unknown names as INFO.
+     * @param name
+     * @return
+     */
+    private static Level parseLevel(String name) {
+        for (Level level : Level.values()) {
+            if (level.name().equalsIgnoreCase(name)) return level;
+        }
+        return Level.INFO;
+    }
+}
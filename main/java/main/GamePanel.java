@@ -1,10 +1,9 @@
 package main;
 import entity.Entity;
 import entity.Player;
-import object.OBJ_bomb;
 import object.SuperObject;
-import powerups.ExtraBomb;
 import powerups.PowerUp;
+import tile.TileLayer;
 import tile.TileManager;
 import java.awt.*;
 import java.awt.event.MouseEvent;
@@ -12,62 +11,50 @@ import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.*;
-import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.imageio.ImageIO;
 import javax.swing.JPanel;
 
 /**
  * The GamePanel class is the main class for the game. It extends JPanel and implements Runnable and MouseListener.
- * It contains the game loop, handles game state updates and rendering, and manages game elements such as players,
- * monsters, power-ups, and game objects. It also handles user input through key handlers and mouse listeners.
- * The class is responsible for initializing and resetting the game, advancing rounds, and ending the game.
- * It also provides utility methods for displaying the game winner or indicating a draw, and for checking if a specific
- * tile is occupied by any player other than the one specified.
+ * It contains the game loop and renders the GameWorld it owns, which holds the players, monsters, power-ups and
+ * game objects together with the round logic. It also handles user input through key handlers and mouse listeners
+ * and provides utility methods for displaying the game winner or indicating a draw.
  */
 public class GamePanel extends JPanel implements Runnable, MouseListener {
-    final int originalTileSize = 16;
-    final int scale = 3;
-    public final int tileSize = originalTileSize * scale;
-    public final int maxScreenCol = 16;
-    public final int maxScreenRow = 12;
-    public final int screenWidth = tileSize * maxScreenCol;
-    public final int screenHeight = tileSize * maxScreenRow;
+    public final GameWorld world = new GameWorld(false);
+    public final int tileSize = world.tileSize;
+    public final int maxScreenCol = world.maxScreenCol;
+    public final int maxScreenRow = world.maxScreenRow;
+    public final int screenWidth = world.screenWidth;
+    public final int screenHeight = world.screenHeight;
     public BufferedImage mainMenuBackground;
-    public int FPS = 60;
-
-    public int currentRound = 1; //new
-    public final int maxRounds = 4; //new
-    public int[] playerScores; //new
-
-    public List<Point> boxes = new ArrayList<>();
-    public TileManager tileM = new TileManager(this);
+    // frames handed from the game thread to the EDT; painting only ever reads the latest frame
+    private final FrameExchange frames = new FrameExchange();
+    // scratch list for drawing entities in depth order; drawing never changes the world's lists
+    private final java.util.List<Entity> drawOrder = new ArrayList<>();
+    private static final Comparator<Entity> BY_Y = Comparator.comparingInt(e -> e.y);
+    // fire sprites indexed by DangerMap fire direction
+    private final BufferedImage[] fireSprites = new BufferedImage[6];
+    // the map as the renderer paints it, from the tiles each frame carries
+    private final TileLayer tileLayer;
+    // the tile manager and version the last published map came from, and the version frames carry
+    private TileManager publishedMap;
+    private int publishedMapVersion;
+    private long mapVersion = 0;
+    // menu commands from the EDT, run on the game thread before the next tick
+    private final Queue<Runnable> pendingCommands = new ConcurrentLinkedQueue<>();
 
     public KeyHandler keyH = new KeyHandler(this);
+    // what steers each player: the matching key set, or a bot for the slots named in -Dbomberman.bots=2,3
+    public final PlayerControllers controllers = new PlayerControllers(world);
     Thread gameThread;
+    FrameScheduler scheduler;
+    static final int MAX_CATCH_UP_TICKS = 5;
+    // players the title screen offers, each with its own key set
+    static final int MAX_PLAYERS = 3;
 
-    public CollisionChecker cChecker = new CollisionChecker(this);
-    public AssetSetter aSetter = new AssetSetter(this);
     public UI ui = new UI(this);
-    public EventHandler eHandler = new EventHandler(this);
-
-    // main.java.entity and objects
-    public Player[] players = new Player[ui.playerNumber]; // TODO: NEED TO MAKE ARRAY LIST
-    public List<SuperObject> objs = new ArrayList<>();
-    public List<Entity> entities = new ArrayList<>();
-    public Entity[] monsters = new Entity[20];
-    public List<PowerUp> powerUps = new ArrayList<>();
-
-    // game state
-    public int gameState;
-    public final int titleState = 0;
-    public final int playState = 1;
-    public final int pauseState = 2;
-    public final int gameOverState = 3;
-
-    // handling the endgame
-    public long gracePeriodEndTime = 0;
-    public final long GRACE_PERIOD_DURATION = 2000;
-
 
     /**
      * Initializes the game panel, setting up dimensions based on tile size and screen grid.
@@ -76,9 +63,25 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
      * @throws IOException
      */
     public GamePanel() throws IOException {
-        playerScores = new int[ui.playerNumber];
-        Arrays.fill(playerScores, 0); //new
-
+        SpriteCache.preload(tileSize);
+        fireSprites[DangerMap.FIRE_UP] = SpriteCache.get("/objects/fireball_up", tileSize, tileSize);
+        fireSprites[DangerMap.FIRE_DOWN] = SpriteCache.get("/objects/fireball_down", tileSize, tileSize);
+        fireSprites[DangerMap.FIRE_LEFT] = SpriteCache.get("/objects/fireball_left", tileSize, tileSize);
+        fireSprites[DangerMap.FIRE_RIGHT] = SpriteCache.get("/objects/fireball_right", tileSize, tileSize);
+        BufferedImage[] tileSprites = new BufferedImage[world.tileM.tile.length];
+        for (int i = 0; i < tileSprites.length; i++) {
+            if (world.tileM.tile[i] != null) tileSprites[i] = world.tileM.tile[i].image;
+        }
+        tileLayer = new TileLayer(maxScreenCol, maxScreenRow, tileSize, tileSprites);
+        for (int playerNum = 1; playerNum <= MAX_PLAYERS; playerNum++) controllers.set(playerNum, new KeyboardController(keyH, playerNum));
+        int[] bots;
+        try {
+            bots = PlayerControllers.parseSlots(System.getProperty("bomberman.bots", ""), MAX_PLAYERS);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid -Dbomberman.bots: " + e.getMessage(), e);
+        }
+        for (int playerNum : bots) controllers.set(playerNum, new BotController(world));
+        world.input = controllers;
         initPlayers();
         this.setPreferredSize(new Dimension(screenWidth, screenHeight));
         mainMenuBackground = ImageIO.read(getClass().getResourceAsStream("/maps/bg2a.png"));
@@ -88,7 +91,7 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
         this.addMouseListener(this);
         this.setFocusable(true);
         this.requestFocusInWindow();
-        gameState = titleState;
+        world.gameState = world.titleState;
         ui = new UI(this);
     }
 
@@ -97,15 +100,7 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
      * configured in the game UI.
      */
     public void initPlayers() {
-        if (players != null) {
-            Arrays.fill(players, null);
-        }
-        players = new Player[ui.playerNumber];
-        for (int i = 0; i < ui.playerNumber; i++) {
-            players[i] = new Player(this, keyH, i + 1);
-        }
-        playerScores = new int[ui.playerNumber];
-        Arrays.fill(playerScores, 0); //new
+        world.initPlayers(ui.playerNumber);
     }
 
     /**
@@ -122,220 +117,118 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
      * objects, monsters, and power-ups.
      */
     public void setupGame() {
-        aSetter.setObject();
-        aSetter.setMonster();
-        aSetter.setPowerUp();
+        world.setupGame();
     }
 
     /**
      * Starts the game loop running in a new thread.
      */
     public void startGameThread() {
-        gameThread = new Thread(this);
+        scheduler = new FrameScheduler(world.FPS, getDisplayRefreshRate(), MAX_CATCH_UP_TICKS);
+        gameThread = new Thread(this, "game-loop");
         gameThread.start();
     }
 
     /**
-     * Contains the game loop, which handles game state updates and rendering at a fixed
-     * time interval determined by the FPS setting.
+     * Stops the game loop and waits for the game thread to finish.
      */
-    @Override
-    public void run() {
-        double drawInterval = 1000000000.0 / FPS;
-        double delta = 0;
-        long lastTime = System.nanoTime();
-        long currentTime;
-
-        while (gameThread != null) {
-            currentTime = System.nanoTime();
-            delta += (currentTime - lastTime) / drawInterval;
-            lastTime = currentTime;
-
-            if (delta >= 1) {
-                update();
-                repaint();
-                delta--;
+    public void stopGameThread() {
+        if (scheduler != null) scheduler.stop();
+        if (gameThread != null) {
+            try {
+                gameThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+            gameThread = null;
         }
     }
 
     /**
-     * Updates game logic, including player and monster updates, checking for power-up
-     * interactions, and handling game state transitions based on gameplay events such
-     * as all players dying or all monsters being cleared.
+     * Returns the refresh rate of the screen the game runs on, falling back to the simulation
+     * rate when it is unknown or when running without a display.
+     * @return
      */
-    public void update() {
-        int alivePlayers = 0;
-        Player lastStandingPlayer = null;
-        boolean allMonstersDead = true;
-
-        if (gameState == playState) {
-            for (int i = 0; i < players.length; i++) {
-                if (players[i] != null) {
-                    if (players[i].currLife <= 0 && gracePeriodEndTime == 0) {
-                        gracePeriodEndTime = System.currentTimeMillis() + GRACE_PERIOD_DURATION;
-                        players[i] = null;
-                        System.out.println("Player " + (i + 1) + " died.");
-                    } else if (players[i].currLife > 0) {
-                        players[i].update();
-                        players[i].hitByCurrentExplosion = false;
-
-                        int powerUpIndex = cChecker.checkPowerUpCollision(players[i]);
-                        if (powerUpIndex != -1) {
-                            players[i].pickUpPowerUp(powerUpIndex);
-                        }
-
-                        alivePlayers++;
-                        lastStandingPlayer = players[i];
-                    }
-                }
-            }
-            for (int i = 0; i < monsters.length; i++) {
-                if (monsters[i] != null) {
-                    if (monsters[i].currLife <= 0) {
-                        monsters[i] = null;
-                    } else {
-                        monsters[i].update();
-                        allMonstersDead = false;
-                    }
-                }
-            }
-            for (PowerUp powerUp : powerUps) {
-                if (powerUp != null) {
-                    powerUp.update();
-                }
-            }
-            for (int i = this.objs.size() - 1; i >= 0; i--) {
-                SuperObject objs = this.objs.get(i);
-                if (objs != null) objs.update();
-                if (objs instanceof OBJ_bomb && !((OBJ_bomb) objs).isActive()) {
-                    this.objs.remove(i);
-                }
-            }
-
-            System.out.println("Alive players: " + alivePlayers);
-            System.out.println("All monsters dead: " + allMonstersDead);
-
-            if (alivePlayers == 1 && allMonstersDead) {
-                System.out.println("Player " + lastStandingPlayer.playerNum + " cleared all monsters.");
-                //playerScores[lastStandingPlayer.playerNum - 1]++;
-                nextRound(lastStandingPlayer);
-            } else if (gracePeriodEndTime > 0 && System.currentTimeMillis() > gracePeriodEndTime) {
-                if (alivePlayers == 1) {
-                    System.out.println("Player " + lastStandingPlayer.playerNum + " is the last standing.");
-                    nextRound(lastStandingPlayer);
-                } else if (alivePlayers == 0 || (alivePlayers > 0 && allMonstersDead)) {
-                    System.out.println("Advancing to next round.");
-                    nextRound(lastStandingPlayer);
-                }
-                gracePeriodEndTime = 0;
-                repaint();
-            }
-        }
+    private int getDisplayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) return world.FPS;
+        int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDisplayMode().getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? world.FPS : rate;
     }
 
     /**
-     * Advances the game to the next round, updating player scores and resetting the
-     * game environment as necessary.
-     * @param winner
+     * Contains the game loop. The game state is updated at a fixed FPS rate while the panel is
+     * repainted at the display rate; the thread sleeps between the two.
      */
-    private void nextRound(Player winner) {
-        if (winner != null) {
-            int winnerIndex = winner.playerNum - 1;
-            if (winnerIndex >= 0 && winnerIndex < playerScores.length) {
-                playerScores[winnerIndex]++;
-            } else {
-                System.err.println("Invalid winner index: " + winnerIndex);
-            }
-        }
-
-        currentRound++;
-        if (currentRound > maxRounds){
-            endGame();
-        } else {
-            System.out.println("Advancing to round " + currentRound);
-            loadRandomMap();
-            resetRound();
-        }
+    @Override
+    public void run() {
+        scheduler.run(this::update, this::repaint);
     }
 
     /**
-     * Resets the game to its initial state for a new round, reinitializing game assets and
-     * settings.
+     * Queues a change to the world, such as a new game state or map, made from the event dispatch
+     * thread. It runs on the game thread at the start of the next update, so the EDT never writes
+     * world state while a tick is running.
+     * @param command
      */
-    private void resetRound() {
-        System.out.println("Resetting round to default values.");
-        // Reset game elements and state for a new round
-        for (int i = 0; i < players.length; i++) {
-            if (players[i] != null) {
-                System.out.println("Resetting player " + (i + 1) + " to default values.");
-                players[i].setDefaultValues();
-            } else {
-                players[i] = new Player(this, keyH, i + 1);
-                players[i].setDefaultValues();
-            }
-        }
-
-        // Reset the game world
-        tileM = new TileManager(this);
-        cChecker = new CollisionChecker(this);
-        aSetter = new AssetSetter(this);
-        eHandler = new EventHandler(this);
-
-        // Reset other game-related elements
-        objs.clear();
-        entities.clear();
-        monsters = new Entity[20];
-        powerUps.clear();
-        boxes.clear();
-
-        setupGame();
-        gameState = playState;
-        repaint();
+    public void runOnGameThread(Runnable command) {
+        pendingCommands.add(command);
     }
 
     /**
-     * Handles the end of the game, displaying final scores and transitioning to the game
-     * over state.
+     * Runs the commands queued since the last tick, then advances the game world by one tick and
+     * publishes the resulting frame to the renderer. Called by the game loop at the fixed FPS rate.
      */
-    private void endGame() {
-        System.out.println("End of game. Displaying scores:");
-        for (int i = 0; i < playerScores.length; i++) {
-            System.out.println("Player " + (i + 1) + ": " + playerScores[i]);
-        }
-        gameState = gameOverState;
-        ui.showEndGameScores(playerScores);
+    public void update() {
+        for (Runnable command; (command = pendingCommands.poll()) != null; ) command.run();
+        world.update();
+        publishFrame();
     }
 
     /**
-     * Loads a random map from available resources, adding variability to game rounds.
+     * Describes the world as it stands after the last tick in the next RenderFrame and hands it to
+     * the renderer. Runs on the game thread together with update(), so it never races the simulation.
      */
-    private void loadRandomMap() {
-        Random rand = new Random();
-        int mapNumber = rand.nextInt(3) + 1; // Assuming 3 maps available
-        tileM.loadMap("/maps/map0" + mapNumber + ".txt");
-    }
+    void publishFrame() {
+        RenderFrame frame = frames.beginFrame();
+        frame.gameState = world.gameState;
+        frame.setPlayers(world.players, world.playerScores);
+        // a new round brings a new tile manager, whose version starts over
+        if (world.tileM != publishedMap || world.tileM.version != publishedMapVersion) {
+            publishedMap = world.tileM;
+            publishedMapVersion = world.tileM.version;
+            mapVersion++;
+        }
+        frame.setTiles(world.tileM.mapTileNum, mapVersion);
 
-    /**
-     * Checks if a specific tile is occupied by any player other than the one specified, used
-     * to validate placements of objects or movement.
-     * @param x
-     * @param y
-     * @param placingPlayer
-     * @return
-     */
-    public boolean isTileOccupied(int x, int y, Player placingPlayer) {
-        Rectangle tileArea = new Rectangle(x * tileSize, y * tileSize, tileSize, tileSize);
-
-        // Check for other players or entities
-        for (Player player : players) {
-            if (player != null && player != placingPlayer) {
-                Rectangle playerArea = new Rectangle(player.x, player.y, player.solidArea.width, player.solidArea.height);
-                if (playerArea.intersects(tileArea)) {
-                    return true;
-                }
+        if (world.gameState == world.playState) {
+            for (SuperObject obj : world.objs)
+                if (obj != null) obj.draw(frame, world);
+            drawFire(frame);
+
+            for (PowerUp powerUp : world.powerUps)
+                if (powerUp != null && powerUp.isVisible()) powerUp.draw(frame);
+
+            world.swarm.draw(frame);
+
+            // draw entities and monsters back to front
+            for (Entity entity : world.entities) {
+                if (entity != null) drawOrder.add(entity);
             }
-        } return false;
+            for (int i = 0; i < world.monsters.size(); i++) {
+                drawOrder.add(world.monsters.get(i));
+            }
+            drawOrder.sort(BY_Y);
+            for (Entity entity : drawOrder) {
+                entity.draw(frame);
+            }
+            drawOrder.clear();
+
+            for (Player player : world.players) {
+                if (player != null) player.draw(frame);
+            }
+        }
+        frames.publish();
     }
 
     /**
@@ -343,10 +236,10 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
      * @param player
      */
     public void displayWinner(Player player) {
-        System.out.println("Winner is Player " + player.playerNum);
+        GameLog.log(world.tick, GameLog.Event.WINNER, player.playerNum);
         ui.showMessage("Winner is Player " + player.playerNum);
         resetGame();
-        gameState = titleState;
+        world.gameState = world.titleState;
         ui.titleScreenState = 0;
         repaint();
     }
@@ -355,10 +248,10 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
      * Utility method to display a draw when no players or monsters remain.
      */
     public void displayNoWinner() {
-        System.out.println("Game ends in a draw!");
+        GameLog.log(world.tick, GameLog.Event.DRAW);
         ui.showMessage("Game ends in a draw!");
         resetGame();
-        gameState = titleState;
+        world.gameState = world.titleState;
         ui.titleScreenState = 7;
         repaint();
     }
@@ -368,89 +261,51 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
      * restarting the game from the menu.
      */
     public void resetGame() {
-        System.out.println("Resetting game to default values.");
-        currentRound = 1;
-        playerScores = new int[players.length];
-        gameState = titleState;
-        // Reset game elements and state
-        for (int i = 0; i < players.length; i++) {
-            if (players[i] != null) {
-                players[i].setDefaultValues();
-            } else {
-                players[i] = new Player(this, keyH, i + 1);
-                players[i].setDefaultValues();
-            }
-        }
-
-        // Reset the game world
-        tileM = new TileManager(this);
-        cChecker = new CollisionChecker(this);
-        aSetter = new AssetSetter(this);
-        eHandler = new EventHandler(this);
-
-        gracePeriodEndTime = 0; //
-
-        objs.clear();
-        entities.clear();
-        monsters = new Entity[20];
-        powerUps.clear();
-        boxes.clear();
-
+        world.resetGame();
         this.requestFocus();
-        setupGame();
         repaint();
     }
 
     /**
      * Overrides JPanel's paintComponent to render the game elements on the panel,
-     * handling both UI and game object rendering.
+     * handling both UI and game object rendering. The game state, map, game objects and HUD come from
+     * the latest RenderFrame published by the game thread, so painting never reads the live world.
      * @param g the Graphics object to protect
      */
     @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
+        RenderFrame frame = frames.latest();
 
-        tileM.draw(g2);
+        tileLayer.draw(g2, frame.tiles, frame.mapVersion);
         ui.setGraphics(g2);
+        ui.setFrame(frame);
         ui.updateUI();
 
-        if (gameState == titleState) {
+        if (frame.gameState == world.titleState) {
             ui.drawTitleScreen();
-        } else if (gameState == playState) {
-            tileM.draw(g2);
-            for (SuperObject obj : objs)
-                if (obj != null) obj.draw(g2, this);
-
-            for (PowerUp powerUp : powerUps)
-                if (powerUp != null && powerUp.isVisible()) powerUp.draw(g2);
-
-            for (Entity entity : monsters) {
-                if (entity != null) entities.add(entity);
-            }
-
-            entities.sort(new Comparator<Entity>() {
-                @Override
-                public int compare(Entity e1, Entity e2) {
-                    return Integer.compare(e1.x, e2.y);
-                }
-            });
-
-            // draw entities
-            for (Entity entity : entities) {
-                if (entity != null) entity.draw(g2);
-            }
-
-            // empty main.java.entity list
-            entities.clear();
-            for (Player player : players) {
-                if (player != null) player.draw(g2);
-            }
+        } else if (frame.gameState == world.playState) {
+            frame.draw(g2);
             ui.draw(g2);
         }
         g2.dispose();
     }
 
+    /**
+     * Adds the burning cells recorded in the world's DangerMap to the frame. The center of each
+     * explosion is drawn by its bomb.
+     * @param frame
+     */
+    private void drawFire(RenderFrame frame) {
+        for (int row = 0; row < maxScreenRow; row++) {
+            for (int col = 0; col < maxScreenCol; col++) {
+                BufferedImage sprite = fireSprites[world.danger.fireAt(col, row)];
+                if (sprite != null) frame.addSprite(sprite, col * tileSize, row * tileSize, RenderFrame.NATURAL_SIZE, RenderFrame.NATURAL_SIZE, false);
+            }
+        }
+    }
+
     /**
      * Implements methods from MouseListener to handle mouse interactions, primarily
      * used to detect clicks on UI elements like buttons in the game over screen.
@@ -458,7 +313,7 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
      */
     @Override
     public void mouseClicked(MouseEvent e) {
-        if (gameState == gameOverState) {
+        if (world.gameState == world.gameOverState) {
             int mouseX = e.getX();
             int mouseY = e.getY();
 
@@ -466,8 +321,7 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
             int okX = ui.getOkButtonX();
             int okY = ui.getOkButtonY();
 
-            System.out.println("Mouse clicked at (" + mouseX + ", " + mouseY + ")");
-            System.out.println("OK button at (" + okX + ", " + okY + ")");
+            GameLog.log(world.tick, GameLog.Event.MOUSE_CLICKED, mouseX, mouseY);
 
             // Adjust the boundaries for the OK button click detection
             int buttonWidth = tileSize * 2;
@@ -475,9 +329,13 @@ public class GamePanel extends JPanel implements Runnable, MouseListener {
 
             if (mouseX >= okX - 20 && mouseX <= okX + buttonWidth - 20 &&
                     mouseY >= okY - buttonHeight && mouseY <= okY) {
-                System.out.println("OK button clicked.");
-                gameState = titleState;
-                resetGame();
+                GameLog.log(world.tick, GameLog.Event.OK_CLICKED);
+                runOnGameThread(() -> {
+                    world.gameState = world.titleState;
+                    world.resetGame();
+                });
+                requestFocus();
+                repaint();
             }
         }
     }
@@ -0,0 +1,84 @@
+package main;
+
+/**
+ * The GameRandom class is the world's source of randomness. A match is started from one seed, and
+ * every system that needs random numbers draws from its own stream, split off that seed: the map
+ * rotation, the power-up placement, the monster entities and the monster swarm. Since the streams
+ * are independent, a change in how often one system draws does not shift the numbers any other
+ * system sees, and the same seed and inputs always play out the same match.
+ * The stream generators are created once and reseeded in place, so systems may keep a reference to
+ * their stream for the lifetime of the world.
+ */
+public class GameRandom {
+    /**
+     * The systems that draw random numbers, one stream each.
+     */
+    public enum Stream { MAPS, POWER_UPS, MONSTERS, SWARM }
+
+    private static final Stream[] STREAMS = Stream.values();
+
+    private final Rng[] streams = new Rng[STREAMS.length];
+    private long seed;
+
+    /**
+     * Initializes every stream from the given seed.
+     * @param seed
+     */
+    public GameRandom(long seed) {
+        for (int i = 0; i < streams.length; i++) streams[i] = new Rng(0);
+        reseed(seed);
+    }
+
+    /**
+     * Returns a seed that differs from run to run, for matches that do not need to be reproduced.
+     * @return
+     */
+    public static long freshSeed() {
+        return Rng.mix64(System.nanoTime() ^ Rng.mix64(System.currentTimeMillis()));
+    }
+
+    /**
+     * Restarts every stream from the given seed. Each stream gets its own starting point and its
+     * own gamma, derived from the seed and the stream's position.
+     * @param seed
+     */
+    public void reseed(long seed) {
+        this.seed = seed;
+        for (int i = 0; i < streams.length; i++) {
+            long base = seed + (i + 1) * Rng.GOLDEN_GAMMA;
+            streams[i].setSeed(Rng.mix64(base), Rng.mix64(base ^ 0x5851f42d4c957f2dL));
+        }
+    }
+
+    /**
+     * Returns the seed the streams were last started from.
+     * @return
+     */
+    public long seed() { return seed; }
+
+    /**
+     * Saves the seed and the position of every stream.
+     * @param out
+     */
+    void saveState(StateBuffer out) {
+        out.putLong(seed);
+        for (Rng stream : streams) {
+            out.putLong(stream.getState());
+            out.putLong(stream.getGamma());
+        }
+    }
+
+    void loadState(StateBuffer in) {
+        seed = in.getLong();
+        for (Rng stream : streams) stream.setSeed(in.getLong(), in.getLong());
+    }
+
+    /**
+     * Returns the generator of the given system.
+     * @param stream
+     * @return
+     */
+    public Rng stream(Stream stream) {
+        return streams[stream.ordinal()];
+    }
+}
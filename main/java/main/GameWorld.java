@@ -0,0 +1,555 @@
+package main;
+import entity.Entity;
+import entity.Player;
+import object.BombPool;
+import object.OBJ_bomb;
+import object.SuperObject;
+import powerups.PowerUp;
+import tile.TileManager;
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * The GameWorld class holds the complete simulation state of a match: the tile map, players,
+ * monsters, bombs and power-ups, together with the round and scoring logic. It has no dependency
+ * on Swing and never draws or repaints, so a match can be stepped tick by tick with update()
+ * without a display. GamePanel owns one GameWorld and only renders it.
+ */
+public class GameWorld {
+    final int originalTileSize = 16;
+    final int scale = 3;
+    public final int tileSize = originalTileSize * scale;
+    public final int maxScreenCol;
+    public final int maxScreenRow;
+    public final int screenWidth;
+    public final int screenHeight;
+    public int FPS = 60;
+
+    // when headless, no sprites are loaded and entities only carry simulation state
+    public final boolean headless;
+
+    public int currentRound = 1;
+    public final int maxRounds = 4;
+    // the shipped maps, /maps/map01.txt to /maps/map03.txt
+    public static final int MAP_COUNT = 3;
+    public int[] playerScores;
+
+    public List<Point> boxes = new ArrayList<>();
+    public TileManager tileM;
+    // controls handed to new players, and the recorder of their input while a match is recorded
+    public InputSource input;
+    public InputRecorder recorder;
+    // counts rounds, power-ups and deaths while installed, for batch runs
+    public MatchStats stats;
+
+    public CollisionChecker cChecker;
+    public ExplosionResolver explosions;
+    public DangerMap danger;
+    public FlowField paths;
+    // expirations of power-ups, player effects and bombs, fired by tick
+    public final TimerWheel timers = new TimerWheel();
+    // seeded random streams of the match, one per system
+    public final GameRandom random = new GameRandom(GameRandom.freshSeed());
+    public AssetSetter aSetter;
+    public EventHandler eHandler;
+
+    // spatial indexes over monsters, objects (bombs) and power-ups, bucketed by tile
+    public final SpatialGrid<Entity> monsterGrid;
+    public final SpatialGrid<SuperObject> objectGrid;
+    public final SpatialGrid<PowerUp> powerUpGrid;
+
+    // main.java.entity and objects
+    public Player[] players = new Player[0];
+    public List<SuperObject> objs;
+    public List<Entity> entities = new ArrayList<>();
+    public final MonsterRegistry monsters;
+    // lightweight wandering monsters, kept in parallel arrays for very large counts
+    public final MonsterSwarm swarm;
+    public List<PowerUp> powerUps;
+    // burnt-out bombs waiting to be placed again
+    public final BombPool bombPool;
+
+    // game state, changed only on the game thread and read by the key handler on the EDT
+    public volatile int gameState;
+    public final int titleState = 0;
+    public final int playState = 1;
+    public final int pauseState = 2;
+    public final int gameOverState = 3;
+
+    // simulation clock, advanced once per update() while playing
+    public long tick = 0;
+
+    // handling the endgame
+    public long gracePeriodEndTick = 0;
+    public final int GRACE_PERIOD_TICKS = 120; // 2 seconds at 60 FPS
+
+    /**
+     * Initializes an empty world with the default map loaded. A headless world skips all image
+     * loading so it can be created and stepped on machines without a display.
+     * @param headless
+     */
+    public GameWorld(boolean headless) {
+        this(headless, 16, 12);
+    }
+
+    /**
+     * Initializes an empty world of the given size in tiles. The shipped maps are 16 x 12; in a
+     * larger world they fill the top-left corner and the remaining cells are left as grass.
+     * @param headless
+     * @param cols
+     * @param rows
+     */
+    public GameWorld(boolean headless, int cols, int rows) {
+        this.headless = headless;
+        maxScreenCol = cols;
+        maxScreenRow = rows;
+        screenWidth = tileSize * cols;
+        screenHeight = tileSize * rows;
+        monsterGrid = new SpatialGrid<>(cols, rows, tileSize);
+        objectGrid = new SpatialGrid<>(cols, rows, tileSize);
+        powerUpGrid = new SpatialGrid<>(cols, rows, tileSize);
+        monsters = new MonsterRegistry(monsterGrid);
+        objs = new GridList<>(objectGrid);
+        powerUps = new GridList<>(powerUpGrid);
+        bombPool = new BombPool(this);
+
+        tileM = new TileManager(this);
+        cChecker = new CollisionChecker(this);
+        explosions = new ExplosionResolver(this);
+        danger = new DangerMap(this);
+        paths = new FlowField(this);
+        swarm = new MonsterSwarm(this);
+        aSetter = new AssetSetter(this);
+        eHandler = new EventHandler(this);
+        gameState = titleState;
+    }
+
+    /**
+     * Initializes or re-initializes the array of player objects.
+     * @param playerCount
+     */
+    public void initPlayers(int playerCount) {
+        players = new Player[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            players[i] = new Player(this, input, i + 1);
+        }
+        playerScores = new int[playerCount];
+        Arrays.fill(playerScores, 0);
+    }
+
+    /**
+     * Calls methods from the AssetSetter to populate the game environment with
+     * objects, monsters, and power-ups.
+     */
+    public void setupGame() {
+        aSetter.setObject();
+        aSetter.setMonster();
+        aSetter.setPowerUp();
+    }
+
+    /**
+     * Sets up a fresh match with the given number of players and switches straight to the play
+     * state, which is how headless matches are started.
+     * @param playerCount
+     */
+    public void startMatch(int playerCount) {
+        initPlayers(playerCount);
+        setupGame();
+        gameState = playState;
+        if (stats != null) stats.roundStarted(this);
+    }
+
+    /**
+     * Sets up a fresh match like startMatch(playerCount), with every random stream started from
+     * the given seed, so the same seed and inputs replay the same match.
+     * @param playerCount
+     * @param seed
+     */
+    public void startMatch(int playerCount, long seed) {
+        random.reseed(seed);
+        startMatch(playerCount);
+    }
+
+    /**
+     * Saves the complete simulation state into the buffer, replacing what it held: the clock, round
+     * and scores, the map, every player, monster, bomb and power-up, the pending timers, the random
+     * streams, the fire on the map and the spatial indexes. The objects are saved by reference, so
+     * loadState() puts the same objects back. Saving into a buffer that has held a state of this
+     * size before allocates nothing.
+     * @param out
+     */
+    public void saveState(StateBuffer out) {
+        out.clear();
+        out.putLong(tick);
+        out.putInt(gameState);
+        out.putInt(currentRound);
+        out.putLong(gracePeriodEndTick);
+        out.putRef(playerScores);
+        out.putInts(playerScores, playerScores == null ? 0 : playerScores.length);
+        out.putRef(players);
+        for (Player player : players) out.putRef(player);
+
+        out.putRef(tileM);
+        out.putRef(cChecker);
+        out.putRef(aSetter);
+        out.putRef(eHandler);
+        tileM.saveState(out);
+        random.saveState(out);
+        timers.saveState(out);
+        danger.saveState(out);
+        swarm.saveState(out);
+        bombPool.saveState(out);
+
+        out.putInt(boxes.size());
+        for (int i = 0; i < boxes.size(); i++) out.putRef(boxes.get(i));
+        out.putInt(objs.size());
+        for (int i = 0; i < objs.size(); i++) out.putRef(objs.get(i));
+        out.putInt(entities.size());
+        for (int i = 0; i < entities.size(); i++) out.putObject(entities.get(i));
+        out.putInt(monsters.size());
+        for (int i = 0; i < monsters.size(); i++) out.putObject(monsters.get(i));
+        out.putInt(powerUps.size());
+        for (int i = 0; i < powerUps.size(); i++) out.putRef(powerUps.get(i));
+
+        // the state of everything else the simulation can still reach: the players, the bombs and
+        // power-ups with the players that own or use them, and the listeners of pending timers, such
+        // as power-ups in effect or players that have died. An object reached twice is saved twice.
+        out.putInt(countSaveable(players));
+        for (Player player : players) {
+            if (player != null) out.putObject(player);
+        }
+        out.putInt(countSaveable(objs) + countSaveable(powerUps));
+        saveObjects(objs, out);
+        saveObjects(powerUps, out);
+        int listeners = 0;
+        for (int timer = 0; timer < timers.capacity(); timer++) {
+            if (timers.listenerAt(timer) instanceof StateBuffer.Saveable) listeners++;
+        }
+        out.putInt(listeners);
+        for (int timer = 0; timer < timers.capacity(); timer++) {
+            if (timers.listenerAt(timer) instanceof StateBuffer.Saveable listener) out.putObject(listener);
+        }
+
+        monsterGrid.saveState(out);
+        objectGrid.saveState(out);
+        powerUpGrid.saveState(out);
+    }
+
+    /**
+     * Saves each bomb and power-up of the list together with the player that owns or used it.
+     * @param list
+     * @param out
+     */
+    private static void saveObjects(List<? extends SuperObject> list, StateBuffer out) {
+        for (int i = 0; i < list.size(); i++) {
+            SuperObject obj = list.get(i);
+            if (!(obj instanceof StateBuffer.Saveable saveable)) continue;
+            out.putObject(saveable);
+            Player player = obj instanceof OBJ_bomb bomb ? bomb.owner : ((PowerUp) obj).getActivatedBy();
+            out.putRef(player);
+            if (player != null) player.saveState(out);
+        }
+    }
+
+    private static int countSaveable(Object[] array) {
+        int count = 0;
+        for (Object item : array) {
+            if (item instanceof StateBuffer.Saveable) count++;
+        }
+        return count;
+    }
+
+    private static int countSaveable(List<?> list) {
+        int count = 0;
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) instanceof StateBuffer.Saveable) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Restores a state written by saveState(), after which the world continues exactly as it did
+     * from the tick the state was saved on. Caches derived from the map are refreshed when next
+     * used. Allocates nothing.
+     * @param in
+     */
+    public void loadState(StateBuffer in) {
+        in.rewind();
+        tick = in.getLong();
+        gameState = in.getInt();
+        currentRound = in.getInt();
+        gracePeriodEndTick = in.getLong();
+        playerScores = in.getRef();
+        in.getInts(playerScores, playerScores == null ? 0 : playerScores.length);
+        players = in.getRef();
+        for (int i = 0; i < players.length; i++) players[i] = in.getRef();
+
+        tileM = in.getRef();
+        cChecker = in.getRef();
+        aSetter = in.getRef();
+        eHandler = in.getRef();
+        tileM.loadState(in);
+        random.loadState(in);
+        timers.loadState(in);
+        danger.loadState(in);
+        swarm.loadState(in);
+        bombPool.loadState(in);
+
+        boxes.clear();
+        for (int i = in.getInt(); i > 0; i--) boxes.add(in.getRef());
+        objs.clear();
+        for (int i = in.getInt(); i > 0; i--) objs.add(in.getRef());
+        entities.clear();
+        for (int i = in.getInt(); i > 0; i--) entities.add(in.getObject());
+        monsters.clear();
+        for (int i = in.getInt(); i > 0; i--) monsters.add(in.getObject());
+        powerUps.clear();
+        for (int i = in.getInt(); i > 0; i--) powerUps.add(in.getRef());
+
+        for (int i = in.getInt(); i > 0; i--) in.getObject();
+        for (int i = in.getInt(); i > 0; i--) {
+            in.getObject();
+            Player player = in.getRef();
+            if (player != null) player.loadState(in);
+        }
+        for (int i = in.getInt(); i > 0; i--) in.getObject();
+
+        monsterGrid.loadState(in);
+        objectGrid.loadState(in);
+        powerUpGrid.loadState(in);
+    }
+
+    /**
+     * Advances the simulation by one tick: updates players, monsters, power-ups and objects,
+     * and handles game state transitions based on gameplay events such as all players dying or
+     * all monsters being cleared.
+     */
+    public void update() {
+        int alivePlayers = 0;
+        Player lastStandingPlayer = null;
+        boolean allMonstersDead = true;
+
+        if (gameState == playState) {
+            tick++;
+
+            for (int i = 0; i < players.length; i++) {
+                if (players[i] != null) {
+                    if (players[i].currLife <= 0 && gracePeriodEndTick == 0) {
+                        gracePeriodEndTick = tick + GRACE_PERIOD_TICKS;
+                        players[i] = null;
+                        GameLog.log(tick, GameLog.Event.PLAYER_DIED, i + 1);
+                    } else if (players[i].currLife > 0) {
+                        players[i].update();
+                        players[i].hitByCurrentExplosion = false;
+
+                        int powerUpIndex = cChecker.checkPowerUpCollision(players[i]);
+                        if (powerUpIndex != -1) {
+                            players[i].pickUpPowerUp(powerUpIndex);
+                        }
+
+                        alivePlayers++;
+                        lastStandingPlayer = players[i];
+                    }
+                }
+            }
+            paths.update();
+            int m = 0;
+            while (m < monsters.size()) {
+                Entity monster = monsters.get(m);
+                if (monster.currLife <= 0) {
+                    monsters.removeAt(m); // the last monster moves into slot m
+                } else {
+                    monster.update();
+                    monsterGrid.update(monster);
+                    allMonstersDead = false;
+                    m++;
+                }
+            }
+            swarm.update();
+            if (swarm.size() > 0) allMonstersDead = false;
+            timers.advance(tick);
+            for (int i = this.objs.size() - 1; i >= 0; i--) {
+                SuperObject objs = this.objs.get(i);
+                if (objs != null) objs.update();
+                if (objs instanceof OBJ_bomb bomb && !bomb.isActive()) {
+                    this.objs.remove(i);
+                    bombPool.release(bomb);
+                }
+            }
+            danger.rebuild();
+
+            GameLog.log(tick, GameLog.Event.TICK_STATUS, alivePlayers, allMonstersDead ? 0 : 1);
+
+            if (alivePlayers == 1 && allMonstersDead) {
+                GameLog.log(tick, GameLog.Event.MONSTERS_CLEARED, lastStandingPlayer.playerNum);
+                nextRound(lastStandingPlayer);
+            } else if (gracePeriodEndTick > 0 && tick > gracePeriodEndTick) {
+                if (alivePlayers == 1) {
+                    GameLog.log(tick, GameLog.Event.LAST_STANDING, lastStandingPlayer.playerNum);
+                    nextRound(lastStandingPlayer);
+                } else if (alivePlayers == 0 || (alivePlayers > 0 && allMonstersDead)) {
+                    nextRound(lastStandingPlayer);
+                }
+                gracePeriodEndTick = 0;
+            }
+        }
+    }
+
+    /**
+     * Advances the game to the next round, updating player scores and resetting the
+     * game environment as necessary.
+     * @param winner
+     */
+    private void nextRound(Player winner) {
+        if (stats != null) stats.roundEnded(this, winner);
+        if (winner != null) {
+            int winnerIndex = winner.playerNum - 1;
+            if (winnerIndex >= 0 && winnerIndex < playerScores.length) {
+                playerScores[winnerIndex]++;
+            } else {
+                GameLog.log(tick, GameLog.Event.INVALID_WINNER, winnerIndex);
+            }
+        }
+
+        currentRound++;
+        if (currentRound > maxRounds){
+            endGame();
+        } else {
+            GameLog.log(tick, GameLog.Event.ROUND_STARTED, currentRound);
+            resetRound();
+        }
+    }
+
+    /**
+     * Ends the current round without a winner and starts the next one, or ends the match after the
+     * last round. Used by runners that cut short rounds nobody can win.
+     */
+    public void drawRound() {
+        if (gameState == playState) nextRound(null);
+    }
+
+    /**
+     * Resets the game to its initial state for a new round on a random map, reinitializing game
+     * assets and settings. Interactive games and tournaments share this, so in both every round
+     * after the first is played on the drawn map with its boxes and power-ups.
+     */
+    private void resetRound() {
+        GameLog.log(tick, GameLog.Event.ROUND_RESET);
+        resetPlayers();
+        resetWorld();
+        // the map is loaded after the reset, which rebuilds the tile manager and forgets the boxes
+        loadRandomMap();
+
+        setupGame();
+        gameState = playState;
+        if (stats != null) stats.roundStarted(this);
+    }
+
+    /**
+     * Handles the end of the game, displaying final scores and transitioning to the game
+     * over state.
+     */
+    private void endGame() {
+        GameLog.log(tick, GameLog.Event.GAME_OVER);
+        for (int i = 0; i < playerScores.length; i++) {
+            GameLog.log(tick, GameLog.Event.FINAL_SCORE, i + 1, playerScores[i]);
+        }
+        gameState = gameOverState;
+        if (stats != null) stats.matchEnded(this);
+        if (recorder != null) {
+            recorder.finish();
+            recorder = null;
+        }
+    }
+
+    /**
+     * Loads a random map from available resources, adding variability to game rounds.
+     */
+    private void loadRandomMap() {
+        loadMap(random.stream(GameRandom.Stream.MAPS).nextInt(MAP_COUNT) + 1);
+    }
+
+    /**
+     * Replaces the map with one of the shipped maps, together with the boxes the power-ups are
+     * hidden under. Called before startMatch() to choose the map of the first round.
+     * @param mapNumber between 1 and MAP_COUNT
+     */
+    public void loadMap(int mapNumber) {
+        if (mapNumber < 1 || mapNumber > MAP_COUNT) throw new IllegalArgumentException("No map " + mapNumber);
+        boxes.clear();
+        tileM.loadMap("/maps/map0" + mapNumber + ".txt");
+    }
+
+    /**
+     * Resets the entire game to default values, typically called after a game over or when
+     * restarting the game from the menu.
+     */
+    public void resetGame() {
+        GameLog.log(tick, GameLog.Event.GAME_RESET);
+        currentRound = 1;
+        playerScores = new int[players.length];
+        gameState = titleState;
+        resetPlayers();
+        resetWorld();
+        gracePeriodEndTick = 0;
+
+        setupGame();
+    }
+
+    /**
+     * Restores every player slot to its default values, recreating players that died.
+     */
+    private void resetPlayers() {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] != null) {
+                GameLog.log(tick, GameLog.Event.PLAYER_RESET, i + 1);
+                players[i].setDefaultValues();
+            } else {
+                players[i] = new Player(this, input, i + 1);
+                players[i].setDefaultValues();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the map and helpers and clears all objects, monsters and power-ups.
+     */
+    private void resetWorld() {
+        tileM = new TileManager(this);
+        cChecker = new CollisionChecker(this);
+        aSetter = new AssetSetter(this);
+        eHandler = new EventHandler(this);
+
+        for (SuperObject obj : objs) {
+            if (obj instanceof OBJ_bomb bomb) bombPool.release(bomb);
+        }
+        objs.clear();
+        entities.clear();
+        monsters.clear();
+        swarm.clear();
+        powerUps.clear();
+        boxes.clear();
+        danger.clear();
+    }
+
+    /**
+     * Checks if a specific tile is occupied by any player other than the one specified, used
+     * to validate placements of objects or movement.
+     * @param x
+     * @param y
+     * @param placingPlayer
+     * @return
+     */
+    public boolean isTileOccupied(int x, int y, Player placingPlayer) {
+        // Check for other players or entities
+        for (Player player : players) {
+            if (player != null && player != placingPlayer) {
+                if (CollisionChecker.intersects(player.x, player.y, player.solidArea.width, player.solidArea.height,
+                        x * tileSize, y * tileSize, tileSize, tileSize)) {
+                    return true;
+                }
+            }
+        } return false;
+    }
+}
@@ -0,0 +1,108 @@
+package main;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * The GridList class is a List that keeps a SpatialGrid in sync with its contents. It is backed by
+ * an ArrayList, and every way of changing it, including iterators, sub lists and bulk operations
+ * such as removeIf, goes through add, set and remove here, which insert into or remove from the
+ * grid, so code that manages world object lists does not need to know about the index.
+ * Elements are indexed at the position they have when added; they are expected not to move, and to
+ * be in the list at most once.
+ * @param <T>
+ */
+public class GridList<T extends SpatialGrid.Member> extends AbstractList<T> implements RandomAccess {
+    private final SpatialGrid<? super T> grid;
+    private final ArrayList<T> items = new ArrayList<>();
+
+    /**
+     * Initializes an empty list bound to the given grid.
+     * @param grid
+     */
+    public GridList(SpatialGrid<? super T> grid) {
+        this.grid = grid;
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public int indexOf(Object item) {
+        return items.indexOf(item);
+    }
+
+    @Override
+    public boolean contains(Object item) {
+        return items.contains(item);
+    }
+
+    @Override
+    public void add(int index, T item) {
+        items.add(index, item);
+        modCount++;
+        if (item != null) grid.insert(item);
+    }
+
+    @Override
+    public T set(int index, T item) {
+        T old = items.set(index, item);
+        if (old != null && old != item) grid.remove(old);
+        if (item != null) grid.insert(item);
+        return old;
+    }
+
+    @Override
+    public T remove(int index) {
+        T old = items.remove(index);
+        modCount++;
+        if (old != null) grid.remove(old);
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            T item = items.get(i);
+            if (item != null) grid.remove(item);
+        }
+        items.subList(fromIndex, toIndex).clear();
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, items.size());
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        // all old elements leave the grid first, so one that is kept at another index stays in it
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            if (item != null) grid.remove(item);
+        }
+        items.replaceAll(operator);
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            if (item != null) grid.insert(item);
+        }
+        modCount++;
+    }
+
+    @Override
+    public void sort(Comparator<? super T> comparator) {
+        // reordering keeps the same elements, so the grid is left as it is
+        items.sort(comparator);
+        modCount++;
+    }
+}
@@ -0,0 +1,213 @@
+package main;
+import java.awt.*;
+import java.io.*;
+
+/**
+ * The InputRecorder class writes everything needed to play a match again: the match seed, the map
+ * and power-up boxes the match was set up on, the number of players, and every player's input on
+ * every tick. Since the simulation is deterministic, ReplayPlayer can rebuild the match from this
+ * alone.
+ * Input is delta encoded: a record is only written on ticks where some player's input changed, and
+ * it holds the number of ticks since the previous record and the new input of the players that
+ * changed. Holding a direction for a second costs nothing beyond the two changes at either end, so
+ * a long match takes a few kilobytes.
+ * Recording happens on the game thread through the players' polls and allocates nothing per tick.
+ * An I/O error stops the recording and is reported, but never interrupts the match.
+ *
+ * Format (big-endian, var = unsigned LEB128 varint):
+ *   int magic "BMRP", byte version, long seed, var setup tick, var start tick, byte players,
+ *   var cols, var rows, cols * rows bytes of tiles before setup (column by column),
+ *   var boxes, then var col and var row of each box in the order setup sees them,
+ *   var changed cells, then var cell and byte tile of each cell that differs when play starts;
+ *   records: var ticks since the previous record (at least 1), byte mask of the players that
+ *   changed, and one byte of input per player in the mask, in player order;
+ *   end: var 0, then var ticks from the last record to the end of the recording.
+ */
+public class InputRecorder {
+    static final int MAGIC = 0x424D5250; // "BMRP"
+    static final int VERSION = 1;
+    static final int MAX_PLAYERS = 8;
+
+    private final GameWorld gp;
+    private final DataOutputStream out;
+
+    // the tick, map and boxes the match is set up on, captured before setup changes anything
+    private final long setupTick;
+    private final byte[] setupTiles;
+    private final int[] setupBoxes;
+
+    private boolean started = false;
+    private boolean stopped = false;
+
+    // the last input recorded for each player, and the record being collected for pendingTick
+    private final int[] lastInput = new int[MAX_PLAYERS];
+    private final int[] pendingInput = new int[MAX_PLAYERS];
+    private long pendingTick = -1;
+    private int pendingMask = 0;
+    private long lastRecordTick;
+
+    /**
+     * Starts recording the given world into the given stream. Must be called before the world
+     * sets up its objects, monsters and power-ups for the match, since the recording captures the
+     * map they are set up on.
+     * @param world
+     * @param out
+     * @return the recorder, also installed as the world's recorder
+     */
+    public static InputRecorder begin(GameWorld world, OutputStream out) {
+        InputRecorder recorder = new InputRecorder(world, out);
+        world.recorder = recorder;
+        return recorder;
+    }
+
+    private InputRecorder(GameWorld gp, OutputStream out) {
+        this.gp = gp;
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.setupTick = gp.tick;
+
+        setupTiles = new byte[gp.maxScreenCol * gp.maxScreenRow];
+        for (int col = 0; col < gp.maxScreenCol; col++) {
+            for (int row = 0; row < gp.maxScreenRow; row++) {
+                setupTiles[col * gp.maxScreenRow + row] = (byte) gp.tileM.mapTileNum[col][row];
+            }
+        }
+        setupBoxes = new int[gp.boxes.size() * 2];
+        for (int i = 0; i < gp.boxes.size(); i++) {
+            Point box = gp.boxes.get(i);
+            setupBoxes[2 * i] = box.x;
+            setupBoxes[2 * i + 1] = box.y;
+        }
+    }
+
+    /**
+     * Records the input a player polled on the current tick. Called by Player.pollInput().
+     * @param playerNum
+     * @param input
+     */
+    public void record(int playerNum, int input) {
+        if (stopped) return;
+        try {
+            if (!started) writeHeader();
+
+            int i = playerNum - 1;
+            if (input == lastInput[i]) return;
+            if (gp.tick != pendingTick) flushPending();
+            pendingTick = gp.tick;
+            pendingMask |= 1 << i;
+            pendingInput[i] = input;
+            lastInput[i] = input;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the last record and the end of the recording at the world's current tick, and closes
+     * the stream. Does nothing if the recording already stopped.
+     */
+    public void finish() {
+        if (stopped) return;
+        try {
+            if (!started) writeHeader();
+            flushPending();
+            writeVar(out, 0);
+            writeVar(out, gp.tick - lastRecordTick);
+            out.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+        stopped = true;
+    }
+
+    /**
+     * Returns true once the recording has been finished or stopped by an error.
+     * @return
+     */
+    public boolean isStopped() { return stopped; }
+
+    /**
+     * Writes the seed, the setup tick, map and boxes, the players and the map as play starts. Called
+     * on the first poll of the match, before the first tick changes anything.
+     */
+    private void writeHeader() throws IOException {
+        started = true;
+        if (gp.players.length > MAX_PLAYERS) throw new IOException("Cannot record more than " + MAX_PLAYERS + " players");
+        long startTick = gp.gameState == gp.playState && gp.tick > 0 ? gp.tick - 1 : gp.tick;
+        lastRecordTick = startTick;
+
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(gp.random.seed());
+        writeVar(out, setupTick);
+        writeVar(out, startTick);
+        out.writeByte(gp.players.length);
+        writeVar(out, gp.maxScreenCol);
+        writeVar(out, gp.maxScreenRow);
+        out.write(setupTiles);
+        writeVar(out, setupBoxes.length / 2);
+        for (int coordinate : setupBoxes) writeVar(out, coordinate);
+
+        // the map may have been changed after setup, for example from the title screen
+        int changed = 0;
+        for (int cell = 0; cell < setupTiles.length; cell++) {
+            if (tileAt(cell) != setupTiles[cell]) changed++;
+        }
+        writeVar(out, changed);
+        for (int cell = 0; cell < setupTiles.length; cell++) {
+            if (tileAt(cell) != setupTiles[cell]) {
+                writeVar(out, cell);
+                out.writeByte(tileAt(cell));
+            }
+        }
+    }
+
+    private int tileAt(int cell) {
+        return (byte) gp.tileM.mapTileNum[cell / gp.maxScreenRow][cell % gp.maxScreenRow];
+    }
+
+    private void flushPending() throws IOException {
+        if (pendingMask == 0) return;
+        writeVar(out, pendingTick - lastRecordTick);
+        out.writeByte(pendingMask);
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            if ((pendingMask & (1 << i)) != 0) out.writeByte(pendingInput[i]);
+        }
+        lastRecordTick = pendingTick;
+        pendingMask = 0;
+    }
+
+    private void fail(IOException e) {
+        stopped = true;
+        if (gp.recorder == this) gp.recorder = null;
+        e.printStackTrace();
+    }
+
+    /**
+     * Writes a non-negative value as an unsigned LEB128 varint: seven bits per byte, low bits
+     * first, with the top bit set on every byte but the last.
+     * @param out
+     * @param value
+     */
+    static void writeVar(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads a value written by writeVar().
+     * @param in
+     * @return
+     */
+    static long readVar(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
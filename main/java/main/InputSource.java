@@ -0,0 +1,20 @@
+package main;
+
+/**
+ * Implemented by everything that tells the players what to do on each tick: the keyboard, a
+ * recorded replay, or a network connection. Every player polls its source once per tick, so the
+ * simulation only ever sees input at tick boundaries, on the game thread.
+ * An input is a small bit set of the directions held and the actions requested on that tick.
+ */
+public interface InputSource {
+    int UP = 1, DOWN = 1 << 1, LEFT = 1 << 2, RIGHT = 1 << 3;
+    int BOMB = 1 << 4, DETONATE = 1 << 5, OBSTACLE = 1 << 6;
+
+    /**
+     * Returns the input of the given player for the current tick. Actions are reported once, on
+     * the first poll after they were requested.
+     * @param playerNum
+     * @return
+     */
+    int poll(int playerNum);
+}
@@ -1,18 +1,28 @@
 package main;
+import entity.Player;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * KeyHandler class is responsible for handling key inputs across different
  * parts of the game. It includes methods for processing key inputs specific to the title screen,
  * active gameplay, and when the game is paused. It also updates boolean flags for key states to false
  * when keys are released, indicating the end of the corresponding movement or action.
+ * Keys arrive on the event dispatch thread, but the players only read them through poll() on the
+ * game thread: held keys are sampled once per tick, and bomb, detonator and obstacle presses are
+ * queued until the player's next tick instead of changing the world from the event thread. Menu
+ * choices that change the world, such as the game state, player count or map, are queued with
+ * GamePanel.runOnGameThread for the same reason.
  */
-public class KeyHandler implements KeyListener {
+public class KeyHandler implements KeyListener, InputSource {
     GamePanel gp;
-    public boolean upPressed, downPressed, rightPressed, leftPressed;
-    public boolean upPressed2, downPressed2, rightPressed2, leftPressed2;
-    public boolean upPressed3, downPressed3, rightPressed3, leftPressed3;
+    public volatile boolean upPressed, downPressed, rightPressed, leftPressed;
+    public volatile boolean upPressed2, downPressed2, rightPressed2, leftPressed2;
+    public volatile boolean upPressed3, downPressed3, rightPressed3, leftPressed3;
+
+    // actions pressed since each player's last poll
+    private final AtomicIntegerArray pendingActions = new AtomicIntegerArray(3);
 
     /**
      * Initializes the KeyHandler with a reference to GamePanel. Enables the handling of key inputs across different
@@ -23,6 +33,41 @@ public class KeyHandler implements KeyListener {
         this.gp = gp;
     }
 
+    /**
+     * Returns the keys held by the given player together with the actions they pressed since the
+     * last poll, and forgets those actions.
+     * @param playerNum
+     * @return
+     */
+    @Override
+    public int poll(int playerNum) {
+        int input = switch (playerNum) {
+            case 1 -> directions(upPressed, downPressed, leftPressed, rightPressed);
+            case 2 -> directions(upPressed2, downPressed2, leftPressed2, rightPressed2);
+            case 3 -> directions(upPressed3, downPressed3, leftPressed3, rightPressed3);
+            default -> 0;
+        };
+        if (playerNum >= 1 && playerNum <= pendingActions.length()) {
+            input |= pendingActions.getAndSet(playerNum - 1, 0);
+        }
+        return input;
+    }
+
+    private static int directions(boolean up, boolean down, boolean left, boolean right) {
+        return (up ? UP : 0) | (down ? DOWN : 0) | (left ? LEFT : 0) | (right ? RIGHT : 0);
+    }
+
+    /**
+     * Queues an action for the given player's next tick, unless that player is not in the game.
+     * @param playerNum
+     * @param action
+     */
+    private void queueAction(int playerNum, int action) {
+        Player[] players = gp.world.players;
+        if (playerNum > players.length || players[playerNum - 1] == null) return;
+        pendingActions.accumulateAndGet(playerNum - 1, action, (pending, added) -> pending | added);
+    }
+
     @Override
     public void keyTyped(KeyEvent e) { }
 
@@ -34,9 +79,9 @@ public class KeyHandler implements KeyListener {
     @Override
     public void keyPressed(KeyEvent e) {
         int code = e.getKeyCode();
-        if      (gp.gameState == gp.titleState) { titleScreenInput(code); }
-        else if (gp.gameState == gp.playState)  { playStateInput(code);   }
-        else if (gp.gameState == gp.pauseState) { pauseStateInput(code);  }
+        if      (gp.world.gameState == gp.world.titleState) { titleScreenInput(code); }
+        else if (gp.world.gameState == gp.world.playState)  { playStateInput(code);   }
+        else if (gp.world.gameState == gp.world.pauseState) { pauseStateInput(code);  }
     }
 
     /**
@@ -81,7 +126,7 @@ public class KeyHandler implements KeyListener {
                     if (gp.ui.commandNum > 2) gp.ui.commandNum = 0;
                 }
                 case KeyEvent.VK_ENTER -> {
-                    if (gp.ui.commandNum == 0) gp.gameState = gp.playState;
+                    if (gp.ui.commandNum == 0) gp.runOnGameThread(() -> gp.world.gameState = gp.world.playState);
                     if (gp.ui.commandNum == 1) gp.ui.titleScreenState = 3;
                     if (gp.ui.commandNum == 2) System.exit(0);
                 }
@@ -119,15 +164,15 @@ public class KeyHandler implements KeyListener {
                 case KeyEvent.VK_ENTER -> {
                     if (gp.ui.commandNum == 5) {
                         gp.ui.playerNumber = 1;
-                        gp.updatePlayerSettings();
+                        gp.runOnGameThread(gp::updatePlayerSettings);
                         gp.ui.titleScreenState = 0;}
                     if (gp.ui.commandNum == 6) {
                         gp.ui.playerNumber = 2;
-                        gp.updatePlayerSettings();
+                        gp.runOnGameThread(gp::updatePlayerSettings);
                         gp.ui.titleScreenState = 0;}
                     if (gp.ui.commandNum == 7) {
                         gp.ui.playerNumber = 3;
-                        gp.updatePlayerSettings();
+                        gp.runOnGameThread(gp::updatePlayerSettings);
                         gp.ui.titleScreenState = 0;}
                 }
                 default -> throw new IllegalStateException("Unexpected value: " + code);
@@ -146,9 +191,9 @@ public class KeyHandler implements KeyListener {
                 }
                 case KeyEvent.VK_ENTER -> {
                     switch (gp.ui.commandNum) {
-                        case 5 -> gp.tileM.loadMap("/maps/map01.txt");
-                        case 6 -> gp.tileM.loadMap("/maps/map02.txt");
-                        case 7 -> gp.tileM.loadMap("/maps/map03.txt");
+                        case 5 -> gp.runOnGameThread(() -> gp.world.tileM.loadMap("/maps/map01.txt"));
+                        case 6 -> gp.runOnGameThread(() -> gp.world.tileM.loadMap("/maps/map02.txt"));
+                        case 7 -> gp.runOnGameThread(() -> gp.world.tileM.loadMap("/maps/map03.txt"));
                     }
                     gp.ui.commandNum = 0;
                     gp.ui.titleScreenState = 0;
@@ -185,54 +230,30 @@ public class KeyHandler implements KeyListener {
             case KeyEvent.VK_A -> leftPressed  = true;
             case KeyEvent.VK_S -> downPressed  = true;
             case KeyEvent.VK_D -> rightPressed = true;
-            case KeyEvent.VK_Q -> gp.players[0].placeBomb();
-            case KeyEvent.VK_E -> {
-                if (gp.players[0] != null) {
-                    gp.players[0].detonateBombs();
-                }
-            }
-            case KeyEvent.VK_R -> {
-                if (gp.players[0] != null) {
-                    gp.players[0].placeObstacle();
-                }
-            }
+            case KeyEvent.VK_Q -> queueAction(1, BOMB);
+            case KeyEvent.VK_E -> queueAction(1, DETONATE);
+            case KeyEvent.VK_R -> queueAction(1, OBSTACLE);
 
             case KeyEvent.VK_I -> upPressed3    = true;
             case KeyEvent.VK_K -> downPressed3  = true;
             case KeyEvent.VK_J -> leftPressed3  = true;
             case KeyEvent.VK_L -> rightPressed3 = true;
-            case KeyEvent.VK_U -> gp.players[2].placeBomb();
-            case KeyEvent.VK_O -> {
-                if (gp.players[2] != null) {
-                    gp.players[2].detonateBombs();
-                }
-            }
-            case KeyEvent.VK_P -> {
-                if (gp.players[2] != null) {
-                    gp.players[2].placeObstacle();
-                }
-            }
+            case KeyEvent.VK_U -> queueAction(3, BOMB);
+            case KeyEvent.VK_O -> queueAction(3, DETONATE);
+            case KeyEvent.VK_P -> queueAction(3, OBSTACLE);
 
             case KeyEvent.VK_UP    -> upPressed2    = true;
             case KeyEvent.VK_DOWN  -> downPressed2  = true;
             case KeyEvent.VK_LEFT  -> leftPressed2  = true;
             case KeyEvent.VK_RIGHT -> rightPressed2 = true;
-            case KeyEvent.VK_SHIFT -> gp.players[1].placeBomb();
-            case KeyEvent.VK_ENTER -> {
-                if (gp.players[1] != null) {
-                    gp.players[1].detonateBombs();
-                }
-            }
-            case KeyEvent.VK_CONTROL -> {
-                if (gp.players[1] != null) {
-                    gp.players[1].placeObstacle();
-                }
-            }
+            case KeyEvent.VK_SHIFT -> queueAction(2, BOMB);
+            case KeyEvent.VK_ENTER -> queueAction(2, DETONATE);
+            case KeyEvent.VK_CONTROL -> queueAction(2, OBSTACLE);
 
-            case KeyEvent.VK_SPACE -> {
-                if (gp.gameState == gp.playState) gp.gameState = gp.pauseState;
-                else if (gp.gameState == gp.pauseState) gp.gameState = gp.playState;
-            }
+            case KeyEvent.VK_SPACE -> gp.runOnGameThread(() -> {
+                if (gp.world.gameState == gp.world.playState) gp.world.gameState = gp.world.pauseState;
+                else if (gp.world.gameState == gp.world.pauseState) gp.world.gameState = gp.world.playState;
+            });
         }
     }
 
@@ -252,7 +273,7 @@ public class KeyHandler implements KeyListener {
                 if (gp.ui.commandNum > 3) gp.ui.commandNum =2 ;
             }
             case KeyEvent.VK_ENTER -> {
-                if (gp.ui.commandNum == 2) gp.gameState = gp.titleState;
+                if (gp.ui.commandNum == 2) gp.runOnGameThread(() -> gp.world.gameState = gp.world.titleState);
                 if (gp.ui.commandNum == 3) System.exit(0);
             }
         }
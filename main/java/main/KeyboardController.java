@@ -0,0 +1,26 @@
+package main;
+import entity.Player;
+
+/**
+ * The KeyboardController class steers a player with one of the key sets of a KeyHandler: WASD for
+ * set 1, the arrow keys for set 2 and IJKL for set 3. Any key set can drive any player slot.
+ */
+public class KeyboardController implements PlayerController {
+    private final KeyHandler keys;
+    private final int keySet;
+
+    /**
+     * Initializes a controller reading the given key set.
+     * @param keys
+     * @param keySet between 1 and 3
+     */
+    public KeyboardController(KeyHandler keys, int keySet) {
+        this.keys = keys;
+        this.keySet = keySet;
+    }
+
+    @Override
+    public int nextInput(Player player) {
+        return keys.poll(keySet);
+    }
+}
@@ -1,6 +1,7 @@
 package main;
 import main.GamePanel;
 import javax.swing.JFrame;
+import java.io.FileOutputStream;
 import java.io.IOException;
 
 /**
@@ -21,6 +22,16 @@ public class Main {
         window.setLocationRelativeTo(null);
 
         window.setVisible(true);
+
+        // -Dbomberman.record=<file> records the match for ReplayPlayer
+        String recording = System.getProperty("bomberman.record");
+        if (recording != null) {
+            InputRecorder recorder = InputRecorder.begin(gamePanel.world, new FileOutputStream(recording));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                gamePanel.stopGameThread();
+                recorder.finish();
+            }, "recording-finish"));
+        }
         gamePanel.setupGame();
 
         gamePanel.startGameThread();
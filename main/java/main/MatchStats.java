@@ -0,0 +1,157 @@
+package main;
+import entity.Player;
+import powerups.PowerUp;
+
+import java.util.Arrays;
+
+/**
+ * The MatchStats class counts what happens in the matches of a world it is installed in as
+ * GameWorld.stats: which player slots win rounds and matches, how long rounds last, how many of
+ * the power-ups set out are picked up, and what kills the players. The simulation only reports to
+ * it and never reads it, so a match plays the same with or without one.
+ * The counters are plain fields, written by the thread that steps the world. Stats of worlds on
+ * different threads are combined with add() once those threads are done.
+ */
+public class MatchStats {
+    public enum Death { OWN_BOMB, OPPONENT_BOMB, MONSTER }
+
+    // round lengths are counted per second, with rounds of LENGTH_BUCKETS - 1 seconds or longer in
+    // the last bucket
+    public static final int LENGTH_BUCKETS = 181;
+
+    private static final PowerUp.Type[] TYPES = PowerUp.Type.values();
+    private static final Death[] DEATHS = Death.values();
+
+    public long matches = 0, matchDraws = 0;
+    public long rounds = 0, roundDraws = 0, roundTicks = 0;
+    // rounds cut short because they ran longer than the runner allows
+    public long timeouts = 0;
+    public final long[] roundLengths = new long[LENGTH_BUCKETS];
+
+    // per player slot: rounds won, matches won, and the sum of the final scores
+    public long[] roundWins = new long[0];
+    public long[] matchWins = new long[0];
+    public long[] scores = new long[0];
+
+    // per power-up type: set out on the map and picked up by a player
+    public final long[] powerUpsPlaced = new long[TYPES.length];
+    public final long[] powerUpsPicked = new long[TYPES.length];
+    public final long[] deaths = new long[DEATHS.length];
+
+    private long roundStartTick = 0;
+
+    /**
+     * Counts the power-ups set out for a round that has just been set up.
+     * @param world
+     */
+    void roundStarted(GameWorld world) {
+        roundStartTick = world.tick;
+        ensurePlayers(world.players.length);
+        for (int i = 0; i < world.powerUps.size(); i++) powerUpsPlaced[world.powerUps.get(i).getType().ordinal()]++;
+    }
+
+    /**
+     * Counts a round that has just ended.
+     * @param world
+     * @param winner the player who won the round, or null for a draw
+     */
+    void roundEnded(GameWorld world, Player winner) {
+        long ticks = world.tick - roundStartTick;
+        rounds++;
+        roundTicks += ticks;
+        roundLengths[(int) Math.min(ticks / world.FPS, LENGTH_BUCKETS - 1)]++;
+        if (winner != null) roundWins[winner.playerNum - 1]++;
+        else roundDraws++;
+    }
+
+    /**
+     * Counts a match that has just ended and its final scores. A match is won by the one player
+     * with the highest score; a shared highest score is a draw.
+     * @param world
+     */
+    void matchEnded(GameWorld world) {
+        int[] finalScores = world.playerScores;
+        ensurePlayers(finalScores.length);
+        matches++;
+        int best = -1, bestScore = Integer.MIN_VALUE;
+        boolean shared = false;
+        for (int i = 0; i < finalScores.length; i++) {
+            scores[i] += finalScores[i];
+            if (finalScores[i] > bestScore) {
+                best = i;
+                bestScore = finalScores[i];
+                shared = false;
+            } else if (finalScores[i] == bestScore) {
+                shared = true;
+            }
+        }
+        if (best < 0 || shared) matchDraws++;
+        else matchWins[best]++;
+    }
+
+    /**
+     * Counts a player losing their last life.
+     * @param victim
+     * @param bombOwner the owner of the bomb that started the explosion, or null if a monster killed the player
+     */
+    public void playerKilled(Player victim, Player bombOwner) {
+        Death death = bombOwner == null ? Death.MONSTER : bombOwner == victim ? Death.OWN_BOMB : Death.OPPONENT_BOMB;
+        deaths[death.ordinal()]++;
+    }
+
+    /**
+     * Counts a power-up picked up by a player.
+     * @param powerUp
+     */
+    public void powerUpPicked(PowerUp powerUp) {
+        powerUpsPicked[powerUp.getType().ordinal()]++;
+    }
+
+    /**
+     * Adds the counts of other stats to these.
+     * @param other
+     */
+    public void add(MatchStats other) {
+        ensurePlayers(other.scores.length);
+        matches += other.matches;
+        matchDraws += other.matchDraws;
+        rounds += other.rounds;
+        roundDraws += other.roundDraws;
+        roundTicks += other.roundTicks;
+        timeouts += other.timeouts;
+        addAll(roundLengths, other.roundLengths);
+        addAll(roundWins, other.roundWins);
+        addAll(matchWins, other.matchWins);
+        addAll(scores, other.scores);
+        addAll(powerUpsPlaced, other.powerUpsPlaced);
+        addAll(powerUpsPicked, other.powerUpsPicked);
+        addAll(deaths, other.deaths);
+    }
+
+    /**
+     * Returns the round length in ticks below which the given fraction of rounds ended, to the
+     * second.
+     * @param fraction between 0 and 1
+     * @param fps the ticks per second of the worlds that were counted
+     * @return
+     */
+    public long roundLengthPercentile(double fraction, int fps) {
+        long target = (long) Math.ceil(rounds * fraction), seen = 0;
+        for (int bucket = 0; bucket < LENGTH_BUCKETS; bucket++) {
+            seen += roundLengths[bucket];
+            if (seen >= target && seen > 0) return (long) (bucket + 1) * fps;
+        }
+        return 0;
+    }
+
+    private void ensurePlayers(int count) {
+        if (scores.length >= count) return;
+        roundWins = Arrays.copyOf(roundWins, count);
+        matchWins = Arrays.copyOf(matchWins, count);
+        scores = Arrays.copyOf(scores, count);
+    }
+
+    private static void addAll(long[] into, long[] from) {
+        for (int i = 0; i < from.length; i++) into[i] += from[i];
+    }
+}
@@ -0,0 +1,106 @@
+package main;
+import entity.Entity;
+
+import java.util.Arrays;
+
+/**
+ * The MonsterRegistry class holds the world's live monster entities in a packed, growable array.
+ * Monsters can be spawned and despawned at any time: removing one moves the last monster into its
+ * slot, so there are never holes and a loop over 0..size() touches only live monsters. The registry
+ * keeps the world's monster SpatialGrid in sync with its contents.
+ * Indexes are only stable until the next removal.
+ */
+public class MonsterRegistry {
+    private final SpatialGrid<Entity> grid;
+    private Entity[] monsters = new Entity[16];
+    private int size = 0;
+
+    /**
+     * Initializes an empty registry bound to the given grid.
+     * @param grid
+     */
+    public MonsterRegistry(SpatialGrid<Entity> grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Adds a monster at its current position, growing the registry if it is full.
+     * @param monster
+     * @return the monster's index
+     */
+    public int add(Entity monster) {
+        if (size == monsters.length) monsters = Arrays.copyOf(monsters, size * 2);
+        monsters[size] = monster;
+        grid.insert(monster);
+        return size++;
+    }
+
+    /**
+     * Returns the monster at the given index.
+     * @param i
+     * @return
+     */
+    public Entity get(int i) {
+        return monsters[i];
+    }
+
+    /**
+     * Returns the number of live monsters.
+     * @return
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns true if no monsters are left.
+     * @return
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Removes the monster at the given index by moving the last monster into its slot.
+     * @param i
+     * @return the removed monster
+     */
+    public Entity removeAt(int i) {
+        Entity removed = monsters[i];
+        monsters[i] = monsters[--size];
+        monsters[size] = null;
+        grid.remove(removed);
+        return removed;
+    }
+
+    /**
+     * Removes the given monster if it is in the registry.
+     * @param monster
+     * @return true if it was removed
+     */
+    public boolean remove(Entity monster) {
+        int i = indexOf(monster);
+        if (i < 0) return false;
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Returns the index of the given monster, or -1 if it is not in the registry.
+     * @param monster
+     * @return
+     */
+    public int indexOf(Entity monster) {
+        for (int i = 0; i < size; i++) {
+            if (monsters[i] == monster) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes every monster.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            grid.remove(monsters[i]);
+            monsters[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,333 @@
+package main;
+import entity.Direction;
+import tile.Tile;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The MonsterSwarm class is a compact store for large numbers of simple wandering monsters. Instead
+ * of one Entity object per monster, it keeps every monster's position, direction, speed, life and
+ * animation state in parallel primitive arrays, and the sprites are shared per kind. Updating,
+ * collision and drawing stream through these arrays in order, so a map with thousands of monsters
+ * costs a few bytes per monster and stays cache friendly.
+ * Swarm monsters wander like green slimes: every second or two they turn towards a random direction
+ * they can move in, and they stop at walls, boxes and bombs. They do not collide with each other.
+ * Members are kept packed: removing one moves the last member into its slot.
+ */
+public class MonsterSwarm {
+    GameWorld gp;
+
+    /**
+     * The kinds of monster a swarm member can be, with their speed and sprites.
+     */
+    public enum Kind {
+        GREEN_SLIME(2, "greenslime1", "greenslime2", "greenslime1", "greenslime2",
+                "greenslime1", "greenslime2", "greenslime1", "greenslime2"),
+        RED_SLIME(3, "redslime1", "redslime2", "redslime1", "redslime2",
+                "redslime1", "redslime2", "redslime1", "redslime2"),
+        ORC(1, "orc_up_1", "orc_up_2", "orc_down_1", "orc_down_2",
+                "orc_left_1", "orc_left_2", "orc_right_1", "orc_right_2"),
+        SKELETON(3, "skeleton_up_1", "skeleton_up_2", "skeleton_down_1", "skeleton_down_2",
+                "skeleton_left_2", "skeleton_left_2", "skeleton_right_1", "skeleton_right_2");
+
+        final int speed;
+        // two frames per direction, in Direction order
+        final String[] sprites;
+
+        Kind(int speed, String... sprites) {
+            this.speed = speed;
+            this.sprites = sprites;
+        }
+
+        /**
+         * Returns the resource path of the sprite for the given direction and animation frame.
+         * @param direction
+         * @param spriteNum
+         * @return
+         */
+        public String spritePath(Direction direction, int spriteNum) {
+            return "/monster/" + sprites[direction.ordinal() * 2 + spriteNum - 1];
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    // collision box of every member, relative to its position, as used by the monster entities
+    public static final int SOLID_X = 3, SOLID_Y = 18, SOLID_WIDTH = 42, SOLID_HEIGHT = 30;
+
+    // member state, one slot per member
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private byte[] kinds = new byte[64];
+    private byte[] directions = new byte[64];
+    private byte[] speeds = new byte[64];
+    private byte[] lives = new byte[64];
+    private byte[] spriteNums = new byte[64];
+    private byte[] spriteCounters = new byte[64];
+    private short[] decisionTimers = new short[64];
+    private int[] lastBlast = new int[64];
+    private int size = 0;
+
+    // sprites by kind, then by direction ordinal * 2 + frame; null in a headless world
+    private final BufferedImage[][] sprites = new BufferedImage[KINDS.length][];
+    private final Direction[] movable = new Direction[Direction.COUNT];
+    private final Rng random;
+
+    /**
+     * Initializes an empty swarm, loading the shared sprites unless the world is headless.
+     * @param gp
+     */
+    public MonsterSwarm(GameWorld gp) {
+        this.gp = gp;
+        this.random = gp.random.stream(GameRandom.Stream.SWARM);
+        for (Kind kind : KINDS) {
+            BufferedImage[] images = new BufferedImage[kind.sprites.length];
+            if (!gp.headless) {
+                for (int i = 0; i < images.length; i++) {
+                    images[i] = SpriteCache.get("/monster/" + kind.sprites[i], gp.tileSize, gp.tileSize);
+                }
+            }
+            sprites[kind.ordinal()] = images;
+        }
+    }
+
+    /**
+     * Adds a monster of the given kind at the given pixel position, facing down.
+     * @param kind
+     * @param x
+     * @param y
+     * @return the member's index, valid until a member is removed
+     */
+    public int spawn(Kind kind, int x, int y) {
+        if (size == xs.length) grow();
+        int i = size++;
+        xs[i] = x;
+        ys[i] = y;
+        kinds[i] = (byte) kind.ordinal();
+        directions[i] = (byte) Direction.DOWN.ordinal();
+        speeds[i] = (byte) kind.speed;
+        lives[i] = 1;
+        spriteNums[i] = 1;
+        spriteCounters[i] = 0;
+        decisionTimers[i] = 0;
+        lastBlast[i] = 0;
+        return i;
+    }
+
+    /**
+     * Removes the member at the given index by moving the last member into its slot.
+     * @param i
+     */
+    public void remove(int i) {
+        int last = --size;
+        if (i != last) {
+            xs[i] = xs[last];
+            ys[i] = ys[last];
+            kinds[i] = kinds[last];
+            directions[i] = directions[last];
+            speeds[i] = speeds[last];
+            lives[i] = lives[last];
+            spriteNums[i] = spriteNums[last];
+            spriteCounters[i] = spriteCounters[last];
+            decisionTimers[i] = decisionTimers[last];
+            lastBlast[i] = lastBlast[last];
+        }
+    }
+
+    /**
+     * Removes every member.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Saves every member.
+     * @param out
+     */
+    void saveState(StateBuffer out) {
+        out.putInt(size);
+        for (int i = 0; i < size; i++) {
+            out.putInt(xs[i]);
+            out.putInt(ys[i]);
+            out.putInt(kinds[i]);
+            out.putInt(directions[i]);
+            out.putInt(speeds[i]);
+            out.putInt(lives[i]);
+            out.putInt(spriteNums[i]);
+            out.putInt(spriteCounters[i]);
+            out.putInt(decisionTimers[i]);
+            out.putInt(lastBlast[i]);
+        }
+    }
+
+    void loadState(StateBuffer in) {
+        size = in.getInt();
+        while (xs.length < size) grow();
+        for (int i = 0; i < size; i++) {
+            xs[i] = in.getInt();
+            ys[i] = in.getInt();
+            kinds[i] = (byte) in.getInt();
+            directions[i] = (byte) in.getInt();
+            speeds[i] = (byte) in.getInt();
+            lives[i] = (byte) in.getInt();
+            spriteNums[i] = (byte) in.getInt();
+            spriteCounters[i] = (byte) in.getInt();
+            decisionTimers[i] = (short) in.getInt();
+            lastBlast[i] = in.getInt();
+        }
+    }
+
+    /**
+     * Returns the number of members.
+     * @return
+     */
+    public int size() { return size; }
+
+    public int getX(int i) { return xs[i]; }
+
+    public int getY(int i) { return ys[i]; }
+
+    public int getLife(int i) { return lives[i]; }
+
+    public Kind getKind(int i) { return KINDS[kinds[i]]; }
+
+    public Direction getDirection(int i) { return Direction.ALL[directions[i]]; }
+
+    public int getSpriteNum(int i) { return spriteNums[i]; }
+
+    /**
+     * Advances every member by one tick: dead members are removed, the others pick a new direction
+     * when their decision timer runs out and take one step unless it is blocked.
+     */
+    public void update() {
+        int i = 0;
+        while (i < size) {
+            if (lives[i] <= 0) {
+                remove(i);
+                continue;
+            }
+
+            if (--decisionTimers[i] <= 0) {
+                int count = collectMovableDirections(i);
+                if (count > 0) directions[i] = (byte) movable[random.nextInt(count)].ordinal();
+                decisionTimers[i] = (short) (60 + random.nextInt(60));
+            }
+
+            Direction direction = Direction.ALL[directions[i]];
+            int nextX = xs[i] + direction.dx * speeds[i];
+            int nextY = ys[i] + direction.dy * speeds[i];
+            if (canStand(nextX, nextY)) {
+                xs[i] = nextX;
+                ys[i] = nextY;
+            } else {
+                decisionTimers[i] = 0; // blocked, turn on the next tick
+            }
+
+            if (++spriteCounters[i] > 12) {
+                spriteNums[i] = (byte) (3 - spriteNums[i]);
+                spriteCounters[i] = 0;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Returns the index of a member whose body overlaps the given pixel rectangle, or -1 if there is
+     * none. Uses the same footprint as the players' contact check against monster entities.
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @return
+     */
+    public int touching(int x, int y, int width, int height) {
+        for (int i = 0; i < size; i++) {
+            if (lives[i] > 0 && CollisionChecker.intersects(x, y, width, height, xs[i], ys[i], SOLID_WIDTH, SOLID_HEIGHT)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Damages every member inside the given explosion once.
+     * @param id
+     */
+    void applyBlast(int id) {
+        for (int i = 0; i < size; i++) {
+            if (lives[i] > 0 && lastBlast[i] != id
+                    && gp.danger.inBlast(id, xs[i], ys[i], SOLID_WIDTH, SOLID_HEIGHT)) {
+                lives[i]--;
+                lastBlast[i] = id;
+            }
+        }
+    }
+
+    /**
+     * Adds every member's current sprite to the frame.
+     * @param frame
+     */
+    public void draw(RenderFrame frame) {
+        for (int i = 0; i < size; i++) {
+            BufferedImage image = sprites[kinds[i]][directions[i] * 2 + spriteNums[i] - 1];
+            frame.addSprite(image, xs[i], ys[i], gp.tileSize, gp.tileSize, false);
+        }
+    }
+
+    /**
+     * Fills the movable scratch array with the directions member i can take a step in.
+     * @param i
+     * @return the number of directions found
+     */
+    private int collectMovableDirections(int i) {
+        int count = 0;
+        for (Direction direction : Direction.ALL) {
+            if (canStand(xs[i] + direction.dx * speeds[i], ys[i] + direction.dy * speeds[i])) {
+                movable[count++] = direction;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if a member at the given position would be inside the map, off collidable tiles
+     * and clear of bombs.
+     * @param x
+     * @param y
+     * @return
+     */
+    private boolean canStand(int x, int y) {
+        int left = x + SOLID_X, top = y + SOLID_Y;
+        int right = left + SOLID_WIDTH, bottom = top + SOLID_HEIGHT;
+        int leftCol = left / gp.tileSize, rightCol = right / gp.tileSize;
+        int topRow = top / gp.tileSize, bottomRow = bottom / gp.tileSize;
+        if (left < 0 || top < 0 || rightCol >= gp.maxScreenCol || bottomRow >= gp.maxScreenRow) return false;
+
+        int[][] map = gp.tileM.mapTileNum;
+        Tile[] tiles = gp.tileM.tile;
+        if (tiles[map[leftCol][topRow]].collision || tiles[map[rightCol][topRow]].collision
+                || tiles[map[leftCol][bottomRow]].collision || tiles[map[rightCol][bottomRow]].collision) {
+            return false;
+        }
+        return !gp.danger.hasBombIn(left, top, SOLID_WIDTH, SOLID_HEIGHT);
+    }
+
+    /**
+     * Doubles the capacity of every member array.
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        lives = Arrays.copyOf(lives, capacity);
+        spriteNums = Arrays.copyOf(spriteNums, capacity);
+        spriteCounters = Arrays.copyOf(spriteCounters, capacity);
+        decisionTimers = Arrays.copyOf(decisionTimers, capacity);
+        lastBlast = Arrays.copyOf(lastBlast, capacity);
+    }
+}
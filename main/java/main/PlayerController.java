@@ -0,0 +1,17 @@
+package main;
+import entity.Player;
+
+/**
+ * Implemented by whatever steers a single player: a set of keys on the keyboard, or a CPU bot.
+ * Controllers are put into player slots through PlayerControllers, which is the InputSource the
+ * world's players poll, so a match can mix people and bots in any slots.
+ */
+public interface PlayerController {
+    /**
+     * Returns the player's input for the current tick, as the bit set of InputSource. Called once
+     * per tick on the game thread, while the player is alive.
+     * @param player
+     * @return
+     */
+    int nextInput(Player player);
+}
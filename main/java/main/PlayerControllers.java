@@ -0,0 +1,75 @@
+package main;
+import entity.Player;
+
+import java.util.Arrays;
+
+/**
+ * The PlayerControllers class is the InputSource of a world whose players are steered by one
+ * PlayerController each. A slot without a controller gives no input, so its player stands still.
+ * Controllers can be swapped between ticks, for example to hand a player over to a bot.
+ */
+public class PlayerControllers implements InputSource {
+    private final GameWorld world;
+    private PlayerController[] slots = new PlayerController[0];
+
+    /**
+     * Initializes an empty set of slots for the given world.
+     * @param world
+     */
+    public PlayerControllers(GameWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Parses a comma-separated list of player numbers, such as "2,3". Blank entries are skipped.
+     * @param list
+     * @param maxPlayers the highest player number allowed
+     * @return
+     * @throws IllegalArgumentException if an entry is not a number between 1 and maxPlayers
+     */
+    public static int[] parseSlots(String list, int maxPlayers) {
+        int[] slots = new int[0];
+        for (String entry : list.split(",")) {
+            if (entry.isBlank()) continue;
+            int playerNum;
+            try {
+                playerNum = Integer.parseInt(entry.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Player slot \"" + entry.trim() + "\" is not a number");
+            }
+            if (playerNum < 1 || playerNum > maxPlayers) {
+                throw new IllegalArgumentException("Player slot " + playerNum + " is not between 1 and " + maxPlayers);
+            }
+            slots = Arrays.copyOf(slots, slots.length + 1);
+            slots[slots.length - 1] = playerNum;
+        }
+        return slots;
+    }
+
+    /**
+     * Puts a controller into a player's slot, replacing the one there.
+     * @param playerNum at least 1
+     * @param controller the controller, or null to leave the player without input
+     */
+    public void set(int playerNum, PlayerController controller) {
+        if (playerNum < 1) throw new IllegalArgumentException("No player slot " + playerNum);
+        if (playerNum > slots.length) slots = Arrays.copyOf(slots, playerNum);
+        slots[playerNum - 1] = controller;
+    }
+
+    /**
+     * Returns the controller in a player's slot, or null.
+     * @param playerNum
+     * @return
+     */
+    public PlayerController get(int playerNum) {
+        return playerNum <= slots.length ? slots[playerNum - 1] : null;
+    }
+
+    @Override
+    public int poll(int playerNum) {
+        PlayerController controller = get(playerNum);
+        Player player = playerNum <= world.players.length ? world.players[playerNum - 1] : null;
+        return controller == null || player == null ? 0 : controller.nextInput(player);
+    }
+}
@@ -0,0 +1,154 @@
+package main;
+import entity.Player;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The RenderFrame class is a flat description of one simulation tick as the renderer sees it: the
+ * game state, the map, the sprites to draw, in drawing order, with their positions and sizes, and
+ * the numbers shown by the HUD.
+ * It is filled on the game thread right after a tick and drawn on the Swing EDT, so painting never
+ * touches the live world. Frames are recycled by a FrameExchange and their arrays only ever grow, so
+ * filling a frame allocates nothing once it has held the largest scene of the match.
+ */
+public class RenderFrame {
+    // width or height meaning the sprite is drawn at its own size
+    public static final int NATURAL_SIZE = -1;
+
+    private static final AlphaComposite OPAQUE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f);
+    private static final AlphaComposite HALF = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f);
+
+    // set by the FrameExchange when the frame is published, 0 until then
+    volatile long sequence = 0;
+
+    public int gameState;
+
+    // sprites in drawing order
+    private BufferedImage[] images = new BufferedImage[64];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] widths = new int[64];
+    private int[] heights = new int[64];
+    private boolean[] translucent = new boolean[64];
+    private int spriteCount = 0;
+
+    // per player slot: current and maximum life, or -1 for a slot whose player is gone
+    public int[] lives = new int[0];
+    public int[] maxLives = new int[0];
+    public int[] scores = new int[0];
+
+    // the map's tile numbers, column by column, and a number that changes whenever they do
+    public int[] tiles = new int[0];
+    public long mapVersion = -1;
+
+    /**
+     * Empties the frame so it can be filled again.
+     */
+    void clear() {
+        Arrays.fill(images, 0, spriteCount, null);
+        spriteCount = 0;
+    }
+
+    /**
+     * Appends a sprite to be drawn on top of the sprites added before it. Null images, as carried by
+     * headless entities, are skipped.
+     * @param image
+     * @param x
+     * @param y
+     * @param width the drawn width, or NATURAL_SIZE
+     * @param height the drawn height, or NATURAL_SIZE
+     * @param halfTransparent
+     */
+    public void addSprite(BufferedImage image, int x, int y, int width, int height, boolean halfTransparent) {
+        if (image == null) return;
+        if (spriteCount == images.length) grow();
+        images[spriteCount] = image;
+        xs[spriteCount] = x;
+        ys[spriteCount] = y;
+        widths[spriteCount] = width;
+        heights[spriteCount] = height;
+        translucent[spriteCount] = halfTransparent;
+        spriteCount++;
+    }
+
+    /**
+     * Returns the number of sprites in the frame.
+     * @return
+     */
+    public int spriteCount() { return spriteCount; }
+
+    /**
+     * Copies the lives of every player slot and the match scores into the frame.
+     * @param players
+     * @param playerScores
+     */
+    void setPlayers(Player[] players, int[] playerScores) {
+        if (lives.length != players.length) {
+            lives = new int[players.length];
+            maxLives = new int[players.length];
+        }
+        for (int i = 0; i < players.length; i++) {
+            Player player = players[i];
+            lives[i] = player == null ? -1 : player.currLife;
+            maxLives[i] = player == null ? -1 : player.maxLife;
+        }
+
+        if (playerScores == null) {
+            scores = new int[0];
+        } else {
+            if (scores.length != playerScores.length) scores = new int[playerScores.length];
+            System.arraycopy(playerScores, 0, scores, 0, playerScores.length);
+        }
+    }
+
+    /**
+     * Copies the map into the frame, unless the frame already holds this version of it, as a
+     * recycled frame does while the map stays the same.
+     * @param map the tile numbers, indexed by column and row
+     * @param version changes whenever the map does
+     */
+    void setTiles(int[][] map, long version) {
+        if (version == mapVersion) return;
+        int rows = map[0].length;
+        if (tiles.length != map.length * rows) tiles = new int[map.length * rows];
+        for (int col = 0; col < map.length; col++) {
+            System.arraycopy(map[col], 0, tiles, col * rows, rows);
+        }
+        mapVersion = version;
+    }
+
+    /**
+     * Draws the frame's sprites in order.
+     * @param g2
+     */
+    public void draw(Graphics2D g2) {
+        boolean half = false;
+        for (int i = 0; i < spriteCount; i++) {
+            if (translucent[i] != half) {
+                half = translucent[i];
+                g2.setComposite(half ? HALF : OPAQUE);
+            }
+            if (widths[i] == NATURAL_SIZE) {
+                g2.drawImage(images[i], xs[i], ys[i], null);
+            } else {
+                g2.drawImage(images[i], xs[i], ys[i], widths[i], heights[i], null);
+            }
+        }
+        if (half) g2.setComposite(OPAQUE);
+    }
+
+    /**
+     * Doubles the capacity of the sprite arrays.
+     */
+    private void grow() {
+        int capacity = images.length * 2;
+        images = Arrays.copyOf(images, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        translucent = Arrays.copyOf(translucent, capacity);
+    }
+}
@@ -0,0 +1,187 @@
+package main;
+import java.awt.*;
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * The ReplayPlayer class plays a match recorded by InputRecorder again. It rebuilds the world the
+ * match started in from the recorded seed, map, boxes and players, and then feeds every player the
+ * recorded input on the recorded ticks. Since the simulation is deterministic, the replayed match
+ * is bit-identical to the recorded one.
+ * play() steps the world as fast as it can, without a frame cap or a display, which makes a
+ * recording both a bug report and a benchmark of a real match.
+ * Can be run from the command line: java main.ReplayPlayer recording.bmr
+ */
+public class ReplayPlayer implements InputSource {
+    // header
+    private final long seed;
+    private final long setupTick, startTick;
+    private final int playerCount;
+    private final int cols, rows;
+    private final byte[] setupTiles;
+    private final int[] setupBoxes;
+    private final int[] playCells;
+    private final byte[] playTiles;
+
+    // input changes in tick order: the tick, the player index and the new input
+    private long[] changeTicks = new long[256];
+    private byte[] changePlayers = new byte[256];
+    private byte[] changeInputs = new byte[256];
+    private int changeCount = 0;
+    private final long endTick;
+
+    private GameWorld world;
+    private int cursor = 0;
+    private final int[] current = new int[InputRecorder.MAX_PLAYERS];
+
+    /**
+     * Reads a whole recording from the given stream.
+     * @param in
+     * @throws IOException if the stream is not a recording this version can read
+     */
+    public ReplayPlayer(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != InputRecorder.MAGIC) throw new IOException("Not a recording");
+        int version = data.readUnsignedByte();
+        if (version != InputRecorder.VERSION) throw new IOException("Unsupported recording version " + version);
+
+        seed = data.readLong();
+        setupTick = InputRecorder.readVar(data);
+        startTick = InputRecorder.readVar(data);
+        playerCount = data.readUnsignedByte();
+        cols = (int) InputRecorder.readVar(data);
+        rows = (int) InputRecorder.readVar(data);
+        setupTiles = new byte[cols * rows];
+        data.readFully(setupTiles);
+        setupBoxes = new int[(int) InputRecorder.readVar(data) * 2];
+        for (int i = 0; i < setupBoxes.length; i++) setupBoxes[i] = (int) InputRecorder.readVar(data);
+        int changed = (int) InputRecorder.readVar(data);
+        playCells = new int[changed];
+        playTiles = new byte[changed];
+        for (int i = 0; i < changed; i++) {
+            playCells[i] = (int) InputRecorder.readVar(data);
+            playTiles[i] = data.readByte();
+        }
+
+        long tick = startTick;
+        long end;
+        try {
+            while (true) {
+                long delta = InputRecorder.readVar(data);
+                if (delta == 0) {
+                    end = tick + InputRecorder.readVar(data);
+                    break;
+                }
+                tick += delta;
+                int mask = data.readUnsignedByte();
+                for (int i = 0; i < InputRecorder.MAX_PLAYERS; i++) {
+                    if ((mask & (1 << i)) != 0) addChange(tick, i, data.readByte());
+                }
+            }
+        } catch (EOFException e) {
+            end = tick; // the recording was cut off, play what there is
+        }
+        endTick = end;
+    }
+
+    private void addChange(long tick, int player, byte input) {
+        if (changeCount == changeTicks.length) {
+            changeTicks = Arrays.copyOf(changeTicks, changeCount * 2);
+            changePlayers = Arrays.copyOf(changePlayers, changeCount * 2);
+            changeInputs = Arrays.copyOf(changeInputs, changeCount * 2);
+        }
+        changeTicks[changeCount] = tick;
+        changePlayers[changeCount] = (byte) player;
+        changeInputs[changeCount++] = input;
+    }
+
+    /**
+     * Builds the world the recorded match started in, with this replay as every player's controls,
+     * ready for its first tick. The world is set up exactly like the recorded one: seeded, with
+     * the setup map and boxes on the setup tick, then the map as it was when play started.
+     * @param headless
+     * @return
+     */
+    public GameWorld createWorld(boolean headless) {
+        world = new GameWorld(headless, cols, rows);
+        world.input = this;
+        world.random.reseed(seed);
+        for (int cell = 0; cell < setupTiles.length; cell++) {
+            world.tileM.setTile(cell / rows, cell % rows, setupTiles[cell]);
+        }
+        world.boxes.clear();
+        for (int i = 0; i < setupBoxes.length; i += 2) world.boxes.add(new Point(setupBoxes[i], setupBoxes[i + 1]));
+
+        world.tick = setupTick;
+        world.timers.advance(setupTick);
+        world.initPlayers(playerCount);
+        world.setupGame();
+        for (int i = 0; i < playCells.length; i++) {
+            world.tileM.setTile(playCells[i] / rows, playCells[i] % rows, playTiles[i]);
+        }
+        world.tick = startTick;
+        world.gameState = world.playState;
+
+        cursor = 0;
+        Arrays.fill(current, 0);
+        return world;
+    }
+
+    /**
+     * Steps the world built by createWorld() through the whole recording as fast as possible,
+     * stopping early if the match ends.
+     * @return the number of ticks played
+     */
+    public long play() {
+        long first = world.tick;
+        while (world.tick < endTick && world.gameState == world.playState) {
+            world.update();
+        }
+        return world.tick - first;
+    }
+
+    /**
+     * Returns the recorded input of the given player on the world's current tick.
+     * @param playerNum
+     * @return
+     */
+    @Override
+    public int poll(int playerNum) {
+        while (cursor < changeCount && changeTicks[cursor] <= world.tick) {
+            current[changePlayers[cursor]] = changeInputs[cursor];
+            cursor++;
+        }
+        return current[playerNum - 1];
+    }
+
+    public long getSeed() { return seed; }
+
+    public int getPlayerCount() { return playerCount; }
+
+    public long getStartTick() { return startTick; }
+
+    public long getEndTick() { return endTick; }
+
+    /**
+     * Plays a recording headless at full speed and prints how long it took and how the match ended.
+     * @param args the recording's path
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: java main.ReplayPlayer <recording>");
+            System.exit(2);
+        }
+        ReplayPlayer replay;
+        try (InputStream in = new FileInputStream(args[0])) {
+            replay = new ReplayPlayer(in);
+        }
+        GameWorld world = replay.createWorld(true);
+
+        long start = System.nanoTime();
+        long ticks = replay.play();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("seed=%d ticks=%d seconds=%.3f ticksPerSecond=%.0f round=%d scores=%s%n",
+                replay.getSeed(), ticks, seconds, ticks / seconds, world.currentRound, Arrays.toString(world.playerScores));
+    }
+}
@@ -0,0 +1,95 @@
+package main;
+
+/**
+ * The Rng class is a small, fast pseudo-random generator (SplitMix64) used for everything random
+ * in the simulation. Its whole state is two longs, so drawing a number allocates nothing and the
+ * state can be read and restored exactly. Two generators with the same seed and gamma produce the
+ * same sequence on every machine, which is what makes a seeded match replay bit-identically.
+ * Generators are not shared between threads.
+ */
+public final class Rng {
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+    private long gamma;
+
+    /**
+     * Initializes a generator with the given seed.
+     * @param seed
+     */
+    public Rng(long seed) {
+        setSeed(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Restarts the generator from the given seed and gamma. The gamma selects one of many
+     * independent sequences; it is forced to be odd.
+     * @param seed
+     * @param gamma
+     */
+    public void setSeed(long seed, long gamma) {
+        this.state = seed;
+        this.gamma = gamma | 1L;
+    }
+
+    /**
+     * Returns the generator's position in its sequence, for saving it together with getGamma().
+     * @return
+     */
+    public long getState() { return state; }
+
+    public long getGamma() { return gamma; }
+
+    /**
+     * Returns the next 64 random bits.
+     * @return
+     */
+    public long nextLong() {
+        return mix64(state += gamma);
+    }
+
+    /**
+     * Returns the next 32 random bits.
+     * @return
+     */
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Returns a uniformly distributed value from 0 (inclusive) to bound (exclusive).
+     * @param bound
+     * @return
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive: " + bound);
+        // multiply-shift with rejection of the few values that would make the result uneven
+        long product = (nextInt() & 0xffffffffL) * bound;
+        if ((int) product + Integer.MIN_VALUE < Integer.MIN_VALUE + bound) {
+            int threshold = Integer.remainderUnsigned(-bound, bound);
+            while ((product & 0xffffffffL) < threshold) {
+                product = (nextInt() & 0xffffffffL) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * Returns a uniformly distributed value from 0.0 (inclusive) to 1.0 (exclusive).
+     * @return
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Scrambles a 64-bit value so that nearby inputs give unrelated outputs (Stafford's variant 13).
+     * @param z
+     * @return
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
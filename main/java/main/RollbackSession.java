@@ -0,0 +1,203 @@
+package main;
+import java.util.Arrays;
+
+/**
+ * The RollbackSession class runs a match in which every peer simulates the whole world itself and
+ * never waits for the others' input. Each tick is simulated as soon as the local input is known,
+ * with the input of the other players predicted by repeating the directions they last held. When
+ * their real input arrives and differs from what was predicted, the world is restored to the state
+ * saved before the first wrong tick and simulated again up to the present, in one advance().
+ * A peer stalls instead of running on when it is maxRollback ticks ahead of the input it has, so a
+ * rollback never needs a state older than the ring of saved states.
+ * The session knows nothing about the network: input is handed in with the tick it belongs to, and
+ * each player's input must arrive in tick order, as it does over a stream connection. Local input
+ * is added the same way, usually through addLocalInput().
+ * Re-simulated ticks reach GameLog and the world's recorder a second time, so a match run through a
+ * session is best recorded from its confirmed input rather than with an InputRecorder.
+ * Saving and restoring reuse the same buffers, so a running session allocates nothing per tick.
+ */
+public class RollbackSession implements InputSource {
+    private static final int DIRECTIONS = UP | DOWN | LEFT | RIGHT;
+
+    private final GameWorld world;
+    private final int playerCount;
+    private final int maxRollback;
+
+    // the state before each of the last ticks, by tick % states.length
+    private final StateBuffer[] states;
+
+    // per tick and player, by slot(tick) * playerCount + player: the confirmed input and the tick it
+    // belongs to, and the input the tick was last simulated with
+    private final int inputWindow;
+    private final int[] inputs;
+    private final long[] inputTicks;
+    private final int[] used;
+
+    // per player: the last tick whose input arrived, and that input
+    private final long[] confirmedTicks;
+    private final int[] lastInputs;
+
+    // the first tick simulated with input that turned out wrong, or Long.MAX_VALUE
+    private long rollbackTo = Long.MAX_VALUE;
+    private long rollbacks = 0, resimulatedTicks = 0;
+
+    /**
+     * Initializes a session for the given world and number of players, and makes it the world's
+     * input. The match is started with startMatch().
+     * @param world
+     * @param playerCount
+     * @param maxRollback the most ticks the world may run ahead of the input it has
+     */
+    public RollbackSession(GameWorld world, int playerCount, int maxRollback) {
+        if (maxRollback < 0) throw new IllegalArgumentException("maxRollback must not be negative");
+        this.world = world;
+        this.playerCount = playerCount;
+        this.maxRollback = maxRollback;
+        states = new StateBuffer[maxRollback + 1];
+        for (int i = 0; i < states.length; i++) states[i] = new StateBuffer();
+        // input may arrive for ticks up to maxRollback + 1 ahead of the world, and is still needed
+        // for the ticks a rollback may go back to
+        inputWindow = 2 * (maxRollback + 1);
+        inputs = new int[inputWindow * playerCount];
+        inputTicks = new long[inputWindow * playerCount];
+        used = new int[inputWindow * playerCount];
+        confirmedTicks = new long[playerCount];
+        lastInputs = new int[playerCount];
+        world.input = this;
+    }
+
+    /**
+     * Starts the match from the given seed, which every peer must share.
+     * @param seed
+     */
+    public void startMatch(long seed) {
+        world.startMatch(playerCount, seed);
+        Arrays.fill(inputTicks, -1);
+        Arrays.fill(used, 0);
+        Arrays.fill(confirmedTicks, world.tick);
+        Arrays.fill(lastInputs, 0);
+        rollbackTo = Long.MAX_VALUE;
+    }
+
+    /**
+     * Adds a player's input for the next tick the world will simulate, unless that tick already
+     * has the player's input because the session stalled. The returned tick is what the other
+     * peers are sent with the input.
+     * @param playerNum
+     * @param input
+     * @return the tick the input belongs to, or -1 if it was not added
+     */
+    public long addLocalInput(int playerNum, int input) {
+        long tick = confirmedTicks[playerNum - 1] + 1;
+        if (tick != world.tick + 1) return -1;
+        addInput(playerNum, tick, input);
+        return tick;
+    }
+
+    /**
+     * Adds the input a player gave on a tick. Input for a tick already confirmed is ignored. If
+     * the tick was simulated with a prediction that differs from the input, the next advance()
+     * rolls the world back to it.
+     * @param playerNum
+     * @param tick
+     * @param input
+     * @throws IllegalArgumentException if the player's input for an earlier tick is still missing
+     * @throws IllegalStateException if the tick is further ahead of the world than any peer can be
+     */
+    public void addInput(int playerNum, long tick, int input) {
+        int p = playerNum - 1;
+        if (tick <= confirmedTicks[p]) return;
+        if (tick != confirmedTicks[p] + 1) {
+            throw new IllegalArgumentException("Input of player " + playerNum + " for tick " + tick
+                    + " arrived before tick " + (confirmedTicks[p] + 1));
+        }
+        if (tick > world.tick + maxRollback + 1) {
+            throw new IllegalStateException("Input for tick " + tick + " is too far ahead of tick " + world.tick);
+        }
+        int i = slot(tick) * playerCount + p;
+        inputs[i] = input;
+        inputTicks[i] = tick;
+        confirmedTicks[p] = tick;
+        lastInputs[p] = input;
+        if (tick <= world.tick && used[i] != input && tick < rollbackTo) rollbackTo = tick;
+    }
+
+    /**
+     * Rolls the world back and simulates it again if any input turned out to be mispredicted, and
+     * then simulates the next tick unless the world is too far ahead of the input it has.
+     * @return true if the next tick was simulated, false if the session stalled or the match is over
+     */
+    public boolean advance() {
+        if (rollbackTo <= world.tick) {
+            long present = world.tick;
+            world.loadState(states[(int) (rollbackTo % states.length)]);
+            rollbacks++;
+            while (world.tick < present && world.gameState == world.playState) {
+                simulate();
+                resimulatedTicks++;
+            }
+        }
+        rollbackTo = Long.MAX_VALUE;
+
+        if (world.gameState != world.playState) return false;
+        long next = world.tick + 1;
+        for (int p = 0; p < playerCount; p++) {
+            if (next - confirmedTicks[p] > maxRollback) return false;
+        }
+        simulate();
+        return true;
+    }
+
+    /**
+     * Saves the state before the next tick, decides every player's input for it and simulates it.
+     */
+    private void simulate() {
+        long next = world.tick + 1;
+        world.saveState(states[(int) (next % states.length)]);
+        int base = slot(next) * playerCount;
+        for (int p = 0; p < playerCount; p++) {
+            // actions are never predicted: a repeated bomb would have to be taken back far more often
+            // than a repeated direction
+            used[base + p] = inputTicks[base + p] == next ? inputs[base + p] : lastInputs[p] & DIRECTIONS;
+        }
+        world.update();
+    }
+
+    /**
+     * Returns the input the world is simulating the current tick with, confirmed or predicted.
+     * @param playerNum
+     * @return
+     */
+    @Override
+    public int poll(int playerNum) {
+        if (playerNum > playerCount) return 0;
+        return used[slot(world.tick) * playerCount + playerNum - 1];
+    }
+
+    /**
+     * Returns the last tick for which the input of every player has arrived. The world is
+     * identical on every peer up to this tick.
+     * @return
+     */
+    public long confirmedTick() {
+        long tick = Long.MAX_VALUE;
+        for (long confirmed : confirmedTicks) tick = Math.min(tick, confirmed);
+        return tick;
+    }
+
+    /**
+     * Returns the number of times the world was rolled back.
+     * @return
+     */
+    public long getRollbacks() { return rollbacks; }
+
+    /**
+     * Returns the number of ticks simulated again after rollbacks.
+     * @return
+     */
+    public long getResimulatedTicks() { return resimulatedTicks; }
+
+    private int slot(long tick) {
+        return (int) (tick % inputWindow);
+    }
+}
@@ -0,0 +1,190 @@
+package main;
+import java.util.List;
+
+/**
+ * The SpatialGrid class is a uniform, tile-bucketed index of game objects. Each member is stored in
+ * the bucket of the tile containing its top-left corner and is moved between buckets incrementally
+ * as it moves, so a query only visits the members of the few tiles around the queried area instead
+ * of scanning every object in the world. Members are assumed to be at most one tile wide and tall.
+ * A member can belong to only one grid at a time, since it stores its own bucket index.
+ * @param <T>
+ */
+public class SpatialGrid<T extends SpatialGrid.Member> {
+    /**
+     * Implemented by everything that can be stored in a SpatialGrid.
+     */
+    public interface Member {
+        int getX();
+        int getY();
+        int getGridCell();
+        void setGridCell(int cell);
+    }
+
+    public static final int NO_CELL = -1;
+
+    private final int cols, rows, cellSize;
+    private final Object[][] buckets;
+    private final int[] counts;
+    private int size = 0;
+
+    /**
+     * Initializes an empty grid covering cols x rows cells of cellSize pixels each.
+     * @param cols
+     * @param rows
+     * @param cellSize
+     */
+    public SpatialGrid(int cols, int rows, int cellSize) {
+        this.cols = cols;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.buckets = new Object[cols * rows][];
+        this.counts = new int[cols * rows];
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new Object[4];
+    }
+
+    /**
+     * Returns the bucket index for a pixel position, clamped to the grid so members outside the
+     * map are kept in the nearest edge cell.
+     * @param x
+     * @param y
+     * @return
+     */
+    public int cellOf(int x, int y) {
+        int col = Math.max(0, Math.min(cols - 1, Math.floorDiv(x, cellSize)));
+        int row = Math.max(0, Math.min(rows - 1, Math.floorDiv(y, cellSize)));
+        return row * cols + col;
+    }
+
+    /**
+     * Adds the member at its current position, or moves it if it is already in the grid.
+     * @param item
+     */
+    public void insert(T item) {
+        update(item);
+    }
+
+    /**
+     * Moves the member to the bucket of its current position. Does nothing if it stays within the
+     * same tile, which is the common case for a moving entity.
+     * @param item
+     */
+    public void update(T item) {
+        int cell = cellOf(item.getX(), item.getY());
+        int old = item.getGridCell();
+        if (old == cell) return;
+        if (old != NO_CELL) removeFromBucket(old, item);
+        addToBucket(cell, item);
+    }
+
+    /**
+     * Removes the member from the grid if it is in it.
+     * @param item
+     */
+    public void remove(T item) {
+        int old = item.getGridCell();
+        if (old == NO_CELL) return;
+        removeFromBucket(old, item);
+        item.setGridCell(NO_CELL);
+    }
+
+    /**
+     * Removes every member from the grid.
+     */
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        for (int cell = 0; cell < buckets.length; cell++) {
+            Object[] bucket = buckets[cell];
+            for (int i = 0; i < counts[cell]; i++) {
+                ((T) bucket[i]).setGridCell(NO_CELL);
+                bucket[i] = null;
+            }
+            counts[cell] = 0;
+        }
+        size = 0;
+    }
+
+    /**
+     * Collects every member whose one-tile footprint may overlap the pixel rectangle
+     * [left, right) x [top, bottom) into out, which is cleared first. The result is a candidate set;
+     * callers still run their exact intersection test.
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param out
+     * @return the number of candidates found
+     */
+    @SuppressWarnings("unchecked")
+    public int query(int left, int top, int right, int bottom, List<? super T> out) {
+        out.clear();
+        int minCol = Math.max(0, Math.floorDiv(left - cellSize + 1, cellSize));
+        int maxCol = Math.min(cols - 1, Math.floorDiv(right - 1, cellSize));
+        int minRow = Math.max(0, Math.floorDiv(top - cellSize + 1, cellSize));
+        int maxRow = Math.min(rows - 1, Math.floorDiv(bottom - 1, cellSize));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                int cell = row * cols + col;
+                Object[] bucket = buckets[cell];
+                for (int i = 0; i < counts[cell]; i++) out.add((T) bucket[i]);
+            }
+        }
+        return out.size();
+    }
+
+    /**
+     * Returns the number of members in the grid.
+     * @return
+     */
+    public int size() { return size; }
+
+    /**
+     * Saves every bucket with its members in order, since the order of query() results depends on it.
+     * @param out
+     */
+    void saveState(StateBuffer out) {
+        for (int cell = 0; cell < buckets.length; cell++) {
+            out.putInt(counts[cell]);
+            for (int i = 0; i < counts[cell]; i++) out.putRef(buckets[cell][i]);
+        }
+    }
+
+    /**
+     * Replaces the contents of the grid with the buckets saved by saveState().
+     * @param in
+     */
+    void loadState(StateBuffer in) {
+        clear();
+        for (int cell = 0; cell < buckets.length; cell++) {
+            for (int i = in.getInt(); i > 0; i--) {
+                T item = in.getRef();
+                addToBucket(cell, item);
+            }
+        }
+    }
+
+    private void addToBucket(int cell, T item) {
+        Object[] bucket = buckets[cell];
+        if (counts[cell] == bucket.length) {
+            bucket = java.util.Arrays.copyOf(bucket, bucket.length * 2);
+            buckets[cell] = bucket;
+        }
+        bucket[counts[cell]++] = item;
+        item.setGridCell(cell);
+        size++;
+    }
+
+    private void removeFromBucket(int cell, T item) {
+        Object[] bucket = buckets[cell];
+        int count = counts[cell];
+        for (int i = 0; i < count; i++) {
+            if (bucket[i] == item) {
+                bucket[i] = bucket[count - 1]; // swap-remove, order within a bucket does not matter
+                bucket[count - 1] = null;
+                counts[cell] = count - 1;
+                size--;
+                return;
+            }
+        }
+    }
+}
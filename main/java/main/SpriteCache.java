@@ -0,0 +1,137 @@
+package main;
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SpriteCache class is a process-wide registry of decoded sprites. Each image is read from the
+ * classpath once, scaled once to the requested size and converted to a display-compatible format, then
+ * shared by every entity, bomb, power-up and tile that uses it. Cached images are shared and must be
+ * treated as read-only by callers.
+ */
+public final class SpriteCache {
+    // sprites used during play, preloaded so that spawning objects never touches the classpath
+    private static final String[] GAME_SPRITES = {
+            "/player/blue_up1", "/player/blue_up2", "/player/blue_down1", "/player/blue_down2",
+            "/player/blue_left1", "/player/blue_left2", "/player/blue_right1", "/player/blue_right2",
+            "/player/orange_up1", "/player/orange_up2", "/player/orange_down1", "/player/orange_down2",
+            "/player/orange_left1", "/player/orange_left2", "/player/orange_right1", "/player/orange_right2",
+            "/player/pink_up1", "/player/pink_up2", "/player/pink_down1", "/player/pink_down2",
+            "/player/pink_left1", "/player/pink_left2", "/player/pink_right1", "/player/pink_right2",
+            "/monster/greenslime1", "/monster/greenslime2", "/monster/redslime1", "/monster/redslime2",
+            "/monster/orc_up_1", "/monster/orc_up_2", "/monster/orc_down_1", "/monster/orc_down_2",
+            "/monster/orc_left_1", "/monster/orc_left_2", "/monster/orc_right_1", "/monster/orc_right_2",
+            "/monster/skeleton_up_1", "/monster/skeleton_up_2", "/monster/skeleton_down_1", "/monster/skeleton_down_2",
+            "/monster/skeleton_left_1", "/monster/skeleton_left_2", "/monster/skeleton_right_1", "/monster/skeleton_right_2",
+            "/objects/bomb", "/objects/bomb_explosion", "/objects/fireball_down", "/objects/fireball_up",
+            "/objects/fireball_left", "/objects/fireball_right", "/objects/ghost",
+            "/powerups/detonator", "/powerups/obstacle", "/powerups/rollerSkate", "/powerups/ghost",
+            "/powerups/invincibility", "/powerups/blastExpansion", "/powerups/extraBomb",
+            "/tiles/grass", "/tiles/wall", "/tiles/destructiblewall"
+    };
+    // sprites drawn at their original size
+    private static final String[] NATIVE_SPRITES = { "/powerups/invincibility", "/powerups/ghost" };
+
+    public static final int NATIVE_SIZE = -1;
+
+    private static final Map<String, BufferedImage> cache = new ConcurrentHashMap<>();
+
+    private SpriteCache() { }
+
+    /**
+     * Returns the sprite at the given classpath path (without the .png extension) scaled to the
+     * given size, loading and converting it on first use. Returns null if the image cannot be read.
+     * @param path
+     * @param width
+     * @param height
+     * @return
+     */
+    public static BufferedImage get(String path, int width, int height) {
+        String key = path + '@' + width + 'x' + height;
+        BufferedImage image = cache.get(key);
+        if (image == null) {
+            image = load(path, width, height);
+            if (image != null) {
+                BufferedImage previous = cache.putIfAbsent(key, image);
+                if (previous != null) image = previous;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Returns the sprite at the given classpath path at its original size.
+     * @param path
+     * @return
+     */
+    public static BufferedImage get(String path) {
+        return get(path, NATIVE_SIZE, NATIVE_SIZE);
+    }
+
+    /**
+     * Loads every sprite used during play at the given tile size, so that later lookups are pure
+     * map hits. Called once at startup before the game loop runs.
+     * @param tileSize
+     */
+    public static void preload(int tileSize) {
+        for (String path : GAME_SPRITES) get(path, tileSize, tileSize);
+        for (String path : NATIVE_SPRITES) get(path);
+    }
+
+    /**
+     * Returns the number of cached images.
+     * @return
+     */
+    public static int size() { return cache.size(); }
+
+    /**
+     * Reads the image from the classpath and converts it to a display-compatible image of the
+     * requested size.
+     * @param path
+     * @param width
+     * @param height
+     * @return
+     */
+    private static BufferedImage load(String path, int width, int height) {
+        try (InputStream is = SpriteCache.class.getResourceAsStream(path + ".png")) {
+            if (is == null) {
+                System.err.println("Sprite not found: " + path);
+                return null;
+            }
+            BufferedImage original = ImageIO.read(is);
+            if (width == NATIVE_SIZE) width = original.getWidth();
+            if (height == NATIVE_SIZE) height = original.getHeight();
+            return toCompatibleImage(original, width, height);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Draws the original image into an image of the given size whose pixel layout matches the
+     * default screen, so blitting it needs no per-frame format conversion.
+     * @param original
+     * @param width
+     * @param height
+     * @return
+     */
+    private static BufferedImage toCompatibleImage(BufferedImage original, int width, int height) {
+        BufferedImage converted;
+        if (GraphicsEnvironment.isHeadless()) {
+            converted = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        } else {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            converted = gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        Graphics2D g2 = converted.createGraphics();
+        g2.drawImage(original, 0, 0, width, height, null);
+        g2.dispose();
+        return converted;
+    }
+}
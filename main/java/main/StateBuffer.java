@@ -0,0 +1,121 @@
+package main;
+import java.util.Arrays;
+
+/**
+ * The StateBuffer class holds a saved copy of a GameWorld's simulation state, written by
+ * GameWorld.saveState() and read back by GameWorld.loadState(). Numbers go into a long array and
+ * references to the world's objects into an object array, each read back in the order they were
+ * written. Objects are saved by reference together with the values of their fields, so restoring
+ * a state puts the same objects back into the world rather than creating new ones.
+ * Both arrays only grow, so a buffer reused from tick to tick allocates nothing once it has held
+ * the largest state of the match.
+ */
+public class StateBuffer {
+    /**
+     * Implemented by every object whose fields are part of the simulation state. loadState() reads
+     * exactly what saveState() wrote, in the same order.
+     */
+    public interface Saveable {
+        void saveState(StateBuffer out);
+        void loadState(StateBuffer in);
+    }
+
+    private long[] values = new long[1024];
+    private Object[] refs = new Object[256];
+    private int valueCount = 0, refCount = 0;
+    private int valuePosition = 0, refPosition = 0;
+
+    /**
+     * Empties the buffer for a new state.
+     */
+    public void clear() {
+        Arrays.fill(refs, 0, refCount, null);
+        valueCount = refCount = 0;
+        valuePosition = refPosition = 0;
+    }
+
+    /**
+     * Moves the read position back to the start of the saved state.
+     */
+    public void rewind() {
+        valuePosition = refPosition = 0;
+    }
+
+    /**
+     * Returns the number of values and references the state takes.
+     * @return
+     */
+    public int size() { return valueCount + refCount; }
+
+    public void putLong(long value) {
+        if (valueCount == values.length) values = Arrays.copyOf(values, valueCount * 2);
+        values[valueCount++] = value;
+    }
+
+    public void putInt(int value) { putLong(value); }
+
+    public void putBoolean(boolean value) { putLong(value ? 1 : 0); }
+
+    /**
+     * Writes the given number of ints from an array.
+     * @param array
+     * @param count
+     */
+    public void putInts(int[] array, int count) {
+        ensureValues(count);
+        for (int i = 0; i < count; i++) values[valueCount++] = array[i];
+    }
+
+    public void putRef(Object ref) {
+        if (refCount == refs.length) refs = Arrays.copyOf(refs, refCount * 2);
+        refs[refCount++] = ref;
+    }
+
+    public long getLong() {
+        if (valuePosition == valueCount) throw new IllegalStateException("Read past the end of the saved state");
+        return values[valuePosition++];
+    }
+
+    public int getInt() { return (int) getLong(); }
+
+    public boolean getBoolean() { return getLong() != 0; }
+
+    /**
+     * Reads the given number of ints into an array.
+     * @param array
+     * @param count
+     */
+    public void getInts(int[] array, int count) {
+        if (valuePosition + count > valueCount) throw new IllegalStateException("Read past the end of the saved state");
+        for (int i = 0; i < count; i++) array[i] = (int) values[valuePosition++];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getRef() {
+        if (refPosition == refCount) throw new IllegalStateException("Read past the end of the saved state");
+        return (T) refs[refPosition++];
+    }
+
+    /**
+     * Writes an object's reference followed by its state.
+     * @param object
+     */
+    public void putObject(Saveable object) {
+        putRef(object);
+        object.saveState(this);
+    }
+
+    /**
+     * Reads an object written by putObject() and restores its state.
+     * @return the object
+     */
+    public <T extends Saveable> T getObject() {
+        T object = getRef();
+        object.loadState(this);
+        return object;
+    }
+
+    private void ensureValues(int count) {
+        if (valueCount + count > values.length) values = Arrays.copyOf(values, Math.max(valueCount + count, values.length * 2));
+    }
+}
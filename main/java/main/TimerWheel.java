@@ -0,0 +1,266 @@
+package main;
+import java.util.Arrays;
+
+/**
+ * The TimerWheel class schedules expirations by simulation tick: power-ups running out, a player's
+ * invincibility or ghost mode ending or starting to blink, bomb fuses and burnt-out explosions.
+ * Timers are hashed into a ring of slots by their due tick, so advancing the clock by one tick only
+ * visits the timers in that tick's slot, and the cost of a tick follows the number of timers due
+ * rather than the number of timers alive. Timers further away than one turn of the wheel stay in
+ * their slot until the turn in which they are due.
+ * Timers live in parallel arrays that only grow and are recycled through a free list, so scheduling
+ * and firing allocate nothing. A timer is identified by a handle, which stays valid for cancel()
+ * until the timer fires or is cancelled.
+ */
+public class TimerWheel {
+    /**
+     * Implemented by everything that is told when one of its timers fires. The kind is the value
+     * passed to schedule(), so one listener can tell its timers apart.
+     */
+    public interface Listener {
+        void onTimer(int kind);
+    }
+
+    // handle of no timer
+    public static final long NONE = -1;
+
+    private static final int SLOTS = 512; // a power of two, a little over eight seconds at 60 FPS
+    private static final int MASK = SLOTS - 1;
+    private static final int FREE = -1, FIRING = -2; // slot of a timer not in any slot list
+
+    private final int[] heads = new int[SLOTS];
+
+    // timers: due tick, listener, kind, slot, doubly linked list within the slot, and a generation
+    // that changes whenever the timer is freed, so stale handles are recognised
+    private long[] due = new long[64];
+    private Listener[] listeners = new Listener[64];
+    private int[] kinds = new int[64];
+    private int[] slots = new int[64];
+    private int[] next = new int[64];
+    private int[] prev = new int[64];
+    private int[] generations = new int[64];
+    private int capacity = 0;
+    private int freeHead = -1;
+    private int pending = 0;
+
+    // the last tick advanced to
+    private long now = 0;
+
+    // scratch list of the timers firing in the current tick, with their generations
+    private int[] firing = new int[16];
+    private int[] firingGenerations = new int[16];
+
+    /**
+     * Initializes an empty wheel at tick 0.
+     */
+    public TimerWheel() {
+        Arrays.fill(heads, -1);
+    }
+
+    /**
+     * Schedules a timer that tells the listener when the clock reaches the given tick. A tick that
+     * has already been reached is treated as the next one.
+     * @param tick
+     * @param listener
+     * @param kind
+     * @return the timer's handle
+     */
+    public long schedule(long tick, Listener listener, int kind) {
+        if (tick <= now) tick = now + 1;
+        if (freeHead < 0) grow();
+
+        int timer = freeHead;
+        freeHead = next[timer];
+        due[timer] = tick;
+        listeners[timer] = listener;
+        kinds[timer] = kind;
+        link(timer, (int) (tick & MASK));
+        pending++;
+        return ((long) generations[timer] << 32) | timer;
+    }
+
+    /**
+     * Cancels a timer that has not fired yet. Does nothing for NONE or a handle whose timer has
+     * already fired or been cancelled.
+     * @param handle
+     * @return true if a timer was cancelled
+     */
+    public boolean cancel(long handle) {
+        if (handle == NONE) return false;
+        int timer = (int) handle;
+        if (timer < 0 || timer >= capacity || generations[timer] != (int) (handle >>> 32)) return false;
+        if (slots[timer] == FREE) return false;
+
+        if (slots[timer] >= 0) unlink(timer);
+        free(timer);
+        return true;
+    }
+
+    /**
+     * Returns the tick a pending timer is due at, or -1 if the handle's timer is gone.
+     * @param handle
+     * @return
+     */
+    public long dueTick(long handle) {
+        if (handle == NONE) return -1;
+        int timer = (int) handle;
+        if (timer < 0 || timer >= capacity || generations[timer] != (int) (handle >>> 32)) return -1;
+        return slots[timer] == FREE ? -1 : due[timer];
+    }
+
+    /**
+     * Advances the clock to the given tick, firing every timer due on the way in order of its due
+     * tick. Listeners may schedule and cancel timers while they are told.
+     * @param tick
+     */
+    public void advance(long tick) {
+        while (now < tick) {
+            now++;
+            int slot = (int) (now & MASK);
+
+            // detach the due timers first, so listeners can change the slot while they are told
+            int count = 0;
+            for (int timer = heads[slot]; timer >= 0; ) {
+                int following = next[timer];
+                if (due[timer] == now) {
+                    unlink(timer);
+                    slots[timer] = FIRING;
+                    if (count == firing.length) {
+                        firing = Arrays.copyOf(firing, count * 2);
+                        firingGenerations = Arrays.copyOf(firingGenerations, count * 2);
+                    }
+                    firing[count] = timer;
+                    firingGenerations[count++] = generations[timer];
+                }
+                timer = following;
+            }
+
+            for (int i = 0; i < count; i++) {
+                int timer = firing[i];
+                if (generations[timer] != firingGenerations[i]) continue; // cancelled by an earlier listener
+                Listener listener = listeners[timer];
+                int kind = kinds[timer];
+                free(timer);
+                listener.onTimer(kind);
+            }
+        }
+    }
+
+    /**
+     * Returns the last tick the wheel was advanced to.
+     * @return
+     */
+    public long now() { return now; }
+
+    /**
+     * Returns the number of timers that have not fired yet.
+     * @return
+     */
+    public int size() { return pending; }
+
+    /**
+     * Cancels every pending timer, keeping the clock where it is.
+     */
+    public void clear() {
+        for (int timer = 0; timer < capacity; timer++) {
+            if (slots[timer] != FREE) {
+                if (slots[timer] >= 0) unlink(timer);
+                free(timer);
+            }
+        }
+    }
+
+    /**
+     * Saves the clock and every timer, free ones included, so the handles held by the listeners
+     * stay valid after loadState(). The listeners are saved by reference only.
+     * @param out
+     */
+    void saveState(StateBuffer out) {
+        out.putLong(now);
+        out.putInt(capacity);
+        out.putInt(freeHead);
+        out.putInt(pending);
+        out.putInts(heads, SLOTS);
+        for (int timer = 0; timer < capacity; timer++) {
+            out.putLong(due[timer]);
+            out.putInt(kinds[timer]);
+            out.putInt(slots[timer]);
+            out.putInt(next[timer]);
+            out.putInt(prev[timer]);
+            out.putInt(generations[timer]);
+            out.putRef(listeners[timer]);
+        }
+    }
+
+    void loadState(StateBuffer in) {
+        now = in.getLong();
+        capacity = in.getInt();
+        freeHead = in.getInt();
+        pending = in.getInt();
+        in.getInts(heads, SLOTS);
+        for (int timer = 0; timer < capacity; timer++) {
+            due[timer] = in.getLong();
+            kinds[timer] = in.getInt();
+            slots[timer] = in.getInt();
+            next[timer] = in.getInt();
+            prev[timer] = in.getInt();
+            generations[timer] = in.getInt();
+            listeners[timer] = in.getRef();
+        }
+        // timers added after the save are forgotten; grow() hands them out again
+        Arrays.fill(listeners, capacity, listeners.length, null);
+    }
+
+    /**
+     * Returns the listener of a pending timer, or null for a free one.
+     * @param timer an index below capacity()
+     * @return
+     */
+    Listener listenerAt(int timer) { return listeners[timer]; }
+
+    int capacity() { return capacity; }
+
+    private void link(int timer, int slot) {
+        slots[timer] = slot;
+        prev[timer] = -1;
+        next[timer] = heads[slot];
+        if (heads[slot] >= 0) prev[heads[slot]] = timer;
+        heads[slot] = timer;
+    }
+
+    private void unlink(int timer) {
+        int slot = slots[timer];
+        if (prev[timer] >= 0) next[prev[timer]] = next[timer];
+        else heads[slot] = next[timer];
+        if (next[timer] >= 0) prev[next[timer]] = prev[timer];
+    }
+
+    private void free(int timer) {
+        slots[timer] = FREE;
+        listeners[timer] = null;
+        generations[timer]++;
+        next[timer] = freeHead;
+        freeHead = timer;
+        pending--;
+    }
+
+    /**
+     * Doubles the number of timers and adds the new ones to the free list.
+     */
+    private void grow() {
+        int size = capacity == 0 ? due.length : capacity * 2;
+        due = Arrays.copyOf(due, size);
+        listeners = Arrays.copyOf(listeners, size);
+        kinds = Arrays.copyOf(kinds, size);
+        slots = Arrays.copyOf(slots, size);
+        next = Arrays.copyOf(next, size);
+        prev = Arrays.copyOf(prev, size);
+        generations = Arrays.copyOf(generations, size);
+        for (int timer = size - 1; timer >= capacity; timer--) {
+            slots[timer] = FREE;
+            next[timer] = freeHead;
+            freeHead = timer;
+        }
+        capacity = size;
+    }
+}
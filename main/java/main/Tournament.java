@@ -0,0 +1,240 @@
+package main;
+import powerups.PowerUp;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Tournament class plays many headless bot-vs-bot matches side by side and reports what
+ * happened in them, so that a balancing change can be judged from thousands of rounds instead of
+ * an afternoon of play. Every match has its own world, seed and starting map, with a
+ * BotController in every player slot, and counts its rounds, power-ups and deaths into a
+ * MatchStats of the thread that plays it. The threads' stats are added up once all matches are
+ * done.
+ * Matches are independent and CPU bound, so they are spread over a fixed pool with one thread per
+ * core. A match only depends on its seed, so a tournament gives the same report on any number of
+ * threads.
+ * Can be run from the command line:
+ *   java main.Tournament [--matches N] [--players N] [--seed N] [--threads N]
+ *                        [--max-round-seconds N] [--format csv|json] [--out file]
+ */
+public class Tournament {
+    public static final int MAX_PLAYERS = 3;
+
+    private final int players;
+    private final long seed;
+    // a round still running after this many seconds of game time is cut short and counted as a draw
+    private final int maxRoundSeconds;
+
+    /**
+     * Initializes a tournament of matches between the given number of bots.
+     * @param players between 1 and MAX_PLAYERS
+     * @param seed the seed all match seeds are derived from
+     * @param maxRoundSeconds
+     */
+    public Tournament(int players, long seed, int maxRoundSeconds) {
+        if (players < 1 || players > MAX_PLAYERS) throw new IllegalArgumentException("Between 1 and " + MAX_PLAYERS + " players");
+        this.players = players;
+        this.seed = seed;
+        this.maxRoundSeconds = maxRoundSeconds;
+    }
+
+    /**
+     * Plays the given number of matches on the given number of threads and returns their stats.
+     * @param matches
+     * @param threads
+     * @return
+     * @throws InterruptedException if interrupted while waiting for the matches
+     */
+    public MatchStats run(int matches, int threads) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<MatchStats>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    MatchStats stats = new MatchStats();
+                    for (int match = next.getAndIncrement(); match < matches; match = next.getAndIncrement()) {
+                        play(match, stats);
+                    }
+                    return stats;
+                }));
+            }
+            MatchStats total = new MatchStats();
+            for (Future<MatchStats> result : results) {
+                try {
+                    total.add(result.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A match failed", e.getCause());
+                }
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one match to its end, or until a round runs too long, counting it into the stats.
+     * @param match the index of the match, which decides its seed and first map
+     * @param stats
+     */
+    void play(int match, MatchStats stats) {
+        GameWorld world = new GameWorld(true);
+        world.stats = stats;
+        PlayerControllers controllers = new PlayerControllers(world);
+        for (int playerNum = 1; playerNum <= players; playerNum++) controllers.set(playerNum, new BotController(world));
+        world.input = controllers;
+        world.loadMap(match % GameWorld.MAP_COUNT + 1);
+        world.startMatch(players, Rng.mix64(seed + match));
+        long maxRoundTicks = (long) maxRoundSeconds * world.FPS;
+
+        int round = world.currentRound;
+        long roundStart = world.tick;
+        while (world.gameState == world.playState) {
+            world.update();
+            if (world.currentRound != round) {
+                round = world.currentRound;
+                roundStart = world.tick;
+            } else if (world.tick - roundStart > maxRoundTicks) {
+                // careful bots can dodge each other forever on an open map
+                stats.timeouts++;
+                world.drawRound();
+            }
+        }
+    }
+
+    /**
+     * Writes the stats as CSV, one value per line under the header metric,key,value.
+     * @param stats
+     * @param out
+     */
+    static void writeCsv(MatchStats stats, PrintStream out) {
+        out.println("metric,key,value");
+        for (String[] row : rows(stats)) out.println(row[0] + "," + row[1] + "," + row[2]);
+    }
+
+    /**
+     * Writes the stats as a JSON object with one member per metric; metrics with keys are objects.
+     * @param stats
+     * @param out
+     */
+    static void writeJson(MatchStats stats, PrintStream out) {
+        StringBuilder json = new StringBuilder("{");
+        String open = null;
+        for (String[] row : rows(stats)) {
+            if (open != null && !open.equals(row[0])) {
+                json.append('}');
+                open = null;
+            }
+            if (json.length() > 1 && open == null) json.append(',');
+            if (row[1].isEmpty()) {
+                json.append("\n  \"").append(row[0]).append("\": ").append(row[2]);
+            } else {
+                if (open == null) {
+                    json.append("\n  \"").append(row[0]).append("\": {");
+                    open = row[0];
+                } else {
+                    json.append(", ");
+                }
+                json.append('"').append(row[1]).append("\": ").append(row[2]);
+            }
+        }
+        if (open != null) json.append('}');
+        out.println(json.append("\n}"));
+    }
+
+    /**
+     * Returns the rows of the report: metric, key (empty for a single value) and value.
+     * @param stats
+     * @return
+     */
+    private static List<String[]> rows(MatchStats stats) {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(row("matches", "", stats.matches));
+        rows.add(row("match_draws", "", stats.matchDraws));
+        rows.add(row("rounds", "", stats.rounds));
+        rows.add(row("round_draws", "", stats.roundDraws));
+        rows.add(row("timeouts", "", stats.timeouts));
+        rows.add(row("round_ticks_mean", "", stats.rounds == 0 ? 0 : (double) stats.roundTicks / stats.rounds));
+        rows.add(row("round_ticks_p50", "", stats.roundLengthPercentile(0.5, 60)));
+        rows.add(row("round_ticks_p90", "", stats.roundLengthPercentile(0.9, 60)));
+        rows.add(row("round_ticks_p99", "", stats.roundLengthPercentile(0.99, 60)));
+        for (int i = 0; i < stats.scores.length; i++) rows.add(row("round_wins", "player" + (i + 1), stats.roundWins[i]));
+        for (int i = 0; i < stats.scores.length; i++) rows.add(row("match_wins", "player" + (i + 1), stats.matchWins[i]));
+        for (int i = 0; i < stats.scores.length; i++) {
+            rows.add(row("mean_score", "player" + (i + 1), stats.matches == 0 ? 0 : (double) stats.scores[i] / stats.matches));
+        }
+        PowerUp.Type[] types = PowerUp.Type.values();
+        for (PowerUp.Type type : types) rows.add(row("powerups_placed", type.name(), stats.powerUpsPlaced[type.ordinal()]));
+        for (PowerUp.Type type : types) rows.add(row("powerups_picked", type.name(), stats.powerUpsPicked[type.ordinal()]));
+        for (PowerUp.Type type : types) {
+            long placed = stats.powerUpsPlaced[type.ordinal()];
+            rows.add(row("pickup_rate", type.name(), placed == 0 ? 0 : (double) stats.powerUpsPicked[type.ordinal()] / placed));
+        }
+        for (MatchStats.Death death : MatchStats.Death.values()) rows.add(row("deaths", death.name(), stats.deaths[death.ordinal()]));
+        return rows;
+    }
+
+    private static String[] row(String metric, String key, long value) {
+        return new String[] { metric, key, Long.toString(value) };
+    }
+
+    private static String[] row(String metric, String key, double value) {
+        return new String[] { metric, key, String.format(Locale.ROOT, "%.4f", value) };
+    }
+
+    /**
+     * Runs a tournament and writes its report to standard output or a file, and how long it took
+     * to standard error.
+     * @param args
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int matches = 1000, players = MAX_PLAYERS, maxRoundSeconds = 180;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = GameRandom.freshSeed();
+        String format = "csv", file = null;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--matches" -> matches = Integer.parseInt(value);
+                    case "--players" -> players = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--max-round-seconds" -> maxRoundSeconds = Integer.parseInt(value);
+                    case "--format" -> format = value;
+                    case "--out" -> file = value;
+                    default -> throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (!format.equals("csv") && !format.equals("json")) throw new IllegalArgumentException(format);
+        } catch (RuntimeException e) {
+            System.err.println("usage: java main.Tournament [--matches N] [--players N] [--seed N] [--threads N]"
+                    + " [--max-round-seconds N] [--format csv|json] [--out file]");
+            System.exit(2);
+            return;
+        }
+        if (System.getProperty("bomberman.log") == null) GameLog.setLevel(GameLog.Level.OFF);
+
+        long start = System.nanoTime();
+        MatchStats stats = new Tournament(players, seed, maxRoundSeconds).run(matches, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        PrintStream out = file == null ? System.out : new PrintStream(new FileOutputStream(file));
+        if (format.equals("csv")) writeCsv(stats, out);
+        else writeJson(stats, out);
+        if (out != System.out) out.close();
+        System.err.printf(Locale.ROOT, "seed=%d matches=%d rounds=%d threads=%d seconds=%.2f roundsPerSecond=%.0f%n",
+                seed, stats.matches, stats.rounds, threads, seconds, stats.rounds / seconds);
+    }
+}
@@ -1,6 +1,5 @@
 package main;
 import entity.Entity;
-import entity.Player;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,6 +12,7 @@ import java.util.Arrays;
 public class UI {
     GamePanel gp;
     Graphics2D g2;
+    RenderFrame frame = new RenderFrame();
     Font arial_20;
     BufferedImage heart_full, heart_blank;
     boolean messageOn = false;
@@ -36,24 +36,24 @@ public class UI {
         arial_20 = new Font("Arial", Font.PLAIN, 20);
         Arrays.fill(playerNames, "");
 
-        Entity heart = new Entity(gp);
+        Entity heart = new Entity(gp.world);
         heart_full = heart.image;
         heart_blank = heart.image2;
     }
 
     /**
-     * Updates UI components based on the current game state, delegating to specific
+     * Updates UI components based on the game state of the current frame, delegating to specific
      * drawing methods like drawTitleScreen or drawPlayerLife.
      */
     public void updateUI() {
-        if (gp.gameState == gp.titleState) {
+        if (frame.gameState == gp.world.titleState) {
             drawTitleScreen();
-        } else if (gp.gameState == gp.playState) {
+        } else if (frame.gameState == gp.world.playState) {
             drawPlayerLife();
-        } else if (gp.gameState == gp.pauseState) {
+        } else if (frame.gameState == gp.world.pauseState) {
             drawPauseScreen();
-        } else if (gp.gameState == gp.gameOverState) {
-            showEndGameScores(gp.playerScores);
+        } else if (frame.gameState == gp.world.gameOverState) {
+            showEndGameScores(frame.scores);
         }
     }
 
@@ -91,6 +91,14 @@ public class UI {
         this.g2 = g2;
     }
 
+    /**
+     * Sets the RenderFrame the HUD reads the game state, player lives and scores from while painting.
+     * @param frame
+     */
+    public void setFrame(RenderFrame frame) {
+        this.frame = frame;
+    }
+
     /**
      * Displays a message on the screen temporarily. This uses a separate thread to
      * manage visibility duration.
@@ -115,7 +123,7 @@ public class UI {
 
     /**
      * Central drawing method that updates the Graphics2D object and delegates drawing
-     * based on the game state.
+     * based on the game state of the current frame.
      * @param g2
      */
     public void draw(Graphics2D g2){
@@ -124,12 +132,12 @@ public class UI {
         g2.setColor(Color.WHITE);
 
         // title
-        if (gp.gameState == gp.titleState) drawTitleScreen();
+        if (frame.gameState == gp.world.titleState) drawTitleScreen();
 
         // displaying GameState
-        if (gp.gameState == gp.playState) drawPlayerLife();
-        if (gp.gameState == gp.pauseState) drawPauseScreen();
-        if (gp.gameState == gp.gameOverState) showEndGameScores(gp.playerScores);
+        if (frame.gameState == gp.world.playState) drawPlayerLife();
+        if (frame.gameState == gp.world.pauseState) drawPauseScreen();
+        if (frame.gameState == gp.world.gameOverState) showEndGameScores(frame.scores);
 
         // displaying messages
         // Now, draw the message if messageOn is true
@@ -145,28 +153,29 @@ public class UI {
         int playerXOffset = gp.tileSize;
 
         // Loop through each player
-        for (int i = 0; i < gp.players.length; i++) {
-            Player player = gp.players[i];
-            if (player == null) continue;
+        for (int i = 0; i < frame.lives.length; i++) {
+            int currLife = frame.lives[i];
+            int maxLife = frame.maxLives[i];
+            if (currLife < 0) continue;
 
             int x = playerXOffset + (gp.tileSize * 5 * i);
             int y = gp.tileSize / 2;
 
             // Draw Player Number and Name
-            String playerInfo = "Player " + (i + 1) + ": " + player.currLife + "/" + player.maxLife;
+            String playerInfo = "Player " + (i + 1) + ": " + currLife + "/" + maxLife;
             g2.drawString(playerInfo, x, y);
 
             // Display hearts right next to the player info
             int heartX = x + g2.getFontMetrics().stringWidth(playerInfo) + 10;
 
             // Draw full hearts for current life
-            for (int j = 0; j < player.currLife; j++) {
+            for (int j = 0; j < currLife; j++) {
                 g2.drawImage(heart_full, heartX, y - 10, null);
                 heartX += gp.tileSize;
             }
 
             // Draw blank hearts for lost life
-            for (int j = player.currLife; j < player.maxLife; j++) {
+            for (int j = currLife; j < maxLife; j++) {
                 g2.drawImage(heart_blank, heartX, y - 10, null);
                 heartX += gp.tileSize;
             }
@@ -235,7 +244,7 @@ public class UI {
         g2.drawString(text, x, y);
 
 
-        for (int i = 0; i < gp.players.length; i++) {
+        for (int i = 0; i < frame.lives.length; i++) {
             if (nameFields[i] != null) {
                 nameFields[i].setVisible(true);
             }
@@ -549,7 +558,7 @@ public class UI {
      * @return
      */
     public int getGameOverOkButtonY() {
-        return (gp.tileSize * 2) * gp.playerScores.length + gp.tileSize * 3;
+        return (gp.tileSize * 2) * frame.scores.length + gp.tileSize * 3;
     }
 
     /**
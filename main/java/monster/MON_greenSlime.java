@@ -1,22 +1,27 @@
 package monster;
+import entity.Direction;
 import entity.Entity;
-import main.GamePanel;
-import java.util.Random;
+import main.GameRandom;
+import main.GameWorld;
+import main.Rng;
 
 /**
  * Initializes a new instance of MON_greenSlime with a reference to the game panel
- * (GamePanel). Sets initial attributes such as name, speed, life, and the collision area of the slime. Calls the
+ * (GameWorld). Sets initial attributes such as name, speed, life, and the collision area of the slime. Calls the
  * getImage() method to load specific images for different movement directions.
  */
 public class MON_greenSlime extends Entity {
+    final Rng random;
+
     /**
      * nitializes a new instance of MON_greenSlime with a reference to the game panel
-     * (GamePanel). Sets initial attributes such as name, speed, life, and the collision area of the slime. alls the
+     * (GameWorld). Sets initial attributes such as name, speed, life, and the collision area of the slime. alls the
      * getImage() method to load specific images for different movement directions.
      * @param gp
      */
-    public MON_greenSlime(GamePanel gp) {
+    public MON_greenSlime(GameWorld gp) {
         super(gp);
+        random = gp.random.stream(GameRandom.Stream.MONSTERS);
 
         String name = "Green Slime";
         speed = 2;
@@ -34,32 +39,27 @@ public class MON_greenSlime extends Entity {
     }
 
     public void getImage(){
-        up1 = setup("/monster/greenslime1");
-        up2 = setup("/monster/greenslime2");
-        down1 = setup("/monster/greenslime1");
-        down2 = setup("/monster/greenslime2");
-        left1 = setup("/monster/greenslime1");
-        left2 = setup("/monster/greenslime2");
-        right1 = setup("/monster/greenslime1");
-        right2 = setup("/monster/greenslime2");
+        setSprites(Direction.UP, setup("/monster/greenslime1"), setup("/monster/greenslime2"));
+        setSprites(Direction.DOWN, setup("/monster/greenslime1"), setup("/monster/greenslime2"));
+        setSprites(Direction.LEFT, setup("/monster/greenslime1"), setup("/monster/greenslime2"));
+        setSprites(Direction.RIGHT, setup("/monster/greenslime1"), setup("/monster/greenslime2"));
     }
 
     public void setAction() {
         actionLockCounter++;
-        Random random = new Random();
 
         if (actionLockCounter >= random.nextInt(60) + 60) {
             int i = random.nextInt(100) + 1;
 
-            String proposedDirection = null;
+            Direction proposedDirection = null;
             if (i <= 20) {
-                proposedDirection = "up";
+                proposedDirection = Direction.UP;
             } else if (i <= 40) {
-                proposedDirection = "down";
+                proposedDirection = Direction.DOWN;
             } else if (i <= 70) {
-                proposedDirection = "left";
+                proposedDirection = Direction.LEFT;
             } else if (i > 70) {
-                proposedDirection = "right";
+                proposedDirection = Direction.RIGHT;
             }
 
             // Check if the proposed direction is feasible
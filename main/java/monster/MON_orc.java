@@ -1,14 +1,11 @@
 package monster;
+import entity.Direction;
 import entity.Entity;
-import main.GamePanel;
-import object.OBJ_bomb;
-import object.SuperObject;
+import main.GameRandom;
+import main.GameWorld;
+import main.Rng;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Random;
 
 /**
  * The MON_orc class extends the Entity class and represents an orc monster in the game.
@@ -18,7 +15,9 @@ import java.util.Random;
  * testing if moving in a certain direction would result in a collision with the map edge, and managing sprite animation by cycling through sprite images.
  */
 public class MON_orc extends Entity {
-    Random random = new Random();
+    final Rng random;
+    // scratch list of the directions that pass the safety checks
+    private final Direction[] safeDirections = new Direction[Direction.COUNT];
 
     /**
      * Purpose: Initializes a new instance of an orc with base settings for movement
@@ -27,8 +26,9 @@ public class MON_orc extends Entity {
      * initializes the sprite images for various movement directions.
      * @param gp
      */
-    public MON_orc(GamePanel gp) {
+    public MON_orc(GameWorld gp) {
         super(gp);
+        random = gp.random.stream(GameRandom.Stream.MONSTERS);
 
         name = "Orc";
         speed = 1;
@@ -43,14 +43,10 @@ public class MON_orc extends Entity {
     }
 
     public void getImage(){
-        up1 = setup("/monster/orc_up_1");
-        up2 = setup("/monster/orc_up_2");
-        down1 = setup("/monster/orc_down_1");
-        down2 = setup("/monster/orc_down_2");
-        left1 = setup("/monster/orc_left_1");
-        left2 = setup("/monster/orc_left_2");
-        right1 = setup("/monster/orc_right_1");
-        right2 = setup("/monster/orc_right_2");
+        setSprites(Direction.UP, setup("/monster/orc_up_1"), setup("/monster/orc_up_2"));
+        setSprites(Direction.DOWN, setup("/monster/orc_down_1"), setup("/monster/orc_down_2"));
+        setSprites(Direction.LEFT, setup("/monster/orc_left_1"), setup("/monster/orc_left_2"));
+        setSprites(Direction.RIGHT, setup("/monster/orc_right_1"), setup("/monster/orc_right_2"));
     }
 
     public void setAction() {
@@ -65,18 +61,11 @@ public class MON_orc extends Entity {
      * @return
      */
     private boolean isPathBlocked() {
-        int nextX = x + (direction.equals("right") ? speed : direction.equals("left") ? -speed : 0);
-        int nextY = y + (direction.equals("down") ? speed : direction.equals("up") ? -speed : 0);
-        Rectangle expectedPosition = new Rectangle(nextX + solidArea.x, nextY + solidArea.y, solidArea.width, solidArea.height);
-
+        int nextX = x + direction.dx * speed;
+        int nextY = y + direction.dy * speed;
         // Check for bombs in the path
-        for (SuperObject obj : gp.objs) {
-            if (obj instanceof OBJ_bomb) {
-                Rectangle objArea = new Rectangle(obj.x, obj.y, gp.tileSize, gp.tileSize);
-                if (expectedPosition.intersects(objArea)) {
-                    return true; // Bomb detected in the path
-                }
-            }
+        if (gp.danger.hasBombIn(nextX + solidArea.x, nextY + solidArea.y, solidArea.width, solidArea.height)) {
+            return true; // Bomb detected in the path
         }
 
         // Check for map edges (similar to previous implementations)
@@ -89,15 +78,8 @@ public class MON_orc extends Entity {
      * @return
      */
     private boolean isNextStepAtEdge() {
-        int nextX = x;
-        int nextY = y;
-
-        switch (direction) {
-            case "up"    -> nextY -= speed;
-            case "down"  -> nextY += speed;
-            case "left"  -> nextX -= speed;
-            case "right" -> nextX += speed;
-        }
+        int nextX = x + direction.dx * speed;
+        int nextY = y + direction.dy * speed;
 
         // Calculate edges of the solid area based on direction
         int nextLeftX   = nextX + solidArea.x;
@@ -120,20 +102,19 @@ public class MON_orc extends Entity {
      * ensuring it does not move into blocked paths.
      */
     private void changeDirectionRandomly() {
-        ArrayList<String> directions = new ArrayList<>(Arrays.asList("up", "down", "left", "right"));
-        Collections.shuffle(directions);
-
-        ArrayList<String> safeDirections = new ArrayList<>(directions);
-        safeDirections.removeIf(this::wouldCollideWithEdge);
-        safeDirections.removeIf(this::noGrassTileAhead);
+        int count = 0;
+        for (Direction dir : Direction.ALL) {
+            if (!wouldCollideWithEdge(dir) && !noGrassTileAhead(dir)) {
+                safeDirections[count++] = dir;
+            }
+        }
 
         // Use safe directions if available, otherwise, use potentially colliding ones as a last resort
-        if (!safeDirections.isEmpty()) {
-            Collections.shuffle(safeDirections);  // Shuffle to choose randomly among safe directions
-            direction = safeDirections.get(random.nextInt(safeDirections.size()));
+        if (count > 0) {
+            direction = safeDirections[random.nextInt(count)];
         } else {
-            // If no "safe" directions, pick any remaining one to avoid being stuck
-            direction = directions.get(random.nextInt(directions.size()));
+            // If no "safe" directions, pick any one to avoid being stuck
+            direction = Direction.ALL[random.nextInt(Direction.COUNT)];
         }
     }
 
@@ -145,19 +126,12 @@ public class MON_orc extends Entity {
      * @param direction
      * @return
      */
-    private boolean noGrassTileAhead(String direction) {
-        int dx = 0, dy = 0;
-
-        switch (direction) {
-            case "up"    -> dy = -1;
-            case "down"  -> dy =  1;
-            case "left"  -> dx = -1;
-            case "right" -> dx =  1;
-        }
+    private boolean noGrassTileAhead(Direction direction) {
+        int dx = direction.dx, dy = direction.dy;
 
         // Start checking from the next main.java.tile in the specified direction
-        int checkX = (x / gp.tileSize) + (direction.equals("up") || direction.equals("left") ? 0 : dx);;
-        int checkY = (y / gp.tileSize) + (direction.equals("up") || direction.equals("left") ? 0 : dy);
+        int checkX = (x / gp.tileSize) + Math.max(dx, 0);
+        int checkY = (y / gp.tileSize) + Math.max(dy, 0);
 
         // Continue checking in the same direction until the edge of the map
         while (checkX >= 0 && checkX < gp.maxScreenCol && checkY >= 0 && checkY < gp.maxScreenRow) {
@@ -181,15 +155,8 @@ public class MON_orc extends Entity {
      * @param testDirection
      * @return
      */
-    private boolean wouldCollideWithEdge(String testDirection) {
-        int testX = x, testY = y;
-        switch (testDirection) {
-            case "up"    -> testY -= speed;
-            case "down"  -> testY += speed;
-            case "left"  -> testX -= speed;
-            case "right" -> testX += speed;
-        }
-        return isNextStepAtEdge(testX, testY);
+    private boolean wouldCollideWithEdge(Direction testDirection) {
+        return isNextStepAtEdge(x + testDirection.dx * speed, y + testDirection.dy * speed);
     }
 
     /**
@@ -218,12 +185,8 @@ public class MON_orc extends Entity {
     @Override
     public void update() {
         setAction();
-        switch (direction) {
-            case "up"    -> y -= speed;
-            case "down"  -> y += speed;
-            case "left"  -> x -= speed;
-            case "right" -> x += speed;
-        }
+        x += direction.dx * speed;
+        y += direction.dy * speed;
         updateSprite();
     }
 
@@ -1,9 +1,13 @@
 package monster;
+import entity.Direction;
 import entity.Entity;
-import main.GamePanel;
+import main.FlowField;
+import main.GameLog;
+import main.GameRandom;
+import main.GameWorld;
+import main.Rng;
+import main.StateBuffer;
 import java.awt.*;
-import java.util.*;
-import java.util.List;
 import entity.Player;
 
 /**
@@ -11,25 +15,31 @@ import entity.Player;
  * It includes methods for initializing a new instance of a red slime, updating the state of the red slime each frame,
  * checking if the red slime should stop moving based on the proximity of the nearest player, stopping the movement of the red slime,
  * moving the slime in its current direction if there are no obstacles, getting the image for the red slime, setting the action of the red slime,
- * attempting to move directly towards the nearest player by evaluating which direction will decrease the distance to the player the most,
- * moving the slime in a specified direction, calculating the relevance of a direction based on how directly it leads towards a player,
- * choosing a random direction to move when no clear path towards the player is available, searching for the closest player,
- * and getting the next step towards the player.
+ * chasing the nearest player cell by cell along the world's shared FlowField, choosing a random direction to move when no
+ * player can be reached, and searching for the closest player.
  */
 public class MON_redSlime extends Entity {
-    GamePanel gp;
-    Random random = new Random();
+    GameWorld gp;
+    final Rng random;
     public boolean isMoving = true;
 
+    // chasing along the FlowField, and the cell the slime is walking onto while it does
+    boolean chasing = false;
+    private int targetCol = -1, targetRow = -1;
+
+    // scratch list of the directions the slime can currently move in
+    final Direction[] movable = new Direction[Direction.COUNT];
+
     /**
      * Initializes the Red Slime with specific attributes such as name, speed, life, and
      * collision area.
      * Calls getImage() to load images for different movement animations.
      * @param gp
      */
-    public MON_redSlime(GamePanel gp) {
+    public MON_redSlime(GameWorld gp) {
         super(gp);
         this.gp = gp;
+        random = gp.random.stream(GameRandom.Stream.MONSTERS);
 
         String name = "Red Slime";
         speed = 3;
@@ -43,6 +53,24 @@ public class MON_redSlime extends Entity {
         getImage();
     }
 
+    @Override
+    public void saveState(StateBuffer out) {
+        super.saveState(out);
+        out.putBoolean(isMoving);
+        out.putBoolean(chasing);
+        out.putInt(targetCol);
+        out.putInt(targetRow);
+    }
+
+    @Override
+    public void loadState(StateBuffer in) {
+        super.loadState(in);
+        isMoving = in.getBoolean();
+        chasing = in.getBoolean();
+        targetCol = in.getInt();
+        targetRow = in.getInt();
+    }
+
     /**
      * Updates the state of the Red Slime each frame, deciding on stopping or moving
      * based on the proximity of the nearest player.
@@ -54,6 +82,8 @@ public class MON_redSlime extends Entity {
         Player nearestPlayer = findNearestPlayer();
         if (nearestPlayer != null && shouldStop(nearestPlayer)) {
             stopMovement();
+        } else if (chasing) {
+            followPath();
         } else { moveInCurrentDirection(); }
     }
 
@@ -81,63 +111,33 @@ public class MON_redSlime extends Entity {
 
     /**
      * Moves the slime in its current direction if there are no obstacles, using collision
-     * checking from the GamePanel.
+     * checking from the GameWorld.
      */
     private void moveInCurrentDirection() {
-        switch (direction) {
-            case "up":
-                if (gp.cChecker.canMove(this, "up")) {
-                    y -= speed;
-                }
-                break;
-            case "down":
-                if (gp.cChecker.canMove(this, "down")) {
-                    y += speed;
-                    //System.out.println("Moved down to: " + y);
-                }
-                break;
-            case "left":
-                if (gp.cChecker.canMove(this, "left")) {
-                    x -= speed;
-                    //System.out.println("Moved left to: " + x);
-                }
-                break;
-            case "right":
-                if (gp.cChecker.canMove(this, "right")) {
-                    x += speed;
-                    //System.out.println("Moved right to: " + x);
-                }
-                break;
-            default:
-                //System.out.println("No valid direction to move.");
-                break;
+        if (gp.cChecker.canMove(this, direction)) {
+            x += direction.dx * speed;
+            y += direction.dy * speed;
         }
     }
 
     public void getImage(){
-        up1 = setup("/monster/redslime1");
-        up2 = setup("/monster/redslime2");
-        down1 = setup("/monster/redslime1");
-        down2 = setup("/monster/redslime2");
-        left1 = setup("/monster/redslime1");
-        left2 = setup("/monster/redslime2");
-        right1 = setup("/monster/redslime1");
-        right2 = setup("/monster/redslime2");
+        setSprites(Direction.UP, setup("/monster/redslime1"), setup("/monster/redslime2"));
+        setSprites(Direction.DOWN, setup("/monster/redslime1"), setup("/monster/redslime2"));
+        setSprites(Direction.LEFT, setup("/monster/redslime1"), setup("/monster/redslime2"));
+        setSprites(Direction.RIGHT, setup("/monster/redslime1"), setup("/monster/redslime2"));
     }
 
+    /**
+     * Every two seconds decides whether to chase the nearest player along the world's FlowField,
+     * or to wander in a random direction when no player can be reached from the slime's cell.
+     */
     public void setAction() {
         actionLockCounter++;
         if (actionLockCounter >= 120) {
-            Player nearestPlayer = findNearestPlayer();
-//            if (nearestPlayer != null) {
-//                System.out.println("Nearest Player at: (" + nearestPlayer.x + ", " + nearestPlayer.y + ")");
-//            } else {
-//                System.out.println("No player found.");
-//            }
-
-            boolean moved = attemptMoveTowardsPlayer(nearestPlayer);
-            if (!moved) {
-                //System.out.println("Obstacle detected, wandering randomly.");
+            int col = (x + gp.tileSize / 2) / gp.tileSize;
+            int row = (y + gp.tileSize / 2) / gp.tileSize;
+            chasing = gp.paths.distanceAt(col, row) != FlowField.UNREACHABLE;
+            if (!chasing) {
                 wanderRandomly();
             }
             actionLockCounter = 0;
@@ -145,83 +145,94 @@ public class MON_redSlime extends Entity {
     }
 
     /**
-     * Attempts to move directly towards the nearest player by evaluating which direction
-     * will decrease the distance to the player the most, considering obstacles.
-     * @param player
-     * @return
+     * Moves the slime one step along the FlowField. The slime walks from cell to cell: once it
+     * stands exactly on its target cell it reads that cell's direction and targets the next cell.
+     * A slime that starts between cells first walks onto the cell under its center. It moves along
+     * one axis at a time, and checks the target is still grass before every step, since a player
+     * may put a box on it while the slime walks there; it then heads back to the cell it came from.
      */
-    private boolean attemptMoveTowardsPlayer(Player player) {
-        if (player == null) return false;
-
-        int dx = player.x - this.x;
-        int dy = player.y - this.y;
-        //System.out.println("Distance to player: dx = " + dx + ", dy = " + dy);
-        List<String> directions = Arrays.asList("up", "down", "left", "right");
-        directions.sort((a, b) -> Double.compare(relevance(b, dx, dy), relevance(a, dx, dy)));
+    private void followPath() {
+        int size = gp.tileSize;
+        if (targetCol < 0) {
+            targetCol = (x + size / 2) / size;
+            targetRow = (y + size / 2) / size;
+        }
 
-        for (String dir : directions) {
-            //System.out.println("Trying direction: " + dir + " with relevance: " + relevance(dir, dx, dy));
-            if (gp.cChecker.canMove(this, dir)) {
-                direction = dir;
-                moveInDirection(dir);
-                //System.out.println("Successful move towards player in direction: " + dir);
-                return true;
+        if (!isGrass(targetCol, targetRow)) {
+            int backCol = targetCol, backRow = targetRow;
+            if (x != targetCol * size) backCol += x < targetCol * size ? -1 : 1;
+            else if (y != targetRow * size) backRow += y < targetRow * size ? -1 : 1;
+            if (!isGrass(backCol, backRow) || (backCol == targetCol && backRow == targetRow)) {
+                stopChasing();
+                return;
             }
+            targetCol = backCol;
+            targetRow = backRow;
+        }
+
+        if (x == targetCol * size && y == targetRow * size) {
+            Direction step = gp.paths.directionAt(targetCol, targetRow);
+            if (step == null || !isGrass(targetCol + step.dx, targetRow + step.dy)) return;
+            targetCol += step.dx;
+            targetRow += step.dy;
+        }
+
+        int dx = targetCol * size - x;
+        if (dx != 0) {
+            direction = dx > 0 ? Direction.RIGHT : Direction.LEFT;
+            x += Math.max(-speed, Math.min(speed, dx));
+        } else {
+            int dy = targetRow * size - y;
+            direction = dy > 0 ? Direction.DOWN : Direction.UP;
+            y += Math.max(-speed, Math.min(speed, dy));
         }
-        return false;
     }
 
     /**
-     * Moves the slime in a specified direction, adjusting its coordinates based on its
-     * current speed.
-     * @param dir
+     * Returns true if the cell is on the map and grass, the only tile the FlowField leads over.
+     * @param col
+     * @param row
+     * @return
      */
-    private void moveInDirection(String dir) {
-        switch (dir) {
-            case "up": y -= speed; break;
-            case "down": y += speed; break;
-            case "left": x -= speed; break;
-            case "right": x += speed; break;
-        }
+    private boolean isGrass(int col, int row) {
+        return col >= 0 && row >= 0 && col < gp.maxScreenCol && row < gp.maxScreenRow
+                && gp.tileM.mapTileNum[col][row] == 0;
     }
 
     /**
-     * Calculates the relevance of a direction based on how directly it leads towards a
-     * player, used to sort potential movement directions.
-     * @param direction
-     * @param dx
-     * @param dy
-     * @return
+     * Stops following the FlowField; the slime keeps walking in its current direction.
      */
-    private double relevance(String direction, int dx, int dy) {
-        switch (direction) {
-            case "up":
-                return dy < 0 ? Math.abs(dy) : -Math.abs(dy);
-            case "down":
-                return dy > 0 ? Math.abs(dy) : -Math.abs(dy);
-            case "left":
-                return dx < 0 ? Math.abs(dx) : -Math.abs(dx);
-            case "right":
-                return dx > 0 ? Math.abs(dx) : -Math.abs(dx);
-            default:
-                return 0;
-        }
+    void stopChasing() {
+        chasing = false;
+        targetCol = -1;
     }
 
     /**
      * Chooses a random direction to move when no clear path towards the player is
      * available, ensuring the slime remains active.
      */
-    private void wanderRandomly() {
-        List<String> directions = Arrays.asList("up", "down", "left", "right");
-        Collections.shuffle(directions);
-        for (String dir : directions) {
+    void wanderRandomly() {
+        stopChasing();
+        int count = collectMovableDirections();
+        if (count > 0) {
+            direction = movable[random.nextInt(count)];
+        }
+        GameLog.log(gp.tick, GameLog.Event.MONSTER_WANDER, x, y);
+    }
+
+    /**
+     * Fills the movable scratch array with the directions the slime can step in without hitting
+     * a collidable tile.
+     * @return the number of directions found
+     */
+    int collectMovableDirections() {
+        int count = 0;
+        for (Direction dir : Direction.ALL) {
             if (gp.cChecker.canMove(this, dir)) {
-                direction = dir;
-                break;
+                movable[count++] = dir;
             }
         }
-        System.out.println("Wandering direction: " + direction);
+        return count;
     }
 
     /**
@@ -242,44 +253,4 @@ public class MON_redSlime extends Entity {
             }
         } return nearestPlayer;
     }
-
-    /**
-     * Updates the state of the Red Slime each frame, deciding on stopping or moving
-     * based on the proximity of the nearest player.
-     */
-    private Point getNextStepTowardsPlayer(Player player) {
-        if (player == null) return null;
-        int dx = player.x - this.x;
-        int dy = player.y - this.y;
-        List<String> directions = Arrays.asList("up", "down", "left", "right");
-        directions.sort((d1, d2) -> rankDirection(d1, dx, dy) - rankDirection(d2, dx, dy));
-
-        for (String dir : directions) {
-            if (gp.cChecker.canMove(this, dir)) {
-                switch (dir) {
-                    case "right": return new Point(x + speed, y);
-                    case "left": return new Point(x - speed, y);
-                    case "down": return new Point(x, y + speed);
-                    case "up": return new Point(x, y - speed);
-                }
-            }
-        } return null;
-    }
-
-    /**
-     * Ranks the direction based on how directly it leads towards the player.
-     * @param dir
-     * @param dx
-     * @param dy
-     * @return
-     */
-    private int rankDirection(String dir, int dx, int dy) {
-        switch (dir) {
-            case "up": return dy > 0 ? Integer.MAX_VALUE : -dy;
-            case "down": return dy < 0 ? Integer.MAX_VALUE : dy;
-            case "left": return dx > 0 ? Integer.MAX_VALUE : -dx;
-            case "right": return dx < 0 ? Integer.MAX_VALUE : dx;
-            default: return Integer.MAX_VALUE;
-        }
-    }
-}
+}
\ No newline at end of file
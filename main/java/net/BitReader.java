@@ -0,0 +1,69 @@
+package net;
+import java.nio.BufferUnderflowException;
+
+/**
+ * The BitReader class reads back what a BitWriter packed, from a range of a byte array.
+ * Reading past the end of the range throws a BufferUnderflowException, as a ByteBuffer does.
+ */
+public final class BitReader {
+    private byte[] bytes = new byte[0];
+    private int bitPosition, bitLimit;
+
+    /**
+     * Starts reading the given range of an array.
+     * @param bytes
+     * @param offset
+     * @param length
+     */
+    public void reset(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        bitPosition = offset * 8;
+        bitLimit = (offset + length) * 8;
+    }
+
+    /**
+     * Reads an unsigned value of the given number of bits.
+     * @param bits between 0 and 32
+     * @return
+     */
+    public int readBits(int bits) {
+        if (bitPosition + bits > bitLimit) throw new BufferUnderflowException();
+        int value = 0;
+        for (int i = 0; i < bits; i++) {
+            int bit = (bytes[bitPosition >>> 3] >>> (7 - (bitPosition & 7))) & 1;
+            value = (value << 1) | bit;
+            bitPosition++;
+        }
+        return value;
+    }
+
+    public boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    /**
+     * Reads a varint written by BitWriter.writeVar().
+     * @return
+     */
+    public long readVar() {
+        long value = 0;
+        int shift = 0;
+        boolean more;
+        do {
+            if (shift >= 64) throw new IllegalStateException("Varint too long");
+            more = readBit();
+            value |= (long) readBits(BitWriter.VAR_GROUP) << shift;
+            shift += BitWriter.VAR_GROUP;
+        } while (more);
+        return value;
+    }
+
+    /**
+     * Reads a number written by BitWriter.writeSignedVar().
+     * @return
+     */
+    public long readSignedVar() {
+        long value = readVar();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,86 @@
+package net;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The BitWriter class packs values into a byte array bit by bit, most significant bit first, so a
+ * flag costs one bit and a small number only the bits it needs. Unsigned numbers of unknown size
+ * are written as bit-packed varints: groups of VAR_GROUP bits, each preceded by a bit telling
+ * whether another group follows. The array only grows, so a writer reused from tick to tick stops
+ * allocating once it has held the largest message.
+ */
+public final class BitWriter {
+    static final int VAR_GROUP = 4;
+
+    private byte[] bytes = new byte[256];
+    private int bitCount = 0;
+
+    /**
+     * Empties the writer for the next message.
+     */
+    public void reset() {
+        bitCount = 0;
+    }
+
+    /**
+     * Writes the lowest bits of a value.
+     * @param value
+     * @param bits between 0 and 32
+     */
+    public void writeBits(int value, int bits) {
+        ensure(bitCount + bits);
+        for (int i = bits - 1; i >= 0; i--) {
+            int index = bitCount >>> 3;
+            if ((bitCount & 7) == 0) bytes[index] = 0;
+            if (((value >>> i) & 1) != 0) bytes[index] |= (byte) (0x80 >>> (bitCount & 7));
+            bitCount++;
+        }
+    }
+
+    public void writeBit(boolean value) {
+        writeBits(value ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes a number as a bit-packed varint, taking it as unsigned.
+     * @param value
+     */
+    public void writeVar(long value) {
+        do {
+            long group = value & ((1 << VAR_GROUP) - 1);
+            value >>>= VAR_GROUP;
+            writeBits(value != 0 ? 1 : 0, 1);
+            writeBits((int) group, VAR_GROUP);
+        } while (value != 0);
+    }
+
+    /**
+     * Writes a number that may be negative as a zigzag-encoded varint, so small magnitudes of
+     * either sign stay short.
+     * @param value
+     */
+    public void writeSignedVar(long value) {
+        writeVar((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Returns the number of whole bytes written so far, counting a partly filled last byte.
+     * @return
+     */
+    public int byteCount() {
+        return (bitCount + 7) >>> 3;
+    }
+
+    /**
+     * Copies the written bytes into the buffer.
+     * @param out
+     */
+    public void copyTo(ByteBuffer out) {
+        out.put(bytes, 0, byteCount());
+    }
+
+    private void ensure(int bits) {
+        int needed = (bits + 7) >>> 3;
+        if (needed > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+    }
+}
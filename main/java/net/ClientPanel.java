@@ -0,0 +1,243 @@
+package net;
+import entity.Direction;
+import main.DangerMap;
+import main.FrameExchange;
+import main.InputSource;
+import main.MonsterSwarm;
+import main.RenderFrame;
+import main.SpriteCache;
+import powerups.PowerUp;
+
+import javax.swing.JPanel;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * The ClientPanel class shows a networked match from the Snapshots a GameClient receives and turns
+ * the local keyboard into input bits for the server. Each snapshot is turned into a RenderFrame on
+ * the client's reader thread and painted on the EDT, the same way GamePanel hands frames from its
+ * game thread to the renderer.
+ */
+public class ClientPanel extends JPanel implements GameClient.Listener, KeyListener {
+    private static final long serialVersionUID = 1L;
+    static final int TILE_SIZE = 48;
+    private static final String[] COLORS = { "blue", "orange", "pink", "red" };
+
+    private final FrameExchange frames = new FrameExchange();
+    private volatile GameClient client;
+    private volatile int cols = 16, rows = 12;
+
+    // held direction keys and the sprites, looked up once
+    private boolean up, down, left, right;
+    private final BufferedImage[] tileSprites = new BufferedImage[3];
+    private final BufferedImage[] fireSprites = new BufferedImage[6];
+    private final BufferedImage[][] playerSprites = new BufferedImage[COLORS.length][Direction.COUNT * 2];
+    private final BufferedImage[][] actorSprites;
+    private final BufferedImage invincibilitySprite, ghostSprite;
+
+    /**
+     * Initializes the panel and loads every sprite a snapshot can refer to.
+     */
+    public ClientPanel() {
+        SpriteCache.preload(TILE_SIZE);
+        tileSprites[0] = SpriteCache.get("/tiles/grass", TILE_SIZE, TILE_SIZE);
+        tileSprites[1] = SpriteCache.get("/tiles/wall", TILE_SIZE, TILE_SIZE);
+        tileSprites[2] = SpriteCache.get("/tiles/destructiblewall", TILE_SIZE, TILE_SIZE);
+        fireSprites[DangerMap.FIRE_UP] = SpriteCache.get("/objects/fireball_up", TILE_SIZE, TILE_SIZE);
+        fireSprites[DangerMap.FIRE_DOWN] = SpriteCache.get("/objects/fireball_down", TILE_SIZE, TILE_SIZE);
+        fireSprites[DangerMap.FIRE_LEFT] = SpriteCache.get("/objects/fireball_left", TILE_SIZE, TILE_SIZE);
+        fireSprites[DangerMap.FIRE_RIGHT] = SpriteCache.get("/objects/fireball_right", TILE_SIZE, TILE_SIZE);
+
+        for (int color = 0; color < COLORS.length; color++) {
+            for (Direction direction : Direction.ALL) {
+                String prefix = "/player/" + COLORS[color] + "_" + direction.name().toLowerCase();
+                playerSprites[color][direction.ordinal() * 2] = SpriteCache.get(prefix + "1", TILE_SIZE, TILE_SIZE);
+                playerSprites[color][direction.ordinal() * 2 + 1] = SpriteCache.get(prefix + "2", TILE_SIZE, TILE_SIZE);
+            }
+        }
+
+        PowerUp.Type[] types = PowerUp.Type.values();
+        actorSprites = new BufferedImage[Snapshot.POWER_UP + types.length][Direction.COUNT * 2];
+        for (MonsterSwarm.Kind kind : MonsterSwarm.Kind.values()) {
+            for (Direction direction : Direction.ALL) {
+                for (int frame = 1; frame <= 2; frame++) {
+                    actorSprites[kind.ordinal()][direction.ordinal() * 2 + frame - 1] =
+                            SpriteCache.get(kind.spritePath(direction, frame), TILE_SIZE, TILE_SIZE);
+                }
+            }
+        }
+        fill(actorSprites[Snapshot.GHOST], SpriteCache.get("/objects/ghost", TILE_SIZE, TILE_SIZE));
+        fill(actorSprites[Snapshot.BOMB], SpriteCache.get("/objects/bomb", TILE_SIZE, TILE_SIZE));
+        fill(actorSprites[Snapshot.EXPLOSION], SpriteCache.get("/objects/bomb_explosion", TILE_SIZE, TILE_SIZE));
+        for (PowerUp.Type type : types) {
+            fill(actorSprites[Snapshot.POWER_UP + type.ordinal()], SpriteCache.get(PowerUp.spritePath(type), TILE_SIZE, TILE_SIZE));
+        }
+        invincibilitySprite = SpriteCache.get("/powerups/invincibility");
+        ghostSprite = SpriteCache.get("/powerups/ghost");
+
+        setPreferredSize(new Dimension(cols * TILE_SIZE, rows * TILE_SIZE));
+        setBackground(Color.BLACK);
+        setDoubleBuffered(true);
+        setFocusable(true);
+        addKeyListener(this);
+    }
+
+    private static void fill(BufferedImage[] sprites, BufferedImage sprite) {
+        java.util.Arrays.fill(sprites, sprite);
+    }
+
+    /**
+     * Sets the client the keyboard input is sent through.
+     * @param client
+     */
+    public void setClient(GameClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Turns a received snapshot into the next frame and asks for a repaint. Runs on the client's
+     * reader thread.
+     * @param snapshot
+     */
+    @Override
+    public void onSnapshot(Snapshot snapshot) {
+        RenderFrame frame = frames.beginFrame();
+        frame.gameState = snapshot.gameState;
+        cols = snapshot.cols;
+        rows = snapshot.rows;
+
+        for (int col = 0; col < snapshot.cols; col++) {
+            for (int row = 0; row < snapshot.rows; row++) {
+                int tile = snapshot.tiles[col * snapshot.rows + row];
+                if (tile >= 0 && tile < tileSprites.length) {
+                    frame.addSprite(tileSprites[tile], col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE, false);
+                }
+            }
+        }
+
+        // bombs come first among the actors, and the fire is drawn over them
+        int actor = 0;
+        for (; actor < snapshot.actorCount; actor++) {
+            int kind = snapshot.actorKinds[actor];
+            if (kind != Snapshot.BOMB && kind != Snapshot.EXPLOSION) break;
+            addActor(frame, snapshot, actor);
+        }
+        for (int col = 0; col < snapshot.cols; col++) {
+            for (int row = 0; row < snapshot.rows; row++) {
+                BufferedImage sprite = fireSprites[snapshot.fire[col * snapshot.rows + row]];
+                if (sprite != null) frame.addSprite(sprite, col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE, false);
+            }
+        }
+        for (; actor < snapshot.actorCount; actor++) addActor(frame, snapshot, actor);
+
+        if (frame.lives.length != snapshot.playerCount) {
+            frame.lives = new int[snapshot.playerCount];
+            frame.maxLives = new int[snapshot.playerCount];
+            frame.scores = new int[snapshot.playerCount];
+        }
+        for (int i = 0; i < snapshot.playerCount; i++) {
+            int flags = snapshot.playerFlags[i];
+            frame.scores[i] = snapshot.scores[i];
+            frame.lives[i] = (flags & Snapshot.ALIVE) != 0 ? snapshot.playerLives[i] : -1;
+            frame.maxLives[i] = snapshot.playerMaxLives[i];
+            if ((flags & Snapshot.ALIVE) != 0) addPlayer(frame, snapshot, i);
+        }
+        frames.publish();
+        repaint();
+    }
+
+    private void addActor(RenderFrame frame, Snapshot snapshot, int i) {
+        int kind = snapshot.actorKinds[i];
+        if (kind < 0 || kind >= actorSprites.length) return;
+        int sprite = snapshot.actorDirections[i] * 2 + snapshot.actorSpriteNums[i] - 1;
+        frame.addSprite(actorSprites[kind][sprite], snapshot.actorX[i], snapshot.actorY[i], TILE_SIZE, TILE_SIZE, false);
+    }
+
+    /**
+     * Adds a player the way Player.draw() does: the effect icons beside it, and the player itself
+     * unless an ending effect makes it blink.
+     * @param frame
+     * @param snapshot
+     * @param i
+     */
+    private void addPlayer(RenderFrame frame, Snapshot snapshot, int i) {
+        int flags = snapshot.playerFlags[i];
+        boolean invincible = (flags & Snapshot.INVINCIBLE) != 0, ghost = (flags & Snapshot.GHOST_MODE) != 0;
+        boolean blinking = (flags & Snapshot.BLINKING) != 0;
+        int x = snapshot.playerX[i], y = snapshot.playerY[i];
+
+        if (invincible) frame.addSprite(invincibilitySprite, x - 10 + (ghost ? 8 : 0), y, RenderFrame.NATURAL_SIZE, RenderFrame.NATURAL_SIZE, blinking);
+        if (ghost) frame.addSprite(ghostSprite, x - 10 + (invincible ? -8 : 0), y, RenderFrame.NATURAL_SIZE, RenderFrame.NATURAL_SIZE, blinking);
+        if (!((invincible || ghost) && blinking)) {
+            int sprite = snapshot.playerDirections[i] * 2 + snapshot.playerSpriteNums[i] - 1;
+            frame.addSprite(playerSprites[i % COLORS.length][sprite], x, y, TILE_SIZE, TILE_SIZE, false);
+        }
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        RenderFrame frame = frames.latest();
+        frame.draw(g2);
+
+        g2.setFont(new Font("Arial", Font.PLAIN, 20));
+        g2.setColor(Color.WHITE);
+        for (int i = 0; i < frame.lives.length; i++) {
+            String text = "Player " + (i + 1) + ": " + Math.max(frame.lives[i], 0) + "/" + frame.maxLives[i] + "  score " + frame.scores[i];
+            g2.drawString(text, TILE_SIZE + TILE_SIZE * 5 * i, TILE_SIZE / 2);
+        }
+        GameClient current = client;
+        if (current != null && !current.isConnected()) {
+            g2.drawString("Disconnected", TILE_SIZE, rows * TILE_SIZE - TILE_SIZE / 2);
+        }
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) { }
+
+    /**
+     * Sends the held directions and any action key to the server.
+     * @param e the event to be processed
+     */
+    @Override
+    public void keyPressed(KeyEvent e) {
+        int action = 0;
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_W, KeyEvent.VK_UP -> up = true;
+            case KeyEvent.VK_S, KeyEvent.VK_DOWN -> down = true;
+            case KeyEvent.VK_A, KeyEvent.VK_LEFT -> left = true;
+            case KeyEvent.VK_D, KeyEvent.VK_RIGHT -> right = true;
+            case KeyEvent.VK_Q, KeyEvent.VK_SPACE -> action = InputSource.BOMB;
+            case KeyEvent.VK_E -> action = InputSource.DETONATE;
+            case KeyEvent.VK_R -> action = InputSource.OBSTACLE;
+        }
+        send(action);
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_W, KeyEvent.VK_UP -> up = false;
+            case KeyEvent.VK_S, KeyEvent.VK_DOWN -> down = false;
+            case KeyEvent.VK_A, KeyEvent.VK_LEFT -> left = false;
+            case KeyEvent.VK_D, KeyEvent.VK_RIGHT -> right = false;
+        }
+        send(0);
+    }
+
+    private void send(int action) {
+        GameClient current = client;
+        if (current == null || !current.isConnected()) return;
+        int input = action | (up ? InputSource.UP : 0) | (down ? InputSource.DOWN : 0)
+                | (left ? InputSource.LEFT : 0) | (right ? InputSource.RIGHT : 0);
+        try {
+            current.sendInput(input);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
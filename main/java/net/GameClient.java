@@ -0,0 +1,185 @@
+package net;
+import main.InputSource;
+
+import javax.swing.JFrame;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * The GameClient class is the thin client of a MatchServer match. It joins a match, sends the local
+ * player's input bits and hands every state the server sends to a listener; it runs no simulation
+ * of its own. One background thread reads the server's states, decodes each against the recent
+ * state it was encoded from and acknowledges it, so the caller's thread never waits on the network
+ * except to send input.
+ * Can be run from the command line to play in a window: java net.GameClient host port match players
+ */
+public class GameClient implements Closeable {
+    /**
+     * Told about every state received, on the client's reader thread. The snapshot is reused for
+     * a later state, so it must not be kept.
+     */
+    public interface Listener {
+        void onSnapshot(Snapshot snapshot);
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final Listener listener;
+    private final int playerNum;
+    private final int playerCount;
+    private final SnapshotHistory history = new SnapshotHistory();
+    private final BitReader bits = new BitReader();
+    private final Thread reader;
+    private volatile boolean closed = false;
+    private volatile long bytesReceived = 0;
+
+    // frame body buffer, grown as needed
+    private byte[] body = new byte[8192];
+
+    // the directions last sent, so only changes go over the wire
+    private int sentDirections = -1;
+
+    /**
+     * Connects to a server and joins the given match, waiting for the server to seat the player.
+     * @param host
+     * @param port
+     * @param matchId
+     * @param players the number of players the match is for
+     * @param listener
+     * @return
+     * @throws IOException if the connection fails or the server rejects the player
+     */
+    public static GameClient connect(String host, int port, int matchId, int players, Listener listener) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port));
+            return new GameClient(socket, matchId, players, listener);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private GameClient(Socket socket, int matchId, int players, Listener listener) throws IOException {
+        this.socket = socket;
+        this.listener = listener;
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        out.writeInt(6);
+        out.writeByte(Protocol.JOIN);
+        out.writeInt(matchId);
+        out.writeByte(players);
+        out.flush();
+
+        int length = in.readInt();
+        byte type = in.readByte();
+        if (type != Protocol.WELCOME || length != 3) throw new IOException("Match " + matchId + " rejected the player");
+        playerNum = in.readByte();
+        playerCount = in.readByte();
+
+        reader = new Thread(this::readStates, "game-client-" + playerNum);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Sends the local player's input. Directions are only sent when they change; actions are
+     * always sent.
+     * @param input
+     * @throws IOException
+     */
+    public synchronized void sendInput(int input) throws IOException {
+        int directions = input & (InputSource.UP | InputSource.DOWN | InputSource.LEFT | InputSource.RIGHT);
+        if (directions == sentDirections && input == directions) return;
+        out.writeInt(2);
+        out.writeByte(Protocol.INPUT);
+        out.writeByte(input);
+        out.flush();
+        sentDirections = directions;
+    }
+
+    /**
+     * Returns the number the server gave the local player.
+     * @return
+     */
+    public int getPlayerNum() { return playerNum; }
+
+    public int getPlayerCount() { return playerCount; }
+
+    /**
+     * Returns the number of bytes received from the server since the player was seated.
+     * @return
+     */
+    public long getBytesReceived() { return bytesReceived; }
+
+    /**
+     * Returns true until the connection is closed by either side.
+     * @return
+     */
+    public boolean isConnected() { return !closed; }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+    }
+
+    private synchronized void acknowledge(long tick) throws IOException {
+        out.writeInt(9);
+        out.writeByte(Protocol.ACK);
+        out.writeLong(tick);
+        out.flush();
+    }
+
+    private void readStates() {
+        try {
+            while (!closed) {
+                int length = in.readInt();
+                if (length < 1 || length > Protocol.MAX_FRAME) throw new IOException("Bad frame length " + length);
+                if (body.length < length) body = new byte[Math.max(length, body.length * 2)];
+                in.readFully(body, 0, length);
+                bytesReceived += 4 + length;
+                if (body[0] != Protocol.STATE) continue;
+
+                bits.reset(body, 1, length - 1);
+                Snapshot snapshot = SnapshotCodec.decode(bits, history);
+                acknowledge(snapshot.tick);
+                listener.onSnapshot(snapshot);
+            }
+        } catch (IOException e) {
+            // the server closed the connection or the match ended
+        } finally {
+            closed = true;
+        }
+    }
+
+    /**
+     * Joins a match and shows it in a window, controlled with WASD or the arrow keys, Q or space to
+     * place a bomb, E to detonate and R to place an obstacle.
+     * @param args host, port, match id and the number of players in the match
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("usage: java net.GameClient <host> <port> <match> <players>");
+            System.exit(2);
+        }
+        ClientPanel panel = new ClientPanel();
+        GameClient client = connect(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]), panel);
+        panel.setClient(client);
+
+        JFrame window = new JFrame();
+        window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        window.setResizable(false);
+        window.setTitle("Bomberman - player " + client.getPlayerNum());
+        window.add(panel);
+        window.pack();
+        window.setLocationRelativeTo(null);
+        window.setVisible(true);
+        panel.requestFocusInWindow();
+    }
+}
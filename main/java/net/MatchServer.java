@@ -0,0 +1,430 @@
+package net;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MatchServer class hosts many matches in one process over non-blocking sockets. It runs a
+ * fixed number of event loops, each a thread with its own Selector that owns a share of the
+ * matches: it reads its players' input, steps its matches at the simulation rate and writes their
+ * state back, all without blocking. A match lives on loop (match id mod loop count), so the number
+ * of threads does not grow with the number of matches or players.
+ * The first loop also accepts connections. A new connection stays there until its JOIN message
+ * says which match it wants, and is then handed to the loop owning that match.
+ * A client that cannot keep up does not hold the match back: while it still has unsent state, newer
+ * states are skipped for it, and it receives the latest one once it has caught up. Since every state
+ * is a delta against the last one the client acknowledged, a skipped state costs nothing to recover.
+ * Can be run from the command line: java net.MatchServer port [loops]
+ */
+public class MatchServer {
+    // unsent bytes above which a connection skips states until it catches up
+    static final int MAX_BACKLOG = 64 * 1024;
+    static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final int port;
+    private final EventLoop[] loops;
+    private final long tickInterval;
+    private ServerSocketChannel server;
+
+    /**
+     * Initializes a server for the given port, or an ephemeral port if it is 0, with the given
+     * number of event loops, stepping matches at the given rate in ticks per second.
+     * @param port
+     * @param loopCount
+     * @param tickRate
+     */
+    public MatchServer(int port, int loopCount, int tickRate) {
+        if (loopCount < 1) throw new IllegalArgumentException("At least one event loop is needed");
+        this.port = port;
+        this.loops = new EventLoop[loopCount];
+        this.tickInterval = TimeUnit.SECONDS.toNanos(1) / tickRate;
+    }
+
+    /**
+     * Binds the port and starts the event loops.
+     * @throws IOException if the port cannot be bound
+     */
+    public void start() throws IOException {
+        server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(new InetSocketAddress(port));
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+        }
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        for (EventLoop loop : loops) loop.thread.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     * @return
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of matches currently hosted.
+     * @return
+     */
+    public int matchCount() {
+        int count = 0;
+        for (EventLoop loop : loops) count += loop.matchCount;
+        return count;
+    }
+
+    /**
+     * Returns the number of threads the server runs, which is fixed at construction.
+     * @return
+     */
+    public int threadCount() { return loops.length; }
+
+    /**
+     * Stops the event loops, closing every connection and the listening socket.
+     */
+    public void stop() {
+        for (EventLoop loop : loops) {
+            if (loop == null) continue;
+            loop.running = false;
+            loop.selector.wakeup();
+        }
+        for (EventLoop loop : loops) {
+            if (loop == null) continue;
+            try {
+                loop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * One player's socket, with the bytes read but not yet handled and the bytes not yet sent.
+     */
+    static class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(256);
+        ByteBuffer out = ByteBuffer.allocate(8192); // kept in write mode
+        SelectionKey key;
+        ServerMatch match;
+        int playerNum;
+        boolean closeWhenSent = false;
+        // the last tick the client acknowledged, the last tick sent to it, and the last tick sent
+        // with a change against its base
+        long ackedTick = -1, sentTick = -1, changedTick = -1;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        boolean hasBacklog() { return out.position() > 0; }
+    }
+
+    /**
+     * A thread with its own selector, connections and matches.
+     */
+    private class EventLoop implements Runnable {
+        final int index;
+        final Selector selector;
+        final Thread thread;
+        final Map<Integer, ServerMatch> matches = new HashMap<>();
+        final List<ServerMatch> ticking = new ArrayList<>();
+        final Queue<Connection> handedOver = new ConcurrentLinkedQueue<>();
+        volatile boolean running = true;
+        volatile int matchCount = 0;
+
+        EventLoop(int index) throws IOException {
+            this.index = index;
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "match-loop-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long nextTick = System.nanoTime() + tickInterval;
+            try {
+                while (running) {
+                    long wait = nextTick - System.nanoTime();
+                    if (wait > 0) {
+                        selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+                    } else {
+                        selector.selectNow();
+                    }
+                    adoptHandedOver();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+
+                    int ticksRun = 0;
+                    long now = System.nanoTime();
+                    while (now - nextTick >= 0 && ticksRun < MAX_CATCH_UP_TICKS) {
+                        tickMatches();
+                        nextTick += tickInterval;
+                        ticksRun++;
+                    }
+                    if (now - nextTick >= 0) nextTick = now + tickInterval; // too far behind, drop the backlog
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeQuietly(key.channel());
+                }
+                closeQuietly(selector);
+            }
+        }
+
+        /**
+         * Registers the connections other loops handed to this one and seats them in their match.
+         */
+        private void adoptHandedOver() {
+            Connection connection;
+            while ((connection = handedOver.poll()) != null) {
+                try {
+                    connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+                    connection.in.flip();
+                    int matchId = connection.in.getInt(Protocol.HEADER);
+                    int players = connection.in.get(Protocol.HEADER + 4);
+                    connection.in.position(Protocol.HEADER + 5);
+                    connection.in.compact();
+                    seat(connection, matchId, players);
+                    readFrames(connection);
+                } catch (IOException | RuntimeException e) {
+                    close(connection);
+                }
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            if (!key.isValid()) return;
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    if (connection.channel.read(connection.in) < 0) {
+                        close(connection);
+                        return;
+                    }
+                    readFrames(connection);
+                }
+                if (key.isValid() && key.isWritable()) flush(connection);
+            } catch (IOException | RuntimeException e) {
+                // one broken peer only loses its own connection, never the loop and its matches
+                close(connection);
+            }
+        }
+
+        private void accept() {
+            try {
+                SocketChannel channel;
+                while ((channel = server.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    Connection connection = new Connection(channel);
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        /**
+         * Handles every complete frame in the connection's input buffer.
+         * @param connection
+         */
+        private void readFrames(Connection connection) throws IOException {
+            ByteBuffer in = connection.in;
+            in.flip();
+            while (in.remaining() >= Protocol.HEADER) {
+                int length = in.getInt(in.position());
+                if (length < 1 || length + 4 > in.capacity()) throw new IOException("Bad frame length " + length);
+                if (in.remaining() < length + 4) break;
+
+                byte type = in.get(in.position() + 4);
+                if (length < Protocol.minLength(type)) throw new IOException("Short frame of type " + type);
+                if (type == Protocol.JOIN && connection.match == null) {
+                    int matchId = in.getInt(in.position() + Protocol.HEADER);
+                    int owner = Math.floorMod(matchId, loops.length);
+                    if (owner != index) {
+                        // keep the JOIN frame at the start of the buffer for the owning loop
+                        in.compact();
+                        connection.key.cancel();
+                        loops[owner].handedOver.add(connection);
+                        loops[owner].selector.wakeup();
+                        return;
+                    }
+                    int players = in.get(in.position() + Protocol.HEADER + 4);
+                    in.position(in.position() + length + 4);
+                    seat(connection, matchId, players);
+                } else if (type == Protocol.INPUT && connection.match != null) {
+                    connection.match.receiveInput(connection.playerNum, in.get(in.position() + Protocol.HEADER));
+                    in.position(in.position() + length + 4);
+                } else if (type == Protocol.ACK && connection.match != null) {
+                    connection.ackedTick = Math.max(connection.ackedTick, in.getLong(in.position() + Protocol.HEADER));
+                    in.position(in.position() + length + 4);
+                } else {
+                    in.position(in.position() + length + 4); // unknown or out of order, ignored
+                }
+            }
+            in.compact();
+        }
+
+        /**
+         * Seats the connection in the given match on this loop, creating the match if needed, and
+         * answers with WELCOME or REJECTED.
+         * @param connection
+         * @param matchId
+         * @param players
+         */
+        private void seat(Connection connection, int matchId, int players) throws IOException {
+            if (players < 1 || players > Protocol.MAX_PLAYERS) {
+                reject(connection);
+                return;
+            }
+            ServerMatch match = matches.get(matchId);
+            if (match == null) {
+                match = new ServerMatch(matchId, players);
+                matches.put(matchId, match);
+                ticking.add(match);
+                matchCount = matches.size();
+            }
+            int playerNum = match.playerCount == players ? match.join(connection) : 0;
+            if (playerNum == 0) {
+                reject(connection);
+                return;
+            }
+            connection.match = match;
+            connection.playerNum = playerNum;
+            ByteBuffer out = reserve(connection, Protocol.HEADER + 2);
+            out.putInt(3).put(Protocol.WELCOME).put((byte) playerNum).put((byte) players);
+            flush(connection);
+        }
+
+        private void reject(Connection connection) throws IOException {
+            reserve(connection, Protocol.HEADER).putInt(1).put(Protocol.REJECTED);
+            connection.closeWhenSent = true;
+            flush(connection);
+        }
+
+        /**
+         * Steps every started match and sends its state to its players, then drops the matches that
+         * ended or lost all their players.
+         */
+        private void tickMatches() {
+            for (int m = ticking.size() - 1; m >= 0; m--) {
+                ServerMatch match = ticking.get(m);
+                if (match.isStarted() && !match.isOver()) {
+                    match.tick();
+                    for (Connection seat : match.seats) {
+                        if (seat == null || seat.hasBacklog()) continue; // skip a state the client is behind on
+                        ByteBuffer frame = match.frameFor(seat);
+                        if (frame == null) continue;
+                        reserve(seat, frame.remaining()).put(frame);
+                        try {
+                            flush(seat);
+                        } catch (IOException e) {
+                            close(seat);
+                        }
+                    }
+                    if (match.isOver()) {
+                        for (Connection seat : match.seats) {
+                            if (seat != null) seat.closeWhenSent = true;
+                        }
+                    }
+                }
+                if (match.isAbandoned() || match.isOver()) {
+                    for (Connection seat : match.seats) {
+                        if (seat != null && !seat.hasBacklog()) close(seat);
+                    }
+                    ticking.remove(m);
+                    matches.remove(match.id);
+                    matchCount = matches.size();
+                }
+            }
+        }
+
+        /**
+         * Makes room for the given number of bytes in the connection's output buffer.
+         * @param connection
+         * @param bytes
+         * @return the output buffer
+         */
+        private ByteBuffer reserve(Connection connection, int bytes) {
+            ByteBuffer out = connection.out;
+            if (out.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                larger.put(out);
+                connection.out = larger;
+            }
+            return connection.out;
+        }
+
+        /**
+         * Writes as much of the connection's output as the socket takes, and asks to be told when
+         * it can take more if anything is left.
+         * @param connection
+         */
+        private void flush(Connection connection) throws IOException {
+            ByteBuffer out = connection.out;
+            out.flip();
+            connection.channel.write(out);
+            out.compact();
+            if (connection.hasBacklog()) {
+                connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else {
+                connection.key.interestOps(SelectionKey.OP_READ);
+                if (connection.closeWhenSent) close(connection);
+            }
+        }
+
+        private void close(Connection connection) {
+            if (connection.key != null) connection.key.cancel();
+            closeQuietly(connection.channel);
+            if (connection.match != null) {
+                connection.match.leave(connection.playerNum);
+                connection.match = null;
+            }
+        }
+    }
+
+    private static void closeQuietly(java.io.Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * @param args the port and, optionally, the number of event loops
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: java net.MatchServer <port> [loops]");
+            System.exit(2);
+        }
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        MatchServer server = new MatchServer(Integer.parseInt(args[0]), loops, 60);
+        server.start();
+        System.out.println("Listening on port " + server.getPort() + " with " + loops + " event loops");
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,50 @@
+package net;
+
+/**
+ * The Protocol class lists the messages exchanged between MatchServer and GameClient. Every message
+ * is a frame: an int length, counting the type byte and the payload, then a type byte, then the
+ * payload, all big-endian.
+ *
+ * Client to server:
+ *   JOIN   int match id, byte number of players in the match
+ *   INPUT  byte input bits, as defined by InputSource; held directions replace the previous ones,
+ *          actions are carried out once on the player's next tick
+ *   ACK    long tick of a received state, which the server then encodes the next states against
+ * Server to client:
+ *   WELCOME   byte player number, byte number of players in the match
+ *   REJECTED  no payload; the match is full, already running, or the request is invalid
+ *   STATE     a Snapshot of the match after a tick, bit-packed by SnapshotCodec as a delta against
+ *             a state the client acknowledged
+ */
+public final class Protocol {
+    public static final byte JOIN = 1;
+    public static final byte INPUT = 2;
+    public static final byte WELCOME = 3;
+    public static final byte REJECTED = 4;
+    public static final byte STATE = 5;
+    public static final byte ACK = 6;
+
+    // length field plus type byte
+    public static final int HEADER = 5;
+    // frames larger than this are treated as a broken connection
+    public static final int MAX_FRAME = 1 << 20;
+
+    public static final int MAX_PLAYERS = 3;
+
+    private Protocol() { }
+
+    /**
+     * Returns the smallest frame length, counting the type byte, that carries the whole payload
+     * of a message from a client. Shorter frames are treated as a broken connection.
+     * @param type
+     * @return
+     */
+    public static int minLength(byte type) {
+        return switch (type) {
+            case JOIN -> 6;
+            case INPUT -> 2;
+            case ACK -> 9;
+            default -> 1;
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package net;
+import main.GameRandom;
+import main.GameWorld;
+import main.InputSource;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The ServerMatch class is one match hosted by a MatchServer: an authoritative headless GameWorld,
+ * the connections of its players, and the input they last sent. The match starts once every seat
+ * is taken, and from then on the server's event loop steps it once per tick and sends each player a
+ * Snapshot encoded against the last one that player acknowledged.
+ * A match belongs to exactly one event loop and is only touched by that loop's thread.
+ */
+class ServerMatch implements InputSource {
+    private static final int DIRECTIONS = UP | DOWN | LEFT | RIGHT;
+    // ticks after which a player hears from the server even if nothing changed; well inside the
+    // history, so a keep-alive is still a delta against the state the player acknowledged
+    static final int KEEP_ALIVE_TICKS = SnapshotHistory.SIZE / 2;
+
+    final int id;
+    final int playerCount;
+    final GameWorld world = new GameWorld(true);
+    final MatchServer.Connection[] seats;
+    private int joined = 0;
+    private boolean started = false;
+
+    // held directions and actions not yet polled, per player
+    private final int[] held;
+    private final int[] pending;
+
+    // the states of the last ticks, and the frame being encoded for a player
+    private final SnapshotHistory history = new SnapshotHistory();
+    private final BitWriter writer = new BitWriter();
+    private ByteBuffer frame = ByteBuffer.allocate(4096);
+
+    /**
+     * Initializes an empty match for the given number of players.
+     * @param id
+     * @param playerCount
+     */
+    ServerMatch(int id, int playerCount) {
+        this.id = id;
+        this.playerCount = playerCount;
+        seats = new MatchServer.Connection[playerCount];
+        held = new int[playerCount];
+        pending = new int[playerCount];
+        world.input = this;
+    }
+
+    /**
+     * Seats a connection in the first free slot and starts the match when it is full.
+     * @param connection
+     * @return the player number, or 0 if the match has no free seat
+     */
+    int join(MatchServer.Connection connection) {
+        if (started || joined == playerCount) return 0;
+        seats[joined] = connection;
+        int playerNum = ++joined;
+        if (joined == playerCount) {
+            world.startMatch(playerCount, GameRandom.freshSeed());
+            started = true;
+        }
+        return playerNum;
+    }
+
+    /**
+     * Frees the seat of a player whose connection closed. The player stays in the world but stops
+     * moving.
+     * @param playerNum
+     */
+    void leave(int playerNum) {
+        seats[playerNum - 1] = null;
+        held[playerNum - 1] = 0;
+        pending[playerNum - 1] = 0;
+    }
+
+    /**
+     * Returns true if no player is connected any more.
+     * @return
+     */
+    boolean isAbandoned() {
+        for (MatchServer.Connection seat : seats) {
+            if (seat != null) return false;
+        }
+        return true;
+    }
+
+    boolean isStarted() { return started; }
+
+    /**
+     * Returns true once the match reached its game over screen.
+     * @return
+     */
+    boolean isOver() {
+        return started && world.gameState == world.gameOverState;
+    }
+
+    /**
+     * Takes the input a player sent: the directions replace the held ones, the actions wait for
+     * the player's next tick.
+     * @param playerNum
+     * @param input
+     */
+    void receiveInput(int playerNum, int input) {
+        held[playerNum - 1] = input & DIRECTIONS;
+        pending[playerNum - 1] |= input & ~DIRECTIONS;
+    }
+
+    @Override
+    public int poll(int playerNum) {
+        int i = playerNum - 1;
+        int input = held[i] | pending[i];
+        pending[i] = 0;
+        return input;
+    }
+
+    /**
+     * Advances the match by one tick and captures the resulting state.
+     */
+    void tick() {
+        world.update();
+        history.slot(world.tick).capture(world);
+    }
+
+    /**
+     * Encodes the latest state as a STATE frame for one player, against the last state the player
+     * acknowledged if it is still in the history. Nothing is sent while the player is known to have
+     * the latest state already, that is when nothing changed since the acknowledged state and every
+     * frame that carried a change was acknowledged, except for a keep-alive now and then.
+     * @param seat
+     * @return the frame, or null if the player needs nothing this tick
+     */
+    ByteBuffer frameFor(MatchServer.Connection seat) {
+        Snapshot current = history.get(world.tick);
+        Snapshot base = history.get(seat.ackedTick);
+        writer.reset();
+        boolean changed = SnapshotCodec.encode(base, current, writer);
+        boolean upToDate = base != null && seat.changedTick <= seat.ackedTick;
+        if (!changed && upToDate && world.tick - seat.sentTick < KEEP_ALIVE_TICKS) return null;
+
+        int size = Protocol.HEADER + writer.byteCount();
+        if (frame.capacity() < size) frame = ByteBuffer.allocate(Math.max(size, frame.capacity() * 2));
+        frame.clear();
+        frame.putInt(size - 4);
+        frame.put(Protocol.STATE);
+        writer.copyTo(frame);
+        frame.flip();
+        seat.sentTick = world.tick;
+        if (changed) seat.changedTick = world.tick;
+        return frame;
+    }
+}
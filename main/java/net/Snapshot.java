@@ -0,0 +1,211 @@
+package net;
+import entity.Entity;
+import entity.Player;
+import main.DangerMap;
+import main.GameWorld;
+import main.MonsterSwarm;
+import monster.MON_greenSlime;
+import monster.MON_orc;
+import monster.MON_redSlime;
+import monster.MON_skeleton;
+import object.OBJ_bomb;
+import object.OBJ_ghost;
+import object.SuperObject;
+import powerups.PowerUp;
+
+import java.util.Arrays;
+
+/**
+ * The Snapshot class is what a network client sees of a match on one tick: the map, the burning
+ * cells, every player slot, and every other visible thing on the map as an actor with a kind, a
+ * position, a direction and an animation frame. It carries no images, so the server can capture it
+ * from a headless world and the client picks the sprites itself.
+ * Actors are kept in drawing order: bombs first, then power-ups, then monsters and other entities
+ * from back to front. Power-ups still hidden under a box are left out, so clients cannot see them.
+ * A snapshot is reused from tick to tick and its arrays only grow, so capturing and decoding one
+ * allocates nothing once it has held the largest scene of the match. SnapshotCodec puts snapshots
+ * on the wire.
+ */
+public class Snapshot {
+    // actor kinds: the MonsterSwarm kinds, then these, then POWER_UP + the power-up type
+    public static final int GHOST = MonsterSwarm.Kind.values().length;
+    public static final int BOMB = GHOST + 1;
+    public static final int EXPLOSION = BOMB + 1;
+    public static final int POWER_UP = EXPLOSION + 1;
+
+    // player slot flags
+    public static final int ALIVE = 1, INVINCIBLE = 1 << 1, GHOST_MODE = 1 << 2, BLINKING = 1 << 3;
+
+    public long tick;
+    public int gameState;
+    public int round;
+    public int cols, rows;
+    // tile and DangerMap fire direction of each cell, column by column
+    public byte[] tiles = new byte[0];
+    public byte[] fire = new byte[0];
+
+    // player slots
+    public int playerCount;
+    public int[] playerFlags = new int[0];
+    public int[] playerX = new int[0];
+    public int[] playerY = new int[0];
+    public byte[] playerDirections = new byte[0];
+    public byte[] playerSpriteNums = new byte[0];
+    public int[] playerLives = new int[0];
+    public int[] playerMaxLives = new int[0];
+    public int[] scores = new int[0];
+
+    // actors in drawing order
+    public int actorCount;
+    public byte[] actorKinds = new byte[64];
+    public int[] actorX = new int[64];
+    public int[] actorY = new int[64];
+    public byte[] actorDirections = new byte[64];
+    public byte[] actorSpriteNums = new byte[64];
+    // ticks until a bomb's fuse runs out, or -1 for any other actor and a paused fuse
+    public int[] actorTimers = new int[64];
+
+    // scratch list for sorting entities back to front
+    private Entity[] entities = new Entity[16];
+
+    /**
+     * Describes the world as it stands after its last tick.
+     * @param world
+     */
+    public void capture(GameWorld world) {
+        tick = world.tick;
+        gameState = world.gameState;
+        round = world.currentRound;
+        resizeMap(world.maxScreenCol, world.maxScreenRow);
+        for (int col = 0; col < cols; col++) {
+            for (int row = 0; row < rows; row++) {
+                tiles[col * rows + row] = (byte) world.tileM.mapTileNum[col][row];
+                fire[col * rows + row] = world.danger.fireAt(col, row);
+            }
+        }
+
+        resizePlayers(world.players.length);
+        for (int i = 0; i < playerCount; i++) {
+            Player player = world.players[i];
+            scores[i] = world.playerScores == null || i >= world.playerScores.length ? 0 : world.playerScores[i];
+            if (player == null) {
+                playerFlags[i] = 0;
+                continue;
+            }
+            playerFlags[i] = ALIVE | (player.isInvincible ? INVINCIBLE : 0) | (player.isGhost ? GHOST_MODE : 0)
+                    | (player.isBlinking ? BLINKING : 0);
+            playerX[i] = player.x;
+            playerY[i] = player.y;
+            playerDirections[i] = (byte) player.direction.ordinal();
+            playerSpriteNums[i] = (byte) player.spriteNum;
+            playerLives[i] = player.currLife;
+            playerMaxLives[i] = player.maxLife;
+        }
+
+        actorCount = 0;
+        for (SuperObject obj : world.objs) {
+            if (obj instanceof OBJ_bomb bomb && (bomb.isActive() || bomb.isExploding())) {
+                int fuse = bomb.isActive() ? bomb.ticksToDetonation() : -1;
+                addActor(bomb.isExploding() ? EXPLOSION : BOMB, bomb.x, bomb.y, 0, 1, fuse == DangerMap.UNTIMED ? -1 : fuse);
+            }
+        }
+        for (PowerUp powerUp : world.powerUps) {
+            if (powerUp != null && powerUp.isVisible()) {
+                addActor(POWER_UP + powerUp.getType().ordinal(), powerUp.getX(), powerUp.getY(), 0, 1, -1);
+            }
+        }
+        MonsterSwarm swarm = world.swarm;
+        for (int i = 0; i < swarm.size(); i++) {
+            addActor(swarm.getKind(i).ordinal(), swarm.getX(i), swarm.getY(i), swarm.getDirection(i).ordinal(), swarm.getSpriteNum(i), -1);
+        }
+
+        int count = 0;
+        int needed = world.entities.size() + world.monsters.size();
+        if (entities.length < needed) entities = new Entity[Math.max(needed, entities.length * 2)];
+        for (Entity entity : world.entities) {
+            if (entity != null) entities[count++] = entity;
+        }
+        for (int i = 0; i < world.monsters.size(); i++) entities[count++] = world.monsters.get(i);
+        sortByY(entities, count);
+        for (int i = 0; i < count; i++) {
+            Entity entity = entities[i];
+            int kind = kindOf(entity);
+            if (kind >= 0) addActor(kind, entity.x, entity.y, entity.direction.ordinal(), entity.spriteNum, -1);
+            entities[i] = null;
+        }
+    }
+
+    /**
+     * Returns the actor kind an entity is shown as, or -1 for an entity the client cannot show.
+     * @param entity
+     * @return
+     */
+    static int kindOf(Entity entity) {
+        if (entity instanceof MON_skeleton) return MonsterSwarm.Kind.SKELETON.ordinal();
+        if (entity instanceof MON_redSlime) return MonsterSwarm.Kind.RED_SLIME.ordinal();
+        if (entity instanceof MON_greenSlime) return MonsterSwarm.Kind.GREEN_SLIME.ordinal();
+        if (entity instanceof MON_orc) return MonsterSwarm.Kind.ORC.ordinal();
+        if (entity instanceof OBJ_ghost) return GHOST;
+        return -1;
+    }
+
+    /**
+     * Sorts the first count entities by y with an insertion sort; the list is short and mostly
+     * sorted from the previous tick.
+     * @param list
+     * @param count
+     */
+    private static void sortByY(Entity[] list, int count) {
+        for (int i = 1; i < count; i++) {
+            Entity entity = list[i];
+            int j = i - 1;
+            while (j >= 0 && list[j].y > entity.y) {
+                list[j + 1] = list[j];
+                j--;
+            }
+            list[j + 1] = entity;
+        }
+    }
+
+    void addActor(int kind, int x, int y, int direction, int spriteNum, int timer) {
+        if (actorCount == actorKinds.length) {
+            int capacity = actorCount * 2;
+            actorKinds = Arrays.copyOf(actorKinds, capacity);
+            actorX = Arrays.copyOf(actorX, capacity);
+            actorY = Arrays.copyOf(actorY, capacity);
+            actorDirections = Arrays.copyOf(actorDirections, capacity);
+            actorSpriteNums = Arrays.copyOf(actorSpriteNums, capacity);
+            actorTimers = Arrays.copyOf(actorTimers, capacity);
+        }
+        actorKinds[actorCount] = (byte) kind;
+        actorX[actorCount] = x;
+        actorY[actorCount] = y;
+        actorDirections[actorCount] = (byte) direction;
+        actorSpriteNums[actorCount] = (byte) spriteNum;
+        actorTimers[actorCount] = timer;
+        actorCount++;
+    }
+
+    void resizeMap(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        if (tiles.length != cols * rows) {
+            tiles = new byte[cols * rows];
+            fire = new byte[cols * rows];
+        }
+    }
+
+    void resizePlayers(int count) {
+        playerCount = count;
+        if (playerFlags.length < count) {
+            playerFlags = new int[count];
+            playerX = new int[count];
+            playerY = new int[count];
+            playerDirections = new byte[count];
+            playerSpriteNums = new byte[count];
+            playerLives = new int[count];
+            playerMaxLives = new int[count];
+            scores = new int[count];
+        }
+    }
+}
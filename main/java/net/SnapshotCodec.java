@@ -0,0 +1,303 @@
+package net;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The SnapshotCodec class encodes a Snapshot as the difference from an older snapshot the receiver
+ * already has, usually the last one it acknowledged, and decodes it again. Everything is bit-packed:
+ * an unchanged player or actor costs one bit, a moved one the varint-encoded offset of its position,
+ * and changed cells are listed by their distance from the previous change. A bomb's fuse is
+ * expected to count down with the ticks, so only a fuse that did something else is sent. Without a
+ * base the snapshot is encoded against an empty one, which is a full state.
+ *
+ * Layout: var tick, var distance to the base tick (0 for none), then the header, tiles, fire,
+ * players and actors, each a change bit followed by what changed.
+ */
+public final class SnapshotCodec {
+    static final int TILE_BITS = 4, FIRE_BITS = 3, FLAG_BITS = 4, DIRECTION_BITS = 2;
+
+    private static final Snapshot EMPTY = new Snapshot();
+
+    private SnapshotCodec() { }
+
+    /**
+     * Writes the current snapshot as a delta against the base.
+     * @param base the snapshot the receiver has, or null to send the full state
+     * @param current
+     * @param out
+     * @return true if anything but the tick differs from the base
+     */
+    public static boolean encode(Snapshot base, Snapshot current, BitWriter out) {
+        int distance = base == null ? 0 : (int) (current.tick - base.tick);
+        if (base == null) base = EMPTY;
+        out.writeVar(current.tick);
+        out.writeVar(distance);
+        boolean changed = false;
+
+        boolean header = current.gameState != base.gameState || current.round != base.round
+                || current.cols != base.cols || current.rows != base.rows;
+        out.writeBit(header);
+        if (header) {
+            out.writeVar(current.gameState);
+            out.writeVar(current.round);
+            out.writeVar(current.cols);
+            out.writeVar(current.rows);
+            changed = true;
+        }
+        boolean sameMap = current.tiles.length == base.tiles.length;
+        changed |= encodeCells(sameMap ? base.tiles : null, current.tiles, current.cols * current.rows, TILE_BITS, out);
+        changed |= encodeCells(sameMap ? base.fire : null, current.fire, current.cols * current.rows, FIRE_BITS, out);
+
+        boolean playerCount = current.playerCount != base.playerCount;
+        out.writeBit(playerCount);
+        if (playerCount) out.writeVar(current.playerCount);
+        changed |= playerCount;
+        for (int i = 0; i < current.playerCount; i++) {
+            changed |= encodePlayer(base, i < base.playerCount ? i : -1, current, i, out);
+        }
+
+        out.writeVar(current.actorCount);
+        changed |= current.actorCount != base.actorCount;
+        for (int i = 0; i < current.actorCount; i++) {
+            changed |= encodeActor(base, i < base.actorCount ? i : -1, distance, current, i, out);
+        }
+        return changed;
+    }
+
+    /**
+     * Reads a snapshot written by encode() into the history, against the base the history holds.
+     * @param in
+     * @param history
+     * @return the decoded snapshot, which stays in the history
+     * @throws IOException if the base is no longer in the history
+     */
+    public static Snapshot decode(BitReader in, SnapshotHistory history) throws IOException {
+        long tick = in.readVar();
+        int distance = (int) in.readVar();
+        if (distance < 0 || distance >= SnapshotHistory.SIZE) throw new IOException("Bad base distance " + distance);
+        Snapshot base = distance == 0 ? EMPTY : history.get(tick - distance);
+        if (base == null) throw new IOException("Missing base tick " + (tick - distance));
+        Snapshot current = history.slot(tick);
+
+        if (in.readBit()) {
+            current.gameState = (int) in.readVar();
+            current.round = (int) in.readVar();
+            current.resizeMap((int) in.readVar(), (int) in.readVar());
+        } else {
+            current.gameState = base.gameState;
+            current.round = base.round;
+            current.resizeMap(base.cols, base.rows);
+        }
+        boolean sameMap = current.tiles.length == base.tiles.length;
+        decodeCells(sameMap ? base.tiles : null, current.tiles, current.cols * current.rows, TILE_BITS, in);
+        decodeCells(sameMap ? base.fire : null, current.fire, current.cols * current.rows, FIRE_BITS, in);
+
+        current.resizePlayers(in.readBit() ? (int) in.readVar() : base.playerCount);
+        for (int i = 0; i < current.playerCount; i++) {
+            decodePlayer(base, i < base.playerCount ? i : -1, current, i, in);
+        }
+
+        int actors = (int) in.readVar();
+        current.actorCount = 0;
+        for (int i = 0; i < actors; i++) {
+            decodeActor(base, i < base.actorCount ? i : -1, distance, current, in);
+        }
+        return current;
+    }
+
+    /**
+     * Writes the cells that differ from the base, either as a list of gaps between changed cells or,
+     * when most cells changed, as every cell.
+     * @param base the base cells, or null if the base map has another size
+     * @param cells
+     * @param count
+     * @param bits the bits per cell
+     * @param out
+     * @return true if any cell changed
+     */
+    private static boolean encodeCells(byte[] base, byte[] cells, int count, int bits, BitWriter out) {
+        int changes = 0;
+        for (int i = 0; i < count; i++) {
+            if (cells[i] != (base == null ? 0 : base[i])) changes++;
+        }
+        boolean dense = changes * 3 > count;
+        out.writeBit(dense);
+        if (dense) {
+            for (int i = 0; i < count; i++) out.writeBits(cells[i], bits);
+            return true;
+        }
+        out.writeVar(changes);
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == (base == null ? 0 : base[i])) continue;
+            out.writeVar(i - previous - 1);
+            out.writeBits(cells[i], bits);
+            previous = i;
+        }
+        return changes > 0;
+    }
+
+    private static void decodeCells(byte[] base, byte[] cells, int count, int bits, BitReader in) {
+        if (in.readBit()) {
+            for (int i = 0; i < count; i++) cells[i] = (byte) in.readBits(bits);
+            return;
+        }
+        if (base == null) {
+            Arrays.fill(cells, 0, count, (byte) 0);
+        } else {
+            System.arraycopy(base, 0, cells, 0, count);
+        }
+        int changes = (int) in.readVar();
+        int cell = -1;
+        for (int i = 0; i < changes; i++) {
+            cell += (int) in.readVar() + 1;
+            cells[cell] = (byte) in.readBits(bits);
+        }
+    }
+
+    /**
+     * Writes a player slot: one bit if nothing changed, otherwise a change bit per field group.
+     * @return true if the slot changed
+     */
+    private static boolean encodePlayer(Snapshot base, int b, Snapshot current, int i, BitWriter out) {
+        int flags = current.playerFlags[i];
+        int baseFlags = b < 0 ? 0 : base.playerFlags[b];
+        boolean alive = (flags & Snapshot.ALIVE) != 0, baseAlive = (baseFlags & Snapshot.ALIVE) != 0;
+        boolean flagsChanged = flags != baseFlags;
+        boolean score = current.scores[i] != (b < 0 ? 0 : base.scores[b]);
+        boolean position = alive && (!baseAlive || current.playerX[i] != base.playerX[b] || current.playerY[i] != base.playerY[b]);
+        boolean facing = alive && (!baseAlive || current.playerDirections[i] != base.playerDirections[b]
+                || current.playerSpriteNums[i] != base.playerSpriteNums[b]);
+        boolean life = alive && (!baseAlive || current.playerLives[i] != base.playerLives[b]
+                || current.playerMaxLives[i] != base.playerMaxLives[b]);
+
+        boolean changed = flagsChanged || score || position || facing || life;
+        out.writeBit(changed);
+        if (!changed) return false;
+        out.writeBit(flagsChanged);
+        if (flagsChanged) out.writeBits(flags, FLAG_BITS);
+        out.writeBit(score);
+        if (score) out.writeVar(current.scores[i]);
+        if (!alive) return true;
+
+        out.writeBit(position);
+        if (position) {
+            out.writeSignedVar(current.playerX[i] - (baseAlive ? base.playerX[b] : 0));
+            out.writeSignedVar(current.playerY[i] - (baseAlive ? base.playerY[b] : 0));
+        }
+        out.writeBit(facing);
+        if (facing) {
+            out.writeBits(current.playerDirections[i], DIRECTION_BITS);
+            out.writeVar(current.playerSpriteNums[i]);
+        }
+        out.writeBit(life);
+        if (life) {
+            out.writeVar(current.playerLives[i]);
+            out.writeVar(current.playerMaxLives[i]);
+        }
+        return true;
+    }
+
+    private static void decodePlayer(Snapshot base, int b, Snapshot current, int i, BitReader in) {
+        int baseFlags = b < 0 ? 0 : base.playerFlags[b];
+        boolean baseAlive = (baseFlags & Snapshot.ALIVE) != 0;
+        if (baseAlive) {
+            current.playerX[i] = base.playerX[b];
+            current.playerY[i] = base.playerY[b];
+            current.playerDirections[i] = base.playerDirections[b];
+            current.playerSpriteNums[i] = base.playerSpriteNums[b];
+            current.playerLives[i] = base.playerLives[b];
+            current.playerMaxLives[i] = base.playerMaxLives[b];
+        } else {
+            current.playerX[i] = 0;
+            current.playerY[i] = 0;
+        }
+        current.playerFlags[i] = baseFlags;
+        current.scores[i] = b < 0 ? 0 : base.scores[b];
+        if (!in.readBit()) return;
+
+        if (in.readBit()) current.playerFlags[i] = in.readBits(FLAG_BITS);
+        if (in.readBit()) current.scores[i] = (int) in.readVar();
+        if ((current.playerFlags[i] & Snapshot.ALIVE) == 0) return;
+
+        if (in.readBit()) {
+            current.playerX[i] += (int) in.readSignedVar();
+            current.playerY[i] += (int) in.readSignedVar();
+        }
+        if (in.readBit()) {
+            current.playerDirections[i] = (byte) in.readBits(DIRECTION_BITS);
+            current.playerSpriteNums[i] = (byte) in.readVar();
+        }
+        if (in.readBit()) {
+            current.playerLives[i] = (int) in.readVar();
+            current.playerMaxLives[i] = (int) in.readVar();
+        }
+    }
+
+    /**
+     * Writes an actor against the actor at the same place in the base list: one bit if nothing
+     * changed, otherwise a change bit per field.
+     * @return true if the actor changed
+     */
+    private static boolean encodeActor(Snapshot base, int b, int distance, Snapshot current, int i, BitWriter out) {
+        int baseKind = b < 0 ? -1 : base.actorKinds[b];
+        boolean sameKind = current.actorKinds[i] == baseKind;
+        int baseX = sameKind ? base.actorX[b] : 0, baseY = sameKind ? base.actorY[b] : 0;
+        int baseDirection = sameKind ? base.actorDirections[b] : 0, baseSpriteNum = sameKind ? base.actorSpriteNums[b] : 1;
+        int expectedTimer = sameKind ? expectedTimer(base.actorTimers[b], distance) : -1;
+
+        boolean position = current.actorX[i] != baseX || current.actorY[i] != baseY;
+        boolean facing = current.actorDirections[i] != baseDirection || current.actorSpriteNums[i] != baseSpriteNum;
+        boolean timer = current.actorTimers[i] != expectedTimer;
+        boolean changed = !sameKind || position || facing || timer;
+        out.writeBit(changed);
+        if (!changed) return false;
+
+        out.writeBit(sameKind);
+        if (!sameKind) out.writeVar(current.actorKinds[i]);
+        out.writeBit(position);
+        if (position) {
+            out.writeSignedVar(current.actorX[i] - baseX);
+            out.writeSignedVar(current.actorY[i] - baseY);
+        }
+        out.writeBit(facing);
+        if (facing) {
+            out.writeBits(current.actorDirections[i], DIRECTION_BITS);
+            out.writeVar(current.actorSpriteNums[i]);
+        }
+        out.writeBit(timer);
+        if (timer) out.writeVar(current.actorTimers[i] + 1);
+        return true;
+    }
+
+    private static void decodeActor(Snapshot base, int b, int distance, Snapshot current, BitReader in) {
+        boolean changed = in.readBit();
+        boolean sameKind = !changed || in.readBit();
+        int kind = sameKind ? base.actorKinds[b] : (int) in.readVar();
+        int x = sameKind ? base.actorX[b] : 0, y = sameKind ? base.actorY[b] : 0;
+        int direction = sameKind ? base.actorDirections[b] : 0, spriteNum = sameKind ? base.actorSpriteNums[b] : 1;
+        int timer = sameKind ? expectedTimer(base.actorTimers[b], distance) : -1;
+        if (changed) {
+            if (in.readBit()) {
+                x += (int) in.readSignedVar();
+                y += (int) in.readSignedVar();
+            }
+            if (in.readBit()) {
+                direction = in.readBits(DIRECTION_BITS);
+                spriteNum = (int) in.readVar();
+            }
+            if (in.readBit()) timer = (int) in.readVar() - 1;
+        }
+        current.addActor(kind, x, y, direction, spriteNum, timer);
+    }
+
+    /**
+     * Returns what a fuse should show the given number of ticks after it showed the base value.
+     * @param baseTimer
+     * @param distance
+     * @return
+     */
+    private static int expectedTimer(int baseTimer, int distance) {
+        return baseTimer < 0 ? baseTimer : Math.max(0, baseTimer - distance);
+    }
+}
@@ -0,0 +1,46 @@
+package net;
+
+/**
+ * The SnapshotHistory class keeps the snapshots of the last SIZE ticks in a ring, so a delta can be
+ * encoded on the server, and decoded on the client, against any recent tick the other side still
+ * has. The snapshots are allocated once and overwritten as the ticks go by.
+ */
+public class SnapshotHistory {
+    // about a second of ticks, so a client whose acknowledgements take that long still gets deltas
+    public static final int SIZE = 64;
+
+    private final Snapshot[] ring = new Snapshot[SIZE];
+
+    /**
+     * Initializes a history with no snapshots in it.
+     */
+    public SnapshotHistory() {
+        for (int i = 0; i < SIZE; i++) {
+            ring[i] = new Snapshot();
+            ring[i].tick = -1;
+        }
+    }
+
+    /**
+     * Returns the snapshot slot for the given tick, to be filled by the caller. This replaces the
+     * snapshot SIZE ticks older.
+     * @param tick
+     * @return
+     */
+    public Snapshot slot(long tick) {
+        Snapshot snapshot = ring[(int) Math.floorMod(tick, (long) SIZE)];
+        snapshot.tick = tick;
+        return snapshot;
+    }
+
+    /**
+     * Returns the snapshot of the given tick, or null if it was never stored or has been replaced.
+     * @param tick
+     * @return
+     */
+    public Snapshot get(long tick) {
+        if (tick < 0) return null;
+        Snapshot snapshot = ring[(int) Math.floorMod(tick, (long) SIZE)];
+        return snapshot.tick == tick ? snapshot : null;
+    }
+}
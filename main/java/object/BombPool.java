@@ -0,0 +1,86 @@
+package object;
+import entity.Player;
+import main.GameWorld;
+import main.StateBuffer;
+
+/**
+ * The BombPool class recycles the world's bombs. A bomb that has burnt out is released back into the
+ * pool when it leaves the object list, and the next bomb placed reuses it, along with its sprite
+ * references, instead of allocating a new one. Once the pool holds as many bombs as are ever on the
+ * map at once, placing a bomb allocates nothing, however fast bombs are spammed.
+ */
+public class BombPool {
+    GameWorld gp;
+
+    private OBJ_bomb[] free = new OBJ_bomb[16];
+    private int freeCount = 0;
+
+    /**
+     * Initializes an empty pool for the given world.
+     * @param gp
+     */
+    public BombPool(GameWorld gp) {
+        this.gp = gp;
+    }
+
+    /**
+     * Returns a freshly armed bomb owned by the given player at the given position, reusing a
+     * released bomb if one is available.
+     * @param owner
+     * @param x
+     * @param y
+     * @return
+     */
+    public OBJ_bomb acquire(Player owner, int x, int y) {
+        if (freeCount == 0) return new OBJ_bomb(gp, owner, x, y);
+
+        OBJ_bomb bomb = free[--freeCount];
+        free[freeCount] = null;
+        bomb.pooled = false;
+        bomb.reset(owner, x, y);
+        return bomb;
+    }
+
+    /**
+     * Returns a bomb to the pool once it is no longer on the map. Its owner forgets it, so the
+     * owner's detonator cannot set it off after it is reused. Releasing a bomb twice has no effect.
+     * @param bomb
+     */
+    public void release(OBJ_bomb bomb) {
+        if (bomb.pooled) return;
+        bomb.cancelTimers();
+        if (bomb.owner != null) bomb.owner.forgetBomb(bomb);
+        bomb.owner = null;
+        bomb.pooled = true;
+
+        if (freeCount == free.length) free = java.util.Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = bomb;
+    }
+
+    /**
+     * Saves the bombs waiting to be reused, with their state.
+     * @param out
+     */
+    public void saveState(StateBuffer out) {
+        out.putInt(freeCount);
+        for (int i = 0; i < freeCount; i++) out.putObject(free[i]);
+    }
+
+    /**
+     * Puts back the bombs that were waiting when the state was saved.
+     * @param in
+     */
+    public void loadState(StateBuffer in) {
+        int count = in.getInt();
+        if (free.length < count) free = java.util.Arrays.copyOf(free, count);
+        java.util.Arrays.fill(free, count, Math.max(count, freeCount), null);
+        for (int i = 0; i < count; i++) free[i] = in.getObject();
+        freeCount = count;
+    }
+
+    /**
+     * Returns the number of bombs waiting to be reused.
+     * @return
+     */
+    public int available() { return freeCount; }
+}
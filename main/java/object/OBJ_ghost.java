@@ -1,6 +1,7 @@
 package object;
+import entity.Direction;
 import entity.Entity;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * This class represents a Ghost object in the game.
@@ -11,9 +12,9 @@ public class OBJ_ghost extends Entity {
      * Constructor for the Ghost object.
      * @param gp The game panel instance.
      */
-    public  OBJ_ghost(GamePanel gp) {
+    public  OBJ_ghost(GameWorld gp) {
         super(gp);
         name = "Ghost";
-        down1 = setup("/objects/ghost");
+        setSprites(Direction.DOWN, setup("/objects/ghost"), null);
     }
 }
@@ -1,6 +1,6 @@
 package object;
 import entity.Entity;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * This class represents a Life object in the game.
@@ -11,7 +11,7 @@ public class OBJ_life extends Entity {
      * Constructor for the Life object.
      * @param gp The game panel instance.
      */
-    public  OBJ_life(GamePanel gp) {
+    public  OBJ_life(GameWorld gp) {
         super(gp);
         name = "Life";
         image = setup("/main/resources/objects/life");
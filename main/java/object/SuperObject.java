@@ -1,5 +1,7 @@
 package object;
-import main.GamePanel;
+import main.GameWorld;
+import main.RenderFrame;
+import main.SpatialGrid;
 import main.UtilityTool;
 
 import java.awt.*;
@@ -9,7 +11,7 @@ import java.awt.image.BufferedImage;
  * This class represents a SuperObject in the game.
  * SuperObject is a base class for other game objects.
  */
-public class SuperObject {
+public class SuperObject implements SpatialGrid.Member {
     public BufferedImage image, image2;
     public String name;
     public boolean collision = false;
@@ -18,19 +20,30 @@ public class SuperObject {
     public int solidAreaDefaultX = 0;
     public int solidAreaDefaultY = 0;
     UtilityTool uTool = new UtilityTool();
+    private int gridCell = SpatialGrid.NO_CELL;
 
     /**
      * Draws the object.
-     * @param g2 The Graphics2D object to draw on.
+     * @param frame The RenderFrame to draw into.
      * @param gp The game panel instance.
      */
-    public void draw(Graphics2D g2, GamePanel gp){
-        g2.drawImage(image, x, y, gp.tileSize, gp.tileSize, null);
+    public void draw(RenderFrame frame, GameWorld gp){
+        frame.addSprite(image, x, y, gp.tileSize, gp.tileSize, false);
     }
 
     /**
      * Updates the state of the object.
      */
     public void update() { }
+
+    public int getX() { return x; }
+
+    public int getY() { return y; }
+
+    @Override
+    public int getGridCell() { return gridCell; }
+
+    @Override
+    public void setGridCell(int cell) { gridCell = cell; }
 }
 
@@ -1,6 +1,6 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * This class represents a BlastExpansion power-up in the game.
@@ -17,7 +17,7 @@ public class BlastExpansion extends PowerUp {
      * @param x
      * @param y
      */
-    public BlastExpansion(GamePanel gp, int x, int y) {
+    public BlastExpansion(GameWorld gp, int x, int y) {
         super(gp, Type.BLAST_EXPANSION, x, y, 0);
     }
 
@@ -1,6 +1,6 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
 
 import javax.imageio.ImageIO;
 
@@ -19,7 +19,7 @@ public class Detonator extends PowerUp {
      * @param x
      * @param y
      */
-    public Detonator(GamePanel gp, int x, int y) {
+    public Detonator(GameWorld gp, int x, int y) {
         super(gp, Type.DETONATOR, x, y,5);
     }
 
@@ -1,6 +1,6 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * The RollerSkate class represents a power-up that increases the player's speed attribute by a
@@ -16,7 +16,7 @@ public class ExtraBomb extends PowerUp {
      * @param x
      * @param y
      */
-    public ExtraBomb(GamePanel gp, int x, int y) {
+    public ExtraBomb(GameWorld gp, int x, int y) {
         super(gp, Type.EXTRA_BOMB, x, y, 0);
     }
 
@@ -1,6 +1,6 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * Initializes the Ghost power-up at the specified coordinates within the game panel and sets
@@ -21,7 +21,7 @@ public class Ghost extends PowerUp {
      * @param x
      * @param y
      */
-    public Ghost(GamePanel gp, int x, int y) {
+    public Ghost(GameWorld gp, int x, int y) {
         super(gp, Type.GHOST, x, y, 5);
     }
 
@@ -1,6 +1,6 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * Initializes an Invincibility power-up at the specified coordinates on the game panel,
@@ -21,7 +21,7 @@ public class Invincibility extends PowerUp {
      * @param x
      * @param y
      */
-    public Invincibility(GamePanel gp, int x, int y) {
+    public Invincibility(GameWorld gp, int x, int y) {
         super(gp, Type.INVINCIBILITY, x, y, 5);
     }
 
@@ -1,6 +1,6 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * The Obstacle class represents a power-up that increases the player's limit for placing obstacles
@@ -16,7 +16,7 @@ public class Obstacle extends PowerUp {
      * @param x
      * @param y
      */
-    public Obstacle(GamePanel gp, int x, int y) {
+    public Obstacle(GameWorld gp, int x, int y) {
         super(gp, Type.OBSTACLE, x, y, 0);
     }
 
@@ -1,12 +1,14 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
+import main.RenderFrame;
+import main.SpriteCache;
+import main.StateBuffer;
+import main.TimerWheel;
 import object.SuperObject;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 
 /**
  * PowerUp.java
@@ -16,12 +18,12 @@ import java.io.IOException;
  * by players to apply their effects and deactivated when their duration expires or under certain
  * game conditions.
  */
-public abstract class PowerUp extends SuperObject {
+public abstract class PowerUp extends SuperObject implements TimerWheel.Listener, StateBuffer.Saveable {
     public enum Type {
         EXTRA_BOMB, OBSTACLE, INVINCIBILITY, BLAST_EXPANSION, DETONATOR, GHOST, ROLLER_SKATE
     }
 
-    protected GamePanel gp;
+    protected GameWorld gp;
     protected BufferedImage image;
     protected String name;
     protected boolean active;
@@ -29,7 +31,8 @@ public abstract class PowerUp extends SuperObject {
     protected Type type;
     protected int durationInFrames;
     protected Player activatedBy;
-    private int remainingFrames;
+    // the pending expiry in the world's TimerWheel
+    private long expiryTimer = TimerWheel.NONE;
     private boolean isVisible = false;
 
     /**
@@ -42,7 +45,7 @@ public abstract class PowerUp extends SuperObject {
      * @param y
      * @param duration
      */
-    public PowerUp(GamePanel gp, Type type, int x, int y, int duration) {
+    public PowerUp(GameWorld gp, Type type, int x, int y, int duration) {
         this.gp = gp;
         this.type = type;
         this.x = x;
@@ -51,7 +54,7 @@ public abstract class PowerUp extends SuperObject {
         this.duration = duration;
 
         getBufferedImage();
-        this.remainingFrames = convertSecondsToFrames(this.duration);
+        scheduleExpiry(convertSecondsToFrames(this.duration));
     }
 
     /**
@@ -70,20 +73,25 @@ public abstract class PowerUp extends SuperObject {
     protected abstract void removeEffect(Player player);
 
     protected void getBufferedImage() {
-        try {
-            switch (type) {
-                case DETONATOR -> this.image = ImageIO.read(getClass().getResourceAsStream("/powerups/detonator.png"));
-                case OBSTACLE -> this.image = ImageIO.read(getClass().getResourceAsStream("/powerups/obstacle.png"));
-                case ROLLER_SKATE -> this.image = ImageIO.read(getClass().getResourceAsStream("/powerups/rollerSkate.png"));
-                case GHOST -> this.image = ImageIO.read(getClass().getResourceAsStream("/powerups/ghost.png"));
-                case INVINCIBILITY -> this.image = ImageIO.read(getClass().getResourceAsStream("/powerups/invincibility.png"));
-                case BLAST_EXPANSION -> this.image = ImageIO.read(getClass().getResourceAsStream("/powerups/blastExpansion.png"));
-                case EXTRA_BOMB -> this.image = ImageIO.read(getClass().getResourceAsStream("/powerups/extraBomb.png"));
-                default -> System.out.println("No image available for this type.");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        if (gp.headless) return;
+        this.image = SpriteCache.get(spritePath(type), gp.tileSize, gp.tileSize);
+    }
+
+    /**
+     * Returns the resource path of the sprite shown for a power-up of the given type.
+     * @param type
+     * @return
+     */
+    public static String spritePath(Type type) {
+        return switch (type) {
+            case DETONATOR -> "/powerups/detonator";
+            case OBSTACLE -> "/powerups/obstacle";
+            case ROLLER_SKATE -> "/powerups/rollerSkate";
+            case GHOST -> "/powerups/ghost";
+            case INVINCIBILITY -> "/powerups/invincibility";
+            case BLAST_EXPANSION -> "/powerups/blastExpansion";
+            case EXTRA_BOMB -> "/powerups/extraBomb";
+        };
     }
 
     /**
@@ -95,7 +103,7 @@ public abstract class PowerUp extends SuperObject {
         this.active = true;
         this.activatedBy = player;
         applyEffect(player);
-        this.remainingFrames = durationInFrames;
+        scheduleExpiry(durationInFrames);
     }
 
     /**
@@ -120,25 +128,59 @@ public abstract class PowerUp extends SuperObject {
 
     /**
      * Draws the power-up's image at its position on the game panel if it is set to be visible.
-     * @param g2
+     * @param frame
      */
-    public void draw(Graphics2D g2) {
+    public void draw(RenderFrame frame) {
         if (isVisible && image != null) {
-            g2.drawImage(image, x, y, gp.tileSize, gp.tileSize, null);
+            frame.addSprite(image, x, y, gp.tileSize, gp.tileSize, false);
         }
     }
 
     /**
-     * Updates the state of the power-up each game cycle; decrements the remaining active
-     * frames and deactivates the power-up if its time runs out.
+     * Replaces the pending expiry with one the given number of frames from now; a duration of 0
+     * means the power-up does not expire.
+     * @param frames
      */
-    public void update() {
-        if (active && remainingFrames > 0) {
-            remainingFrames--;
-            if (remainingFrames <= 0) {
-                deactivate();
-            }
-        }
+    private void scheduleExpiry(int frames) {
+        gp.timers.cancel(expiryTimer);
+        expiryTimer = frames > 0 ? gp.timers.schedule(gp.tick + frames, this, 0) : TimerWheel.NONE;
+    }
+
+    /**
+     * Saves whether the power-up is lying visible on the map or in effect, who picked it up and its
+     * expiry timer.
+     * @param out
+     */
+    @Override
+    public void saveState(StateBuffer out) {
+        out.putInt(x);
+        out.putInt(y);
+        out.putBoolean(active);
+        out.putBoolean(isVisible);
+        out.putInt(durationInFrames);
+        out.putRef(activatedBy);
+        out.putLong(expiryTimer);
+    }
+
+    @Override
+    public void loadState(StateBuffer in) {
+        x = in.getInt();
+        y = in.getInt();
+        active = in.getBoolean();
+        isVisible = in.getBoolean();
+        durationInFrames = in.getInt();
+        activatedBy = in.getRef();
+        expiryTimer = in.getLong();
+    }
+
+    /**
+     * Called by the world's TimerWheel when the power-up's time runs out.
+     * @param kind
+     */
+    @Override
+    public void onTimer(int kind) {
+        expiryTimer = TimerWheel.NONE;
+        if (active) deactivate();
     }
 
     public void setVisible(boolean visible) {
@@ -159,6 +201,12 @@ public abstract class PowerUp extends SuperObject {
      */
     public boolean isActive() { return active; }
 
+    /**
+     * Returns the player whose effect the power-up is, or null while it has not been picked up.
+     * @return
+     */
+    public Player getActivatedBy() { return activatedBy; }
+
     public Type getType() { return type; }
 
     public int getX() { return x; }
@@ -1,6 +1,6 @@
 package powerups;
 import entity.Player;
-import main.GamePanel;
+import main.GameWorld;
 
 /**
  * The RollerSkate class extends the PowerUp class and represents a speed-boosting power-up in the game.
@@ -19,7 +19,7 @@ public class RollerSkate extends PowerUp {
      * @param x
      * @param y
      */
-    public RollerSkate(GamePanel gp, int x, int y) {
+    public RollerSkate(GameWorld gp, int x, int y) {
         super(gp, Type.ROLLER_SKATE, x, y, 0);
     }
 
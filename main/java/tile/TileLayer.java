@@ -0,0 +1,92 @@
+package tile;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * Purpose: Paints the map onto the game panel from the tiles a RenderFrame carries.
+ * Details: The TileLayer belongs to the renderer and never looks at the live TileManager. The map is
+ * kept in an off-screen VolatileImage; when a frame's map version differs from the one last painted,
+ * its tiles are compared with the painted ones and only the cells that differ are repainted, so a
+ * frame costs one blit plus any changed-cell patches, even when the renderer skipped the frames in
+ * between. The whole layer is rebuilt when the image is first created or its contents are lost.
+ */
+public class TileLayer {
+    private final int cols, rows, tileSize;
+    private final BufferedImage[] images;
+
+    // cached background layer, and the tiles and map version it shows
+    private VolatileImage background;
+    private final int[] painted;
+    private long paintedVersion = -1;
+    private boolean fullRedraw = true;
+
+    /**
+     * Purpose: Initializes an empty layer for a map of the given size.
+     * @param cols
+     * @param rows
+     * @param tileSize
+     * @param images the image of each tile number
+     */
+    public TileLayer(int cols, int rows, int tileSize, BufferedImage[] images) {
+        this.cols = cols;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        this.images = images;
+        painted = new int[cols * rows];
+    }
+
+    /**
+     * Purpose: Forces the whole cached background to be repainted on the next draw.
+     */
+    public void invalidateAll() {
+        fullRedraw = true;
+    }
+
+    /**
+     * Purpose: Renders the given map onto the game panel.
+     * Details: Draws nothing until a frame with a map of the layer's size has been published.
+     * @param g2
+     * @param tiles the tile numbers, column by column
+     * @param version changes whenever the tiles do
+     */
+    public void draw(Graphics2D g2, int[] tiles, long version) {
+        if (tiles.length != painted.length) return;
+        GraphicsConfiguration gc = g2.getDeviceConfiguration();
+
+        do {
+            int status = background == null ? VolatileImage.IMAGE_INCOMPATIBLE : background.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                background = gc.createCompatibleVolatileImage(cols * tileSize, rows * tileSize);
+                invalidateAll();
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                invalidateAll();
+            }
+
+            if (fullRedraw || version != paintedVersion) {
+                Graphics2D bg = background.createGraphics();
+                for (int cell = 0; cell < tiles.length; cell++) {
+                    if (fullRedraw || tiles[cell] != painted[cell]) {
+                        painted[cell] = tiles[cell];
+                        bg.drawImage(images[tiles[cell]], cell / rows * tileSize, cell % rows * tileSize, null);
+                    }
+                }
+                bg.dispose();
+                fullRedraw = false;
+                paintedVersion = version;
+            }
+
+            g2.drawImage(background, 0, 0, null);
+        } while (background.contentsLost() && markLost());
+    }
+
+    /**
+     * Purpose: Records that the background lost its contents so the retry repaints all tiles.
+     * @return always true, for use in the draw loop condition
+     */
+    private boolean markLost() {
+        invalidateAll();
+        return true;
+    }
+}
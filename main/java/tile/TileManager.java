@@ -1,33 +1,36 @@
 package tile;
-import main.GamePanel;
-import main.UtilityTool;
+import main.GameWorld;
+import main.SpriteCache;
+import main.StateBuffer;
 
 import java.awt.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import javax.imageio.ImageIO;
 
 /**
  * Purpose: Manages the tiles in the game, including their images and collision properties.
- * Details: The TileManager class sets up the tiles used in the game, loads the map layout from a file,
- * and renders the tiles onto the game panel. It also handles the destructible walls by storing their
- * locations for gameplay mechanics.
+ * Details: The TileManager class sets up the tiles used in the game and loads the map layout from a
+ * file; the renderer paints the map from the copy each RenderFrame carries, through a TileLayer. It
+ * also handles the destructible walls by storing their locations for gameplay mechanics.
  */
 public class TileManager {
 
-    GamePanel gp;
+    GameWorld gp;
     public Tile[] tile;
     public int[][] mapTileNum;
 
+    // incremented on every change to mapTileNum, so caches derived from the map know when to refresh
+    public int version = 0;
+
     /**
      * Purpose: Initializes a new TileManager object, setting up tiles and loading a map.
      * Details: The constructor sets up the Tile array with basic tiles, loads specific tile images,
      * and initializes the game map from a text file representing tile indices.
      * @param gp
      */
-    public TileManager(GamePanel gp) {
+    public TileManager(GameWorld gp) {
         this.gp = gp;
         tile = new Tile[10];
         mapTileNum = new int[gp.maxScreenCol][gp.maxScreenRow];
@@ -48,24 +51,18 @@ public class TileManager {
 
     /**
      * Purpose: Configures a tile at a specified index with an image and collision property.
-     * Details: Uses UtilityTool to load and scale the tile image appropriately to the game's tile
+     * Details: Takes the tile image from the shared SpriteCache, already scaled to the game's tile
      * size. It marks the tile as collidable or not based on the collision parameter.
      * @param index
      * @param imageName
      * @param collision
      */
     public void setup(int index, String imageName, boolean collision) {
-        UtilityTool uTool = new UtilityTool();
-
-        try {
-            tile[index] = new Tile();
-            tile[index].image = ImageIO.read(getClass().getResourceAsStream("/tiles/" + imageName + ".png"));
-            tile[index].image = uTool.scaleImage(tile[index].image, gp.tileSize, gp.tileSize);
-            tile[index].collision = collision;
+        tile[index] = new Tile();
+        tile[index].collision = collision;
+        if (gp.headless) return;
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        tile[index].image = SpriteCache.get("/tiles/" + imageName, gp.tileSize, gp.tileSize);
     }
 
     /**
@@ -86,11 +83,11 @@ public class TileManager {
 
             while(col < gp.maxScreenCol && row < gp.maxScreenRow){
                 String line = br.readLine();
+                if (line == null) break; // map is smaller than the world
 
+                String[] numbers = line.split(" ");
                 while(col < gp.maxScreenCol){
-                    String[] numbers = line.split(" ");
-
-                    int num = Integer.parseInt(numbers[col]);
+                    int num = col < numbers.length ? Integer.parseInt(numbers[col]) : 0;
 
                     if (num == 2) {
                         gp.boxes.add(new Point(col, row));
@@ -107,6 +104,7 @@ public class TileManager {
             }
 
             br.close();
+            version++;
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -114,34 +112,35 @@ public class TileManager {
     }
 
     /**
-     * Purpose: Renders the tiles onto the game panel.
-     * Details: Iterates over the mapTileNum grid, drawing each tile at its appropriate screen
-     * position, thereby constructing the visible game map for the player.
-     * @param g2
+     * Purpose: Changes the tile at the given cell.
+     * Details: All gameplay changes to the map (destroyed boxes, placed obstacles) go through
+     * this method so the version tells every cache derived from the map that it changed.
+     * @param col
+     * @param row
+     * @param tileNum
      */
-    public void draw(Graphics2D g2) {
-
-        int col = 0;
-        int row = 0;
-        int x = 0;
-        int y = 0;
-
-        while (col < gp.maxScreenCol && row < gp.maxScreenRow) {
-
-            int tileNum = mapTileNum[col][row]; // extract a main.java.tile number which is stored in mapTileNum[0][0]
+    public void setTile(int col, int row, int tileNum) {
+        if (mapTileNum[col][row] == tileNum) return;
+        mapTileNum[col][row] = tileNum;
+        version++;
+    }
 
-            g2.drawImage(tile[tileNum].image, x, y, null);
-            col++;
-            x += gp.tileSize;
+    /**
+     * Purpose: Saves the map.
+     * @param out
+     */
+    public void saveState(StateBuffer out) {
+        for (int[] column : mapTileNum) out.putInts(column, column.length);
+    }
 
-            if (col == gp.maxScreenCol) {
-                col = 0;
-                x = 0;
-                row++;
-                y += gp.tileSize;
-            }
-        }
+    /**
+     * Purpose: Restores a map saved by saveState().
+     * Details: The version moves forward rather than back, so no cache derived from a later map
+     * can mistake the restored one for the map it was built from.
+     * @param in
+     */
+    public void loadState(StateBuffer in) {
+        for (int[] column : mapTileNum) in.getInts(column, column.length);
+        version++;
     }
 }
-
-
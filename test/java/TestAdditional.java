@@ -4,13 +4,15 @@ import main.KeyHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import powerups.*;
+import java.awt.event.KeyEvent;
 import java.io.IOException;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * This class contains unit tests for the game logic.
  * It tests various game functionalities such as player picking up power-ups, player life after damage,
- * player detonating bombs, game pausing and resuming, and player reset after round ends.
+ * player detonating bombs, game pausing and resuming, the pause key taking effect on the next update,
+ * and player reset after round ends.
  */
 class TestAdditional {
     GamePanel gamePanel;
@@ -25,8 +27,8 @@ class TestAdditional {
     void setUp() throws IOException {
         gamePanel = new GamePanel();
         KeyHandler keyHandler = new KeyHandler(gamePanel);
-        player = new Player(gamePanel, keyHandler, 1);
-        gamePanel.tileM.loadMap("/maps/map01.txt");
+        player = new Player(gamePanel.world, keyHandler, 1);
+        gamePanel.world.tileM.loadMap("/maps/map01.txt");
     }
 
     /**
@@ -35,8 +37,8 @@ class TestAdditional {
     @Test
     void testPlayerPickUpPowerUp() {
         int initialBombLimit = player.bombLimit;
-        ExtraBomb extraBomb = new ExtraBomb(gamePanel, player.x, player.y);
-        gamePanel.powerUps.add(extraBomb);
+        ExtraBomb extraBomb = new ExtraBomb(gamePanel.world, player.x, player.y);
+        gamePanel.world.powerUps.add(extraBomb);
         player.update();
 
         assertEquals(initialBombLimit + 1, player.bombLimit, "Player should pick up the ExtraBomb power-up and increase bomb limit.");
@@ -70,20 +72,39 @@ class TestAdditional {
     @Test
     void testGamePausesAndResumes() throws IOException {
         gamePanel = new GamePanel();
-        gamePanel.players = new Player[1];
-        gamePanel.players[0] = new Player(gamePanel, gamePanel.keyH, 1);
-        gamePanel.players[0].currLife = 3;
-        gamePanel.gameState = gamePanel.playState;
+        gamePanel.world.players = new Player[1];
+        gamePanel.world.players[0] = new Player(gamePanel.world, gamePanel.keyH, 1);
+        gamePanel.world.players[0].currLife = 3;
+        gamePanel.world.gameState = gamePanel.world.playState;
 
-        gamePanel.gameState = gamePanel.pauseState;
+        gamePanel.world.gameState = gamePanel.world.pauseState;
         gamePanel.update();
 
-        assertEquals(gamePanel.pauseState, gamePanel.gameState, "Game should be in pause state.");
+        assertEquals(gamePanel.world.pauseState, gamePanel.world.gameState, "Game should be in pause state.");
 
-        gamePanel.gameState = gamePanel.playState;
+        gamePanel.world.gameState = gamePanel.world.playState;
         gamePanel.update();
 
-        assertEquals(gamePanel.playState, gamePanel.gameState, "Game should be in play state after resuming.");
+        assertEquals(gamePanel.world.playState, gamePanel.world.gameState, "Game should be in play state after resuming.");
+    }
+
+    /**
+     * Tests if the pause key pauses the game on the game thread's next update rather than when the key
+     * is pressed.
+     * @throws IOException If an error occurs while setting up the game panel.
+     */
+    @Test
+    void testPauseKeyWaitsForNextUpdate() throws IOException {
+        gamePanel = new GamePanel();
+        gamePanel.world.players = new Player[1];
+        gamePanel.world.players[0] = new Player(gamePanel.world, gamePanel.keyH, 1);
+        gamePanel.world.gameState = gamePanel.world.playState;
+
+        gamePanel.keyH.keyPressed(new KeyEvent(gamePanel, KeyEvent.KEY_PRESSED, 0, 0, KeyEvent.VK_SPACE, ' '));
+        assertEquals(gamePanel.world.playState, gamePanel.world.gameState, "The key handler should not change the game state itself.");
+
+        gamePanel.update();
+        assertEquals(gamePanel.world.pauseState, gamePanel.world.gameState, "Game should be paused after the next update.");
     }
 
     /**
@@ -93,23 +114,21 @@ class TestAdditional {
     @Test
     void testPlayerResetAfterRoundEnds() throws IOException {
         gamePanel = new GamePanel();
-        gamePanel.players = new Player[2];
-        gamePanel.players[0] = new Player(gamePanel, gamePanel.keyH, 1);
-        gamePanel.players[1] = new Player(gamePanel, gamePanel.keyH, 2);
-        gamePanel.players[0].currLife = 3;
-        gamePanel.players[1].currLife = 3;
-        gamePanel.gameState = gamePanel.playState;
+        gamePanel.world.players = new Player[2];
+        gamePanel.world.players[0] = new Player(gamePanel.world, gamePanel.keyH, 1);
+        gamePanel.world.players[1] = new Player(gamePanel.world, gamePanel.keyH, 2);
+        gamePanel.world.players[0].currLife = 3;
+        gamePanel.world.players[1].currLife = 3;
+        gamePanel.world.gameState = gamePanel.world.playState;
 
-        for (int i = 0; i < gamePanel.monsters.length; i++) {
-            gamePanel.monsters[i] = null;
-        }
+        gamePanel.world.monsters.clear();
 
-        gamePanel.players[1].currLife = 0;
+        gamePanel.world.players[1].currLife = 0;
 
         gamePanel.update();
 
-        assertEquals(2, gamePanel.currentRound, "Game should advance to the next round.");
-        assertEquals(3, gamePanel.players[0].currLife, "Player 1's life should be reset.");
-        assertEquals(3, gamePanel.players[1].currLife, "Player 2's life should be reset.");
+        assertEquals(2, gamePanel.world.currentRound, "Game should advance to the next round.");
+        assertEquals(3, gamePanel.world.players[0].currLife, "Player 1's life should be reset.");
+        assertEquals(3, gamePanel.world.players[1].currLife, "Player 2's life should be reset.");
     }
 }
@@ -1,5 +1,6 @@
 import entity.Player;
 import main.GamePanel;
+import main.GameWorld;
 import main.KeyHandler;
 import object.OBJ_bomb;
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,7 +23,7 @@ class TestBomb {
     @BeforeEach
     void setUp() throws IOException {
         gamePanel = new GamePanel();
-        player = new Player(gamePanel, null, 1);
+        player = new Player(gamePanel.world, null, 1);
     }
 
     /**
@@ -33,13 +34,13 @@ class TestBomb {
     void testUpdateBombInteraction() throws IOException {
         GamePanel mockGamePanel = new GamePanel();
         KeyHandler mockKeyHandler = new KeyHandler(mockGamePanel);
-        Player player = new Player(mockGamePanel, mockKeyHandler, 1);
+        Player player = new Player(mockGamePanel.world, mockKeyHandler, 1);
 
         player.placeBomb();
         player.x += 100;
         player.updateBombInteraction();
 
-        OBJ_bomb bomb = (OBJ_bomb) mockGamePanel.objs.getFirst();
+        OBJ_bomb bomb = (OBJ_bomb) mockGamePanel.world.objs.getFirst();
         assertFalse(bomb.ignoreCollisionWithOwner, "Bomb should not ignore collision once player moves away");
     }
 
@@ -49,7 +50,7 @@ class TestBomb {
     @Test
     void testBombPlanting() {
         player.placeBomb();
-        assertEquals(1, gamePanel.objs.size(), "Bomb should be added to game objects.");
+        assertEquals(1, gamePanel.world.objs.size(), "Bomb should be added to game objects.");
     }
 
     /**
@@ -57,7 +58,110 @@ class TestBomb {
  */
     @Test
     void testBombIgnoringOwner() {
-        OBJ_bomb bomb = new OBJ_bomb(gamePanel, player, player.x, player.y);
+        OBJ_bomb bomb = new OBJ_bomb(gamePanel.world, player, player.x, player.y);
         assertTrue(bomb.ignoreCollisionWithOwner, "Bomb should initially ignore collision with its owner.");
     }
+
+    /**
+ * Tests if a chain of bombs, each in range of the next, all explode from a single detonation.
+ */
+    @Test
+    void testChainReactionSettlesAtOnce() {
+        GameWorld world = new GameWorld(true, 32, 24);
+        world.startMatch(1);
+        Player owner = world.players[0];
+        for (int col = 1; col < world.maxScreenCol - 1; col++) {
+            for (int row = 1; row < world.maxScreenRow - 1; row++) {
+                world.tileM.setTile(col, row, col % 2 == 0 && row % 2 == 0 ? 1 : 0);
+            }
+        }
+
+        int placed = 0;
+        for (int row = 1; row < world.maxScreenRow - 1 && placed < 60; row += 2) {
+            for (int col = 1; col < world.maxScreenCol - 1 && placed < 60; col += 2) {
+                world.objs.add(new OBJ_bomb(world, owner, col * world.tileSize, row * world.tileSize));
+                placed++;
+            }
+        }
+
+        ((OBJ_bomb) world.objs.getFirst()).explode();
+
+        for (int i = 0; i < world.objs.size(); i++) {
+            assertTrue(((OBJ_bomb) world.objs.get(i)).hasExploded, "Every bomb in the chain should explode in the same tick.");
+        }
+    }
+
+    /**
+ * Tests if the blast is stopped by walls, so a player behind a wall is not hit.
+ */
+    @Test
+    void testBlastStopsAtWalls() {
+        gamePanel.initPlayers();
+        Player target = gamePanel.world.players[0];
+        target.x = 3 * gamePanel.tileSize;
+        target.y = gamePanel.tileSize;
+        int initialLife = target.currLife;
+
+        // map01 has a wall at column 2 of the first row, between the bomb and the player
+        OBJ_bomb bomb = new OBJ_bomb(gamePanel.world, player, gamePanel.tileSize, gamePanel.tileSize);
+        gamePanel.world.objs.add(bomb);
+        bomb.explode();
+
+        assertEquals(initialLife, target.currLife, "Player behind a wall should not be hit.");
+        assertEquals(0, bomb.reach[3], "Fire should not pass the wall to the right.");
+    }
+
+    /**
+ * Tests if the danger map reports the time until a cell is reached by fire, carrying a bomb's fuse
+ * along the chain to a bomb whose own fuse is paused by a detonator.
+ */
+    @Test
+    void testDangerMapFollowsChain() {
+        GameWorld world = new GameWorld(true);
+        world.startMatch(2);
+        int ts = world.tileSize;
+        // row 8 of map01 is an open corridor
+        OBJ_bomb timed = new OBJ_bomb(world, world.players[0], ts, 8 * ts);
+        world.players[1].hasDetonator = true;
+        OBJ_bomb held = new OBJ_bomb(world, world.players[1], 3 * ts, 8 * ts);
+        world.objs.add(timed);
+        world.objs.add(held);
+
+        world.danger.rebuild();
+
+        assertTrue(world.danger.hasBomb(3, 8), "Danger map should record the bomb cell.");
+        assertEquals(3 * world.FPS, world.danger.ticksToBlast(1, 8), "Cell of the timed bomb should go off with its fuse.");
+        assertEquals(3 * world.FPS, world.danger.ticksToBlast(5, 8), "Held bomb should go off with the bomb that reaches it.");
+
+        timed.explode();
+
+        assertTrue(held.hasExploded, "Held bomb should be set off by the chain.");
+        assertTrue(world.danger.isFire(5, 8), "Fire of the chained bomb should be on the map.");
+    }
+
+    /**
+ * Tests if a burnt-out bomb is returned to the pool and reused, fully re-armed, by the next placement.
+ */
+    @Test
+    void testBombsAreRecycled() {
+        GameWorld world = new GameWorld(true);
+        world.startMatch(2);
+        world.monsters.clear();
+        Player owner = world.players[0];
+
+        owner.placeBomb();
+        OBJ_bomb bomb = (OBJ_bomb) world.objs.get(0);
+        for (int i = 0; i < 5 * world.FPS && world.objs.contains(bomb); i++) {
+            world.update();
+        }
+        assertFalse(world.objs.contains(bomb), "Burnt-out bomb should be removed from the map.");
+        assertEquals(1, world.bombPool.available(), "Removed bomb should be returned to the pool.");
+
+        owner.placeBomb();
+        assertSame(bomb, world.objs.get(0), "The next bomb placed should reuse the pooled instance.");
+        assertEquals(0, world.bombPool.available(), "Reused bomb should leave the pool.");
+        assertTrue(bomb.isActive(), "Reused bomb should be armed again.");
+        assertFalse(bomb.hasExploded, "Reused bomb should not be marked as exploded.");
+        assertSame(owner, bomb.owner, "Reused bomb should belong to the player who placed it.");
+    }
 }
@@ -0,0 +1,110 @@
+import entity.Entity;
+import main.BotController;
+import main.GameWorld;
+import main.InputSource;
+import main.MonsterSwarm;
+import main.MatchStats;
+import main.PlayerControllers;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the player controllers and the CPU bot.
+ * It tests that empty slots give no input, that slot lists naming no player are rejected, that
+ * the cells a bot avoids for monsters come from the danger map, and that a bot hunts down an idle
+ * opponent without being caught by its own bombs, running its search only when the map around it
+ * changes.
+ */
+class TestBotController {
+    /**
+     * Tests if a slot gives the input of its controller, and none without one.
+     */
+    @Test
+    void testSlotsGiveTheirControllersInput() {
+        GameWorld world = new GameWorld(true);
+        world.startMatch(2, 1);
+        PlayerControllers controllers = new PlayerControllers(world);
+
+        assertEquals(0, controllers.poll(1), "A slot without a controller should give no input.");
+        controllers.set(2, player -> InputSource.LEFT | InputSource.BOMB);
+        assertEquals(InputSource.LEFT | InputSource.BOMB, controllers.poll(2), "A slot should give its controller's input.");
+        assertEquals(0, controllers.poll(1), "Filling one slot should leave the others empty.");
+        controllers.set(2, null);
+        assertEquals(0, controllers.poll(2), "A cleared slot should give no input.");
+    }
+
+    /**
+     * Tests if a list of bot slots is parsed, and if slots that name no player are rejected with a
+     * message naming the slot rather than failing later.
+     */
+    @Test
+    void testSlotListsAreChecked() {
+        assertArrayEquals(new int[] { 2, 3 }, PlayerControllers.parseSlots(" 2, ,3", 3), "Blank entries should be skipped.");
+        assertEquals(0, PlayerControllers.parseSlots("", 3).length, "An empty list should name no slots.");
+        for (String list : new String[] { "0", "4", "1,-2", "two" }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PlayerControllers.parseSlots(list, 3),
+                    "The slot list \"" + list + "\" should be rejected.");
+            assertTrue(e.getMessage().startsWith("Player slot"), "The message should name the bad slot in \"" + list + "\".");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PlayerControllers(new GameWorld(true)).set(0, null),
+                "There should be no slot 0.");
+    }
+
+    /**
+     * Tests if the danger map marks the cells overlapped by living monsters of the swarm and of the
+     * entity monsters on every rebuild, and only those.
+     */
+    @Test
+    void testDangerMapMarksMonsterCells() {
+        GameWorld world = new GameWorld(true);
+        world.startMatch(2, 1);
+        world.swarm.clear();
+        int size = world.tileSize;
+        world.swarm.spawn(MonsterSwarm.Kind.ORC, 5 * size, 4 * size);
+        world.danger.rebuild();
+
+        assertTrue(world.danger.hasMonster(5, 4), "The cell of a living swarm member should be marked.");
+        assertFalse(world.danger.hasMonster(6, 4), "Cells the member does not overlap should not be marked.");
+        Entity monster = world.monsters.get(0);
+        assertTrue(world.danger.hasMonster((monster.x + monster.solidArea.x) / size, (monster.y + monster.solidArea.y) / size),
+                "The cell of an entity monster should be marked.");
+
+        world.swarm.clear();
+        world.monsters.clear();
+        world.danger.rebuild();
+        assertFalse(world.danger.hasMonster(5, 4), "Cells should be cleared once their monsters are gone.");
+    }
+
+    /**
+     * Tests if a bot wins a round against a player that stands still, without dying to its own
+     * bombs, and with far fewer searches than ticks.
+     */
+    @Test
+    void testBotBeatsIdlePlayer() {
+        for (long seed = 1; seed <= 3; seed++) {
+            GameWorld world = new GameWorld(true);
+            MatchStats stats = new MatchStats();
+            world.stats = stats;
+            BotController bot = new BotController(world);
+            PlayerControllers controllers = new PlayerControllers(world);
+            controllers.set(1, bot);
+            world.input = controllers;
+            world.loadMap(1);
+            world.startMatch(2, seed);
+            world.monsters.clear();
+            world.swarm.clear();
+
+            long ticks = 0;
+            while (world.currentRound == 1 && ticks < 60 * 120) {
+                world.update();
+                ticks++;
+            }
+
+            assertEquals(2, world.currentRound, "The bot should end the round with seed " + seed);
+            assertEquals(1, stats.roundWins[0], "The bot should win the round with seed " + seed);
+            assertEquals(0, stats.deaths[MatchStats.Death.OWN_BOMB.ordinal()], "The bot should not die to its own bombs with seed " + seed);
+            assertTrue(bot.getSearches() < ticks / 4, "The bot should reuse its search on most ticks with seed " + seed);
+        }
+    }
+}
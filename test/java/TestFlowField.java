@@ -0,0 +1,90 @@
+import entity.Direction;
+import main.FlowField;
+import main.GameWorld;
+import monster.MON_redSlime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the shared pathfinding field used by chasing monsters.
+ * It tests distances and first steps on the default map, that the field follows the players, and
+ * that a slime chasing along it moves one axis at a time and never walks into a box put in its way.
+ */
+class TestFlowField {
+    GameWorld world;
+
+    /**
+ * Sets up a headless one-player world on the default map before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        world = new GameWorld(true);
+        world.startMatch(1);
+        world.paths.update();
+    }
+
+    /**
+ * Tests if distances grow along the corridor below the player and point back towards it.
+ */
+    @Test
+    void testDistancesAndSteps() {
+        assertEquals(0, world.paths.distanceAt(1, 1), "The player's own cell should be at distance 0.");
+        assertNull(world.paths.directionAt(1, 1), "The player's own cell has no step.");
+        assertEquals(3, world.paths.distanceAt(1, 4), "Cells down the corridor should be one step further each.");
+        assertEquals(Direction.UP, world.paths.directionAt(1, 4), "The first step should lead back up the corridor.");
+        assertEquals(FlowField.UNREACHABLE, world.paths.distanceAt(0, 0), "Walls should be unreachable.");
+    }
+
+    /**
+ * Tests if the field is searched again once the player walks into another cell, and when the map changes.
+ */
+    @Test
+    void testFollowsPlayerAndMap() {
+        world.players[0].y += 3 * world.tileSize;
+        world.paths.update();
+        assertEquals(0, world.paths.distanceAt(1, 4), "The field should follow the player to its new cell.");
+
+        assertEquals(FlowField.UNREACHABLE, world.paths.distanceAt(1, 8), "The wall below should cut the corridor off.");
+        world.tileM.setTile(1, 7, 0);
+        world.paths.update();
+        assertEquals(4, world.paths.distanceAt(1, 8), "Opening the wall should connect the corridor.");
+    }
+
+    /**
+ * Tests if a red slime chasing along the field moves one axis at a time, and turns back when a box
+ * is put on the cell it is walking onto instead of walking into it.
+ */
+    @Test
+    void testRedSlimeTurnsBackFromNewBox() {
+        int size = world.tileSize;
+        world.players[0].x = 14 * size;
+        world.players[0].y = size;
+        MON_redSlime slime = new MON_redSlime(world);
+        slime.x = 10 * size + 6;
+        slime.y = size + 6;
+        slime.actionLockCounter = 119;
+
+        for (int i = 0; i < 4; i++) {
+            int x = slime.x, y = slime.y;
+            world.paths.update();
+            slime.update();
+            assertTrue(x == slime.x || y == slime.y, "The slime should move along one axis at a time.");
+        }
+        assertEquals(10 * size, slime.x, "The slime should first walk onto the cell under its center.");
+        assertEquals(size, slime.y, "The slime should then line up with the row.");
+
+        world.paths.update();
+        slime.update();
+        assertEquals(10 * size + slime.speed, slime.x, "The slime should head for the next cell towards the player.");
+
+        world.tileM.setTile(11, 1, 2);
+        for (int i = 0; i < 30; i++) {
+            world.paths.update();
+            slime.update();
+            assertTrue(slime.x <= 10 * size + slime.speed, "The slime should not walk into the new box on tick " + i);
+        }
+        assertEquals(10 * size, slime.x, "The slime should be back on the cell it came from.");
+    }
+}
@@ -0,0 +1,92 @@
+import main.FrameExchange;
+import main.RenderFrame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tile.TileLayer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the handoff of render frames from the game thread to the renderer.
+ * It tests that the renderer always sees the latest published frame and never a frame being filled,
+ * and that the map painted from the frames' tiles catches up even with frames it skipped.
+ */
+class TestFrameExchange {
+    FrameExchange frames;
+    BufferedImage sprite = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    /**
+ * Sets up an empty exchange before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        frames = new FrameExchange();
+    }
+
+    /**
+ * Tests if the renderer gets an empty frame before anything was published.
+ */
+    @Test
+    void testEmptyBeforeFirstPublish() {
+        assertEquals(0, frames.latest().spriteCount(), "No sprites should be drawn before the first tick.");
+    }
+
+    /**
+ * Tests if the renderer skips to the newest frame and keeps it until a newer one is published.
+ */
+    @Test
+    void testLatestFrameWins() {
+        RenderFrame first = frames.beginFrame();
+        first.addSprite(sprite, 0, 0, 1, 1, false);
+        frames.publish();
+
+        RenderFrame second = frames.beginFrame();
+        assertNotSame(first, second, "The game thread should never refill a published frame straight away.");
+        second.addSprite(sprite, 0, 0, 1, 1, false);
+        second.addSprite(sprite, 1, 1, 1, 1, false);
+        frames.publish();
+
+        RenderFrame seen = frames.latest();
+        assertSame(second, seen, "Renderer should get the newest published frame.");
+        assertEquals(2, seen.spriteCount(), "Frame should keep the sprites added before publishing.");
+        assertSame(seen, frames.latest(), "Renderer should keep its frame while nothing new is published.");
+
+        RenderFrame third = frames.beginFrame();
+        assertNotSame(seen, third, "The game thread should never fill the frame the renderer holds.");
+        frames.publish();
+        assertSame(third, frames.latest(), "Renderer should move on once a newer frame is published.");
+    }
+
+    /**
+ * Tests if the tile layer repaints every cell that differs from what it painted, when the renderer
+ * skipped the frames in which those cells changed, and leaves the rest of its cached layer alone.
+ */
+    @Test
+    void testTileLayerCatchesUpWithSkippedFrames() {
+        BufferedImage[] images = { tileImage(Color.GREEN), tileImage(Color.GRAY), tileImage(Color.ORANGE) };
+        TileLayer layer = new TileLayer(3, 2, 1, images);
+        BufferedImage screen = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = screen.createGraphics();
+
+        int[] tiles = { 1, 1, 0, 2, 1, 0 };
+        layer.draw(g2, tiles, 1);
+        assertEquals(Color.ORANGE.getRGB(), screen.getRGB(1, 1), "A box should be painted at column 1, row 1.");
+
+        // versions 2 and 3 were skipped: the box was blown up and an obstacle placed elsewhere
+        tiles = new int[] { 1, 1, 0, 0, 1, 2 };
+        layer.draw(g2, tiles, 4);
+        assertEquals(Color.GREEN.getRGB(), screen.getRGB(1, 1), "The blown up box should be repainted as grass.");
+        assertEquals(Color.ORANGE.getRGB(), screen.getRGB(2, 1), "The new obstacle should be painted.");
+        assertEquals(Color.GRAY.getRGB(), screen.getRGB(0, 0), "Unchanged cells should keep their tile.");
+        g2.dispose();
+    }
+
+    private static BufferedImage tileImage(Color color) {
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, color.getRGB());
+        return image;
+    }
+}
@@ -25,8 +25,8 @@ class TestGame {
     void setUp() throws IOException {
         gamePanel = new GamePanel();
         KeyHandler keyHandler = new KeyHandler(gamePanel);
-        player = new Player(gamePanel, null, 1);
-        gamePanel.tileM.loadMap("/maps/map01.txt");
+        player = new Player(gamePanel.world, null, 1);
+        gamePanel.world.tileM.loadMap("/maps/map01.txt");
     }
 
     /**
@@ -36,14 +36,14 @@ class TestGame {
     void testBombExplosionChangesTile() {
         int bombX = 3;
         int bombY = 3;
-        Player player = new Player(gamePanel, null, 1);
+        Player player = new Player(gamePanel.world, null, 1);
 
-        OBJ_bomb bomb = new OBJ_bomb(gamePanel, player, bombX * gamePanel.tileSize, bombY * gamePanel.tileSize);
-        gamePanel.objs.add(bomb);
+        OBJ_bomb bomb = new OBJ_bomb(gamePanel.world, player, bombX * gamePanel.tileSize, bombY * gamePanel.tileSize);
+        gamePanel.world.objs.add(bomb);
         bomb.explode();
 
         int expectedTileNum = 0;
-        int actualTileNum = gamePanel.tileM.mapTileNum[bombX][bombY];
+        int actualTileNum = gamePanel.world.tileM.mapTileNum[bombX][bombY];
         assertEquals(expectedTileNum, actualTileNum, "Tile should be grass after explosion");
     }
 
@@ -54,7 +54,7 @@ class TestGame {
     void testPowerUpExtraBomb() {
         player.bombLimit = 1;
 
-        ExtraBomb extraBomb = new ExtraBomb(gamePanel, 100, 100);
+        ExtraBomb extraBomb = new ExtraBomb(gamePanel.world, 100, 100);
         extraBomb.applyEffect(player);
         assertEquals(2, player.bombLimit, "Bomb limit should increase by 1 after picking up an Extra Bomb power-up.");
     }
@@ -65,7 +65,7 @@ class TestGame {
     @Test
     void testPowerUpBlastExpansion() {
         int initialRadius = player.bombBlastRadius;
-        BlastExpansion blastExpansion = new BlastExpansion(gamePanel, 0, 0);
+        BlastExpansion blastExpansion = new BlastExpansion(gamePanel.world, 0, 0);
         blastExpansion.applyEffect(player);
         assertEquals(initialRadius + 1, player.bombBlastRadius, "Bomb blast radius should increase by 1.");
     }
@@ -75,7 +75,7 @@ class TestGame {
  */
     @Test
     void testPowerUpDetonator() {
-        Detonator detonator = new Detonator(gamePanel, 0, 0);
+        Detonator detonator = new Detonator(gamePanel.world, 0, 0);
         detonator.applyEffect(player);
         assertTrue(player.hasDetonator, "Player should be able to trigger bombs at will after picking up Detonator.");
     }
@@ -86,7 +86,7 @@ class TestGame {
     @Test
     void testPowerUpRoller() {
         int initialSpeed = player.speed;
-        RollerSkate rollerSkate = new RollerSkate(gamePanel, 0, 0);
+        RollerSkate rollerSkate = new RollerSkate(gamePanel.world, 0, 0);
         rollerSkate.applyEffect(player);
         assertEquals(initialSpeed + 2, player.speed, "Player speed should increase with Roller Skates.");
     }
@@ -97,7 +97,7 @@ class TestGame {
  */
     @Test
     void testPowerUpGhost() {
-        Ghost ghost = new Ghost(gamePanel, 0, 0);
+        Ghost ghost = new Ghost(gamePanel.world, 0, 0);
         ghost.applyEffect(player);
         assertTrue(player.isGhost, "Ghost mode should be activated.");
 
@@ -111,7 +111,7 @@ class TestGame {
  */
     @Test
     void testInvincibilityActivationAndDeactivation() {
-        Invincibility invincibility = new Invincibility(gamePanel, 0, 0);
+        Invincibility invincibility = new Invincibility(gamePanel.world, 0, 0);
         invincibility.applyEffect(player);
         assertTrue(player.isInvincible, "Player should be invincible after picking up Invincibility.");
 
@@ -125,7 +125,7 @@ class TestGame {
     @Test
     void estPowerUpObstacle() {
         int initialLimit = player.obstacleLimit;
-        Obstacle obstacle = new Obstacle(gamePanel, 0, 0);
+        Obstacle obstacle = new Obstacle(gamePanel.world, 0, 0);
         obstacle.applyEffect(player);
         assertEquals(initialLimit + 3, player.obstacleLimit, "Obstacle limit should increase by 3.");
     }
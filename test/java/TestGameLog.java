@@ -0,0 +1,90 @@
+import main.GameLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the asynchronous game event log.
+ * It tests that enabled events are written as key=value lines, that disabled levels record nothing,
+ * and that the writer sleeps while there is nothing to write and wakes up for the next event.
+ */
+class TestGameLog {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    GameLog.Level previousLevel;
+
+    /**
+ * Redirects the log into a buffer before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        previousLevel = GameLog.getLevel();
+        GameLog.flush();
+        GameLog.setOutput(new PrintStream(buffer, true));
+    }
+
+    /**
+ * Restores the log's level and output after each test.
+ */
+    @AfterEach
+    void tearDown() {
+        GameLog.flush();
+        GameLog.setOutput(System.out);
+        GameLog.setLevel(previousLevel);
+    }
+
+    /**
+ * Tests if an enabled event is written with its tick and fields.
+ */
+    @Test
+    void testEventIsWritten() {
+        GameLog.setLevel(GameLog.Level.INFO);
+        GameLog.log(42, GameLog.Event.PLAYER_HIT, 2, 1);
+        GameLog.flush();
+
+        assertTrue(buffer.toString().contains("tick=42 level=INFO event=PLAYER_HIT player=2 life=1"),
+                "Event should be written as a key=value line.");
+    }
+
+    /**
+ * Tests if events above the current level are not recorded.
+ */
+    @Test
+    void testDisabledLevelsRecordNothing() {
+        GameLog.setLevel(GameLog.Level.INFO);
+        GameLog.log(1, GameLog.Event.TICK_STATUS, 2, 1);
+        GameLog.setLevel(GameLog.Level.OFF);
+        GameLog.log(1, GameLog.Event.PLAYER_DIED, 1);
+
+        assertEquals(0, GameLog.flush(), "Disabled events should not be recorded.");
+        assertFalse(GameLog.isEnabled(GameLog.Level.INFO), "OFF should disable every level.");
+    }
+
+    /**
+ * Tests if the writer sleeps without a timeout once the ring is empty, and writes the next event
+ * without anyone flushing.
+ */
+    @Test
+    void testIdleWriterSleepsUntilNextEvent() throws InterruptedException {
+        GameLog.setLevel(GameLog.Level.INFO);
+        GameLog.log(7, GameLog.Event.ROUND_STARTED, 2);
+        awaitLine("tick=7 level=INFO event=ROUND_STARTED round=2");
+
+        Thread writer = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("game-log")).findFirst().orElseThrow();
+        for (int i = 0; i < 200 && writer.getState() != Thread.State.WAITING; i++) Thread.sleep(10);
+        assertEquals(Thread.State.WAITING, writer.getState(), "An idle writer should sleep until woken, not poll.");
+
+        GameLog.log(8, GameLog.Event.ROUND_STARTED, 3);
+        awaitLine("tick=8 level=INFO event=ROUND_STARTED round=3");
+    }
+
+    private void awaitLine(String expected) throws InterruptedException {
+        for (int i = 0; i < 200 && !buffer.toString().contains(expected); i++) Thread.sleep(10);
+        assertTrue(buffer.toString().contains(expected), "The writer should write " + expected + " by itself.");
+    }
+}
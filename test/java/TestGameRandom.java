@@ -0,0 +1,71 @@
+import entity.Entity;
+import main.GameRandom;
+import main.GameWorld;
+import main.Rng;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the seeded random streams of a match.
+ * It tests that generators are reproducible, that streams do not affect each other and that a
+ * seeded match plays out the same way twice.
+ */
+class TestGameRandom {
+
+    /**
+     * Tests if two generators with the same seed produce the same numbers within their bounds.
+     */
+    @Test
+    void testSameSeedSameSequence() {
+        Rng first = new Rng(42), second = new Rng(42);
+        for (int i = 0; i < 1000; i++) {
+            int value = first.nextInt(7);
+            assertEquals(value, second.nextInt(7), "Generators with the same seed should agree.");
+            assertTrue(value >= 0 && value < 7, "Values should stay within the bound.");
+        }
+        double d = first.nextDouble();
+        assertTrue(d >= 0.0 && d < 1.0, "Doubles should lie between 0 and 1.");
+    }
+
+    /**
+     * Tests if drawing from one stream leaves the numbers of another stream unchanged.
+     */
+    @Test
+    void testStreamsAreIndependent() {
+        GameRandom busy = new GameRandom(7), idle = new GameRandom(7);
+        for (int i = 0; i < 100; i++) busy.stream(GameRandom.Stream.MONSTERS).nextInt();
+
+        assertEquals(idle.stream(GameRandom.Stream.POWER_UPS).nextLong(), busy.stream(GameRandom.Stream.POWER_UPS).nextLong(),
+                "Monster draws should not shift the power-up stream.");
+        assertNotEquals(idle.stream(GameRandom.Stream.MAPS).nextLong(), idle.stream(GameRandom.Stream.SWARM).nextLong(),
+                "Different streams should produce different numbers.");
+    }
+
+    /**
+     * Tests if two matches started from the same seed are identical after many ticks.
+     */
+    @Test
+    void testSeededMatchReplays() {
+        GameWorld first = playSeeded(1234), second = playSeeded(1234);
+
+        assertEquals(first.monsters.size(), second.monsters.size(), "Both matches should have the same monsters.");
+        for (int i = 0; i < first.monsters.size(); i++) {
+            Entity a = first.monsters.get(i), b = second.monsters.get(i);
+            assertEquals(a.x, b.x, "Monster " + i + " should be at the same x in both matches.");
+            assertEquals(a.y, b.y, "Monster " + i + " should be at the same y in both matches.");
+            assertEquals(a.direction, b.direction, "Monster " + i + " should face the same way in both matches.");
+        }
+        for (int i = 0; i < first.powerUps.size(); i++) {
+            assertEquals(first.powerUps.get(i).getX(), second.powerUps.get(i).getX(), "Power-ups should be placed alike.");
+            assertEquals(first.powerUps.get(i).getY(), second.powerUps.get(i).getY(), "Power-ups should be placed alike.");
+        }
+    }
+
+    private GameWorld playSeeded(long seed) {
+        GameWorld world = new GameWorld(true);
+        world.startMatch(2, seed);
+        for (int tick = 0; tick < 600; tick++) world.update();
+        return world;
+    }
+}
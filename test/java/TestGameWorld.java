@@ -0,0 +1,88 @@
+import entity.Direction;
+import main.GameWorld;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the headless game world.
+ * It tests that a match can be set up and stepped without a GamePanel or any loaded images, and
+ * that every round is played on a random map with its boxes.
+ */
+class TestGameWorld {
+    GameWorld world;
+
+    /**
+ * Sets up a headless world with two players before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        world = new GameWorld(true);
+        world.startMatch(2);
+    }
+
+    /**
+ * Tests if a headless match starts in the play state without loading any sprites.
+ */
+    @Test
+    void testHeadlessMatchStarts() {
+        assertEquals(world.playState, world.gameState, "Headless match should start in play state.");
+        assertNull(world.players[0].getSprite(Direction.DOWN, 1), "Headless world should not load sprites.");
+        assertNull(world.tileM.tile[0].image, "Headless world should not load tile images.");
+    }
+
+    /**
+ * Tests if the world can be stepped tick by tick and advances its clock.
+ */
+    @Test
+    void testStepping() {
+        for (int i = 0; i < 600; i++) {
+            world.update();
+        }
+        assertEquals(600, world.tick, "World clock should advance once per update.");
+    }
+
+    /**
+ * Tests if the round advances once one player is left standing and all monsters are gone.
+ */
+    @Test
+    void testRoundAdvancesForLastStanding() {
+        world.monsters.clear();
+        world.players[1].currLife = 0;
+        world.players[0].currLife = 3;
+        world.update();
+
+        assertEquals(2, world.currentRound, "Last standing player with no monsters should advance the round.");
+    }
+
+    /**
+ * Tests if the rounds after the first are played on the random map they drew, with every box of
+ * that map either known to the world or hiding a power-up, rather than on the default map without
+ * boxes or power-ups.
+ */
+    @Test
+    void testLaterRoundsKeepTheirRandomMapAndBoxes() {
+        int[][] defaultMap = new GameWorld(true).tileM.mapTileNum;
+        boolean otherMap = false, hidPowerUps = false;
+        for (long seed = 1; seed <= 6; seed++) {
+            GameWorld match = new GameWorld(true);
+            match.startMatch(2, seed);
+            match.drawRound();
+            assertEquals(2, match.currentRound, "A drawn round should start the next one with seed " + seed);
+
+            int boxTiles = 0;
+            for (int[] column : match.tileM.mapTileNum) {
+                for (int tile : column) if (tile == 2) boxTiles++;
+            }
+            assertEquals(boxTiles, match.boxes.size() + match.powerUps.size(),
+                    "Every box of the second round's map should be known with seed " + seed);
+            otherMap |= !Arrays.deepEquals(defaultMap, match.tileM.mapTileNum);
+            hidPowerUps |= !match.powerUps.isEmpty();
+        }
+        assertTrue(otherMap, "Some later rounds should be played on a map other than the default one.");
+        assertTrue(hidPowerUps, "Later rounds on a map with boxes should hide power-ups in them.");
+    }
+}
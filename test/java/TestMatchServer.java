@@ -0,0 +1,158 @@
+import main.InputSource;
+import net.GameClient;
+import net.MatchServer;
+import net.Protocol;
+import net.Snapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the multiplayer server over the loopback interface.
+ * It tests that players are seated in their match, that the server's simulation follows their input,
+ * that many matches run side by side on a fixed number of threads, and that a malformed frame only
+ * costs its sender the connection.
+ */
+class TestMatchServer {
+    MatchServer server;
+
+    /**
+ * Starts a server with two event loops on a free port before each test.
+ */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MatchServer(0, 2, 60);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    /**
+ * Tests if both players of a match are seated and player 1 moves on the server when it sends input.
+ */
+    @Test
+    void testServerFollowsInput() throws Exception {
+        AtomicInteger start = new AtomicInteger(Integer.MIN_VALUE);
+        AtomicLong lastTick = new AtomicLong(-1);
+        CountDownLatch moved = new CountDownLatch(1);
+        GameClient first = GameClient.connect("localhost", server.getPort(), 7, 2, snapshot -> {
+            lastTick.set(snapshot.tick);
+            if ((snapshot.playerFlags[0] & Snapshot.ALIVE) == 0) return;
+            int position = snapshot.playerX[0] * 10000 + snapshot.playerY[0];
+            if (!start.compareAndSet(Integer.MIN_VALUE, position) && position != start.get()) moved.countDown();
+        });
+        GameClient second = GameClient.connect("localhost", server.getPort(), 7, 2, snapshot -> { });
+        try {
+            assertEquals(1, first.getPlayerNum(), "The first client should be player 1.");
+            assertEquals(2, second.getPlayerNum(), "The second client should be player 2.");
+            assertEquals(2, first.getPlayerCount(), "The match should be for two players.");
+
+            first.sendInput(InputSource.RIGHT | InputSource.DOWN);
+            assertTrue(moved.await(5, TimeUnit.SECONDS), "Player 1 should move after sending input.");
+            assertTrue(lastTick.get() > 0, "The server should advance the match tick.");
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    /**
+ * Tests if a player joining a full match is rejected.
+ */
+    @Test
+    void testFullMatchRejects() throws Exception {
+        GameClient only = GameClient.connect("localhost", server.getPort(), 3, 1, snapshot -> { });
+        try {
+            assertThrows(IOException.class, () -> GameClient.connect("localhost", server.getPort(), 3, 1, snapshot -> { }),
+                    "A full match should reject another player.");
+        } finally {
+            only.close();
+        }
+    }
+
+    /**
+ * Tests if many matches run at once on the server's fixed set of event loops.
+ */
+    @Test
+    void testManyMatches() throws Exception {
+        int matches = 20;
+        CountDownLatch running = new CountDownLatch(matches);
+        GameClient[] clients = new GameClient[matches];
+        try {
+            for (int i = 0; i < matches; i++) {
+                AtomicInteger received = new AtomicInteger();
+                clients[i] = GameClient.connect("localhost", server.getPort(), 100 + i, 1, snapshot -> {
+                    if (received.incrementAndGet() == 10) running.countDown();
+                });
+            }
+            assertTrue(running.await(10, TimeUnit.SECONDS), "Every match should receive states.");
+            assertEquals(matches, server.matchCount(), "Every match should be hosted.");
+            assertEquals(2, server.threadCount(), "The matches should share the server's two event loops.");
+        } finally {
+            for (GameClient client : clients) {
+                if (client != null) client.close();
+            }
+        }
+    }
+
+    /**
+ * Tests if truncated JOIN and ACK frames close only the connections that sent them, and the
+ * server still seats and serves the next client.
+ */
+    @Test
+    void testTruncatedFramesCloseOnlyTheirConnection() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(1);
+            out.writeByte(Protocol.JOIN);
+            out.flush();
+            socket.setSoTimeout(5000);
+            assertEquals(-1, socket.getInputStream().read(), "A truncated JOIN should close its connection.");
+        }
+
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            socket.setSoTimeout(5000);
+            out.writeInt(6);
+            out.writeByte(Protocol.JOIN);
+            out.writeInt(40);
+            out.writeByte(1);
+            out.flush();
+            in.readInt();
+            assertEquals(Protocol.WELCOME, in.readByte(), "A well-formed JOIN should be welcomed.");
+            out.writeInt(1);
+            out.writeByte(Protocol.ACK);
+            out.flush();
+            assertThrows(IOException.class, () -> {
+                while (true) {
+                    int length = in.readInt();
+                    in.skipNBytes(length);
+                }
+            }, "A truncated ACK should close its connection.");
+        }
+
+        CountDownLatch received = new CountDownLatch(10);
+        GameClient client = GameClient.connect("localhost", server.getPort(), 41, 1, snapshot -> received.countDown());
+        try {
+            assertEquals(1, client.getPlayerNum(), "The next client should still be seated.");
+            assertTrue(received.await(5, TimeUnit.SECONDS), "The next client should still receive states.");
+        } finally {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import entity.Entity;
+import main.GameWorld;
+import monster.MON_greenSlime;
+import monster.MON_orc;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the packed registry of monster entities.
+ * It tests spawning past the old fixed capacity, swap-removal and removal of dead monsters.
+ */
+class TestMonsterRegistry {
+    GameWorld world;
+
+    /**
+ * Sets up a headless match with one player and no monsters before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        world = new GameWorld(true);
+        world.startMatch(1);
+        world.monsters.clear();
+    }
+
+    /**
+ * Tests if hundreds of monsters can be spawned and are all indexed by the spatial grid.
+ */
+    @Test
+    void testSpawnsHundreds() {
+        for (int i = 0; i < 500; i++) {
+            world.aSetter.spawnMonster(new MON_greenSlime(world), 1, 4);
+        }
+        assertEquals(500, world.monsters.size(), "Every spawned monster should be registered.");
+        assertEquals(500, world.monsterGrid.size(), "Every spawned monster should be in the spatial grid.");
+    }
+
+    /**
+ * Tests if removing a monster moves the last one into its slot and takes it out of the grid.
+ */
+    @Test
+    void testSwapRemove() {
+        Entity first = new MON_greenSlime(world), second = new MON_orc(world), third = new MON_greenSlime(world);
+        world.aSetter.spawnMonster(first, 1, 4);
+        world.aSetter.spawnMonster(second, 3, 2);
+        world.aSetter.spawnMonster(third, 14, 2);
+
+        assertSame(first, world.monsters.removeAt(0), "removeAt should return the removed monster.");
+        assertSame(third, world.monsters.get(0), "The last monster should fill the freed slot.");
+        assertSame(second, world.monsters.get(1), "Other monsters should keep their slots.");
+        assertEquals(2, world.monsterGrid.size(), "The removed monster should leave the grid.");
+        assertEquals(-1, world.monsters.indexOf(first), "The removed monster should no longer be found.");
+    }
+
+    /**
+ * Tests if dead monsters are despawned during the tick and the others keep updating.
+ */
+    @Test
+    void testDeadMonstersAreDespawned() {
+        Entity dead = new MON_greenSlime(world), alive = new MON_greenSlime(world);
+        world.aSetter.spawnMonster(dead, 1, 4);
+        world.aSetter.spawnMonster(alive, 14, 2);
+        dead.currLife = 0;
+
+        world.update();
+        assertEquals(1, world.monsters.size(), "The dead monster should be removed.");
+        assertSame(alive, world.monsters.get(0), "The living monster should stay registered.");
+    }
+}
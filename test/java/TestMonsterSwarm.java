@@ -0,0 +1,104 @@
+import main.GameWorld;
+import main.MonsterSwarm;
+import object.OBJ_bomb;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the struct-of-arrays store of wandering monsters.
+ * It tests that members stay packed, never walk into walls, die in explosions and hurt players.
+ */
+class TestMonsterSwarm {
+    GameWorld world;
+    MonsterSwarm swarm;
+
+    /**
+ * Sets up a headless match with one player before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        world = new GameWorld(true);
+        world.startMatch(1);
+        swarm = world.swarm;
+    }
+
+    /**
+ * Tests if removing a member moves the last member into its slot.
+ */
+    @Test
+    void testSwapRemove() {
+        swarm.spawn(MonsterSwarm.Kind.GREEN_SLIME, 48, 96);
+        swarm.spawn(MonsterSwarm.Kind.ORC, 96, 96);
+        swarm.spawn(MonsterSwarm.Kind.SKELETON, 144, 96);
+
+        swarm.remove(0);
+        assertEquals(2, swarm.size(), "Removing a member should shrink the swarm.");
+        assertEquals(MonsterSwarm.Kind.SKELETON, swarm.getKind(0), "The last member should fill the freed slot.");
+        assertEquals(144, swarm.getX(0), "The moved member should keep its position.");
+        assertEquals(MonsterSwarm.Kind.ORC, swarm.getKind(1), "Other members should stay where they were.");
+    }
+
+    /**
+ * Tests if the swarm grows past its initial capacity.
+ */
+    @Test
+    void testGrowsForLargeCounts() {
+        for (int i = 0; i < 2000; i++) {
+            swarm.spawn(MonsterSwarm.Kind.RED_SLIME, world.tileSize, 4 * world.tileSize);
+        }
+        assertEquals(2000, swarm.size(), "Every spawned member should be kept.");
+        assertEquals(4 * world.tileSize, swarm.getY(1999), "The last member should keep its position.");
+    }
+
+    /**
+ * Tests if wandering members never enter a collidable tile.
+ */
+    @Test
+    void testMembersStayOnGrass() {
+        for (int i = 0; i < 50; i++) {
+            swarm.spawn(MonsterSwarm.Kind.values()[i % 4], world.tileSize, 4 * world.tileSize);
+        }
+        for (int tick = 0; tick < 600; tick++) {
+            swarm.update();
+            for (int i = 0; i < swarm.size(); i++) {
+                int left = swarm.getX(i) + MonsterSwarm.SOLID_X, top = swarm.getY(i) + MonsterSwarm.SOLID_Y;
+                int right = left + MonsterSwarm.SOLID_WIDTH, bottom = top + MonsterSwarm.SOLID_HEIGHT;
+                assertFalse(collides(left, top) || collides(right, top) || collides(left, bottom) || collides(right, bottom),
+                        "Member " + i + " should never stand on a collidable tile.");
+            }
+        }
+    }
+
+    /**
+ * Tests if an explosion kills the members in its blast and the next update removes them.
+ */
+    @Test
+    void testBlastKillsMembers() {
+        world.players[0].isInvincible = true;
+        swarm.spawn(MonsterSwarm.Kind.GREEN_SLIME, world.tileSize, 3 * world.tileSize);
+        swarm.spawn(MonsterSwarm.Kind.GREEN_SLIME, 14 * world.tileSize, 9 * world.tileSize);
+
+        new OBJ_bomb(world, world.players[0], world.tileSize, 3 * world.tileSize).explode();
+        assertEquals(0, swarm.getLife(0), "A member in the blast should lose its life.");
+
+        swarm.update();
+        assertEquals(1, swarm.size(), "Dead members should be removed on the next update.");
+        assertEquals(14 * world.tileSize, swarm.getX(0), "The member outside the blast should survive.");
+    }
+
+    /**
+ * Tests if touching a member kills a player that is not invincible.
+ */
+    @Test
+    void testContactKillsPlayer() {
+        swarm.spawn(MonsterSwarm.Kind.ORC, world.players[0].x, world.players[0].y);
+        world.players[0].update();
+        assertEquals(0, world.players[0].currLife, "Touching a swarm member should kill the player.");
+    }
+
+    private boolean collides(int x, int y) {
+        return world.tileM.tile[world.tileM.mapTileNum[x / world.tileSize][y / world.tileSize]].collision;
+    }
+}
@@ -1,3 +1,4 @@
+import entity.Direction;
 import entity.Player;
 import main.GamePanel;
 import main.KeyHandler;
@@ -29,7 +30,7 @@ class TestPlayer {
         gamePanel.initPlayers();
         gamePanel.setupGame();
         keyH = new KeyHandler(gamePanel);
-        player = new Player(gamePanel, keyH, 1);
+        player = new Player(gamePanel.world, keyH, 1);
     }
 
     /**
@@ -42,12 +43,12 @@ class TestPlayer {
         GamePanel mockGamePanel = new GamePanel();
         KeyHandler mockKeyHandler = new KeyHandler(mockGamePanel);
         int playerNumber = 1;
-        Player player = new Player(mockGamePanel, mockKeyHandler, playerNumber);
+        Player player = new Player(mockGamePanel.world, mockKeyHandler, playerNumber);
 
         assertEquals(50, player.x, "Initial x position should be 50 for player 1");
         assertEquals(50, player.y, "Initial y position should be 50 for player 1");
         assertEquals(4, player.speed, "Speed should be initialized to 4");
-        assertEquals("down", player.direction, "Initial direction should be down");
+        assertEquals(Direction.DOWN, player.direction, "Initial direction should be down");
         assertEquals(3, player.currLife, "Current life should be initialized to max life");
     }
 
@@ -61,7 +62,7 @@ class TestPlayer {
         GamePanel gamePanel = new GamePanel();
         KeyHandler keyHandler = new KeyHandler(gamePanel);
 
-        Player player = new Player(gamePanel, keyHandler, 1);
+        Player player = new Player(gamePanel.world, keyHandler, 1);
         player.x = 100;
         player.y = 50;
         player.speed = 4;
@@ -79,10 +80,27 @@ class TestPlayer {
  */
     @Test
     void testPlayerCollision() {
-        Obstacle obstacle = new Obstacle(gamePanel, player.x + player.speed, player.y);
-        gamePanel.objs.add(obstacle);
-        player.direction = "right";
+        Obstacle obstacle = new Obstacle(gamePanel.world, player.x + player.speed, player.y);
+        gamePanel.world.objs.add(obstacle);
+        player.direction = Direction.RIGHT;
         player.update();
         assertEquals(26, obstacle.x - player.solidArea.width, "Player should stop right before the obstacle.");
     }
-}
\ No newline at end of file
+
+    /**
+ * Tests that collision checks against monsters and bombs leave the solid areas untouched.
+ */
+    @Test
+    void testCollisionDoesNotMoveSolidArea() {
+        gamePanel.world.objs.add(new OBJ_bomb(gamePanel.world, player, player.x, player.y + gamePanel.tileSize));
+        player.direction = Direction.DOWN;
+
+        gamePanel.world.cChecker.checkEntity(player, gamePanel.world.monsters);
+        gamePanel.world.cChecker.checkBombCollision(player, true);
+        gamePanel.world.cChecker.checkObject(player, true);
+
+        assertEquals(player.solidAreaDefaultX, player.solidArea.x, "Solid area x should stay relative to the player");
+        assertEquals(player.solidAreaDefaultY, player.solidArea.y, "Solid area y should stay relative to the player");
+        assertEquals(0, gamePanel.world.objs.getFirst().solidArea.x, "Bomb solid area should stay relative to the bomb");
+    }
+}
@@ -23,7 +23,7 @@ class TestPlayerDamage {
     @BeforeEach
     void setUp() throws IOException {
         gamePanel = new GamePanel();
-        gamePanel.tileM.loadMap("res/maps/map1.txt");
+        gamePanel.world.tileM.loadMap("res/maps/map1.txt");
         gamePanel.initPlayers();
     }
 /**
@@ -32,9 +32,9 @@ class TestPlayerDamage {
  */
     @Test
     void testPlayerDamageByBomb() {
-        Player player = gamePanel.players[0];
+        Player player = gamePanel.world.players[0];
         int initialLife = player.currLife;
-        OBJ_bomb bomb = new OBJ_bomb(gamePanel, player, player.x, player.y);
+        OBJ_bomb bomb = new OBJ_bomb(gamePanel.world, player, player.x, player.y);
         bomb.explode();
         gamePanel.update();
 
@@ -0,0 +1,107 @@
+import main.*;
+import entity.Entity;
+import org.junit.jupiter.api.Test;
+
+import java.awt.event.KeyEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for recording a match's input and playing it back.
+ * It tests that a replayed match ends exactly like the recorded one, that recordings stay small
+ * and that keyboard actions wait for the game thread.
+ */
+class TestReplay {
+    GameWorld world;
+
+    // walks each player in a new direction every half second and drops a bomb now and then
+    InputSource script = playerNum -> {
+        long t = world.tick;
+        int direction = (int) ((t / 30 + playerNum * 7) % 5);
+        int input = direction == 0 ? 0 : 1 << (direction - 1);
+        if (t % 97 == playerNum) input |= InputSource.BOMB;
+        return input;
+    };
+
+    /**
+     * Tests if replaying a recorded match reproduces its final state.
+     * @throws IOException
+     */
+    @Test
+    void testReplayReproducesMatch() throws IOException {
+        world = new GameWorld(true);
+        world.input = script;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputRecorder recorder = InputRecorder.begin(world, bytes);
+        world.startMatch(2, 2024);
+        for (int tick = 0; tick < 3000 && world.gameState == world.playState; tick++) world.update();
+        recorder.finish();
+
+        ReplayPlayer replay = new ReplayPlayer(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(2024, replay.getSeed(), "The recording should carry the match seed.");
+        GameWorld copy = replay.createWorld(true);
+        replay.play();
+
+        assertEquals(world.tick, copy.tick, "The replay should end on the same tick.");
+        assertEquals(world.currentRound, copy.currentRound, "The replay should reach the same round.");
+        assertArrayEquals(world.playerScores, copy.playerScores, "The replay should end with the same scores.");
+        for (int i = 0; i < world.players.length; i++) {
+            if (world.players[i] == null) {
+                assertNull(copy.players[i], "Player " + (i + 1) + " should be dead in the replay too.");
+            } else {
+                assertEquals(world.players[i].x, copy.players[i].x, "Player " + (i + 1) + " should end at the same x.");
+                assertEquals(world.players[i].y, copy.players[i].y, "Player " + (i + 1) + " should end at the same y.");
+                assertEquals(world.players[i].currLife, copy.players[i].currLife, "Player " + (i + 1) + " should have the same life.");
+            }
+        }
+        assertEquals(world.monsters.size(), copy.monsters.size(), "The same monsters should be alive.");
+        for (int i = 0; i < world.monsters.size(); i++) {
+            Entity a = world.monsters.get(i), b = copy.monsters.get(i);
+            assertEquals(a.x, b.x, "Monster " + i + " should end at the same x.");
+            assertEquals(a.y, b.y, "Monster " + i + " should end at the same y.");
+        }
+        assertEquals(world.objs.size(), copy.objs.size(), "The same bombs should be on the map.");
+    }
+
+    /**
+     * Tests if held input costs nothing and only changes are written.
+     * @throws IOException
+     */
+    @Test
+    void testRecordingIsDeltaEncoded() throws IOException {
+        world = new GameWorld(true);
+        world.input = playerNum -> InputSource.RIGHT;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputRecorder recorder = InputRecorder.begin(world, bytes);
+        world.startMatch(1, 1);
+        world.monsters.clear();
+        for (int tick = 0; tick < 1000; tick++) world.update();
+        recorder.finish();
+
+        ReplayPlayer replay = new ReplayPlayer(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(1000, replay.getEndTick() - replay.getStartTick(), "The recording should cover every tick.");
+        assertTrue(bytes.size() < 16 * 12 + 200, "A thousand ticks of held input should take only a few bytes, took " + bytes.size());
+    }
+
+    /**
+     * Tests if a bomb key press is queued for the player's next poll instead of changing the world.
+     * @throws IOException
+     */
+    @Test
+    void testKeyActionsAreQueued() throws IOException {
+        GamePanel gamePanel = new GamePanel();
+        gamePanel.world.gameState = gamePanel.world.playState;
+        KeyHandler keyH = gamePanel.keyH;
+
+        keyH.keyPressed(new KeyEvent(gamePanel, KeyEvent.KEY_PRESSED, 0, 0, KeyEvent.VK_Q, 'q'));
+        assertTrue(gamePanel.world.objs.isEmpty(), "The key press should not place a bomb on the event thread.");
+        assertEquals(InputSource.BOMB, keyH.poll(1), "The next poll should report the bomb press.");
+        assertEquals(0, keyH.poll(1), "The press should be reported only once.");
+
+        keyH.upPressed2 = true;
+        assertEquals(InputSource.UP, keyH.poll(2), "Held keys should be reported on every poll.");
+    }
+}
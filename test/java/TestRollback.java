@@ -0,0 +1,181 @@
+import main.GameRandom;
+import main.GameWorld;
+import main.InputSource;
+import main.RollbackSession;
+import main.StateBuffer;
+import net.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for saving and restoring the simulation state and for rollback.
+ * It tests that a world restored to an earlier state continues exactly as if it had never left it,
+ * that two peers with delayed input end in the same state as a world that had all input at once,
+ * and that a session stalls rather than running too far ahead of its input.
+ */
+class TestRollback {
+    // a message of one peer to the other: the tick it is delivered on, and the input it carries
+    record Message(int deliverAt, int playerNum, long tick, int input) { }
+
+    /**
+     * Returns the scripted input of a player on a tick: a new direction every half second, and now
+     * and then a bomb or a detonation.
+     * @param playerNum
+     * @param tick
+     * @param variant changes the script, to make a world diverge
+     * @return
+     */
+    static int script(int playerNum, long tick, int variant) {
+        int direction = (int) ((tick / 30 + playerNum * 7 + variant) % 5);
+        int input = direction == 0 ? 0 : 1 << (direction - 1);
+        if (tick % 97 == playerNum + variant) input |= InputSource.BOMB;
+        if (tick % 211 == playerNum) input |= InputSource.DETONATE;
+        return input;
+    }
+
+    /**
+     * Tests if a world restored to a state saved earlier, after it ran on with different input
+     * and into later rounds, continues exactly like a world that was never restored.
+     */
+    @Test
+    void testLoadedStateContinuesIdentically() {
+        for (int saveAt : new int[] { 50, 400, 1000 }) {
+            GameWorld reference = newWorld(new int[1]);
+            for (int i = 0; i < 1600 && reference.gameState == reference.playState; i++) reference.update();
+
+            int[] variant = new int[1];
+            GameWorld world = newWorld(variant);
+            StateBuffer saved = new StateBuffer();
+            for (int i = 0; i < 1600 && world.gameState == world.playState; i++) {
+                if (world.tick == saveAt && variant[0] == 0) {
+                    world.saveState(saved);
+                    int round = world.currentRound;
+                    variant[0] = 3;
+                    for (int k = 0; k < 600 && world.gameState == world.playState; k++) world.update();
+                    assertTrue(world.currentRound > round || world.gameState != world.playState,
+                            "The diverging run should end the round saved on tick " + saveAt);
+                    world.loadState(saved);
+                    variant[0] = 0;
+                    assertEquals(saveAt, world.tick, "The saved tick should be restored.");
+                }
+                world.update();
+            }
+            assertEquals(fingerprint(reference), fingerprint(world), "The restored world should match after saving on tick " + saveAt);
+        }
+    }
+
+    /**
+     * Tests if two peers that each get the other's input a few ticks late, and so keep rolling
+     * back, end in exactly the state of a world that had every input on time.
+     */
+    @Test
+    void testPeersMatchReference() {
+        GameWorld reference = new GameWorld(true);
+        reference.input = playerNum -> script(playerNum, reference.tick, 0);
+        reference.startMatch(2, 21);
+
+        GameWorld[] worlds = { new GameWorld(true), new GameWorld(true) };
+        RollbackSession[] peers = { new RollbackSession(worlds[0], 2, 8), new RollbackSession(worlds[1], 2, 8) };
+        int[] delays = { 5, 3 };
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Message>[] inbox = new ArrayDeque[] { new ArrayDeque<Message>(), new ArrayDeque<Message>() };
+        for (RollbackSession peer : peers) peer.startMatch(21);
+
+        int steps = 0;
+        for (; steps < 800; steps++) {
+            exchange(peers, worlds, inbox, delays, steps, false);
+            for (int i = 0; i < 2; i++) assertTrue(peers[i].advance(), "Peer " + (i + 1) + " should not stall on step " + steps);
+            reference.update();
+        }
+        assertEquals(reference.playState, reference.gameState, "The match should still be running.");
+        // the last tick is simulated with all input delivered at once, after rolling back what was missing
+        exchange(peers, worlds, inbox, delays, steps, true);
+        for (int i = 0; i < 2; i++) assertTrue(peers[i].advance(), "Peer " + (i + 1) + " should simulate the last tick.");
+        reference.update();
+
+        String expected = fingerprint(reference);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(reference.tick, peers[i].confirmedTick(), "Peer " + (i + 1) + " should have every input.");
+            assertTrue(peers[i].getRollbacks() > 0, "Peer " + (i + 1) + " should have rolled back mispredictions.");
+            assertEquals(expected, fingerprint(worlds[i]), "Peer " + (i + 1) + " should match the reference.");
+        }
+    }
+
+    /**
+     * Tests if a session runs at most maxRollback ticks ahead of the input of a silent player, and
+     * continues once that input arrives.
+     */
+    @Test
+    void testStallsWithoutInput() {
+        GameWorld world = new GameWorld(true);
+        RollbackSession session = new RollbackSession(world, 2, 4);
+        session.startMatch(5);
+        long start = world.tick;
+
+        int simulated = 0;
+        for (int i = 0; i < 10; i++) {
+            session.addLocalInput(1, InputSource.RIGHT);
+            if (session.advance()) simulated++;
+        }
+        assertEquals(4, simulated, "The session should stall after running maxRollback ticks ahead.");
+        assertEquals(start + 4, world.tick, "The world should wait at the last tick it may predict.");
+        assertEquals(-1, session.addLocalInput(1, InputSource.LEFT), "A stalled tick should keep the input it has.");
+
+        session.addInput(2, start + 1, InputSource.DOWN);
+        assertTrue(session.advance(), "The session should continue once the missing input arrives.");
+        assertEquals(1, session.getRollbacks(), "The mispredicted tick should be rolled back.");
+        assertEquals(start + 1, session.confirmedTick(), "Every input up to the delivered tick should be confirmed.");
+        assertThrows(IllegalArgumentException.class, () -> session.addInput(2, start + 3, 0),
+                "Input should not skip a tick.");
+    }
+
+    private static void exchange(RollbackSession[] peers, GameWorld[] worlds, ArrayDeque<Message>[] inbox, int[] delays,
+                                 int step, boolean flush) {
+        for (int i = 0; i < 2; i++) {
+            int playerNum = i + 1;
+            long tick = peers[i].addLocalInput(playerNum, script(playerNum, worlds[i].tick + 1, 0));
+            if (tick >= 0) inbox[1 - i].add(new Message(step + delays[i], playerNum, tick, script(playerNum, tick, 0)));
+        }
+        for (int i = 0; i < 2; i++) {
+            while (!inbox[i].isEmpty() && (flush || inbox[i].peek().deliverAt() <= step)) {
+                Message message = inbox[i].poll();
+                peers[i].addInput(message.playerNum(), message.tick(), message.input());
+            }
+        }
+    }
+
+    private static GameWorld newWorld(int[] variant) {
+        GameWorld world = new GameWorld(true);
+        world.input = playerNum -> script(playerNum, world.tick, variant[0]);
+        world.startMatch(3, 11);
+        return world;
+    }
+
+    /**
+     * Returns everything a player can see of the world, and the next number of the monsters'
+     * random stream, which it draws.
+     * @param world
+     * @return
+     */
+    private static String fingerprint(GameWorld world) {
+        Snapshot s = new Snapshot();
+        s.capture(world);
+        StringBuilder b = new StringBuilder();
+        b.append(s.tick).append(' ').append(s.gameState).append(' ').append(s.round);
+        b.append(Arrays.toString(s.tiles)).append(Arrays.toString(s.fire));
+        for (int i = 0; i < s.playerCount; i++) {
+            b.append(s.playerFlags[i]).append(',').append(s.playerX[i]).append(',').append(s.playerY[i])
+                    .append(',').append(s.playerLives[i]).append(',').append(s.scores[i]).append(';');
+        }
+        for (int i = 0; i < s.actorCount; i++) {
+            b.append(s.actorKinds[i]).append(':').append(s.actorX[i]).append(',').append(s.actorY[i])
+                    .append(',').append(s.actorTimers[i]).append(';');
+        }
+        b.append(world.random.stream(GameRandom.Stream.MONSTERS).nextLong());
+        return b.toString();
+    }
+}
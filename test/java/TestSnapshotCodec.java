@@ -0,0 +1,145 @@
+import main.GameWorld;
+import main.InputSource;
+import net.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the delta encoding of network snapshots.
+ * It tests that deltas decode to exactly the captured state, that an unchanged state costs a few
+ * bytes, and that bit-packed varints survive a round trip.
+ */
+class TestSnapshotCodec {
+    GameWorld world;
+
+    // walks each player in a new direction every half second and drops a bomb now and then
+    InputSource script = playerNum -> {
+        long t = world.tick;
+        int direction = (int) ((t / 30 + playerNum * 7) % 5);
+        int input = direction == 0 ? 0 : 1 << (direction - 1);
+        if (t % 97 == playerNum) input |= InputSource.BOMB;
+        return input;
+    };
+
+    /**
+     * Tests if every tick of a match decodes to the snapshot the server captured, with each delta
+     * against a base a few ticks old as it is after a round trip.
+     * @throws IOException
+     */
+    @Test
+    void testDeltasReproduceMatch() throws IOException {
+        world = new GameWorld(true);
+        world.input = script;
+        world.startMatch(2, 7);
+        SnapshotHistory server = new SnapshotHistory(), client = new SnapshotHistory();
+        BitWriter writer = new BitWriter();
+        BitReader reader = new BitReader();
+        byte[] bytes = new byte[0];
+        long deltaBytes = 0, fullBytes = 0;
+        int ticks = 0;
+
+        for (; ticks < 1500 && world.gameState == world.playState; ticks++) {
+            world.update();
+            Snapshot captured = server.slot(world.tick);
+            captured.capture(world);
+            Snapshot base = ticks % 50 == 0 ? null : client.get(world.tick - 3);
+
+            writer.reset();
+            SnapshotCodec.encode(base, captured, writer);
+            if (bytes.length < writer.byteCount()) bytes = new byte[writer.byteCount() * 2];
+            writer.copyTo(ByteBuffer.wrap(bytes));
+            reader.reset(bytes, 0, writer.byteCount());
+            Snapshot decoded = SnapshotCodec.decode(reader, client);
+            assertSame(decoded, client.get(world.tick), "The decoded state should be kept in the history.");
+            assertSnapshotEquals(captured, decoded);
+
+            deltaBytes += writer.byteCount();
+            writer.reset();
+            SnapshotCodec.encode(null, captured, writer);
+            fullBytes += writer.byteCount();
+        }
+        assertTrue(ticks > 500, "The match should run long enough to compare.");
+        assertTrue(deltaBytes * 4 < fullBytes, "Deltas should be a fraction of full states: " + deltaBytes + " vs " + fullBytes);
+    }
+
+    /**
+     * Tests if a state in which only time passed, so that a bomb's fuse counted down, encodes to
+     * a few bytes and is reported as unchanged.
+     */
+    @Test
+    void testUnchangedStateIsTiny() {
+        world = new GameWorld(true);
+        world.startMatch(1, 3);
+        world.players[0].placeBomb();
+
+        Snapshot base = new Snapshot(), current = new Snapshot();
+        base.capture(world);
+        world.tick += 2;
+        current.capture(world);
+        assertEquals(Snapshot.BOMB, current.actorKinds[0], "The bomb should be the first actor.");
+        assertEquals(base.actorTimers[0] - 2, current.actorTimers[0], "The fuse should have counted down.");
+
+        BitWriter writer = new BitWriter();
+        assertFalse(SnapshotCodec.encode(base, current, writer), "Only the tick and the fuse should have moved on.");
+        assertTrue(writer.byteCount() <= 8, "An unchanged state should take a few bytes, not " + writer.byteCount());
+    }
+
+    /**
+     * Tests if bit-packed values of any size read back unchanged.
+     */
+    @Test
+    void testBitRoundTrip() {
+        long[] values = { 0, 1, 15, 16, 255, 1 << 20, Long.MAX_VALUE };
+        BitWriter writer = new BitWriter();
+        for (long value : values) {
+            writer.writeBit(true);
+            writer.writeVar(value);
+            writer.writeSignedVar(-value);
+            writer.writeBits((int) value & 7, 3);
+        }
+        byte[] bytes = new byte[writer.byteCount()];
+        writer.copyTo(ByteBuffer.wrap(bytes));
+
+        BitReader reader = new BitReader();
+        reader.reset(bytes, 0, bytes.length);
+        for (long value : values) {
+            assertTrue(reader.readBit(), "The flag should read back.");
+            assertEquals(value, reader.readVar(), "The varint should read back.");
+            assertEquals(-value, reader.readSignedVar(), "The signed varint should read back.");
+            assertEquals((int) value & 7, reader.readBits(3), "The fixed-width bits should read back.");
+        }
+    }
+
+    private static void assertSnapshotEquals(Snapshot expected, Snapshot actual) {
+        long t = expected.tick;
+        assertEquals(expected.tick, actual.tick, "The tick should match.");
+        assertEquals(expected.gameState, actual.gameState, "The game state should match on tick " + t);
+        assertEquals(expected.round, actual.round, "The round should match on tick " + t);
+        assertArrayEquals(expected.tiles, actual.tiles, "The tiles should match on tick " + t);
+        assertArrayEquals(expected.fire, actual.fire, "The fire should match on tick " + t);
+        assertEquals(expected.playerCount, actual.playerCount, "The player count should match on tick " + t);
+        for (int i = 0; i < expected.playerCount; i++) {
+            assertEquals(expected.playerFlags[i], actual.playerFlags[i], "Player " + i + " flags should match on tick " + t);
+            assertEquals(expected.scores[i], actual.scores[i], "Player " + i + " score should match on tick " + t);
+            if ((expected.playerFlags[i] & Snapshot.ALIVE) == 0) continue;
+            assertEquals(expected.playerX[i], actual.playerX[i], "Player " + i + " x should match on tick " + t);
+            assertEquals(expected.playerY[i], actual.playerY[i], "Player " + i + " y should match on tick " + t);
+            assertEquals(expected.playerDirections[i], actual.playerDirections[i], "Player " + i + " direction should match on tick " + t);
+            assertEquals(expected.playerSpriteNums[i], actual.playerSpriteNums[i], "Player " + i + " sprite should match on tick " + t);
+            assertEquals(expected.playerLives[i], actual.playerLives[i], "Player " + i + " lives should match on tick " + t);
+        }
+        int n = expected.actorCount;
+        assertEquals(n, actual.actorCount, "The actor count should match on tick " + t);
+        assertArrayEquals(Arrays.copyOf(expected.actorKinds, n), Arrays.copyOf(actual.actorKinds, n), "Actor kinds should match on tick " + t);
+        assertArrayEquals(Arrays.copyOf(expected.actorX, n), Arrays.copyOf(actual.actorX, n), "Actor x should match on tick " + t);
+        assertArrayEquals(Arrays.copyOf(expected.actorY, n), Arrays.copyOf(actual.actorY, n), "Actor y should match on tick " + t);
+        assertArrayEquals(Arrays.copyOf(expected.actorDirections, n), Arrays.copyOf(actual.actorDirections, n), "Actor directions should match on tick " + t);
+        assertArrayEquals(Arrays.copyOf(expected.actorSpriteNums, n), Arrays.copyOf(actual.actorSpriteNums, n), "Actor sprites should match on tick " + t);
+        assertArrayEquals(Arrays.copyOf(expected.actorTimers, n), Arrays.copyOf(actual.actorTimers, n), "Bomb fuses should match on tick " + t);
+    }
+}
@@ -0,0 +1,124 @@
+import entity.Entity;
+import main.GameWorld;
+import main.GridList;
+import main.SpatialGrid;
+import monster.MON_greenSlime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the tile-bucketed spatial index.
+ * It tests inserting, moving, querying and removing entities, and that a GridList keeps its grid
+ * in sync however it is changed.
+ */
+class TestSpatialGrid {
+    GameWorld world;
+    SpatialGrid<Entity> grid;
+    List<Entity> found = new ArrayList<>();
+
+    /**
+ * Sets up a headless world and an empty grid before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        world = new GameWorld(true);
+        grid = new SpatialGrid<>(world.maxScreenCol, world.maxScreenRow, world.tileSize);
+    }
+
+    /**
+ * Tests if an entity is found by queries overlapping it and not by queries far away.
+ */
+    @Test
+    void testQueryFindsNearbyEntity() {
+        Entity slime = new MON_greenSlime(world);
+        slime.x = 5 * world.tileSize + 20;
+        slime.y = 4 * world.tileSize + 10;
+        grid.insert(slime);
+
+        grid.query(6 * world.tileSize, 5 * world.tileSize, 6 * world.tileSize + 4, 5 * world.tileSize + 4, found);
+        assertTrue(found.contains(slime), "Entity overlapping the next tile should be a candidate.");
+
+        grid.query(12 * world.tileSize, 9 * world.tileSize, 13 * world.tileSize, 10 * world.tileSize, found);
+        assertFalse(found.contains(slime), "Entity should not be a candidate for a distant area.");
+    }
+
+    /**
+ * Tests if moving and removing an entity updates its bucket.
+ */
+    @Test
+    void testUpdateAndRemove() {
+        Entity slime = new MON_greenSlime(world);
+        slime.x = world.tileSize;
+        slime.y = world.tileSize;
+        grid.insert(slime);
+
+        slime.x = 10 * world.tileSize;
+        grid.update(slime);
+        grid.query(world.tileSize, world.tileSize, 2 * world.tileSize, 2 * world.tileSize, found);
+        assertFalse(found.contains(slime), "Entity should have left its old bucket.");
+        grid.query(10 * world.tileSize, world.tileSize, 11 * world.tileSize, 2 * world.tileSize, found);
+        assertTrue(found.contains(slime), "Entity should be in its new bucket.");
+
+        grid.remove(slime);
+        assertEquals(0, grid.size(), "Grid should be empty after removal.");
+        assertEquals(SpatialGrid.NO_CELL, slime.getGridCell(), "Removed entity should have no cell.");
+    }
+
+    /**
+ * Tests if removing from a GridList with removeIf or an iterator also removes from the grid.
+ */
+    @Test
+    void testGridListRemoveIfAndIterator() {
+        GridList<Entity> list = newGridList(6);
+
+        list.removeIf(slime -> slime.x < 2 * world.tileSize);
+        assertEquals(4, list.size(), "removeIf should remove the matching entities.");
+        assertEquals(4, grid.size(), "removeIf should remove the entities from the grid.");
+
+        Iterator<Entity> iterator = list.iterator();
+        Entity removed = iterator.next();
+        iterator.remove();
+        assertEquals(3, grid.size(), "Iterator removal should remove the entity from the grid.");
+        assertEquals(SpatialGrid.NO_CELL, removed.getGridCell(), "An entity removed by an iterator should have no cell.");
+        grid.query(0, 0, world.maxScreenCol * world.tileSize, world.maxScreenRow * world.tileSize, found);
+        assertEquals(list, found.stream().sorted(Comparator.comparingInt(e -> e.x)).toList(),
+                "The grid should hold exactly the entities left in the list.");
+    }
+
+    /**
+ * Tests if clearing a sub list removes its entities from the grid, and if sorting keeps every
+ * entity in it.
+ */
+    @Test
+    void testGridListSubListAndSort() {
+        GridList<Entity> list = newGridList(6);
+
+        list.subList(1, 3).clear();
+        assertEquals(4, grid.size(), "Clearing a sub list should remove its entities from the grid.");
+
+        list.sort(Comparator.comparingInt((Entity e) -> e.x).reversed());
+        assertEquals(4, grid.size(), "Sorting should keep every entity in the grid.");
+        for (Entity slime : list) {
+            assertNotEquals(SpatialGrid.NO_CELL, slime.getGridCell(), "A sorted entity should keep its cell.");
+        }
+    }
+
+    private GridList<Entity> newGridList(int count) {
+        GridList<Entity> list = new GridList<>(grid);
+        for (int i = 0; i < count; i++) {
+            Entity slime = new MON_greenSlime(world);
+            slime.x = i * world.tileSize;
+            slime.y = world.tileSize;
+            list.add(slime);
+        }
+        assertEquals(count, grid.size(), "Every added entity should be in the grid.");
+        return list;
+    }
+}
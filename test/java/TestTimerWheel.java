@@ -0,0 +1,110 @@
+import main.GameWorld;
+import main.TimerWheel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the tick-keyed timer wheel that fires expirations.
+ * It tests firing on the due tick, cancelling, timers more than one turn away and the player effects
+ * driven by it.
+ */
+class TestTimerWheel {
+    TimerWheel wheel;
+    List<Long> fired = new ArrayList<>();
+    TimerWheel.Listener recorder = kind -> fired.add(wheel.now() * 10 + kind);
+
+    /**
+ * Sets up an empty wheel before each test.
+ */
+    @BeforeEach
+    void setUp() {
+        wheel = new TimerWheel();
+    }
+
+    /**
+ * Tests if timers fire exactly on their due tick, in order, and only once.
+ */
+    @Test
+    void testFiresOnDueTick() {
+        wheel.schedule(5, recorder, 1);
+        wheel.schedule(3, recorder, 2);
+        wheel.advance(4);
+        assertEquals(List.of(32L), fired, "Only the timer due by tick 4 should have fired.");
+
+        wheel.advance(10);
+        assertEquals(List.of(32L, 51L), fired, "The second timer should fire on tick 5.");
+        assertEquals(0, wheel.size(), "Fired timers should be freed.");
+    }
+
+    /**
+ * Tests if a cancelled timer never fires and its handle cannot cancel a later timer.
+ */
+    @Test
+    void testCancel() {
+        long handle = wheel.schedule(3, recorder, 1);
+        assertTrue(wheel.cancel(handle), "A pending timer should be cancelled.");
+        long reused = wheel.schedule(3, recorder, 2);
+        assertFalse(wheel.cancel(handle), "A stale handle should not cancel the timer reusing its slot.");
+
+        wheel.advance(3);
+        assertEquals(List.of(32L), fired, "Only the timer that was not cancelled should fire.");
+        assertFalse(wheel.cancel(reused), "A fired timer can no longer be cancelled.");
+    }
+
+    /**
+ * Tests if timers further away than one turn of the wheel wait for their own turn.
+ */
+    @Test
+    void testTimersBeyondOneTurn() {
+        wheel.schedule(2000, recorder, 0);
+        wheel.schedule(2000 - 512, recorder, 1);
+        wheel.advance(1999);
+        assertEquals(List.of(14881L), fired, "Only the timer one turn earlier should have fired.");
+        wheel.advance(2000);
+        assertEquals(List.of(14881L, 20000L), fired, "The far timer should fire on its own tick.");
+    }
+
+    /**
+ * Tests if a listener can schedule a timer while it is being told.
+ */
+    @Test
+    void testRescheduleFromListener() {
+        TimerWheel.Listener repeating = new TimerWheel.Listener() {
+            @Override
+            public void onTimer(int kind) {
+                fired.add(wheel.now());
+                if (fired.size() < 3) wheel.schedule(wheel.now() + 2, this, kind);
+            }
+        };
+        wheel.schedule(1, repeating, 0);
+        wheel.advance(20);
+        assertEquals(List.of(1L, 3L, 5L), fired, "The listener should have rescheduled itself twice.");
+    }
+
+    /**
+ * Tests if a player's invincibility blinks during its last two seconds and ends on time.
+ */
+    @Test
+    void testPlayerInvincibilityExpires() {
+        GameWorld world = new GameWorld(true);
+        world.startMatch(2);
+        world.monsters.clear();
+        world.players[0].makeInvincible(5 * world.FPS);
+
+        for (int i = 1; i < 3 * world.FPS; i++) world.update();
+        assertTrue(world.players[0].isInvincible, "Player should still be invincible before 3 seconds.");
+        assertFalse(world.players[0].isBlinking, "Player should not blink before the last two seconds.");
+
+        world.update();
+        assertTrue(world.players[0].isBlinking, "Player should start blinking two seconds before the end.");
+
+        for (int i = 0; i < 2 * world.FPS; i++) world.update();
+        assertFalse(world.players[0].isInvincible, "Invincibility should end after 5 seconds.");
+        assertFalse(world.players[0].isBlinking, "Blinking should stop with the invincibility.");
+    }
+}
@@ -0,0 +1,56 @@
+import main.MatchStats;
+import main.Tournament;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the headless tournament runner.
+ * It tests that every match is counted with consistent round, power-up and death counts, and that
+ * the report only depends on the seed, not on the number of threads.
+ */
+class TestTournament {
+    /**
+     * Tests if the rounds, wins and power-ups of a small tournament add up.
+     */
+    @Test
+    void testStatsAddUp() throws InterruptedException {
+        MatchStats stats = new Tournament(3, 42, 180).run(9, 2);
+
+        assertEquals(9, stats.matches, "Every match should be played to the end.");
+        assertEquals(stats.matches * 4, stats.rounds, "Every match should play its four rounds.");
+        assertTrue(stats.timeouts <= stats.roundDraws, "Rounds cut short should count as draws.");
+        long wins = stats.roundDraws;
+        for (long roundWins : stats.roundWins) wins += roundWins;
+        assertEquals(stats.rounds, wins, "Every round should have a winner or be a draw.");
+        long lengths = 0;
+        for (long count : stats.roundLengths) lengths += count;
+        assertEquals(stats.rounds, lengths, "Every round should have its length counted.");
+
+        long placed = 0;
+        for (int i = 0; i < stats.powerUpsPlaced.length; i++) {
+            placed += stats.powerUpsPlaced[i];
+            assertTrue(stats.powerUpsPicked[i] <= stats.powerUpsPlaced[i], "No more power-ups should be picked up than were placed.");
+        }
+        assertTrue(placed > 0, "Rounds on the map with boxes should place power-ups.");
+        long deaths = 0;
+        for (long count : stats.deaths) deaths += count;
+        assertTrue(deaths > 0, "Players should die in a tournament.");
+    }
+
+    /**
+     * Tests if the same seed gives the same stats on one thread and on several.
+     */
+    @Test
+    void testSameSeedSameReport() throws InterruptedException {
+        MatchStats single = new Tournament(2, 7, 180).run(6, 1);
+        MatchStats parallel = new Tournament(2, 7, 180).run(6, 3);
+
+        assertEquals(single.rounds, parallel.rounds, "The rounds should match.");
+        assertEquals(single.roundTicks, parallel.roundTicks, "The round lengths should match.");
+        assertArrayEquals(single.roundWins, parallel.roundWins, "The round wins should match.");
+        assertArrayEquals(single.scores, parallel.scores, "The scores should match.");
+        assertArrayEquals(single.powerUpsPicked, parallel.powerUpsPicked, "The power-ups picked up should match.");
+        assertArrayEquals(single.deaths, parallel.deaths, "The deaths should match.");
+    }
+}
@@ -46,10 +46,10 @@ public class TestUI extends AssertJSwingJUnitTestCase {
     @Test
     public void testPlayerLifeDrawing() {
         GuiActionRunner.execute(() -> {
-            gamePanel.players[0] = new Player(gamePanel, null, 1);
-            gamePanel.players[0].currLife = 3;
-            gamePanel.players[0].maxLife = 5;
-            gamePanel.gameState = gamePanel.playState;
+            gamePanel.world.players[0] = new Player(gamePanel.world, null, 1);
+            gamePanel.world.players[0].currLife = 3;
+            gamePanel.world.players[0].maxLife = 5;
+            gamePanel.world.gameState = gamePanel.world.playState;
             gamePanel.repaint();
         });
         window.panel("PlayerLifePanel").requireVisible();
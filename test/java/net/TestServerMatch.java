@@ -0,0 +1,76 @@
+package net;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for what a hosted match sends its players.
+ * It tests that a match where nothing happens only sends small keep-alives, encoded against the
+ * state the player acknowledged, however long it stays quiet, and that a player whose
+ * acknowledgements come back late still gets deltas.
+ */
+class TestServerMatch {
+    /**
+     * Tests if a quiet match sends nothing but a few small keep-alives over many more ticks than
+     * the snapshot history holds.
+     */
+    @Test
+    void testQuietMatchOnlySendsSmallKeepAlives() {
+        ServerMatch match = new ServerMatch(1, 2);
+        MatchServer.Connection first = new MatchServer.Connection(null), second = new MatchServer.Connection(null);
+        match.join(first);
+        match.join(second);
+        match.world.monsters.clear();
+        match.world.swarm.clear();
+
+        match.tick();
+        ByteBuffer full = match.frameFor(first);
+        assertNotNull(full, "The first state should be sent in full.");
+        int fullSize = full.remaining();
+        first.ackedTick = match.world.tick;
+
+        int frames = 0;
+        int ticks = SnapshotHistory.SIZE * 4;
+        for (int i = 0; i < ticks; i++) {
+            match.tick();
+            ByteBuffer frame = match.frameFor(first);
+            if (frame == null) continue;
+            frames++;
+            assertTrue(frame.remaining() < fullSize / 4, "A keep-alive should be a small delta, not " + frame.remaining() + " bytes.");
+            first.ackedTick = match.world.tick;
+        }
+        assertEquals(ticks / ServerMatch.KEEP_ALIVE_TICKS, frames, "Only keep-alives should be sent while nothing changes.");
+    }
+
+    /**
+     * Tests if a player whose acknowledgements arrive 40 ticks late, more than half a second,
+     * gets every state after the first as a delta rather than in full.
+     */
+    @Test
+    void testLateAcknowledgementsStillGetDeltas() {
+        ServerMatch match = new ServerMatch(2, 1);
+        MatchServer.Connection seat = new MatchServer.Connection(null);
+        match.join(seat);
+        ArrayDeque<long[]> acks = new ArrayDeque<>(); // tick an acknowledgement arrives on, and the tick it acknowledges
+
+        int fullSize = 0, deltas = 0;
+        for (int i = 0; i < 300 && match.world.currentRound == 1; i++) {
+            match.tick();
+            while (!acks.isEmpty() && acks.peek()[0] <= match.world.tick) seat.ackedTick = acks.poll()[1];
+            ByteBuffer frame = match.frameFor(seat);
+            if (frame == null) continue;
+            if (fullSize == 0) fullSize = frame.remaining();
+            // states sent before the first acknowledgement arrives have no base to be a delta against
+            if (seat.ackedTick >= 0) {
+                assertTrue(frame.remaining() < fullSize / 2, "The state of tick " + match.world.tick + " should be a delta, not " + frame.remaining() + " bytes.");
+                deltas++;
+            }
+            acks.add(new long[] { match.world.tick + 40, match.world.tick });
+        }
+        assertTrue(deltas > 100, "Most states should be sent once acknowledgements arrive.");
+    }
+}